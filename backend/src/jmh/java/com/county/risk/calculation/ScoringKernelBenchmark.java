@@ -0,0 +1,170 @@
+package com.county.risk.calculation;
+
+import com.county.risk.entity.EconomicAggregate;
+import com.county.risk.entity.EducationHealth;
+import com.county.risk.entity.EnvironmentCulture;
+import com.county.risk.entity.FiscalFinance;
+import com.county.risk.entity.InvestmentConsumption;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 标量计分内核与向量计分内核的 JMH 基准
+ *
+ * 使用 {@link ScoringFixtures#defaultIndicators()} 的指标配置与随机生成的县域年份数据（约 5% 的维度源数据缺失、
+ * 约 3% 的字段为空），单线程按批次调用内核，结果为每县域年份的平均耗时。向量内核在准备阶段与标量内核逐位核对结果。
+ *
+ * 只在 vector-kernel 构建配置下编译，运行方法（在 backend 目录下）：
+ * 1. mvn -P vector-kernel test-compile dependency:build-classpath -Dmdep.includeScope=test -Dmdep.outputFile=target/cp.txt
+ * 2. java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main ScoringKernelBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class ScoringKernelBenchmark {
+
+    private static final int ROWS = 20_000;
+
+    @Param({ScoringKernelSelector.SCALAR, ScoringKernelSelector.VECTOR})
+    public String kernel;
+
+    @Param({"200", "1000"})
+    public int batchSize;
+
+    @Param({"false", "true"})
+    public boolean recordItems;
+
+    private ScoringPlan plan;
+    private ScoringKernelSelector selector;
+    private List<List<CountyYearFacts>> batches;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        plan = ScoringPlan.compile(ScoringFixtures.byCategory(ScoringFixtures.defaultIndicators()));
+        selector = new ScoringKernelSelector(kernel);
+        if (ScoringKernelSelector.VECTOR.equals(kernel) && !selector.isVectorized()) {
+            throw new IllegalStateException("向量计分内核不可用");
+        }
+        List<CountyYearFacts> inputs = generate(new Random(20240601L));
+        batches = new ArrayList<>();
+        for (int i = 0; i < inputs.size(); i += batchSize) {
+            batches.add(inputs.subList(i, Math.min(inputs.size(), i + batchSize)));
+        }
+        if (selector.isVectorized()) {
+            verify(new ScoringKernelSelector(ScoringKernelSelector.SCALAR));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void score(Blackhole blackhole) {
+        for (List<CountyYearFacts> batch : batches) {
+            for (CountyScore score : selector.scoreBatch(batch, plan, recordItems)) {
+                blackhole.consume(score.getComprehensiveScore());
+            }
+        }
+    }
+
+    private void verify(ScoringKernelSelector scalar) {
+        for (List<CountyYearFacts> batch : batches) {
+            List<CountyScore> expected = scalar.scoreBatch(batch, plan, true);
+            List<CountyScore> actual = selector.scoreBatch(batch, plan, true);
+            for (int i = 0; i < expected.size(); i++) {
+                if (!same(expected.get(i), actual.get(i))) {
+                    throw new IllegalStateException("向量内核结果不一致: "
+                            + expected.get(i).getCountyCode() + "/" + expected.get(i).getYear());
+                }
+            }
+        }
+    }
+
+    private static boolean same(CountyScore e, CountyScore a) {
+        if (Double.doubleToLongBits(e.getComprehensiveScore()) != Double.doubleToLongBits(a.getComprehensiveScore())) {
+            return false;
+        }
+        for (RiskDimension dimension : RiskDimension.values()) {
+            if (Double.doubleToLongBits(e.getDimensionScore(dimension)) != Double.doubleToLongBits(a.getDimensionScore(dimension))) {
+                return false;
+            }
+        }
+        for (int k = 0; k < e.getBreakdown().size(); k++) {
+            if (e.getBreakdown().itemScore(k) != a.getBreakdown().itemScore(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<CountyYearFacts> generate(Random random) {
+        List<CountyYearFacts> inputs = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            CountyYearFacts facts = new CountyYearFacts(String.valueOf(100000 + i / 20), 2000 + i % 20);
+            if (random.nextDouble() > 0.05) {
+                EconomicAggregate economic = new EconomicAggregate();
+                economic.setGdpGrowthRate(decimal(random, 1.2));
+                economic.setGdpPerCapita(decimal(random, 12000));
+                facts.setEconomic(economic);
+            }
+            if (random.nextDouble() > 0.05) {
+                FiscalFinance fiscal = new FiscalFinance();
+                fiscal.setFiscalSelfSufficiency(decimal(random, 1.2));
+                fiscal.setDebtToRevenueRatio(decimal(random, 1.2));
+                fiscal.setFiscalExpenditure万元(100_000L + random.nextInt(900_000));
+                facts.setFiscal(fiscal);
+            }
+            if (random.nextDouble() > 0.05) {
+                EnvironmentCulture environment = new EnvironmentCulture();
+                environment.setAirQualityIndex(decimal(random, 1.2));
+                environment.setGreenCoverageRate(decimal(random, 1.2));
+                environment.setEmissionIntensity(decimal(random, 1.2));
+                facts.setEnvironment(environment);
+            }
+            if (random.nextDouble() > 0.05) {
+                EducationHealth educationHealth = new EducationHealth();
+                educationHealth.setEducationInvestment万元((long) random.nextInt(8_000));
+                educationHealth.setHealthInvestment万元(random.nextDouble() < 0.03 ? null : (long) random.nextInt(8_000));
+                facts.setEducationHealth(educationHealth);
+            }
+            if (random.nextDouble() > 0.05) {
+                InvestmentConsumption investment = new InvestmentConsumption();
+                investment.setInvestmentEfficiency(decimal(random, 1.2));
+                investment.setConsumptionRate(decimal(random, 1.2));
+                facts.setInvestment(investment);
+            }
+            inputs.add(facts);
+        }
+        return inputs;
+    }
+
+    /**
+     * [0, scale) 内的 4 位小数，约 3% 为空
+     */
+    private static BigDecimal decimal(Random random, double scale) {
+        if (random.nextDouble() < 0.03) {
+            return null;
+        }
+        return BigDecimal.valueOf(random.nextDouble() * scale).setScale(4, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,129 @@
+package com.county.risk.calculation;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 带背压的异步写入器（流式计算使用）
+ *
+ * 计算线程通过 put 把结果放入有界队列，由专用写入线程取出交给 sink（通常是 {@link BatchUpsertWriter}）。
+ * 队列满时 put 阻塞，计算速度被限制在写库速度以内，内存占用不超过队列容量。
+ * 写入线程出错后 put 与 close 抛出该异常，剩余结果不再写入。
+ *
+ * @param <T> 结果类型
+ */
+@Slf4j
+public class BackpressureWriter<T> implements AutoCloseable {
+
+    private static final Object END = new Object();
+    private static final long POLL_MILLIS = 200;
+
+    private final String name;
+    private final BlockingQueue<Object> queue;
+    private final Consumer<T> sink;
+    private final Runnable onFinish;
+    private final Thread thread;
+    private volatile Throwable failure;
+    private long blockedNanos;
+    private long items;
+
+    /**
+     * @param name     日志与线程名中的写入器名称
+     * @param capacity 队列容量
+     * @param sink     写入线程中逐个处理结果
+     * @param onFinish 全部结果处理完毕后在写入线程中执行（如关闭批量写入器写出剩余数据）
+     */
+    public BackpressureWriter(String name, int capacity, Consumer<T> sink, Runnable onFinish) {
+        this.name = name;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.sink = sink;
+        this.onFinish = onFinish;
+        this.thread = new Thread(this::drain, "risk-writer-" + name);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * 放入一个结果，队列满时阻塞等待
+     */
+    public void put(T item) {
+        checkFailure();
+        long start = System.nanoTime();
+        try {
+            while (!queue.offer(item, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                checkFailure();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abort();
+            throw new IllegalStateException(name + "写入被中断", e);
+        }
+        blockedNanos += System.nanoTime() - start;
+        items++;
+    }
+
+    /**
+     * 等待队列中的结果全部写完；写入线程出错时抛出该异常
+     */
+    @Override
+    public void close() {
+        if (failure == null) {
+            try {
+                while (!queue.offer(END, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    checkFailure();
+                }
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                abort();
+                throw new IllegalStateException(name + "写入被中断", e);
+            }
+        }
+        checkFailure();
+        log.info("{}异步写入结束: {} 条, 计算线程因背压等待 {} ms", name, items, blockedNanos / 1_000_000);
+    }
+
+    /**
+     * 放弃未写入的结果并停止写入线程（计算失败时使用）
+     */
+    public void abort() {
+        queue.clear();
+        thread.interrupt();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void drain() {
+        try {
+            while (true) {
+                Object item = queue.take();
+                if (item == END) {
+                    break;
+                }
+                sink.accept((T) item);
+            }
+            onFinish.run();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable e) {
+            failure = e;
+            queue.clear();
+            log.error("{}写入失败: {}", name, e.getMessage(), e);
+        }
+    }
+
+    private void checkFailure() {
+        Throwable f = failure;
+        if (f != null) {
+            throw new IllegalStateException(name + "写入失败: " + f.getMessage(), f);
+        }
+    }
+}
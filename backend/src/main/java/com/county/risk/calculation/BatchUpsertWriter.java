@@ -0,0 +1,85 @@
+package com.county.risk.calculation;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 计算结果批量写入器
+ *
+ * 缓冲计算结果，攒满 batchSize 条后交给 upsert（一条多行 INSERT ... ON DUPLICATE KEY UPDATE）写入，
+ * 替代逐行 selectCount + update/insert。每次计算运行每张结果表创建一个实例，用完调用 close() 写出剩余数据。
+ * add/flush 加锁，可被多个工作线程共用。
+ *
+ * @param <T> 结果实体类型
+ */
+@Slf4j
+public class BatchUpsertWriter<T> implements AutoCloseable {
+
+    private final String name;
+    private final Consumer<List<T>> upsert;
+    private final int batchSize;
+    private final List<T> buffer;
+    private final long startNanos = System.nanoTime();
+    private long writeNanos;
+    private long rowsWritten;
+    private int batchesWritten;
+
+    /**
+     * @param name      日志中的结果名称，如 "风险评估"
+     * @param upsert    批量写入方法，如 {@code mapper::upsertBatch}
+     * @param batchSize 每批行数
+     */
+    public BatchUpsertWriter(String name, Consumer<List<T>> upsert, int batchSize) {
+        this.name = name;
+        this.upsert = upsert;
+        this.batchSize = Math.max(1, batchSize);
+        this.buffer = new ArrayList<>(this.batchSize);
+    }
+
+    public synchronized void add(T row) {
+        buffer.add(row);
+        if (buffer.size() >= batchSize) {
+            flush();
+        }
+    }
+
+    public synchronized void addAll(List<T> rows) {
+        for (T row : rows) {
+            add(row);
+        }
+    }
+
+    public synchronized void flush() {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        long t = System.nanoTime();
+        upsert.accept(buffer);
+        writeNanos += System.nanoTime() - t;
+        rowsWritten += buffer.size();
+        batchesWritten++;
+        buffer.clear();
+    }
+
+    public synchronized long getRowsWritten() {
+        return rowsWritten;
+    }
+
+    /**
+     * 写入速率（行/秒），按实际写库耗时计算
+     */
+    public synchronized double getRowsPerSecond() {
+        return writeNanos > 0 ? rowsWritten * 1_000_000_000.0 / writeNanos : 0;
+    }
+
+    @Override
+    public synchronized void close() {
+        flush();
+        log.info("{}写入完成: {} 行, {} 批, 写库耗时 {} ms, 总耗时 {} ms, 写入速率 {} 行/秒",
+                name, rowsWritten, batchesWritten, writeNanos / 1_000_000, (System.nanoTime() - startNanos) / 1_000_000,
+                String.format("%.1f", getRowsPerSecond()));
+    }
+}
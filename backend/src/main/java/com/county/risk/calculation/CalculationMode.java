@@ -0,0 +1,36 @@
+package com.county.risk.calculation;
+
+/**
+ * 整年计算的数据读取方式
+ */
+public enum CalculationMode {
+
+    /**
+     * 快照模式：一次加载所涉及年份的全部源数据，内存中并行计算后按顺序写入；分位数分界点在写入前确定
+     */
+    SNAPSHOT,
+
+    /**
+     * 流式模式：按 (county_code, year) 顺序通过游标逐行读取联合查询结果，分块计算后经有界队列异步写入，
+     * 内存占用与数据量无关；分位数模式下先按该年最近一次记录的分界点写入，读取结束后按新分界点统一更新等级。
+     * 取消或失败时已写入的结果保留
+     */
+    STREAMING;
+
+    /**
+     * 按名称解析（不区分大小写），为空时返回 defaultMode
+     *
+     * @throws IllegalArgumentException 名称无效
+     */
+    public static CalculationMode parse(String name, CalculationMode defaultMode) {
+        if (name == null || name.isBlank()) {
+            return defaultMode;
+        }
+        for (CalculationMode mode : values()) {
+            if (mode.name().equalsIgnoreCase(name.trim())) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("不支持的计算模式: " + name + "，可选 snapshot / streaming");
+    }
+}
@@ -0,0 +1,48 @@
+package com.county.risk.calculation;
+
+/**
+ * 计算进度回调
+ * 按年份统计已处理的县域数，并向计算过程暴露取消标记；计算在批次之间检查取消标记
+ */
+public interface CalculationProgress {
+
+    /**
+     * 不记录进度、不可取消（同步调用与命令行触发时使用）
+     */
+    CalculationProgress NONE = new CalculationProgress() {
+        @Override
+        public void yearPlanned(int year, int counties) {
+        }
+
+        @Override
+        public void countiesDone(int year, int count) {
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+    };
+
+    /**
+     * 登记某年待处理的县域数量，可多次调用累加
+     */
+    void yearPlanned(int year, int counties);
+
+    /**
+     * 某年又有 count 个县域处理完成（成功或失败）
+     */
+    void countiesDone(int year, int count);
+
+    /**
+     * 是否已请求取消
+     */
+    boolean isCancelled();
+
+    /**
+     * 本次运行的分阶段耗时与计数；未接入计算台账时不记录
+     */
+    default CalculationStats stats() {
+        return CalculationStats.DISCARD;
+    }
+}
@@ -0,0 +1,112 @@
+package com.county.risk.calculation;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * 范围重算的计算范围
+ * 省份、城市与县域代码列表之间取交集，均未指定时为所有县域；年份范围两端可以只指定一端，均未指定时为所有有源数据的年份
+ */
+public final class CalculationScope {
+
+    private final String provinceName;
+    private final String cityName;
+    private final List<String> countyCodes;
+    private final Integer startYear;
+    private final Integer endYear;
+
+    /**
+     * @throws IllegalArgumentException 起始年份晚于结束年份
+     */
+    public CalculationScope(String provinceName, String cityName, List<String> countyCodes,
+                            Integer startYear, Integer endYear) {
+        if (startYear != null && endYear != null && startYear > endYear) {
+            throw new IllegalArgumentException("起始年份 " + startYear + " 晚于结束年份 " + endYear);
+        }
+        this.provinceName = blankToNull(provinceName);
+        this.cityName = blankToNull(cityName);
+        this.countyCodes = countyCodes == null ? List.of() : countyCodes.stream()
+                .filter(Objects::nonNull)
+                .map(String::trim)
+                .filter(code -> !code.isEmpty())
+                .distinct()
+                .sorted()
+                .collect(Collectors.toUnmodifiableList());
+        this.startYear = startYear;
+        this.endYear = endYear;
+    }
+
+    public String getProvinceName() {
+        return provinceName;
+    }
+
+    public String getCityName() {
+        return cityName;
+    }
+
+    public List<String> getCountyCodes() {
+        return countyCodes;
+    }
+
+    public Integer getStartYear() {
+        return startYear;
+    }
+
+    public Integer getEndYear() {
+        return endYear;
+    }
+
+    /**
+     * 是否只计算部分县域；否则范围内年份按整年计算
+     */
+    public boolean hasCountyFilter() {
+        return provinceName != null || cityName != null || !countyCodes.isEmpty();
+    }
+
+    /**
+     * 是否指定了年份范围
+     */
+    public boolean hasYearRange() {
+        return startYear != null || endYear != null;
+    }
+
+    public boolean containsYear(int year) {
+        return (startYear == null || year >= startYear) && (endYear == null || year <= endYear);
+    }
+
+    /**
+     * 用于日志与任务结果的范围描述
+     */
+    public String describe() {
+        StringBuilder sb = new StringBuilder();
+        if (provinceName != null) {
+            sb.append("省份 ").append(provinceName).append(' ');
+        }
+        if (cityName != null) {
+            sb.append("城市 ").append(cityName).append(' ');
+        }
+        if (!countyCodes.isEmpty()) {
+            sb.append("县域 ").append(countyCodes.size()).append(" 个 ");
+        }
+        if (!hasCountyFilter()) {
+            sb.append("所有县域 ");
+        }
+        if (hasYearRange()) {
+            sb.append("年份 ").append(startYear != null ? startYear : "").append('-')
+                    .append(endYear != null ? endYear : "");
+        } else {
+            sb.append("所有年份");
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return describe();
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+}
@@ -0,0 +1,160 @@
+package com.county.risk.calculation;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 一次计算运行的分阶段耗时与计数（计算台账使用），随 {@link CalculationProgress} 传入计算过程
+ * 各阶段记录发起线程等待该阶段的墙钟时间，多个计算线程并行的部分只计一次；可由多个线程同时记录
+ */
+public class CalculationStats {
+
+    /**
+     * 计算阶段
+     */
+    public enum Phase {
+        /** 读取源数据（快照加载、流式游标读取） */
+        READ,
+        /** 计分 */
+        COMPUTE,
+        /** 写入评估结果与单项得分 */
+        WRITE,
+        /** 确定分界点、划分风险等级、判定趋势 */
+        LEVEL
+    }
+
+    /**
+     * 不记录任何内容（未接入台账的调用使用）
+     */
+    public static final CalculationStats DISCARD = new CalculationStats(false);
+
+    private final boolean enabled;
+    private final LongAdder[] phaseNanos = new LongAdder[Phase.values().length];
+    private final LongAdder scored = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final Set<Integer> years = new ConcurrentSkipListSet<>();
+    private volatile String configVersion;
+    private volatile String calculationMode;
+
+    public CalculationStats() {
+        this(true);
+    }
+
+    private CalculationStats(boolean enabled) {
+        this.enabled = enabled;
+        for (int i = 0; i < phaseNanos.length; i++) {
+            phaseNanos[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * 执行 action 并把耗时计入 phase
+     */
+    public <T> T time(Phase phase, Supplier<T> action) {
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            addNanos(phase, System.nanoTime() - start);
+        }
+    }
+
+    public void time(Phase phase, Runnable action) {
+        long start = System.nanoTime();
+        try {
+            action.run();
+        } finally {
+            addNanos(phase, System.nanoTime() - start);
+        }
+    }
+
+    public void addNanos(Phase phase, long nanos) {
+        if (enabled) {
+            phaseNanos[phase.ordinal()].add(nanos);
+        }
+    }
+
+    /**
+     * 累加计算成功与失败的县域年份数
+     */
+    public void counted(long scoredCount, long failedCount) {
+        if (enabled) {
+            scored.add(scoredCount);
+            failed.add(failedCount);
+        }
+    }
+
+    public void yearCalculated(int year) {
+        if (enabled) {
+            years.add(year);
+        }
+    }
+
+    public void setConfigVersion(String configVersion) {
+        if (enabled) {
+            this.configVersion = configVersion;
+        }
+    }
+
+    public void setCalculationMode(String calculationMode) {
+        if (enabled) {
+            this.calculationMode = calculationMode;
+        }
+    }
+
+    public long millis(Phase phase) {
+        return phaseNanos[phase.ordinal()].sum() / 1_000_000;
+    }
+
+    public long getScored() {
+        return scored.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    public Set<Integer> getYears() {
+        return Collections.unmodifiableSet(years);
+    }
+
+    public String getConfigVersion() {
+        return configVersion;
+    }
+
+    public String getCalculationMode() {
+        return calculationMode;
+    }
+
+    /**
+     * 包装进度回调：进度与取消标记交给 delegate，stats() 返回本对象，登记的年份计入计算年份
+     */
+    public CalculationProgress attachTo(CalculationProgress delegate) {
+        CalculationStats stats = this;
+        return new CalculationProgress() {
+            @Override
+            public void yearPlanned(int year, int counties) {
+                stats.yearCalculated(year);
+                delegate.yearPlanned(year, counties);
+            }
+
+            @Override
+            public void countiesDone(int year, int count) {
+                delegate.countiesDone(year, count);
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return delegate.isCancelled();
+            }
+
+            @Override
+            public CalculationStats stats() {
+                return stats;
+            }
+        };
+    }
+}
@@ -0,0 +1,120 @@
+package com.county.risk.calculation;
+
+import com.county.risk.entity.RiskIndicator;
+
+import java.math.BigDecimal;
+
+/**
+ * 编译后的单个指标
+ * 阈值在编译时转换为 double 并按比较方向补齐缺省值，计分时不再判断 null 与拆箱
+ */
+public final class CompiledIndicator {
+
+    private final Integer indicatorId;
+    private final String code;
+    private final String name;
+    private final RiskDimension dimension;
+    private final BigDecimal weight;
+    private final double weightValue;
+    /**
+     * true: 值大于阈值风险高 (GT)；false: 值小于阈值风险高 (LT)
+     */
+    private final boolean higherIsRiskier;
+    private final double high;
+    private final double medium;
+    private final double low;
+    private final IndicatorAccessor accessor;
+
+    CompiledIndicator(RiskIndicator indicator, RiskDimension dimension, IndicatorAccessor accessor) {
+        this.indicatorId = indicator.getIndicatorId();
+        this.code = indicator.getIndicatorCode();
+        this.name = indicator.getIndicatorName();
+        this.dimension = dimension;
+        this.weight = indicator.getWeight() != null ? indicator.getWeight() : BigDecimal.ZERO;
+        this.weightValue = weight.doubleValue();
+        this.higherIsRiskier = "GT".equals(indicator.getComparisonOperator());
+        if (higherIsRiskier) {
+            // GT: 未配置高阈值视为永不触发，中/低阈值缺省为 0
+            this.high = toDouble(indicator.getThresholdHigh(), Double.MAX_VALUE);
+            this.medium = toDouble(indicator.getThresholdMedium(), 0);
+            this.low = toDouble(indicator.getThresholdLow(), 0);
+        } else {
+            // LT: 未配置的阈值不参与比较，负无穷使 value < 阈值 恒为 false
+            this.high = toDouble(indicator.getThresholdHigh(), Double.NEGATIVE_INFINITY);
+            this.medium = toDouble(indicator.getThresholdMedium(), Double.NEGATIVE_INFINITY);
+            this.low = toDouble(indicator.getThresholdLow(), Double.NEGATIVE_INFINITY);
+        }
+        this.accessor = accessor;
+    }
+
+    /**
+     * 根据阈值计算单项得分：100 / 80 / 60 / 20
+     */
+    public int itemScore(double value) {
+        return itemScore(value, high, medium, low);
+    }
+
+    /**
+     * 用给定阈值计算单项得分（敏感性分析中平移单个阈值时使用），比较方向不变
+     */
+    int itemScore(double value, double high, double medium, double low) {
+        if (higherIsRiskier) {
+            if (value > high) return 100;
+            if (value > medium) return 80;
+            if (value > low) return 60;
+            return 20;
+        }
+        if (value < high) return 100;
+        if (value < medium) return 80;
+        if (value < low) return 60;
+        return 20;
+    }
+
+    public double valueOf(CountyYearFacts facts) {
+        return accessor.valueOf(facts);
+    }
+
+    public Integer getIndicatorId() {
+        return indicatorId;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public RiskDimension getDimension() {
+        return dimension;
+    }
+
+    public BigDecimal getWeight() {
+        return weight;
+    }
+
+    public double getWeightValue() {
+        return weightValue;
+    }
+
+    public boolean isHigherIsRiskier() {
+        return higherIsRiskier;
+    }
+
+    public double getHigh() {
+        return high;
+    }
+
+    public double getMedium() {
+        return medium;
+    }
+
+    public double getLow() {
+        return low;
+    }
+
+    private static double toDouble(BigDecimal v, double defaultValue) {
+        return v != null ? v.doubleValue() : defaultValue;
+    }
+}
@@ -0,0 +1,206 @@
+package com.county.risk.calculation;
+
+import com.baomidou.mybatisplus.core.metadata.TableFieldInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.county.risk.entity.EconomicAggregate;
+import com.county.risk.entity.EducationHealth;
+import com.county.risk.entity.EnvironmentCulture;
+import com.county.risk.entity.FiscalFinance;
+import com.county.risk.entity.InvestmentConsumption;
+import com.county.risk.entity.PopulationStatistics;
+import com.county.risk.mapper.CountyFactsMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * 县域源数据流式读取器
+ *
+ * 通过一条按 (county_code, year) 排序的联合查询逐行读取六张事实表，每行组装为一个 {@link CountyYearFacts}
+ * 交给调用方处理，内存中只保留当前行。列清单按实体的表结构信息生成，列别名使用序号，
+ * 不依赖驱动返回的列名大小写与下划线转换。
+ *
+ * 游标在只读事务内打开，读取期间该连接被结果集占用；调用方的写入必须在其他线程（其他连接）中执行。
+ */
+@Slf4j
+@Component
+public class CountyFactsStreamer {
+
+    private final CountyFactsMapper countyFactsMapper;
+    private final TransactionTemplate readTemplate;
+    private volatile Layout layout;
+
+    public CountyFactsStreamer(CountyFactsMapper countyFactsMapper, PlatformTransactionManager transactionManager) {
+        this.countyFactsMapper = countyFactsMapper;
+        this.readTemplate = new TransactionTemplate(transactionManager);
+        this.readTemplate.setReadOnly(true);
+    }
+
+    /**
+     * 按 (county_code, year) 顺序逐个输出指定年份所有县域的源数据；sink 抛出的异常会中止读取并原样抛出
+     *
+     * @return 读取的县域年份数
+     */
+    public long stream(Collection<Integer> years, Consumer<CountyYearFacts> sink) {
+        if (years.isEmpty()) {
+            return 0;
+        }
+        Layout l = layout();
+        Long rows = readTemplate.execute(status -> {
+            long count = 0;
+            try (Cursor<Map<String, Object>> cursor = countyFactsMapper.streamJoinedFacts(years, l.columns)) {
+                for (Map<String, Object> row : cursor) {
+                    sink.accept(l.toFacts(row));
+                    count++;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("关闭源数据游标失败", e);
+            }
+            return count;
+        });
+        return rows != null ? rows : 0;
+    }
+
+    private Layout layout() {
+        Layout l = layout;
+        if (l == null) {
+            l = new Layout();
+            l.table("ea", EconomicAggregate.class, CountyYearFacts::setEconomic);
+            l.table("ff", FiscalFinance.class, CountyYearFacts::setFiscal);
+            l.table("ps", PopulationStatistics.class, CountyYearFacts::setPopulation);
+            l.table("ec", EnvironmentCulture.class, CountyYearFacts::setEnvironment);
+            l.table("eh", EducationHealth.class, CountyYearFacts::setEducationHealth);
+            l.table("ic", InvestmentConsumption.class, CountyYearFacts::setInvestment);
+            l.columns = String.join(", ", l.selects);
+            log.info("流式读取列清单生成完成: {} 列", l.selects.size());
+            layout = l;
+        }
+        return l;
+    }
+
+    /**
+     * 联合查询的列布局：每张表的主键列用于判断该表是否有数据，county_code 与 year 取自主表不重复读取
+     */
+    private static final class Layout {
+        private final List<String> selects = new ArrayList<>();
+        private final List<TableLayout<?>> tables = new ArrayList<>();
+        private String columns;
+
+        <T> void table(String alias, Class<T> entityType, BiConsumer<CountyYearFacts, T> setter) {
+            TableInfo info = TableInfoHelper.getTableInfo(entityType);
+            if (info == null) {
+                throw new IllegalStateException("未找到实体表结构信息: " + entityType.getSimpleName());
+            }
+            TableLayout<T> t = new TableLayout<>(info, setter);
+            t.keyLabel = add(alias, info.getKeyColumn());
+            for (TableFieldInfo field : info.getFieldList()) {
+                if (!field.isSelect() || "county_code".equals(field.getColumn()) || "year".equals(field.getColumn())) {
+                    continue;
+                }
+                t.fields.add(new FieldLayout(add(alias, field.getColumn()), field.getProperty(), field.getPropertyType()));
+            }
+            tables.add(t);
+        }
+
+        private String add(String alias, String column) {
+            String label = "c" + selects.size();
+            selects.add(alias + "." + column + " AS " + label);
+            return label;
+        }
+
+        CountyYearFacts toFacts(Map<String, Object> row) {
+            CountyYearFacts facts = new CountyYearFacts((String) row.get("cc"), ((Number) row.get("yr")).intValue());
+            for (TableLayout<?> t : tables) {
+                t.apply(facts, row);
+            }
+            return facts;
+        }
+    }
+
+    private static final class TableLayout<T> {
+        private final TableInfo info;
+        private final BiConsumer<CountyYearFacts, T> setter;
+        private final List<FieldLayout> fields = new ArrayList<>();
+        private String keyLabel;
+
+        TableLayout(TableInfo info, BiConsumer<CountyYearFacts, T> setter) {
+            this.info = info;
+            this.setter = setter;
+        }
+
+        void apply(CountyYearFacts facts, Map<String, Object> row) {
+            Object key = row.get(keyLabel);
+            if (key == null) {
+                return;
+            }
+            T entity = info.newInstance();
+            info.setPropertyValue(entity, info.getKeyProperty(), convert(key, info.getKeyType()));
+            info.setPropertyValue(entity, "countyCode", facts.getCountyCode());
+            info.setPropertyValue(entity, "year", facts.getYear());
+            for (FieldLayout f : fields) {
+                Object value = row.get(f.label);
+                if (value != null) {
+                    info.setPropertyValue(entity, f.property, convert(value, f.type));
+                }
+            }
+            setter.accept(facts, entity);
+        }
+    }
+
+    private static final class FieldLayout {
+        private final String label;
+        private final String property;
+        private final Class<?> type;
+
+        FieldLayout(String label, String property, Class<?> type) {
+            this.label = label;
+            this.property = property;
+            this.type = type;
+        }
+    }
+
+    /**
+     * 将驱动返回的值转换为实体属性类型（Map 结果不经过实体的类型处理器）
+     */
+    static Object convert(Object value, Class<?> type) {
+        if (type.isInstance(value)) {
+            return value;
+        }
+        if (value instanceof Number n) {
+            if (type == Integer.class) return n.intValue();
+            if (type == Long.class) return n.longValue();
+            if (type == Double.class) return n.doubleValue();
+            if (type == BigDecimal.class) return new BigDecimal(n.toString());
+            if (type == Boolean.class) return n.intValue() != 0;
+        }
+        if (value instanceof java.sql.Date d) {
+            if (type == LocalDate.class) return d.toLocalDate();
+            if (type == Integer.class) return d.toLocalDate().getYear();
+        }
+        if (value instanceof java.sql.Timestamp ts && type == LocalDateTime.class) {
+            return ts.toLocalDateTime();
+        }
+        if (value instanceof LocalDate d && type == Integer.class) {
+            return d.getYear();
+        }
+        if (type == String.class) {
+            return value.toString();
+        }
+        return value;
+    }
+}
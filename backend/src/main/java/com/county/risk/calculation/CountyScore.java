@@ -0,0 +1,196 @@
+package com.county.risk.calculation;
+
+import com.county.risk.entity.ComprehensiveRiskAssessment;
+import com.county.risk.entity.RiskScore;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 单个县域单个年份的计算结果（double 表示）
+ * 计算全程使用 double，只在写库前通过 {@link #toAssessment(LocalDateTime)} 转为 DECIMAL(8,4)
+ */
+public class CountyScore {
+
+    /**
+     * comprehensive_risk_assessment 中得分列的小数位数
+     */
+    public static final int SCORE_SCALE = 4;
+
+    private final String countyCode;
+    private final int year;
+    private final double[] dimensionScores;
+    private final double comprehensiveScore;
+    private String riskLevel;
+    private IndicatorBreakdown breakdown;
+    private String riskTrend;
+    private String majorRiskFactors;
+    private int reusedDimensions;
+
+    public CountyScore(String countyCode, int year, double[] dimensionScores, double comprehensiveScore) {
+        this.countyCode = countyCode;
+        this.year = year;
+        this.dimensionScores = dimensionScores;
+        this.comprehensiveScore = comprehensiveScore;
+    }
+
+    public String getCountyCode() {
+        return countyCode;
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    public double getDimensionScore(RiskDimension dimension) {
+        return dimensionScores[dimension.ordinal()];
+    }
+
+    public double getComprehensiveScore() {
+        return comprehensiveScore;
+    }
+
+    public String getRiskLevel() {
+        return riskLevel;
+    }
+
+    public void setRiskLevel(String riskLevel) {
+        this.riskLevel = riskLevel;
+    }
+
+    /**
+     * 指标明细，计算时未要求记录则为 null
+     */
+    public IndicatorBreakdown getBreakdown() {
+        return breakdown;
+    }
+
+    public void setBreakdown(IndicatorBreakdown breakdown) {
+        this.breakdown = breakdown;
+    }
+
+    public String getRiskTrend() {
+        return riskTrend;
+    }
+
+    public void setRiskTrend(String riskTrend) {
+        this.riskTrend = riskTrend;
+    }
+
+    public String getMajorRiskFactors() {
+        return majorRiskFactors;
+    }
+
+    public void setMajorRiskFactors(String majorRiskFactors) {
+        this.majorRiskFactors = majorRiskFactors;
+    }
+
+    /**
+     * 该维度得分与指标明细是否取自维度得分备忘（未重新计算）
+     */
+    public boolean isReused(RiskDimension dimension) {
+        return (reusedDimensions & (1 << dimension.ordinal())) != 0;
+    }
+
+    /**
+     * 复用的维度，按维度序号的位掩码
+     */
+    void setReusedDimensions(int reusedDimensions) {
+        this.reusedDimensions = reusedDimensions;
+    }
+
+    /**
+     * 从指标明细中取加权贡献最大的若干个风险指标（单项得分达到中风险及以上），名称以"、"连接
+     * 贡献相同时按指标在计分计划中的顺序；没有明细或没有风险指标时返回 null
+     */
+    public String topRiskFactors(int limit) {
+        if (breakdown == null) {
+            return null;
+        }
+        List<Integer> candidates = new ArrayList<>();
+        for (int i = 0; i < breakdown.size(); i++) {
+            if (breakdown.isScored(i) && breakdown.itemScore(i) >= 60) {
+                candidates.add(i);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        candidates.sort((a, b) -> Double.compare(breakdown.contribution(b), breakdown.contribution(a)));
+        StringBuilder sb = new StringBuilder();
+        for (int k = 0; k < Math.min(limit, candidates.size()); k++) {
+            if (k > 0) {
+                sb.append('、');
+            }
+            sb.append(breakdown.indicator(candidates.get(k)).getName());
+        }
+        return sb.toString();
+    }
+
+    public ComprehensiveRiskAssessment toAssessment(LocalDateTime assessmentDate) {
+        ComprehensiveRiskAssessment a = new ComprehensiveRiskAssessment();
+        a.setCountyCode(countyCode);
+        a.setYear(year);
+        a.setEconomicRiskScore(toDecimal(getDimensionScore(RiskDimension.ECONOMIC)));
+        a.setSocialRiskScore(toDecimal(getDimensionScore(RiskDimension.SOCIAL)));
+        a.setEnvironmentRiskScore(toDecimal(getDimensionScore(RiskDimension.ENVIRONMENT)));
+        a.setGovernanceRiskScore(toDecimal(getDimensionScore(RiskDimension.GOVERNANCE)));
+        a.setDevelopmentRiskScore(toDecimal(getDimensionScore(RiskDimension.DEVELOPMENT)));
+        a.setComprehensiveRiskScore(toDecimal(comprehensiveScore));
+        a.setRiskLevel(riskLevel);
+        a.setRiskTrend(riskTrend);
+        a.setMajorRiskFactors(majorRiskFactors);
+        a.setAssessmentDate(assessmentDate);
+        return a;
+    }
+
+    /**
+     * 转换为 risk_scores 行，每个启用指标一行；未记录指标明细时返回空列表
+     * 维度源数据缺失的指标只写县域、年份与指标，取值与得分为空；
+     * 取自维度得分备忘的维度，其指标行与上次写入的内容相同，不再返回
+     */
+    public List<RiskScore> toRiskScores(LocalDateTime calculationDate) {
+        if (breakdown == null) {
+            return List.of();
+        }
+        List<RiskScore> rows = new ArrayList<>(breakdown.size());
+        for (int i = 0; i < breakdown.size(); i++) {
+            if (reusedDimensions != 0 && isReused(breakdown.indicator(i).getDimension())) {
+                continue;
+            }
+            RiskScore row = new RiskScore();
+            row.setCountyCode(countyCode);
+            row.setYear(year);
+            row.setIndicatorId(breakdown.indicator(i).getIndicatorId());
+            double value = breakdown.value(i);
+            row.setRawValue(Double.isNaN(value) || Double.isInfinite(value) ? null : toDecimal(value));
+            if (breakdown.isScored(i)) {
+                int itemScore = breakdown.itemScore(i);
+                row.setNormalizedValue(BigDecimal.valueOf(itemScore).setScale(SCORE_SCALE));
+                row.setRiskScore(BigDecimal.valueOf(itemScore).movePointLeft(2).setScale(SCORE_SCALE));
+                row.setWeightedContribution(toDecimal(breakdown.contribution(i)));
+                row.setRiskLevel(itemLevel(itemScore));
+            }
+            row.setCalculationDate(calculationDate);
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * 单项得分对应的风险等级：100 高风险、80 中高风险、60 中风险、20 低风险
+     */
+    private static String itemLevel(int itemScore) {
+        if (itemScore >= 100) return RiskLevelClassifier.HIGH;
+        if (itemScore >= 80) return RiskLevelClassifier.MEDIUM_HIGH;
+        if (itemScore >= 60) return RiskLevelClassifier.MEDIUM;
+        return RiskLevelClassifier.LOW;
+    }
+
+    public static BigDecimal toDecimal(double score) {
+        return BigDecimal.valueOf(score).setScale(SCORE_SCALE, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,188 @@
+package com.county.risk.calculation;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+
+/**
+ * 县域并行计算执行器
+ *
+ * 将县域列表按 batch-size 切分成批次，提交到有界线程池；每个批次在一个工作线程内顺序执行。
+ * 单个县域失败只记录日志并计入失败数，不影响同批次其他县域。
+ * 结果按输入顺序汇总，与线程调度无关。parallelism=1 时退化为单线程顺序计算。
+ */
+@Slf4j
+@Component
+public class CountyScoringExecutor {
+
+    private final int parallelism;
+    private final int batchSize;
+    private final ThreadPoolExecutor pool;
+
+    public CountyScoringExecutor(@Value("${risk.calculation.parallelism:0}") int parallelism,
+                                 @Value("${risk.calculation.batch-size:200}") int batchSize) {
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.batchSize = Math.max(1, batchSize);
+        AtomicInteger seq = new AtomicInteger();
+        // 队列有界，提交方在队列满时自己执行批次，避免无限堆积
+        this.pool = new ThreadPoolExecutor(this.parallelism, this.parallelism, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(this.parallelism * 4),
+                r -> {
+                    Thread t = new Thread(r, "risk-score-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.pool.allowCoreThreadTimeOut(true);
+        log.info("县域并行计算执行器初始化: 并行度={}, 批大小={}", this.parallelism, this.batchSize);
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * 并行执行计算任务
+     *
+     * @param items    待计算对象（如县域数据）
+     * @param task     单个对象的计算逻辑
+     * @param keyOf    失败时用于日志与统计的标识（如县域代码）
+     * @param progress 每完成一个批次回调一次，参数为累计完成数量；可为 null
+     */
+    public <T, R> ScoringOutcome<R> execute(List<T> items, Function<T, R> task,
+                                            Function<T, String> keyOf, IntConsumer progress) {
+        return execute(items, task, keyOf, progress, () -> false);
+    }
+
+    /**
+     * 并行执行可取消的计算任务
+     * 每个批次开始前检查取消标记，已取消时跳过剩余批次并抛出 {@link CancellationException}
+     *
+     * @param cancelled 取消标记
+     */
+    public <T, R> ScoringOutcome<R> execute(List<T> items, Function<T, R> task,
+                                            Function<T, String> keyOf, IntConsumer progress,
+                                            BooleanSupplier cancelled) {
+        return execute(items, null, task, keyOf, progress, cancelled);
+    }
+
+    /**
+     * 并行执行可取消的计算任务，每个批次整体交给 batchTask 计算（如列式向量内核）
+     * batchTask 抛出异常时该批次退回逐个执行 task，单个对象的失败仍只计入失败数
+     *
+     * @param batchTask 整批计算逻辑，结果与输入一一对应（null 结果不计入）；为 null 时逐个执行 task
+     */
+    public <T, R> ScoringOutcome<R> execute(List<T> items, Function<List<T>, List<R>> batchTask,
+                                            Function<T, R> task, Function<T, String> keyOf,
+                                            IntConsumer progress, BooleanSupplier cancelled) {
+        int batches = (items.size() + batchSize - 1) / batchSize;
+        List<Future<BatchResult<R>>> futures = new ArrayList<>(batches);
+        AtomicInteger done = new AtomicInteger();
+
+        for (int b = 0; b < batches; b++) {
+            List<T> batch = items.subList(b * batchSize, Math.min(items.size(), (b + 1) * batchSize));
+            futures.add(pool.submit(() -> {
+                if (cancelled.getAsBoolean()) {
+                    return new BatchResult<R>(0);
+                }
+                BatchResult<R> result = batchTask != null
+                        ? runWholeBatch(batch, batchTask, task, keyOf)
+                        : runBatch(batch, task, keyOf);
+                int total = done.addAndGet(batch.size());
+                if (progress != null) {
+                    progress.accept(total);
+                }
+                return result;
+            }));
+        }
+
+        // 按提交顺序收集，保证结果顺序确定
+        List<R> results = new ArrayList<>(items.size());
+        List<String> failed = new ArrayList<>();
+        for (Future<BatchResult<R>> future : futures) {
+            try {
+                BatchResult<R> r = future.get();
+                results.addAll(r.results);
+                failed.addAll(r.failed);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(f -> f.cancel(true));
+                throw new IllegalStateException("县域并行计算被中断", e);
+            } catch (ExecutionException e) {
+                // runBatch 内部已捕获单个县域异常，这里只会是意外错误
+                throw new IllegalStateException("县域并行计算批次执行失败", e.getCause());
+            }
+        }
+        if (cancelled.getAsBoolean()) {
+            throw new CancellationException("县域并行计算已取消");
+        }
+        return new ScoringOutcome<>(results, failed);
+    }
+
+    private <T, R> BatchResult<R> runBatch(List<T> batch, Function<T, R> task, Function<T, String> keyOf) {
+        BatchResult<R> result = new BatchResult<>(batch.size());
+        for (T item : batch) {
+            try {
+                R r = task.apply(item);
+                if (r != null) {
+                    result.results.add(r);
+                }
+            } catch (Exception e) {
+                String key = keyOf.apply(item);
+                result.failed.add(key);
+                log.error("县域计算失败: key={}, error={}", key, e.getMessage());
+            }
+        }
+        return result;
+    }
+
+    private <T, R> BatchResult<R> runWholeBatch(List<T> batch, Function<List<T>, List<R>> batchTask,
+                                                Function<T, R> task, Function<T, String> keyOf) {
+        List<R> results;
+        try {
+            results = batchTask.apply(batch);
+        } catch (Exception e) {
+            log.warn("批次整体计算失败，改为逐个计算: size={}, error={}", batch.size(), e.getMessage());
+            return runBatch(batch, task, keyOf);
+        }
+        BatchResult<R> result = new BatchResult<>(batch.size());
+        for (R r : results) {
+            if (r != null) {
+                result.results.add(r);
+            }
+        }
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private static class BatchResult<R> {
+        final List<R> results;
+        final List<String> failed = new ArrayList<>();
+
+        BatchResult(int size) {
+            this.results = new ArrayList<>(size);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.county.risk.calculation;
+
+import com.county.risk.entity.CountyBasic;
+import com.county.risk.mapper.CountyBasicMapper;
+import com.county.risk.mapper.RiskAssessmentMapper;
+import com.county.risk.mapper.RiskInputChangeMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 县域数据快照缓存（只读场景使用，如风险模拟）
+ *
+ * 缓存县域列表、有数据的年份与各年份快照，超过 ttl-seconds 后下次访问时重新加载。
+ * 每次访问前比较 risk_input_changes 的最大ID，源数据有新的变更时清空缓存；计算运行读到变更日志时也会调用 {@link #invalidate()}，
+ * 覆盖ID较小但提交较晚、不改变最大ID的变更。
+ * 快照不可变，可在多个请求间共享；缺失的年份一次性批量加载。访问方法整体同步，加载期间其他请求等待。
+ */
+@Slf4j
+@Component
+public class CountySnapshotCache {
+
+    private final CountySnapshotLoader countySnapshotLoader;
+    private final CountyBasicMapper countyBasicMapper;
+    private final RiskAssessmentMapper riskAssessmentMapper;
+    private final RiskInputChangeMapper riskInputChangeMapper;
+    private final long ttlMillis;
+
+    private final Map<Integer, YearSnapshot> snapshots = new HashMap<>();
+    private List<CountyBasic> counties;
+    private List<Integer> yearsWithData;
+    private long loadedAt;
+    /**
+     * 缓存加载时 risk_input_changes 的最大ID（无记录为 0）
+     */
+    private long changeMark = -1;
+
+    public CountySnapshotCache(CountySnapshotLoader countySnapshotLoader,
+                               CountyBasicMapper countyBasicMapper,
+                               RiskAssessmentMapper riskAssessmentMapper,
+                               RiskInputChangeMapper riskInputChangeMapper,
+                               @Value("${risk.simulation.snapshot-ttl-seconds:600}") long ttlSeconds) {
+        this.countySnapshotLoader = countySnapshotLoader;
+        this.countyBasicMapper = countyBasicMapper;
+        this.riskAssessmentMapper = riskAssessmentMapper;
+        this.riskInputChangeMapper = riskInputChangeMapper;
+        this.ttlMillis = ttlSeconds * 1000;
+    }
+
+    /**
+     * 县域基础信息列表
+     */
+    public synchronized List<CountyBasic> getCounties() {
+        expireIfStale();
+        if (counties == null) {
+            counties = List.copyOf(countyBasicMapper.selectList(null));
+        }
+        return counties;
+    }
+
+    /**
+     * 源数据表中出现过的所有年份（升序）
+     */
+    public synchronized List<Integer> getYearsWithData() {
+        expireIfStale();
+        if (yearsWithData == null) {
+            yearsWithData = List.copyOf(riskAssessmentMapper.getYearsWithData());
+        }
+        return yearsWithData;
+    }
+
+    /**
+     * 获取多个年份的快照，未缓存的年份一次批量加载
+     */
+    public synchronized Map<Integer, YearSnapshot> getYears(Collection<Integer> years) {
+        expireIfStale();
+        List<Integer> missing = new ArrayList<>();
+        for (Integer year : years) {
+            if (!snapshots.containsKey(year)) {
+                missing.add(year);
+            }
+        }
+        if (!missing.isEmpty()) {
+            snapshots.putAll(countySnapshotLoader.loadYears(missing));
+        }
+        Map<Integer, YearSnapshot> result = new TreeMap<>();
+        for (Integer year : years) {
+            result.put(year, snapshots.get(year));
+        }
+        return result;
+    }
+
+    /**
+     * 清空缓存，下次访问重新加载
+     */
+    public synchronized void invalidate() {
+        if (!snapshots.isEmpty()) {
+            log.info("县域数据快照缓存已清空: {} 个年份", snapshots.size());
+        }
+        snapshots.clear();
+        counties = null;
+        yearsWithData = null;
+        loadedAt = System.currentTimeMillis();
+    }
+
+    private void expireIfStale() {
+        Long maxId = riskInputChangeMapper.getMaxChangeId();
+        long mark = maxId != null ? maxId : 0;
+        if (mark != changeMark) {
+            if (changeMark >= 0) {
+                log.info("源数据有新的变更，县域数据快照缓存失效");
+            }
+            invalidate();
+            changeMark = mark;
+        } else if (System.currentTimeMillis() - loadedAt > ttlMillis) {
+            invalidate();
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.county.risk.calculation;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.county.risk.entity.EconomicAggregate;
+import com.county.risk.entity.EducationHealth;
+import com.county.risk.entity.EnvironmentCulture;
+import com.county.risk.entity.FiscalFinance;
+import com.county.risk.entity.InvestmentConsumption;
+import com.county.risk.entity.PopulationStatistics;
+import com.county.risk.mapper.EconomicAggregateMapper;
+import com.county.risk.mapper.EducationHealthMapper;
+import com.county.risk.mapper.EnvironmentCultureMapper;
+import com.county.risk.mapper.FiscalFinanceMapper;
+import com.county.risk.mapper.InvestmentConsumptionMapper;
+import com.county.risk.mapper.PopulationStatisticsMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * 年度快照加载器
+ * 每张事实表每年只查询一次，替代逐县域逐表的 selectOne 查询
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CountySnapshotLoader {
+
+    private final EconomicAggregateMapper economicAggregateMapper;
+    private final FiscalFinanceMapper fiscalFinanceMapper;
+    private final PopulationStatisticsMapper populationStatisticsMapper;
+    private final EnvironmentCultureMapper environmentCultureMapper;
+    private final EducationHealthMapper educationHealthMapper;
+    private final InvestmentConsumptionMapper investmentConsumptionMapper;
+
+    /**
+     * 加载指定年份所有县域的源数据
+     */
+    public YearSnapshot loadYear(int year) {
+        return load(List.of(year), null).get(year);
+    }
+
+    /**
+     * 只加载指定县域在某年的源数据（增量计算使用）
+     */
+    public YearSnapshot loadCounties(int year, Collection<String> countyCodes) {
+        if (countyCodes.isEmpty()) {
+            return YearSnapshot.empty(year);
+        }
+        return load(List.of(year), countyCodes).get(year);
+    }
+
+    /**
+     * 一次加载多个年份所有县域的源数据（全历史计算使用）
+     * 每张事实表只查询一次，按年份拆分为各年快照；没有任何源数据的年份返回空快照
+     */
+    public Map<Integer, YearSnapshot> loadYears(Collection<Integer> years) {
+        if (years.isEmpty()) {
+            return new TreeMap<>();
+        }
+        return load(years, null);
+    }
+
+    /**
+     * 一次加载一组县域在多个年份的源数据（范围重算使用），每张事实表只查询一次
+     */
+    public Map<Integer, YearSnapshot> loadCounties(Collection<Integer> years, Collection<String> countyCodes) {
+        if (years.isEmpty()) {
+            return new TreeMap<>();
+        }
+        if (countyCodes.isEmpty()) {
+            Map<Integer, YearSnapshot> empty = new TreeMap<>();
+            years.forEach(year -> empty.put(year, YearSnapshot.empty(year)));
+            return empty;
+        }
+        return load(years, countyCodes);
+    }
+
+    private Map<Integer, YearSnapshot> load(Collection<Integer> years, Collection<String> countyCodes) {
+        long start = System.currentTimeMillis();
+        Map<Integer, Map<String, CountyYearFacts>> facts = new TreeMap<>();
+        for (Integer year : years) {
+            facts.put(year, new HashMap<>(countyCodes != null ? countyCodes.size() * 2 : 4096));
+        }
+
+        merge(facts, selectYears(economicAggregateMapper, years, countyCodes), EconomicAggregate::getYear,
+                EconomicAggregate::getCountyCode, CountyYearFacts::getEconomic, CountyYearFacts::setEconomic);
+        merge(facts, selectYears(fiscalFinanceMapper, years, countyCodes), FiscalFinance::getYear,
+                FiscalFinance::getCountyCode, CountyYearFacts::getFiscal, CountyYearFacts::setFiscal);
+        merge(facts, selectYears(populationStatisticsMapper, years, countyCodes), PopulationStatistics::getYear,
+                PopulationStatistics::getCountyCode, CountyYearFacts::getPopulation, CountyYearFacts::setPopulation);
+        merge(facts, selectYears(environmentCultureMapper, years, countyCodes), EnvironmentCulture::getYear,
+                EnvironmentCulture::getCountyCode, CountyYearFacts::getEnvironment, CountyYearFacts::setEnvironment);
+        merge(facts, selectYears(educationHealthMapper, years, countyCodes), EducationHealth::getYear,
+                EducationHealth::getCountyCode, CountyYearFacts::getEducationHealth, CountyYearFacts::setEducationHealth);
+        merge(facts, selectYears(investmentConsumptionMapper, years, countyCodes), InvestmentConsumption::getYear,
+                InvestmentConsumption::getCountyCode, CountyYearFacts::getInvestment, CountyYearFacts::setInvestment);
+
+        Map<Integer, YearSnapshot> snapshots = new TreeMap<>();
+        int total = 0;
+        for (Map.Entry<Integer, Map<String, CountyYearFacts>> entry : facts.entrySet()) {
+            snapshots.put(entry.getKey(), new YearSnapshot(entry.getKey(), entry.getValue()));
+            total += entry.getValue().size();
+        }
+        log.info("{} 年数据快照加载完成: {} 个县域年份, 耗时 {} ms", facts.keySet(), total,
+                System.currentTimeMillis() - start);
+        return snapshots;
+    }
+
+    /**
+     * 加载单个县域单个年份的源数据（单县计算使用）
+     */
+    public CountyYearFacts loadCounty(String countyCode, int year) {
+        CountyYearFacts facts = new CountyYearFacts(countyCode, year);
+        facts.setEconomic(selectOne(economicAggregateMapper, countyCode, year));
+        facts.setFiscal(selectOne(fiscalFinanceMapper, countyCode, year));
+        facts.setPopulation(selectOne(populationStatisticsMapper, countyCode, year));
+        facts.setEnvironment(selectOne(environmentCultureMapper, countyCode, year));
+        facts.setEducationHealth(selectOne(educationHealthMapper, countyCode, year));
+        facts.setInvestment(selectOne(investmentConsumptionMapper, countyCode, year));
+        return facts;
+    }
+
+    private <T> List<T> selectYears(BaseMapper<T> mapper, Collection<Integer> years, Collection<String> countyCodes) {
+        QueryWrapper<T> wrapper = new QueryWrapper<>();
+        if (years.size() == 1) {
+            wrapper.eq("year", years.iterator().next());
+        } else {
+            wrapper.in("year", years);
+        }
+        if (countyCodes != null) {
+            wrapper.in("county_code", countyCodes);
+        }
+        return mapper.selectList(wrapper);
+    }
+
+    private <T> T selectOne(BaseMapper<T> mapper, String countyCode, int year) {
+        QueryWrapper<T> wrapper = new QueryWrapper<>();
+        wrapper.eq("county_code", countyCode);
+        wrapper.eq("year", year);
+        wrapper.last("LIMIT 1");
+        return mapper.selectOne(wrapper);
+    }
+
+    /**
+     * 将一张表的行按年份、县域代码挂到快照上；同一县域同一年份重复的行只保留第一条，与原 LIMIT 1 行为一致
+     */
+    private <T> void merge(Map<Integer, Map<String, CountyYearFacts>> facts, List<T> rows,
+                           Function<T, Integer> yearOf, Function<T, String> codeOf,
+                           Function<CountyYearFacts, T> getter, BiConsumer<CountyYearFacts, T> setter) {
+        for (T row : rows) {
+            String code = codeOf.apply(row);
+            Integer year = yearOf.apply(row);
+            Map<String, CountyYearFacts> yearFacts = year != null ? facts.get(year) : null;
+            if (code == null || yearFacts == null) {
+                continue;
+            }
+            CountyYearFacts f = yearFacts.computeIfAbsent(code, c -> new CountyYearFacts(c, year));
+            if (getter.apply(f) == null) {
+                setter.accept(f, row);
+            }
+        }
+    }
+}
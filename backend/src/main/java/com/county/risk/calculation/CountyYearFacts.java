@@ -0,0 +1,30 @@
+package com.county.risk.calculation;
+
+import com.county.risk.entity.EconomicAggregate;
+import com.county.risk.entity.EducationHealth;
+import com.county.risk.entity.EnvironmentCulture;
+import com.county.risk.entity.FiscalFinance;
+import com.county.risk.entity.InvestmentConsumption;
+import com.county.risk.entity.PopulationStatistics;
+import lombok.Data;
+
+/**
+ * 单个县域单个年份的源数据集合
+ * 六张事实表各取一行，缺失的表对应字段为 null
+ */
+@Data
+public class CountyYearFacts {
+    private String countyCode;
+    private Integer year;
+    private EconomicAggregate economic;
+    private FiscalFinance fiscal;
+    private PopulationStatistics population;
+    private EnvironmentCulture environment;
+    private EducationHealth educationHealth;
+    private InvestmentConsumption investment;
+
+    public CountyYearFacts(String countyCode, Integer year) {
+        this.countyCode = countyCode;
+        this.year = year;
+    }
+}
@@ -0,0 +1,371 @@
+package com.county.risk.calculation;
+
+import com.county.risk.entity.RiskInputChange;
+import com.county.risk.mapper.RiskInputChangeMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 维度得分备忘
+ *
+ * 按 (维度, 维度版本, 年份, 县域) 保存维度得分与该维度各指标的取值和单项得分。指标配置修改后只有所在维度的版本改变，
+ * 下一次计算中其余维度直接取备忘结果，只计算版本变化的维度，再重新合成综合得分；只修改维度权重时所有维度都可复用。
+ * 每个维度只保留最近一个版本，每年一列、写入时整列替换，读取不加锁。
+ *
+ * 源数据变更通过 risk_input_changes 失效：每次取 {@link Lookup} 前读取变更日志中尚未同步过的记录，移除对应县域年份的备忘，
+ * 因此必须在读取源数据之前取 Lookup。是否同步过按变更日志ID集合判断而不是按最大ID：自增ID按分配顺序而不是提交顺序可见，
+ * 晚提交的事务可能在更大的ID之后才出现较小的ID。变更日志只由全历史计算在失效备忘之后按ID删除，已删除的ID随下一次同步移出集合。
+ * 备忘只在本进程内有效；启用多节点分片计算时其他节点的数据变更无法可靠同步，不启用备忘。
+ */
+@Slf4j
+@Component
+public class DimensionScoreMemo {
+
+    private final RiskInputChangeMapper riskInputChangeMapper;
+    private final boolean enabled;
+    private final int maxCountyYears;
+
+    private final Map<RiskDimension, Versioned> byDimension = new ConcurrentHashMap<>();
+
+    /**
+     * 已同步的变更日志：ID -> (县域, 年份)，整体替换，不原地修改
+     */
+    private volatile Map<Long, RiskInputChange> syncedChanges = Map.of();
+
+    public DimensionScoreMemo(RiskInputChangeMapper riskInputChangeMapper,
+                              @Value("${risk.calculation.dimension-memo.enabled:true}") boolean enabled,
+                              @Value("${risk.calculation.dimension-memo.max-county-years:300000}") int maxCountyYears,
+                              @Value("${risk.cluster.enabled:false}") boolean clusterEnabled) {
+        this.riskInputChangeMapper = riskInputChangeMapper;
+        this.enabled = enabled && !clusterEnabled;
+        this.maxCountyYears = maxCountyYears;
+        if (enabled && clusterEnabled) {
+            log.info("已启用分片计算，不使用维度得分备忘");
+        }
+    }
+
+    /**
+     * 取本次计算可复用的维度：先按变更日志失效源数据已变化的县域年份，再找出备忘版本与计划一致的维度
+     * 须在读取源数据之前调用，读取期间发生的变更留给下一次计算失效
+     */
+    public Lookup lookup(ScoringPlan plan) {
+        if (!enabled) {
+            return Lookup.NONE;
+        }
+        Map<Long, RiskInputChange> synced = syncChanges();
+        Versioned[] reusable = new Versioned[RiskDimension.values().length];
+        boolean any = false;
+        for (RiskDimension dimension : RiskDimension.values()) {
+            Versioned versioned = byDimension.get(dimension);
+            if (versioned != null && versioned.version.equals(plan.dimensionVersion(dimension))) {
+                reusable[dimension.ordinal()] = versioned;
+                any = true;
+            }
+        }
+        return new Lookup(plan, any ? reusable : null, synced);
+    }
+
+    /**
+     * 记录一批计算结果中新计算的维度（复用的维度不重复记录），结果需包含指标明细
+     * 取 lookup 之后其他计算同步过的变更再失效一次，避免记录读取源数据之后才发生变更的结果
+     *
+     * @param lookup 本次计算读取源数据前取得的 Lookup
+     */
+    public void record(Lookup lookup, Collection<CountyScore> scores) {
+        ScoringPlan plan = lookup.plan;
+        if (plan == null || scores.isEmpty()) {
+            return;
+        }
+        for (RiskDimension dimension : RiskDimension.values()) {
+            Map<Integer, List<CountyScore>> byYear = new HashMap<>();
+            for (CountyScore score : scores) {
+                if (score.getBreakdown() != null && !score.isReused(dimension)) {
+                    byYear.computeIfAbsent(score.getYear(), y -> new ArrayList<>()).add(score);
+                }
+            }
+            if (byYear.isEmpty()) {
+                continue;
+            }
+            String version = plan.dimensionVersion(dimension);
+            Versioned versioned = byDimension.compute(dimension,
+                    (d, current) -> current != null && current.version.equals(version) ? current : new Versioned(version));
+            int offset = plan.indicatorOffset(dimension);
+            int width = plan.indicators(dimension).length;
+            synchronized (versioned) {
+                for (Map.Entry<Integer, List<CountyScore>> entry : byYear.entrySet()) {
+                    YearColumn current = versioned.years.get(entry.getKey());
+                    int currentSize = current != null ? current.slots.size() : 0;
+                    if (current == null && versioned.countyYears + entry.getValue().size() > maxCountyYears) {
+                        log.warn("{} 维度得分备忘已达上限 {} 个县域年份，{} 年不再记录", dimension.getCategory(),
+                                maxCountyYears, entry.getKey());
+                        continue;
+                    }
+                    YearColumn merged = YearColumn.merge(current, entry.getValue(), dimension, offset, width);
+                    versioned.years.put(entry.getKey(), merged);
+                    versioned.countyYears += merged.slots.size() - currentSize;
+                }
+            }
+        }
+        Map<Long, RiskInputChange> synced = syncedChanges;
+        if (synced != lookup.syncedChanges) {
+            List<RiskInputChange> later = new ArrayList<>();
+            for (Map.Entry<Long, RiskInputChange> entry : synced.entrySet()) {
+                if (!lookup.syncedChanges.containsKey(entry.getKey())) {
+                    later.add(entry.getValue());
+                }
+            }
+            evict(later);
+        }
+    }
+
+    /**
+     * 清除所有备忘
+     */
+    public void clear() {
+        byDimension.clear();
+    }
+
+    /**
+     * 移除源数据发生变更的县域年份（指标配置变更标记不影响备忘），并把这些变更日志记为已同步
+     * 删除变更日志之前必须先以同一批记录调用，避免删除尚未同步的记录后对应的备忘不再失效
+     */
+    public void invalidate(Collection<RiskInputChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            Map<Long, RiskInputChange> synced = new HashMap<>(syncedChanges);
+            for (RiskInputChange change : changes) {
+                if (change.getId() != null) {
+                    synced.put(change.getId(), change);
+                }
+            }
+            syncedChanges = synced;
+        }
+        evict(changes);
+    }
+
+    private void evict(Collection<RiskInputChange> changes) {
+        Map<Integer, Set<String>> changed = new HashMap<>();
+        for (RiskInputChange change : changes) {
+            if (change.getCountyCode() != null && change.getYear() != null) {
+                changed.computeIfAbsent(change.getYear(), y -> new HashSet<>()).add(change.getCountyCode());
+            }
+        }
+        if (!changed.isEmpty()) {
+            invalidate(changed);
+        }
+    }
+
+    /**
+     * 读取当前全部变更日志，移除其中尚未同步过的记录涉及的县域年份
+     * 变更日志在每次全历史计算成功后清空，通常只有上次全历史计算之后的少量记录
+     *
+     * @return 同步后的变更日志
+     */
+    private synchronized Map<Long, RiskInputChange> syncChanges() {
+        Long maxId = riskInputChangeMapper.getMaxChangeId();
+        Map<Long, RiskInputChange> previous = syncedChanges;
+        if (maxId == null) {
+            if (!previous.isEmpty()) {
+                syncedChanges = Map.of();
+            }
+            return syncedChanges;
+        }
+        Map<Long, RiskInputChange> current = new HashMap<>();
+        List<RiskInputChange> unseen = new ArrayList<>();
+        for (RiskInputChange change : riskInputChangeMapper.selectChangesUpTo(maxId)) {
+            current.put(change.getId(), change);
+            if (!previous.containsKey(change.getId())) {
+                unseen.add(change);
+            }
+        }
+        if (!byDimension.isEmpty()) {
+            evict(unseen);
+        }
+        syncedChanges = current;
+        return current;
+    }
+
+    private void invalidate(Map<Integer, Set<String>> changed) {
+        int removed = 0;
+        for (Versioned versioned : byDimension.values()) {
+            synchronized (versioned) {
+                for (Map.Entry<Integer, Set<String>> entry : changed.entrySet()) {
+                    YearColumn current = versioned.years.get(entry.getKey());
+                    if (current == null) {
+                        continue;
+                    }
+                    YearColumn remaining = current.without(entry.getValue());
+                    versioned.years.put(entry.getKey(), remaining);
+                    versioned.countyYears -= current.slots.size() - remaining.slots.size();
+                    removed += current.slots.size() - remaining.slots.size();
+                }
+            }
+        }
+        if (removed > 0) {
+            log.info("源数据变更，维度得分备忘失效 {} 条", removed);
+        }
+    }
+
+    /**
+     * 一次计算中可复用的维度
+     */
+    public static final class Lookup {
+
+        /**
+         * 不复用任何维度
+         */
+        public static final Lookup NONE = new Lookup(null, null, Map.of());
+
+        private final ScoringPlan plan;
+        private final Versioned[] reusable;
+        private final Map<Long, RiskInputChange> syncedChanges;
+
+        private Lookup(ScoringPlan plan, Versioned[] reusable, Map<Long, RiskInputChange> syncedChanges) {
+            this.plan = plan;
+            this.reusable = reusable;
+            this.syncedChanges = syncedChanges;
+        }
+
+        /**
+         * 是否有可复用的维度
+         */
+        public boolean isEmpty() {
+            return reusable == null;
+        }
+
+        /**
+         * 可复用（版本与计划一致）的维度
+         */
+        public Set<RiskDimension> reusableDimensions() {
+            Set<RiskDimension> dimensions = EnumSet.noneOf(RiskDimension.class);
+            if (reusable != null) {
+                for (RiskDimension dimension : RiskDimension.values()) {
+                    if (reusable[dimension.ordinal()] != null) {
+                        dimensions.add(dimension);
+                    }
+                }
+            }
+            return dimensions;
+        }
+
+        /**
+         * 备忘中有该县域年份的维度结果时写入维度得分与指标明细并返回 true
+         */
+        boolean fill(RiskDimension dimension, String countyCode, int year, double[] dims, IndicatorBreakdown breakdown) {
+            if (reusable == null || reusable[dimension.ordinal()] == null) {
+                return false;
+            }
+            YearColumn column = reusable[dimension.ordinal()].years.get(year);
+            Integer slot = column != null ? column.slots.get(countyCode) : null;
+            if (slot == null) {
+                return false;
+            }
+            dims[dimension.ordinal()] = column.scores[slot];
+            if (breakdown != null) {
+                CompiledIndicator[] indicators = plan.indicators(dimension);
+                int base = slot * column.width;
+                for (int k = 0; k < indicators.length; k++) {
+                    breakdown.add(indicators[k], column.values[base + k], column.items[base + k]);
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * 一个维度一个版本的备忘
+     */
+    private static final class Versioned {
+        private final String version;
+        private final Map<Integer, YearColumn> years = new ConcurrentHashMap<>();
+        private int countyYears;
+
+        private Versioned(String version) {
+            this.version = version;
+        }
+    }
+
+    /**
+     * 一个维度一个年份的列式备忘（不可变）：县域代码 -> 行号，按行保存维度得分与各指标的取值、单项得分
+     */
+    private static final class YearColumn {
+        private final Map<String, Integer> slots;
+        private final double[] scores;
+        private final double[] values;
+        private final byte[] items;
+        private final int width;
+
+        private YearColumn(Map<String, Integer> slots, double[] scores, double[] values, byte[] items, int width) {
+            this.slots = slots;
+            this.scores = scores;
+            this.values = values;
+            this.items = items;
+            this.width = width;
+        }
+
+        /**
+         * 在已有列的基础上覆盖或追加新结果，返回新列
+         */
+        static YearColumn merge(YearColumn current, List<CountyScore> scores, RiskDimension dimension, int offset,
+                                int width) {
+            Map<String, Integer> slots = current != null ? new HashMap<>(current.slots) : new HashMap<>();
+            int capacity = slots.size() + scores.size();
+            double[] newScores = current != null ? Arrays.copyOf(current.scores, capacity) : new double[capacity];
+            double[] newValues = current != null ? Arrays.copyOf(current.values, capacity * width) : new double[capacity * width];
+            byte[] newItems = current != null ? Arrays.copyOf(current.items, capacity * width) : new byte[capacity * width];
+            int size = slots.size();
+            for (CountyScore score : scores) {
+                Integer slot = slots.get(score.getCountyCode());
+                if (slot == null) {
+                    slot = size++;
+                    slots.put(score.getCountyCode(), slot);
+                }
+                newScores[slot] = score.getDimensionScore(dimension);
+                IndicatorBreakdown breakdown = score.getBreakdown();
+                for (int k = 0; k < width; k++) {
+                    newValues[slot * width + k] = breakdown.value(offset + k);
+                    newItems[slot * width + k] = (byte) breakdown.itemScore(offset + k);
+                }
+            }
+            return new YearColumn(slots, Arrays.copyOf(newScores, size), Arrays.copyOf(newValues, size * width),
+                    Arrays.copyOf(newItems, size * width), width);
+        }
+
+        /**
+         * 移除给定县域后的新列
+         */
+        YearColumn without(Set<String> countyCodes) {
+            Map<String, Integer> slots = new HashMap<>();
+            int size = 0;
+            double[] newScores = new double[scores.length];
+            double[] newValues = new double[values.length];
+            byte[] newItems = new byte[items.length];
+            for (Map.Entry<String, Integer> entry : this.slots.entrySet()) {
+                if (countyCodes.contains(entry.getKey())) {
+                    continue;
+                }
+                int from = entry.getValue();
+                newScores[size] = scores[from];
+                System.arraycopy(values, from * width, newValues, size * width, width);
+                System.arraycopy(items, from * width, newItems, size * width, width);
+                slots.put(entry.getKey(), size++);
+            }
+            return new YearColumn(slots, Arrays.copyOf(newScores, size), Arrays.copyOf(newValues, size * width),
+                    Arrays.copyOf(newItems, size * width), width);
+        }
+    }
+}
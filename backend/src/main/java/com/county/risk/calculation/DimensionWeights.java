@@ -0,0 +1,93 @@
+package com.county.risk.calculation;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * 维度权重（system_configs.DEFAULT_RISK_WEIGHTS）
+ *
+ * 权重按 4 位小数转为整数保存，综合得分的加权平均在整数域完成，权重之和不必为 1。
+ * 五个维度权重相同时与原先的简单平均结果完全一致。
+ */
+public final class DimensionWeights {
+
+    private static final int SCALE = 4;
+
+    /**
+     * 等权重（简单平均），DEFAULT_RISK_WEIGHTS 缺失或无效时使用
+     */
+    public static final DimensionWeights EQUAL = new DimensionWeights(equalUnits());
+
+    private final long[] units;
+    private final long totalUnits;
+
+    private DimensionWeights(long[] units) {
+        this.units = units;
+        long total = 0;
+        for (long u : units) {
+            total += u;
+        }
+        this.totalUnits = total;
+    }
+
+    /**
+     * @param weights 每个维度的权重，必须包含全部维度、不能为负且总和大于 0
+     * @throws IllegalArgumentException 权重不完整或无效
+     */
+    public static DimensionWeights of(Map<RiskDimension, BigDecimal> weights) {
+        RiskDimension[] dimensions = RiskDimension.values();
+        long[] units = new long[dimensions.length];
+        long total = 0;
+        for (RiskDimension dimension : dimensions) {
+            BigDecimal w = weights.get(dimension);
+            if (w == null) {
+                throw new IllegalArgumentException("缺少维度权重: " + dimension.name().toLowerCase());
+            }
+            if (w.signum() < 0) {
+                throw new IllegalArgumentException("维度权重不能为负数: " + dimension.name().toLowerCase() + "=" + w);
+            }
+            units[dimension.ordinal()] = w.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+            total += units[dimension.ordinal()];
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("维度权重之和必须大于 0");
+        }
+        return new DimensionWeights(units);
+    }
+
+    /**
+     * 维度权重的整数表示（4 位小数）
+     */
+    long unit(int dimensionOrdinal) {
+        return units[dimensionOrdinal];
+    }
+
+    long getTotalUnits() {
+        return totalUnits;
+    }
+
+    public BigDecimal get(RiskDimension dimension) {
+        return BigDecimal.valueOf(units[dimension.ordinal()], SCALE);
+    }
+
+    private static long[] equalUnits() {
+        long[] units = new long[RiskDimension.values().length];
+        Arrays.fill(units, 10_000L / units.length);
+        return units;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (RiskDimension dimension : RiskDimension.values()) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(dimension.name().toLowerCase()).append('=')
+                    .append(get(dimension).stripTrailingZeros().toPlainString());
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,12 @@
+package com.county.risk.calculation;
+
+/**
+ * 指标取值函数：从县域年度源数据中取出指标原始值，数据缺失时返回 NaN
+ */
+@FunctionalInterface
+public interface IndicatorAccessor {
+
+    IndicatorAccessor MISSING = facts -> Double.NaN;
+
+    double valueOf(CountyYearFacts facts);
+}
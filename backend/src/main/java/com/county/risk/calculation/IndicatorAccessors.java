@@ -0,0 +1,131 @@
+package com.county.risk.calculation;
+
+import com.county.risk.entity.RiskIndicator;
+import lombok.extern.slf4j.Slf4j;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 内置指标取值函数注册表
+ * 按 (维度, 指标代码) 注册，编译计分计划时解析一次，计算时直接调用，不再逐县域做字符串分支；
+ * 配置了取值公式（{@link IndicatorFormula}）的指标优先使用公式
+ */
+@Slf4j
+public final class IndicatorAccessors {
+
+    private static final Map<String, IndicatorAccessor> BUILT_IN = new HashMap<>();
+
+    static {
+        // 经济风险
+        register(RiskDimension.ECONOMIC, "GDP_GROWTH",
+                f -> f.getEconomic() != null ? value(f.getEconomic().getGdpGrowthRate()) : Double.NaN);
+        register(RiskDimension.ECONOMIC, "FISCAL_SELF_SUFFICIENCY",
+                f -> f.getFiscal() != null ? value(f.getFiscal().getFiscalSelfSufficiency()) : Double.NaN);
+        register(RiskDimension.ECONOMIC, "DEBT_RATIO",
+                f -> f.getFiscal() != null ? value(f.getFiscal().getDebtToRevenueRatio()) : Double.NaN);
+        // 转换为万元
+        register(RiskDimension.ECONOMIC, "GDP_PER_CAPITA",
+                f -> f.getEconomic() != null ? value(f.getEconomic().getGdpPerCapita()) / 10000.0 : Double.NaN);
+
+        // 社会风险（暂无直接字段，沿用模拟数据；波动由县域与年份确定，同一输入每次计算结果相同）
+        register(RiskDimension.SOCIAL, "POPULATION_DECLINE", f -> 0.0);
+        register(RiskDimension.SOCIAL, "EMPLOYMENT_RATE",
+                f -> 90.0 + (simulatedNoise(f, 1) * 10 - 5));
+        register(RiskDimension.SOCIAL, "INCOME_GAP",
+                f -> 2.5 + (simulatedNoise(f, 2) * 1.0 - 0.5));
+
+        // 环境风险
+        register(RiskDimension.ENVIRONMENT, "AIR_QUALITY",
+                f -> f.getEnvironment() != null ? value(f.getEnvironment().getAirQualityIndex()) : Double.NaN);
+        register(RiskDimension.ENVIRONMENT, "GREEN_COVERAGE_RATE",
+                f -> f.getEnvironment() != null ? value(f.getEnvironment().getGreenCoverageRate()) : Double.NaN);
+        register(RiskDimension.ENVIRONMENT, "EMISSION_INTENSITY",
+                f -> f.getEnvironment() != null ? value(f.getEnvironment().getEmissionIntensity()) : Double.NaN);
+
+        // 治理风险：占财政支出比例(%)
+        register(RiskDimension.GOVERNANCE, "EDUCATION_INVESTMENT",
+                f -> shareOfExpenditure(f, f.getEducationHealth() != null
+                        ? f.getEducationHealth().getEducationInvestment万元() : null));
+        register(RiskDimension.GOVERNANCE, "HEALTH_INVESTMENT",
+                f -> shareOfExpenditure(f, f.getEducationHealth() != null
+                        ? f.getEducationHealth().getHealthInvestment万元() : null));
+
+        // 发展风险
+        register(RiskDimension.DEVELOPMENT, "INVESTMENT_EFFICIENCY",
+                f -> f.getInvestment() != null ? value(f.getInvestment().getInvestmentEfficiency()) : Double.NaN);
+        register(RiskDimension.DEVELOPMENT, "CONSUMPTION_RATE",
+                f -> f.getInvestment() != null ? value(f.getInvestment().getConsumptionRate()) : Double.NaN);
+        // 模拟创新指数：基于投资效率生成一个 40-90 的值
+        register(RiskDimension.DEVELOPMENT, "INNOVATION_CAPACITY", f -> {
+            if (f.getInvestment() == null) {
+                return Double.NaN;
+            }
+            BigDecimal efficiency = f.getInvestment().getInvestmentEfficiency();
+            return efficiency != null ? 40 + efficiency.doubleValue() * 30 : 50.0;
+        });
+    }
+
+    private IndicatorAccessors() {
+    }
+
+    /**
+     * 解析指标取值函数：配置了取值公式时编译公式，否则使用内置取值函数
+     * 公式无效时记录警告并按缺失值计分，不影响其他指标（公式在修改指标配置时已校验）
+     */
+    public static IndicatorAccessor resolve(RiskDimension dimension, RiskIndicator indicator) {
+        String formula = indicator.getFormula();
+        if (formula == null || formula.isBlank()) {
+            return resolve(dimension, indicator.getIndicatorCode());
+        }
+        try {
+            return IndicatorFormula.compile(formula);
+        } catch (IllegalArgumentException e) {
+            log.warn("指标 {} 的取值公式无效，按缺失值计分: {}", indicator.getIndicatorCode(), e.getMessage());
+            return IndicatorAccessor.MISSING;
+        }
+    }
+
+    /**
+     * 解析指标取值函数，未知指标返回 {@link IndicatorAccessor#MISSING}（按缺失值计分）
+     */
+    public static IndicatorAccessor resolve(RiskDimension dimension, String indicatorCode) {
+        IndicatorAccessor accessor = BUILT_IN.get(key(dimension, indicatorCode));
+        return accessor != null ? accessor : IndicatorAccessor.MISSING;
+    }
+
+    private static void register(RiskDimension dimension, String code, IndicatorAccessor accessor) {
+        BUILT_IN.put(key(dimension, code), accessor);
+    }
+
+    private static String key(RiskDimension dimension, String code) {
+        return dimension.name() + ":" + code;
+    }
+
+    private static double value(BigDecimal v) {
+        return v != null ? v.doubleValue() : Double.NaN;
+    }
+
+    /**
+     * 由县域代码、年份和 salt 确定的 [0, 1) 伪随机数（SplitMix64 混合），替代 Math.random()
+     */
+    private static double simulatedNoise(CountyYearFacts f, long salt) {
+        long z = RiskScoringKernel.concatHash(f.getCountyCode(), f.getYear()) * 0x9E3779B97F4A7C15L + salt;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z = z ^ (z >>> 31);
+        return (z >>> 11) * 0x1.0p-53;
+    }
+
+    private static double shareOfExpenditure(CountyYearFacts f, Long amount) {
+        if (f.getFiscal() == null) {
+            return Double.NaN;
+        }
+        Long expenditure = f.getFiscal().getFiscalExpenditure万元();
+        if (expenditure == null || expenditure <= 0 || amount == null) {
+            return Double.NaN;
+        }
+        return (double) amount / expenditure * 100;
+    }
+}
@@ -0,0 +1,66 @@
+package com.county.risk.calculation;
+
+/**
+ * 单个县域单个年份的指标明细（计算过程中按指标顺序记录）
+ *
+ * 每个启用指标一项：取值、单项得分（100/80/60/20）与加权贡献（单项得分 × 权重）。
+ * 维度源数据缺失时该维度按默认分计，指标不参与计分，记录为取值 NaN、单项得分 -1。
+ */
+public class IndicatorBreakdown {
+
+    /**
+     * 维度源数据缺失、指标未参与计分时的单项得分标记
+     */
+    public static final int NOT_SCORED = -1;
+
+    private final CompiledIndicator[] indicators;
+    private final double[] values;
+    private final int[] itemScores;
+    private int size;
+
+    public IndicatorBreakdown(int capacity) {
+        this.indicators = new CompiledIndicator[capacity];
+        this.values = new double[capacity];
+        this.itemScores = new int[capacity];
+    }
+
+    void add(CompiledIndicator indicator, double value, int itemScore) {
+        indicators[size] = indicator;
+        values[size] = value;
+        itemScores[size] = itemScore;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public CompiledIndicator indicator(int i) {
+        return indicators[i];
+    }
+
+    /**
+     * 指标取值，数据缺失时为 NaN
+     */
+    public double value(int i) {
+        return values[i];
+    }
+
+    /**
+     * 单项得分，未参与计分时为 {@link #NOT_SCORED}
+     */
+    public int itemScore(int i) {
+        return itemScores[i];
+    }
+
+    public boolean isScored(int i) {
+        return itemScores[i] != NOT_SCORED;
+    }
+
+    /**
+     * 加权贡献 = 单项得分 × 权重（维度得分封顶 100 之前），未参与计分时为 0
+     */
+    public double contribution(int i) {
+        return isScored(i) ? itemScores[i] * indicators[i].getWeightValue() : 0;
+    }
+}
@@ -0,0 +1,502 @@
+package com.county.risk.calculation;
+
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.county.risk.entity.EconomicAggregate;
+import com.county.risk.entity.EducationHealth;
+import com.county.risk.entity.EnvironmentCulture;
+import com.county.risk.entity.FiscalFinance;
+import com.county.risk.entity.InvestmentConsumption;
+import com.county.risk.entity.PopulationStatistics;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 指标取值公式
+ *
+ * risk_indicators.formula 中的公式在编译计分计划时解析一次，编译为由取值函数组成的表达式树，计算时不再解析文本。
+ * 列引用编译为直接调用实体 getter 的函数（LambdaMetafactory 生成，与方法引用相同），常量子表达式在编译时折叠。
+ *
+ * 语法：
+ * <pre>
+ *   表达式  := 项 (('+' | '-') 项)*
+ *   项      := 因子 (('*' | '/') 因子)*
+ *   因子    := '-' 因子 | 数字 | 表名.列名 | 函数名 '(' 表达式 (',' 表达式)* ')' | '(' 表达式 ')'
+ *   函数    := min(a, b, ...) | max(a, b, ...) | abs(a) | coalesce(a, b, ...)
+ * </pre>
+ * 表名为六张源数据表名，列名为数据库列名（如 fiscal_finance.fiscal_expenditure_万元）。
+ * 源数据行或列值缺失时取值为 NaN 并向上传播（按缺失值计分），除数为 0 时结果为 NaN；coalesce 取第一个非缺失值。
+ */
+public final class IndicatorFormula {
+
+    private static final Map<String, FactTable> TABLES = new LinkedHashMap<>();
+
+    /**
+     * 按公式文本缓存编译结果；编译结果无状态，可在计划之间与线程之间共用
+     */
+    private static final Map<String, IndicatorAccessor> COMPILED = new ConcurrentHashMap<>();
+
+    static {
+        register("economic_aggregate", EconomicAggregate.class, CountyYearFacts::getEconomic);
+        register("fiscal_finance", FiscalFinance.class, CountyYearFacts::getFiscal);
+        register("population_statistics", PopulationStatistics.class, CountyYearFacts::getPopulation);
+        register("environment_culture", EnvironmentCulture.class, CountyYearFacts::getEnvironment);
+        register("education_health", EducationHealth.class, CountyYearFacts::getEducationHealth);
+        register("investment_consumption", InvestmentConsumption.class, CountyYearFacts::getInvestment);
+    }
+
+    private IndicatorFormula() {
+    }
+
+    /**
+     * 编译公式
+     *
+     * @throws IllegalArgumentException 公式语法错误或引用了不存在的表、列、函数
+     */
+    public static IndicatorAccessor compile(String formula) {
+        if (formula == null || formula.isBlank()) {
+            throw new IllegalArgumentException("取值公式不能为空");
+        }
+        String text = formula.trim();
+        IndicatorAccessor cached = COMPILED.get(text);
+        if (cached != null) {
+            return cached;
+        }
+        Parser parser = new Parser(text);
+        Expr expr = parser.expression();
+        parser.expectEnd();
+        IndicatorAccessor accessor = expr.accessor();
+        COMPILED.putIfAbsent(text, accessor);
+        return accessor;
+    }
+
+    /**
+     * 公式可引用的源数据列，按表名分组（供配置界面提示）
+     */
+    public static Map<String, List<String>> availableColumns() {
+        Map<String, List<String>> columns = new LinkedHashMap<>();
+        TABLES.forEach((name, table) -> columns.put(name, new ArrayList<>(table.columns.keySet())));
+        return columns;
+    }
+
+    private static void register(String name, Class<?> type, Function<CountyYearFacts, Object> row) {
+        Map<String, Column> columns = new LinkedHashMap<>();
+        for (Field field : type.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers()) || field.isAnnotationPresent(TableId.class)) {
+                continue;
+            }
+            boolean decimal = field.getType() == BigDecimal.class;
+            if (!decimal && !Number.class.isAssignableFrom(field.getType())) {
+                continue;
+            }
+            TableField mapping = field.getAnnotation(TableField.class);
+            String column = mapping != null && !mapping.value().isEmpty() ? mapping.value() : snakeCase(field.getName());
+            columns.put(column, new Column(getter(type, field), decimal));
+        }
+        TABLES.put(name, new FactTable(row, Collections.unmodifiableMap(columns)));
+    }
+
+    /**
+     * 为实体 getter 生成函数对象，调用开销与手写方法引用相同
+     */
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> getter(Class<?> type, Field field) {
+        String name = "get" + Character.toUpperCase(field.getName().charAt(0)) + field.getName().substring(1);
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodHandle handle = lookup.unreflect(type.getMethod(name));
+            CallSite site = LambdaMetafactory.metafactory(lookup, "apply",
+                    MethodType.methodType(Function.class),
+                    MethodType.methodType(Object.class, Object.class),
+                    handle, handle.type());
+            return (Function<Object, Object>) site.getTarget().invokeExact();
+        } catch (Throwable e) {
+            throw new IllegalStateException("无法生成 " + type.getSimpleName() + "." + name + " 的取值函数", e);
+        }
+    }
+
+    private static String snakeCase(String name) {
+        StringBuilder sb = new StringBuilder(name.length() + 8);
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isUpperCase(c)) {
+                sb.append('_').append(Character.toLowerCase(c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private record FactTable(Function<CountyYearFacts, Object> row, Map<String, Column> columns) {
+    }
+
+    private record Column(Function<Object, Object> getter, boolean decimal) {
+    }
+
+    /**
+     * 表达式树节点；isConstant 标记不依赖源数据、可在编译时折叠的子表达式
+     */
+    private interface Expr {
+
+        IndicatorAccessor accessor();
+
+        default boolean isConstant() {
+            return false;
+        }
+
+        default double constant() {
+            throw new IllegalStateException();
+        }
+    }
+
+    private record Constant(double value) implements Expr {
+        @Override
+        public IndicatorAccessor accessor() {
+            double v = value;
+            return facts -> v;
+        }
+
+        @Override
+        public boolean isConstant() {
+            return true;
+        }
+
+        @Override
+        public double constant() {
+            return value;
+        }
+    }
+
+    private record ColumnRef(FactTable table, Column column) implements Expr {
+        @Override
+        public IndicatorAccessor accessor() {
+            Function<CountyYearFacts, Object> row = table.row();
+            Function<Object, Object> getter = column.getter();
+            if (column.decimal()) {
+                return facts -> {
+                    Object r = row.apply(facts);
+                    if (r == null) {
+                        return Double.NaN;
+                    }
+                    BigDecimal v = (BigDecimal) getter.apply(r);
+                    return v != null ? v.doubleValue() : Double.NaN;
+                };
+            }
+            return facts -> {
+                Object r = row.apply(facts);
+                if (r == null) {
+                    return Double.NaN;
+                }
+                Number v = (Number) getter.apply(r);
+                return v != null ? v.doubleValue() : Double.NaN;
+            };
+        }
+    }
+
+    private record Binary(char op, Expr left, Expr right) implements Expr {
+        @Override
+        public IndicatorAccessor accessor() {
+            if (left.isConstant() && right.isConstant()) {
+                return new Constant(apply(op, left.constant(), right.constant())).accessor();
+            }
+            IndicatorAccessor l = left.accessor();
+            IndicatorAccessor r = right.accessor();
+            // 右侧为常量时单独生成，减少一次间接调用
+            if (right.isConstant()) {
+                double c = right.constant();
+                switch (op) {
+                    case '+':
+                        return facts -> l.valueOf(facts) + c;
+                    case '-':
+                        return facts -> l.valueOf(facts) - c;
+                    case '*':
+                        return facts -> l.valueOf(facts) * c;
+                    default:
+                        return c == 0 ? IndicatorAccessor.MISSING : facts -> l.valueOf(facts) / c;
+                }
+            }
+            switch (op) {
+                case '+':
+                    return facts -> l.valueOf(facts) + r.valueOf(facts);
+                case '-':
+                    return facts -> l.valueOf(facts) - r.valueOf(facts);
+                case '*':
+                    return facts -> l.valueOf(facts) * r.valueOf(facts);
+                default:
+                    return facts -> divide(l.valueOf(facts), r.valueOf(facts));
+            }
+        }
+
+        @Override
+        public boolean isConstant() {
+            return left.isConstant() && right.isConstant();
+        }
+
+        @Override
+        public double constant() {
+            return apply(op, left.constant(), right.constant());
+        }
+
+        private static double apply(char op, double a, double b) {
+            switch (op) {
+                case '+':
+                    return a + b;
+                case '-':
+                    return a - b;
+                case '*':
+                    return a * b;
+                default:
+                    return divide(a, b);
+            }
+        }
+
+        private static double divide(double a, double b) {
+            return b == 0 ? Double.NaN : a / b;
+        }
+    }
+
+    private record Negate(Expr operand) implements Expr {
+        @Override
+        public IndicatorAccessor accessor() {
+            if (operand.isConstant()) {
+                return new Constant(-operand.constant()).accessor();
+            }
+            IndicatorAccessor a = operand.accessor();
+            return facts -> -a.valueOf(facts);
+        }
+
+        @Override
+        public boolean isConstant() {
+            return operand.isConstant();
+        }
+
+        @Override
+        public double constant() {
+            return -operand.constant();
+        }
+    }
+
+    private record Call(String function, List<Expr> args) implements Expr {
+        @Override
+        public IndicatorAccessor accessor() {
+            IndicatorAccessor[] a = args.stream().map(Expr::accessor).toArray(IndicatorAccessor[]::new);
+            switch (function) {
+                case "abs":
+                    return abs(a[0]);
+                case "min":
+                    return a.length == 2 ? min(a[0], a[1]) : facts -> {
+                        double m = a[0].valueOf(facts);
+                        for (int i = 1; i < a.length; i++) {
+                            m = Math.min(m, a[i].valueOf(facts));
+                        }
+                        return m;
+                    };
+                case "max":
+                    return a.length == 2 ? max(a[0], a[1]) : facts -> {
+                        double m = a[0].valueOf(facts);
+                        for (int i = 1; i < a.length; i++) {
+                            m = Math.max(m, a[i].valueOf(facts));
+                        }
+                        return m;
+                    };
+                default:
+                    // coalesce
+                    return facts -> {
+                        for (IndicatorAccessor arg : a) {
+                            double v = arg.valueOf(facts);
+                            if (!Double.isNaN(v)) {
+                                return v;
+                            }
+                        }
+                        return Double.NaN;
+                    };
+            }
+        }
+
+        private static IndicatorAccessor abs(IndicatorAccessor x) {
+            return facts -> Math.abs(x.valueOf(facts));
+        }
+
+        private static IndicatorAccessor min(IndicatorAccessor p, IndicatorAccessor q) {
+            return facts -> Math.min(p.valueOf(facts), q.valueOf(facts));
+        }
+
+        private static IndicatorAccessor max(IndicatorAccessor p, IndicatorAccessor q) {
+            return facts -> Math.max(p.valueOf(facts), q.valueOf(facts));
+        }
+    }
+
+    /**
+     * 递归下降解析器
+     */
+    private static final class Parser {
+
+        private final String text;
+        private int pos;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        Expr expression() {
+            Expr expr = term();
+            while (true) {
+                if (accept('+')) {
+                    expr = new Binary('+', expr, term());
+                } else if (accept('-')) {
+                    expr = new Binary('-', expr, term());
+                } else {
+                    return expr;
+                }
+            }
+        }
+
+        private Expr term() {
+            Expr expr = factor();
+            while (true) {
+                if (accept('*')) {
+                    expr = new Binary('*', expr, factor());
+                } else if (accept('/')) {
+                    expr = new Binary('/', expr, factor());
+                } else {
+                    return expr;
+                }
+            }
+        }
+
+        private Expr factor() {
+            skipSpaces();
+            if (accept('-')) {
+                return new Negate(factor());
+            }
+            if (accept('(')) {
+                Expr expr = expression();
+                expect(')');
+                return expr;
+            }
+            if (pos < text.length() && (Character.isDigit(text.charAt(pos)) || text.charAt(pos) == '.')) {
+                return number();
+            }
+            String name = identifier();
+            skipSpaces();
+            if (accept('(')) {
+                return call(name);
+            }
+            expect('.');
+            return column(name, identifier());
+        }
+
+        private Expr number() {
+            int start = pos;
+            while (pos < text.length() && (Character.isDigit(text.charAt(pos)) || text.charAt(pos) == '.')) {
+                pos++;
+            }
+            try {
+                return new Constant(Double.parseDouble(text.substring(start, pos)));
+            } catch (NumberFormatException e) {
+                throw error(start, "无效的数字 " + text.substring(start, pos));
+            }
+        }
+
+        private Expr call(String name) {
+            int start = pos;
+            String function = name.toLowerCase();
+            List<Expr> args = new ArrayList<>();
+            if (!accept(')')) {
+                do {
+                    args.add(expression());
+                } while (accept(','));
+                expect(')');
+            }
+            switch (function) {
+                case "abs":
+                    if (args.size() != 1) {
+                        throw error(start, "abs 需要 1 个参数");
+                    }
+                    break;
+                case "min":
+                case "max":
+                case "coalesce":
+                    if (args.isEmpty()) {
+                        throw error(start, function + " 至少需要 1 个参数");
+                    }
+                    break;
+                default:
+                    throw error(start, "未知函数 " + name);
+            }
+            return new Call(function, args);
+        }
+
+        private Expr column(String tableName, String columnName) {
+            FactTable table = TABLES.get(tableName);
+            if (table == null) {
+                throw error(pos, "未知的源数据表 " + tableName + "，可用: " + TABLES.keySet());
+            }
+            Column column = table.columns().get(columnName);
+            if (column == null) {
+                throw error(pos, tableName + " 中没有数值列 " + columnName);
+            }
+            return new ColumnRef(table, column);
+        }
+
+        private String identifier() {
+            skipSpaces();
+            int start = pos;
+            while (pos < text.length()
+                    && (Character.isLetterOrDigit(text.charAt(pos)) || text.charAt(pos) == '_')) {
+                pos++;
+            }
+            if (start == pos) {
+                throw error(pos, pos < text.length() ? "意外的字符 '" + text.charAt(pos) + "'" : "公式不完整");
+            }
+            return text.substring(start, pos);
+        }
+
+        void expectEnd() {
+            skipSpaces();
+            if (pos < text.length()) {
+                throw error(pos, "意外的字符 '" + text.charAt(pos) + "'");
+            }
+        }
+
+        private void expect(char c) {
+            if (!accept(c)) {
+                throw error(pos, "缺少 '" + c + "'");
+            }
+        }
+
+        private boolean accept(char c) {
+            skipSpaces();
+            if (pos < text.length() && text.charAt(pos) == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void skipSpaces() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private IllegalArgumentException error(int at, String message) {
+            return new IllegalArgumentException("取值公式错误（第 " + (at + 1) + " 个字符）: " + message + "，公式: " + text);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.county.risk.calculation;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * 风险等级分界点（从高到低四个阈值）
+ * 比较基于写库后的 DECIMAL(8,4) 得分：得分 >= high 为高风险，依次类推，低于 mediumLow 为低风险
+ */
+public class LevelCutPoints {
+
+    private final BigDecimal high;
+    private final BigDecimal mediumHigh;
+    private final BigDecimal medium;
+    private final BigDecimal mediumLow;
+    /**
+     * 分界点换算为得分万分之一的整数（向上取整），从高到低；用于不创建 BigDecimal 的等级判定
+     */
+    private final long[] cutUnits;
+
+    public LevelCutPoints(BigDecimal high, BigDecimal mediumHigh, BigDecimal medium, BigDecimal mediumLow) {
+        if (high.compareTo(mediumHigh) < 0 || mediumHigh.compareTo(medium) < 0 || medium.compareTo(mediumLow) < 0) {
+            throw new IllegalArgumentException(String.format(
+                    "风险等级阈值必须从高到低排列: high=%s, medium-high=%s, medium=%s, medium-low=%s",
+                    high, mediumHigh, medium, mediumLow));
+        }
+        this.high = high;
+        this.mediumHigh = mediumHigh;
+        this.medium = medium;
+        this.mediumLow = mediumLow;
+        this.cutUnits = new long[]{units(high), units(mediumHigh), units(medium), units(mediumLow)};
+    }
+
+    public static LevelCutPoints of(double high, double mediumHigh, double medium, double mediumLow) {
+        return new LevelCutPoints(BigDecimal.valueOf(high), BigDecimal.valueOf(mediumHigh),
+                BigDecimal.valueOf(medium), BigDecimal.valueOf(mediumLow));
+    }
+
+    /**
+     * 根据综合风险得分确定风险等级
+     */
+    public String classify(double comprehensiveScore) {
+        BigDecimal s = CountyScore.toDecimal(comprehensiveScore);
+        if (s.compareTo(high) >= 0) return RiskLevelClassifier.HIGH;
+        if (s.compareTo(mediumHigh) >= 0) return RiskLevelClassifier.MEDIUM_HIGH;
+        if (s.compareTo(medium) >= 0) return RiskLevelClassifier.MEDIUM;
+        if (s.compareTo(mediumLow) >= 0) return RiskLevelClassifier.MEDIUM_LOW;
+        return RiskLevelClassifier.LOW;
+    }
+
+    /**
+     * 风险等级在 {@link RiskLevelClassifier#LEVELS} 中的序号（0 为高风险），与 {@link #classify(double)} 一致，
+     * 得分按 4 位小数比较但不创建对象，供大量重复判定使用
+     */
+    public int levelIndex(double comprehensiveScore) {
+        long s = Math.round(comprehensiveScore * 10_000);
+        for (int i = 0; i < cutUnits.length; i++) {
+            if (s >= cutUnits[i]) {
+                return i;
+            }
+        }
+        return cutUnits.length;
+    }
+
+    private static long units(BigDecimal cut) {
+        return cut.movePointRight(CountyScore.SCORE_SCALE).setScale(0, RoundingMode.CEILING).longValueExact();
+    }
+
+    public BigDecimal getHigh() {
+        return high;
+    }
+
+    public BigDecimal getMediumHigh() {
+        return mediumHigh;
+    }
+
+    public BigDecimal getMedium() {
+        return medium;
+    }
+
+    public BigDecimal getMediumLow() {
+        return mediumLow;
+    }
+
+    @Override
+    public String toString() {
+        return "高风险>=" + high + ", 中高风险>=" + mediumHigh + ", 中风险>=" + medium + ", 中低风险>=" + mediumLow;
+    }
+}
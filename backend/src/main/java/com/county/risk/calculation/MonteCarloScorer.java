@@ -0,0 +1,203 @@
+package com.county.risk.calculation;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * 蒙特卡洛综合得分抽样
+ *
+ * 在一次计分记录的指标取值上施加乘性均匀噪声 value × (1 + U(-noise, noise))（与数据导入脚本的扰动方式一致），
+ * 按原阈值重新计算单项得分、维度得分与综合得分，重复 trials 次，得到每个县域综合得分的分位数与各风险等级的概率。
+ * 源数据缺失的维度与取值缺失的指标不受噪声影响。
+ *
+ * 每个县域使用由 (seed, 县域代码, 年份) 确定的随机数序列，结果可复现且与线程调度无关。
+ * 抽样循环内不创建对象：得分缓冲区按线程复用，等级判定使用 {@link LevelCutPoints#levelIndex(double)}，
+ * 县域固定的趋势与扰动项在循环外计算一次。实例不可变，可由多个计算线程共用。
+ */
+public final class MonteCarloScorer {
+
+    /**
+     * 记录的分位点
+     */
+    public static final double[] PERCENTILES = {0.05, 0.25, 0.50, 0.75, 0.95};
+
+    private static final double MAX_SCORE = 100.0;
+
+    private final ScoringPlan plan;
+    private final LevelCutPoints cutPoints;
+    private final int trials;
+    private final double noise;
+    private final long seed;
+    private final ThreadLocal<double[]> buffers;
+
+    /**
+     * @param cutPoints 判定风险等级的分界点
+     * @param trials    每个县域的抽样次数
+     * @param noise     指标取值的相对噪声幅度，如 0.05 表示 ±5%
+     * @param seed      随机种子
+     */
+    public MonteCarloScorer(ScoringPlan plan, LevelCutPoints cutPoints, int trials, double noise, long seed) {
+        if (trials <= 0) {
+            throw new IllegalArgumentException("抽样次数必须大于 0");
+        }
+        if (noise < 0 || noise >= 1) {
+            throw new IllegalArgumentException("噪声幅度必须在 [0, 1) 之间");
+        }
+        this.plan = plan;
+        this.cutPoints = cutPoints;
+        this.trials = trials;
+        this.noise = noise;
+        this.seed = seed;
+        this.buffers = ThreadLocal.withInitial(() -> new double[trials]);
+    }
+
+    /**
+     * 对一个县域抽样；score 必须按同一计分计划计算并记录了指标明细
+     */
+    public ScoreDistribution sample(CountyScore score) {
+        IndicatorBreakdown breakdown = score.getBreakdown();
+        if (breakdown == null) {
+            throw new IllegalArgumentException("蒙特卡洛抽样需要指标明细");
+        }
+        RiskDimension[] dimensions = RiskDimension.values();
+        double[] dims = new double[dimensions.length];
+        boolean[] noisy = new boolean[dimensions.length];
+        for (RiskDimension dimension : dimensions) {
+            dims[dimension.ordinal()] = score.getDimensionScore(dimension);
+            noisy[dimension.ordinal()] = plan.indicators(dimension).length > 0
+                    && breakdown.isScored(plan.indicatorOffset(dimension));
+        }
+        DimensionWeights weights = plan.getDimensionWeights();
+        double trend = RiskScoringKernel.yearTrend(score.getYear());
+        double perturbation = RiskScoringKernel.perturbation(score.getCountyCode(), score.getYear());
+        SplittableRandom random = new SplittableRandom(seed ^ ((long) score.getCountyCode().hashCode() << 16) ^ score.getYear());
+
+        double[] samples = buffers.get();
+        int[] levelCounts = new int[RiskLevelClassifier.LEVELS.length];
+        double sum = 0;
+        double sumSq = 0;
+        for (int t = 0; t < trials; t++) {
+            for (RiskDimension dimension : dimensions) {
+                if (noisy[dimension.ordinal()]) {
+                    dims[dimension.ordinal()] = noisyDimensionScore(dimension, breakdown, random);
+                }
+            }
+            double comprehensive = RiskScoringKernel.comprehensiveScore(dims, weights, trend, perturbation);
+            samples[t] = comprehensive;
+            sum += comprehensive;
+            sumSq += comprehensive * comprehensive;
+            levelCounts[cutPoints.levelIndex(comprehensive)]++;
+        }
+
+        Arrays.sort(samples, 0, trials);
+        double[] percentiles = new double[PERCENTILES.length];
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            percentiles[i] = percentile(samples, trials, PERCENTILES[i]);
+        }
+        double mean = sum / trials;
+        double variance = Math.max(0, sumSq / trials - mean * mean);
+        double[] levelProbabilities = new double[levelCounts.length];
+        for (int i = 0; i < levelCounts.length; i++) {
+            levelProbabilities[i] = (double) levelCounts[i] / trials;
+        }
+        return new ScoreDistribution(score.getCountyCode(), score.getYear(), score.getComprehensiveScore(), mean,
+                Math.sqrt(variance), percentiles, levelProbabilities);
+    }
+
+    private double noisyDimensionScore(RiskDimension dimension, IndicatorBreakdown breakdown, SplittableRandom random) {
+        CompiledIndicator[] indicators = plan.indicators(dimension);
+        int offset = plan.indicatorOffset(dimension);
+        double raw = 0;
+        for (int k = 0; k < indicators.length; k++) {
+            double value = breakdown.value(offset + k);
+            int item;
+            if (Double.isNaN(value)) {
+                item = 20;
+            } else {
+                double factor = 1 + noise * (2 * random.nextDouble() - 1);
+                item = indicators[k].itemScore(value * factor);
+            }
+            raw += item * indicators[k].getWeightValue();
+        }
+        return Math.min(raw, MAX_SCORE);
+    }
+
+    /**
+     * 已排序样本的分位数（相邻样本线性插值）
+     */
+    private static double percentile(double[] sorted, int n, double q) {
+        double position = q * (n - 1);
+        int lower = (int) Math.floor(position);
+        int upper = Math.min(lower + 1, n - 1);
+        return sorted[lower] + (sorted[upper] - sorted[lower]) * (position - lower);
+    }
+
+    public int getTrials() {
+        return trials;
+    }
+
+    public double getNoise() {
+        return noise;
+    }
+
+    /**
+     * 单个县域年份的抽样结果
+     */
+    public static final class ScoreDistribution {
+        private final String countyCode;
+        private final int year;
+        private final double pointScore;
+        private final double mean;
+        private final double stdDev;
+        private final double[] percentiles;
+        private final double[] levelProbabilities;
+
+        ScoreDistribution(String countyCode, int year, double pointScore, double mean, double stdDev,
+                          double[] percentiles, double[] levelProbabilities) {
+            this.countyCode = countyCode;
+            this.year = year;
+            this.pointScore = pointScore;
+            this.mean = mean;
+            this.stdDev = stdDev;
+            this.percentiles = percentiles;
+            this.levelProbabilities = levelProbabilities;
+        }
+
+        public String getCountyCode() {
+            return countyCode;
+        }
+
+        public int getYear() {
+            return year;
+        }
+
+        /**
+         * 不加噪声时的综合得分
+         */
+        public double getPointScore() {
+            return pointScore;
+        }
+
+        public double getMean() {
+            return mean;
+        }
+
+        public double getStdDev() {
+            return stdDev;
+        }
+
+        /**
+         * 第 i 个分位点（{@link #PERCENTILES}）的综合得分
+         */
+        public double percentile(int i) {
+            return percentiles[i];
+        }
+
+        /**
+         * 落入第 i 个风险等级（{@link RiskLevelClassifier#LEVELS}，0 为高风险）的概率
+         */
+        public double levelProbability(int i) {
+            return levelProbabilities[i];
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.county.risk.calculation;
+
+import com.county.risk.entity.RiskIndicator;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 风险配置快照
+ *
+ * 一次性读取的指标配置、维度权重与系统配置，以及由此编译好的计分计划。快照创建后不再变化，
+ * 配置更新时整体替换为新快照，计算过程中持有的快照不受影响。
+ * version 与计分计划的配置版本相同（配置内容摘要），generation 为每次加载递增的序号。
+ * 快照中的指标对象为共享只读数据，调用方需要修改时先复制。
+ */
+public final class RiskConfigSnapshot {
+
+    private final long generation;
+    private final LocalDateTime loadedAt;
+    private final List<RiskIndicator> indicators;
+    private final Map<String, List<RiskIndicator>> enabledByCategory;
+    private final Map<String, String> systemConfigs;
+    private final ScoringPlan plan;
+    private final Integer calculationFrequencyDays;
+
+    public RiskConfigSnapshot(long generation, LocalDateTime loadedAt, List<RiskIndicator> indicators,
+                              Map<String, List<RiskIndicator>> enabledByCategory, Map<String, String> systemConfigs,
+                              ScoringPlan plan, Integer calculationFrequencyDays) {
+        this.generation = generation;
+        this.loadedAt = loadedAt;
+        this.indicators = indicators;
+        this.enabledByCategory = enabledByCategory;
+        this.systemConfigs = systemConfigs;
+        this.plan = plan;
+        this.calculationFrequencyDays = calculationFrequencyDays;
+    }
+
+    public String getVersion() {
+        return plan.getConfigVersion();
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    public LocalDateTime getLoadedAt() {
+        return loadedAt;
+    }
+
+    /**
+     * 全部指标（含停用），按权重从高到低
+     */
+    public List<RiskIndicator> getIndicators() {
+        return indicators;
+    }
+
+    /**
+     * 按类别分组的启用指标
+     */
+    public Map<String, List<RiskIndicator>> getEnabledByCategory() {
+        return enabledByCategory;
+    }
+
+    public Map<String, String> getSystemConfigs() {
+        return systemConfigs;
+    }
+
+    public String getSystemConfig(String key) {
+        return systemConfigs.get(key);
+    }
+
+    public ScoringPlan getPlan() {
+        return plan;
+    }
+
+    public DimensionWeights getDimensionWeights() {
+        return plan.getDimensionWeights();
+    }
+
+    /**
+     * RISK_CALCULATION_FREQUENCY（天），未配置或无效时为 null
+     */
+    public Integer getCalculationFrequencyDays() {
+        return calculationFrequencyDays;
+    }
+}
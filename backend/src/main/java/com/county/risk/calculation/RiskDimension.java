@@ -0,0 +1,52 @@
+package com.county.risk.calculation;
+
+import java.util.function.Predicate;
+
+/**
+ * 风险维度
+ * category 对应 risk_indicators.category；missingDataScore 为该维度所需源数据缺失时的默认得分
+ */
+public enum RiskDimension {
+
+    ECONOMIC("经济风险", 50.0, f -> f.getEconomic() != null || f.getFiscal() != null),
+    SOCIAL("社会风险", 30.0, f -> f.getPopulation() != null || f.getEconomic() != null),
+    ENVIRONMENT("环境风险", 30.0, f -> f.getEnvironment() != null),
+    GOVERNANCE("治理风险", 30.0, f -> f.getEducationHealth() != null && f.getFiscal() != null),
+    DEVELOPMENT("发展风险", 30.0, f -> f.getInvestment() != null);
+
+    /**
+     * 维度未配置任何启用指标时的默认得分
+     */
+    public static final double NO_INDICATOR_SCORE = 20.0;
+
+    private final String category;
+    private final double missingDataScore;
+    private final Predicate<CountyYearFacts> dataPresent;
+
+    RiskDimension(String category, double missingDataScore, Predicate<CountyYearFacts> dataPresent) {
+        this.category = category;
+        this.missingDataScore = missingDataScore;
+        this.dataPresent = dataPresent;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public double getMissingDataScore() {
+        return missingDataScore;
+    }
+
+    public boolean hasData(CountyYearFacts facts) {
+        return dataPresent.test(facts);
+    }
+
+    public static RiskDimension ofCategory(String category) {
+        for (RiskDimension d : values()) {
+            if (d.category.equals(category)) {
+                return d;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,111 @@
+package com.county.risk.calculation;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+
+/**
+ * 风险等级划分器
+ *
+ * 在计算阶段直接为每个县域确定最终风险等级，评估结果只写入一次，不再先写"计算中"再按年份逐级 UPDATE。
+ * 支持两种模式（risk.level.mode）：
+ * - fixed：固定阈值 risk.level.thresholds.*，不随数据分布变化
+ * - quantile：按年份分位数划分，risk.level.quantiles 依次为中低风险、中风险、中高风险、高风险的下界分位，
+ *   分位点由计算过程中各线程合并的 {@link ScoreSketch} 得到，并记录到 risk_level_cut_points
+ */
+@Slf4j
+@Component
+public class RiskLevelClassifier {
+
+    public static final String HIGH = "高风险";
+    public static final String MEDIUM_HIGH = "中高风险";
+    public static final String MEDIUM = "中风险";
+    public static final String MEDIUM_LOW = "中低风险";
+    public static final String LOW = "低风险";
+
+    /**
+     * 从高到低排列的风险等级
+     */
+    public static final String[] LEVELS = {HIGH, MEDIUM_HIGH, MEDIUM, MEDIUM_LOW, LOW};
+
+    public static final String MODE_FIXED = "fixed";
+    public static final String MODE_QUANTILE = "quantile";
+
+    private final LevelCutPoints fixedCutPoints;
+    private final boolean quantileMode;
+    private final double[] quantiles;
+
+    public RiskLevelClassifier(@Value("${risk.level.thresholds.high:18.0}") double high,
+                               @Value("${risk.level.thresholds.medium-high:15.0}") double mediumHigh,
+                               @Value("${risk.level.thresholds.medium:12.0}") double medium,
+                               @Value("${risk.level.thresholds.medium-low:8.0}") double mediumLow,
+                               @Value("${risk.level.mode:fixed}") String mode,
+                               @Value("${risk.level.quantiles:0.30,0.60,0.85,0.95}") double[] quantiles) {
+        this.fixedCutPoints = LevelCutPoints.of(high, mediumHigh, medium, mediumLow);
+        if (!MODE_FIXED.equalsIgnoreCase(mode) && !MODE_QUANTILE.equalsIgnoreCase(mode)) {
+            throw new IllegalArgumentException("未知的风险等级划分模式: " + mode);
+        }
+        this.quantileMode = MODE_QUANTILE.equalsIgnoreCase(mode);
+        if (quantiles.length != 4) {
+            throw new IllegalArgumentException("risk.level.quantiles 需要 4 个分位: " + Arrays.toString(quantiles));
+        }
+        for (int i = 0; i < quantiles.length; i++) {
+            if (quantiles[i] <= 0 || quantiles[i] >= 1 || (i > 0 && quantiles[i] < quantiles[i - 1])) {
+                throw new IllegalArgumentException("risk.level.quantiles 必须在 (0,1) 内且从低到高排列: "
+                        + Arrays.toString(quantiles));
+            }
+        }
+        this.quantiles = quantiles.clone();
+        if (quantileMode) {
+            log.info("风险等级划分模式: 按年分位数, 分位 {}", Arrays.toString(this.quantiles));
+        } else {
+            log.info("风险等级划分模式: 固定阈值, {}", fixedCutPoints);
+        }
+    }
+
+    public boolean isQuantileMode() {
+        return quantileMode;
+    }
+
+    public String getMode() {
+        return quantileMode ? MODE_QUANTILE : MODE_FIXED;
+    }
+
+    /**
+     * 分位配置，如 "0.3,0.6,0.85,0.95"
+     */
+    public String getQuantilesText() {
+        StringBuilder sb = new StringBuilder();
+        for (double q : quantiles) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(q);
+        }
+        return sb.toString();
+    }
+
+    public LevelCutPoints getFixedCutPoints() {
+        return fixedCutPoints;
+    }
+
+    /**
+     * 按固定阈值确定风险等级
+     */
+    public String classify(double comprehensiveScore) {
+        return fixedCutPoints.classify(comprehensiveScore);
+    }
+
+    /**
+     * 由某年的得分草图计算分位数分界点；草图为空时返回 null
+     */
+    public LevelCutPoints quantileCutPoints(ScoreSketch sketch) {
+        if (sketch.getCount() == 0) {
+            return null;
+        }
+        return LevelCutPoints.of(sketch.quantile(quantiles[3]), sketch.quantile(quantiles[2]),
+                sketch.quantile(quantiles[1]), sketch.quantile(quantiles[0]));
+    }
+}
@@ -0,0 +1,168 @@
+package com.county.risk.calculation;
+
+/**
+ * 风险计分内核
+ *
+ * 全部使用 double 运算，计算过程不创建 BigDecimal。与原 BigDecimal 实现的等价性：
+ * 单项得分为整数、指标权重最多 4 位小数，维度得分的精确值最多 4 位小数，
+ * double 累加误差远小于 0.00005，按 4 位小数写库后与 BigDecimal 结果一致；
+ * 基础分保留 2 位小数（HALF_UP）在整数域完成，不受浮点误差影响。
+ */
+public final class RiskScoringKernel {
+
+    private static final int BASE_YEAR = 2000;
+    private static final double YEAR_TREND_PER_YEAR = 0.05;
+    private static final double COMPRESSION = 0.7;
+    private static final double MAX_SCORE = 100.0;
+
+    private RiskScoringKernel() {
+    }
+
+    /**
+     * 计算一个县域的各维度得分与综合得分
+     */
+    public static CountyScore score(CountyYearFacts facts, ScoringPlan plan) {
+        return score(facts, plan, false);
+    }
+
+    /**
+     * 计算一个县域的各维度得分与综合得分
+     *
+     * @param recordItems 是否同时记录每个启用指标的取值与单项得分（{@link CountyScore#getBreakdown()}）
+     */
+    public static CountyScore score(CountyYearFacts facts, ScoringPlan plan, boolean recordItems) {
+        return score(facts, plan, recordItems, DimensionScoreMemo.Lookup.NONE);
+    }
+
+    /**
+     * 计算一个县域，memo 中有该县域年份结果的维度直接取备忘的得分与指标明细（标记为复用），其余维度按源数据计算
+     */
+    public static CountyScore score(CountyYearFacts facts, ScoringPlan plan, boolean recordItems,
+                                    DimensionScoreMemo.Lookup memo) {
+        RiskDimension[] dimensions = RiskDimension.values();
+        double[] dims = new double[dimensions.length];
+        IndicatorBreakdown breakdown = recordItems ? new IndicatorBreakdown(plan.getIndicatorCount()) : null;
+        int reused = 0;
+        for (RiskDimension dimension : dimensions) {
+            if (memo.fill(dimension, facts.getCountyCode(), facts.getYear(), dims, breakdown)) {
+                reused |= 1 << dimension.ordinal();
+            } else {
+                dims[dimension.ordinal()] = dimensionScore(facts, dimension, plan.indicators(dimension), breakdown);
+            }
+        }
+        double comprehensive = comprehensiveScore(dims, plan.getDimensionWeights(), facts.getCountyCode(), facts.getYear());
+        CountyScore score = new CountyScore(facts.getCountyCode(), facts.getYear(), dims, comprehensive);
+        score.setBreakdown(breakdown);
+        score.setReusedDimensions(reused);
+        return score;
+    }
+
+    /**
+     * 单个维度得分：无启用指标得 20 分；源数据缺失取维度默认分；单项取值缺失按 20 分计；上限 100
+     */
+    public static double dimensionScore(CountyYearFacts facts, RiskDimension dimension, CompiledIndicator[] indicators) {
+        return dimensionScore(facts, dimension, indicators, null);
+    }
+
+    private static double dimensionScore(CountyYearFacts facts, RiskDimension dimension, CompiledIndicator[] indicators,
+                                         IndicatorBreakdown breakdown) {
+        if (indicators.length == 0) {
+            return RiskDimension.NO_INDICATOR_SCORE;
+        }
+        if (!dimension.hasData(facts)) {
+            if (breakdown != null) {
+                for (CompiledIndicator indicator : indicators) {
+                    breakdown.add(indicator, Double.NaN, IndicatorBreakdown.NOT_SCORED);
+                }
+            }
+            return dimension.getMissingDataScore();
+        }
+        double score = 0;
+        for (CompiledIndicator indicator : indicators) {
+            double value = indicator.valueOf(facts);
+            int itemScore = Double.isNaN(value) ? 20 : indicator.itemScore(value);
+            score += itemScore * indicator.getWeightValue();
+            if (breakdown != null) {
+                breakdown.add(indicator, value, itemScore);
+            }
+        }
+        return Math.min(score, MAX_SCORE);
+    }
+
+    /**
+     * 综合得分 = (五维加权平均分 + 逐年趋势 + 县域扰动) × 0.7，截断到 [0, 100]
+     */
+    public static double comprehensiveScore(double[] dimensionScores, DimensionWeights weights, String countyCode,
+                                            int year) {
+        return comprehensiveScore(dimensionScores, weights, yearTrend(year), perturbation(countyCode, year));
+    }
+
+    /**
+     * 同一县域年份反复合成综合得分时使用（蒙特卡洛抽样），趋势与扰动项由调用方预先计算；加法顺序与上面一致，结果逐位相同
+     */
+    static double comprehensiveScore(double[] dimensionScores, DimensionWeights weights, double trend,
+                                     double perturbation) {
+        double comprehensive = baseScore(dimensionScores, weights) + trend + perturbation;
+        // 简单压缩：将分数整体打折，使大部分县处于低风险区
+        if (comprehensive > 0) {
+            comprehensive = comprehensive * COMPRESSION;
+        }
+        if (comprehensive < 0) {
+            comprehensive = 0;
+        }
+        if (comprehensive > MAX_SCORE) {
+            comprehensive = MAX_SCORE;
+        }
+        return comprehensive;
+    }
+
+    /**
+     * 维度得分加权平均值，保留 2 位小数（HALF_UP）
+     * 先把各维度得分还原为 4 位小数的整数（维度得分精确值最多 4 位小数），与整数权重相乘累加后再做整数除法舍入；
+     * 等权重时与按总分除以维度数的结果一致
+     */
+    static double baseScore(double[] dimensionScores, DimensionWeights weights) {
+        long weighted = 0;
+        for (int i = 0; i < dimensionScores.length; i++) {
+            weighted += Math.round(dimensionScores[i] * 10_000) * weights.unit(i);
+        }
+        long divisor = 100L * weights.getTotalUnits();
+        long hundredths = Math.floorDiv(weighted * 2 + divisor, divisor * 2);
+        return hundredths / 100.0;
+    }
+
+    /**
+     * 逐年递减趋势：以 2000 年为基准，每年降低 0.05 分
+     */
+    static double yearTrend(int year) {
+        return (BASE_YEAR - year) * YEAR_TREND_PER_YEAR;
+    }
+
+    /**
+     * 基于县域代码和年份的扰动，范围 [-5, 5]
+     * 等价于 Math.abs((countyCode + year).hashCode()) % 1001 / 100.0 - 5.0，但不拼接字符串
+     */
+    static double perturbation(String countyCode, int year) {
+        int hash = Math.abs(concatHash(countyCode, year));
+        return (hash % 1001) / 100.0 - 5.0;
+    }
+
+    /**
+     * 计算 (countyCode + String.valueOf(year)).hashCode()
+     */
+    static int concatHash(String countyCode, int year) {
+        int h = countyCode.hashCode();
+        if (year < 0) {
+            h = 31 * h + '-';
+        }
+        long y = Math.abs((long) year);
+        long divisor = 1;
+        while (divisor * 10 <= y) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            h = 31 * h + (char) ('0' + (y / divisor) % 10);
+        }
+        return h;
+    }
+}
@@ -0,0 +1,53 @@
+package com.county.risk.calculation;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+
+/**
+ * 风险趋势判定
+ * 与上一年综合风险得分（DECIMAL(8,4)）比较：上升超过阈值为恶化，下降超过阈值为改善，其余为稳定
+ */
+@Slf4j
+@Component
+public class RiskTrendClassifier {
+
+    public static final String WORSENING = "恶化";
+    public static final String IMPROVING = "改善";
+    public static final String STABLE = "稳定";
+
+    private final BigDecimal threshold;
+
+    public RiskTrendClassifier(@Value("${risk.trend.threshold:0.1}") double threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("risk.trend.threshold 不能为负数: " + threshold);
+        }
+        this.threshold = BigDecimal.valueOf(threshold);
+        log.info("风险趋势判定阈值: ±{}", this.threshold);
+    }
+
+    public BigDecimal getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * @param comprehensiveScore 本年综合风险得分
+     * @param previousScore      上一年综合风险得分，没有上一年评估时为 null
+     * @return 恶化/改善/稳定；没有上一年评估时返回 null
+     */
+    public String classify(double comprehensiveScore, BigDecimal previousScore) {
+        if (previousScore == null) {
+            return null;
+        }
+        BigDecimal delta = CountyScore.toDecimal(comprehensiveScore).subtract(previousScore);
+        if (delta.compareTo(threshold) > 0) {
+            return WORSENING;
+        }
+        if (delta.compareTo(threshold.negate()) < 0) {
+            return IMPROVING;
+        }
+        return STABLE;
+    }
+}
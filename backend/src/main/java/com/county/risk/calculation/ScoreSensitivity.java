@@ -0,0 +1,210 @@
+package com.county.risk.calculation;
+
+import java.util.Arrays;
+
+/**
+ * 单个县域综合得分对指标权重与阈值的敏感性
+ *
+ * 基于一次计分记录的指标明细在内存中推算，不重新读取源数据、不重新计算其他指标：改变一个指标的权重或阈值只影响
+ * 所在维度的原始加权和，按新的原始加权和重算该维度得分（上限 100）后用计分内核的综合得分公式重新合成。
+ * 每个指标有 8 个情景：权重、高/中/低阈值各上调、下调一个步长（{@link Parameter} × 方向），情景下的综合得分
+ * 与正式计算完全一致，可直接用于判断风险等级是否跨越分界点。
+ * 权重的单位变化率为解析导数（维度得分封顶或综合得分截断时为 0，不计基础分两位小数的舍入）。
+ */
+public final class ScoreSensitivity {
+
+    /**
+     * 被扰动的指标参数
+     */
+    public enum Parameter {
+        WEIGHT, THRESHOLD_HIGH, THRESHOLD_MEDIUM, THRESHOLD_LOW
+    }
+
+    /**
+     * 每个指标的情景数：参数 × 上调/下调
+     */
+    public static final int SCENARIOS = Parameter.values().length * 2;
+
+    private static final double MAX_SCORE = 100.0;
+    private static final double COMPRESSION = 0.7;
+
+    private final String countyCode;
+    private final int year;
+    private final double comprehensiveScore;
+    private final double[] scorePerWeight;
+    private final double[] shiftedScores;
+
+    private ScoreSensitivity(String countyCode, int year, double comprehensiveScore, double[] scorePerWeight,
+                             double[] shiftedScores) {
+        this.countyCode = countyCode;
+        this.year = year;
+        this.comprehensiveScore = comprehensiveScore;
+        this.scorePerWeight = scorePerWeight;
+        this.shiftedScores = shiftedScores;
+    }
+
+    /**
+     * 情景序号：参数序号 × 2，上调为 +0、下调为 +1
+     */
+    public static int scenario(Parameter parameter, boolean up) {
+        return parameter.ordinal() * 2 + (up ? 0 : 1);
+    }
+
+    /**
+     * 参数在情景中的变化量：权重为 ±weightStep（下调不低于 0）；阈值为 ±|阈值| × thresholdStep，阈值为 0 时为
+     * ±thresholdStep，未配置的阈值不变化
+     */
+    public static double delta(CompiledIndicator indicator, Parameter parameter, boolean up,
+                               double weightStep, double thresholdStep) {
+        if (parameter == Parameter.WEIGHT) {
+            return up ? weightStep : -Math.min(weightStep, indicator.getWeightValue());
+        }
+        double threshold = threshold(indicator, parameter);
+        if (Double.isInfinite(threshold) || threshold == Double.MAX_VALUE) {
+            return 0;
+        }
+        double step = threshold != 0 ? Math.abs(threshold) * thresholdStep : thresholdStep;
+        return up ? step : -step;
+    }
+
+    /**
+     * 分析一个县域；score 必须按 plan 计算并记录了指标明细
+     */
+    public static ScoreSensitivity analyze(CountyScore score, ScoringPlan plan, double weightStep,
+                                           double thresholdStep) {
+        IndicatorBreakdown breakdown = score.getBreakdown();
+        if (breakdown == null) {
+            throw new IllegalArgumentException("敏感性分析需要指标明细");
+        }
+        RiskDimension[] dimensions = RiskDimension.values();
+        int count = plan.getIndicatorCount();
+        double base = score.getComprehensiveScore();
+        double[] perWeight = new double[count];
+        double[] shifted = new double[count * SCENARIOS];
+        Arrays.fill(shifted, base);
+
+        double[] dims = new double[dimensions.length];
+        for (RiskDimension dimension : dimensions) {
+            dims[dimension.ordinal()] = score.getDimensionScore(dimension);
+        }
+        DimensionWeights weights = plan.getDimensionWeights();
+        // 综合得分在压缩前为正且未截断到 100 时，对维度得分的导数为 维度权重占比 × 0.7
+        double preCompression = RiskScoringKernel.baseScore(dims, weights)
+                + RiskScoringKernel.yearTrend(score.getYear())
+                + RiskScoringKernel.perturbation(score.getCountyCode(), score.getYear());
+        boolean active = preCompression > 0 && base < MAX_SCORE;
+
+        for (RiskDimension dimension : dimensions) {
+            CompiledIndicator[] indicators = plan.indicators(dimension);
+            int offset = plan.indicatorOffset(dimension);
+            // 无启用指标或源数据缺失的维度按固定分计，与权重、阈值无关
+            if (indicators.length == 0 || !breakdown.isScored(offset)) {
+                continue;
+            }
+            double raw = 0;
+            for (int k = 0; k < indicators.length; k++) {
+                raw += breakdown.itemScore(offset + k) * indicators[k].getWeightValue();
+            }
+            double dimensionShare = (double) weights.unit(dimension.ordinal()) / weights.getTotalUnits();
+            for (int k = 0; k < indicators.length; k++) {
+                CompiledIndicator indicator = indicators[k];
+                int i = offset + k;
+                int item = breakdown.itemScore(i);
+                double value = breakdown.value(i);
+                perWeight[i] = active && raw < MAX_SCORE ? item * dimensionShare * COMPRESSION : 0;
+
+                for (Parameter parameter : Parameter.values()) {
+                    for (boolean up : new boolean[]{true, false}) {
+                        double delta = delta(indicator, parameter, up, weightStep, thresholdStep);
+                        if (delta == 0) {
+                            continue;
+                        }
+                        double shiftedRaw;
+                        if (parameter == Parameter.WEIGHT) {
+                            shiftedRaw = raw + item * delta;
+                        } else if (Double.isNaN(value)) {
+                            // 取值缺失固定按 20 分计，与阈值无关
+                            continue;
+                        } else {
+                            shiftedRaw = raw + (shiftedItemScore(indicator, parameter, delta, value) - item)
+                                    * indicator.getWeightValue();
+                        }
+                        shifted[i * SCENARIOS + scenario(parameter, up)] =
+                                comprehensiveWith(dims, dimension, shiftedRaw, weights, score);
+                    }
+                }
+            }
+        }
+        return new ScoreSensitivity(score.getCountyCode(), score.getYear(), base, perWeight, shifted);
+    }
+
+    private static int shiftedItemScore(CompiledIndicator indicator, Parameter parameter, double delta, double value) {
+        double high = indicator.getHigh();
+        double medium = indicator.getMedium();
+        double low = indicator.getLow();
+        switch (parameter) {
+            case THRESHOLD_HIGH:
+                high += delta;
+                break;
+            case THRESHOLD_MEDIUM:
+                medium += delta;
+                break;
+            default:
+                low += delta;
+                break;
+        }
+        return indicator.itemScore(value, high, medium, low);
+    }
+
+    private static double threshold(CompiledIndicator indicator, Parameter parameter) {
+        switch (parameter) {
+            case THRESHOLD_HIGH:
+                return indicator.getHigh();
+            case THRESHOLD_MEDIUM:
+                return indicator.getMedium();
+            case THRESHOLD_LOW:
+                return indicator.getLow();
+            default:
+                throw new IllegalArgumentException(parameter.name());
+        }
+    }
+
+    /**
+     * 把一个维度的原始加权和替换为 raw 后的综合得分（dims 在返回前恢复）
+     */
+    private static double comprehensiveWith(double[] dims, RiskDimension dimension, double raw,
+                                            DimensionWeights weights, CountyScore score) {
+        int d = dimension.ordinal();
+        double saved = dims[d];
+        dims[d] = Math.min(raw, MAX_SCORE);
+        double result = RiskScoringKernel.comprehensiveScore(dims, weights, score.getCountyCode(), score.getYear());
+        dims[d] = saved;
+        return result;
+    }
+
+    public String getCountyCode() {
+        return countyCode;
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    public double getComprehensiveScore() {
+        return comprehensiveScore;
+    }
+
+    /**
+     * 第 i 个指标（计分计划中的顺序）权重每增加 1，综合得分的变化
+     */
+    public double scorePerWeight(int i) {
+        return scorePerWeight[i];
+    }
+
+    /**
+     * 第 i 个指标在给定情景下的综合得分；参数不适用的情景（未配置的阈值、源数据缺失）等于当前得分
+     */
+    public double shiftedScore(int i, int scenario) {
+        return shiftedScores[i * SCENARIOS + scenario];
+    }
+}
@@ -0,0 +1,61 @@
+package com.county.risk.calculation;
+
+/**
+ * 综合风险得分分位数草图
+ *
+ * 综合风险得分限定在 [0, 100]，按 0.01 分宽度的固定分桶计数（共 10001 个桶）。
+ * 同一年份的多个草图可以直接按桶相加合并，因此每个计算线程各自维护草图，计算结束后再合并，
+ * 一次遍历即可得到分位数，无需对评估表按年份排序。分位点误差不超过一个桶宽（0.01 分）。
+ */
+public class ScoreSketch {
+
+    private static final int BINS_PER_POINT = 100;
+    private static final int MAX_SCORE = 100;
+
+    private final long[] counts = new long[MAX_SCORE * BINS_PER_POINT + 1];
+    private long total;
+
+    public void add(double score) {
+        if (Double.isNaN(score)) {
+            return;
+        }
+        int bin = (int) Math.floor(Math.min(Math.max(score, 0), MAX_SCORE) * BINS_PER_POINT);
+        counts[bin]++;
+        total++;
+    }
+
+    /**
+     * 合并另一个草图（按桶相加）
+     */
+    public void merge(ScoreSketch other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        total += other.total;
+    }
+
+    public long getCount() {
+        return total;
+    }
+
+    /**
+     * 分位点：返回某个桶的下边界 c，使得得分低于 c 的样本数不超过 q * 样本总数
+     *
+     * @param q 0~1 之间的分位
+     * @return 分位点；草图为空时返回 NaN
+     */
+    public double quantile(double q) {
+        if (total == 0) {
+            return Double.NaN;
+        }
+        long target = (long) Math.floor(q * total);
+        long below = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (below + counts[i] > target) {
+                return (double) i / BINS_PER_POINT;
+            }
+            below += counts[i];
+        }
+        return MAX_SCORE;
+    }
+}
@@ -0,0 +1,94 @@
+package com.county.risk.calculation;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 计分内核选择
+ *
+ * risk.calculation.kernel=vector 时按批次使用列式向量内核 VectorScoringKernel，否则逐县使用标量内核
+ * {@link RiskScoringKernel}。向量内核依赖 incubator 模块，只在 vector-kernel 构建配置下编译，这里通过反射加载：
+ * 默认构建中没有该类，或 JVM 未添加 jdk.incubator.vector 模块时，记录警告后退回标量内核。
+ */
+@Slf4j
+@Component
+public class ScoringKernelSelector {
+
+    public static final String SCALAR = "scalar";
+    public static final String VECTOR = "vector";
+
+    private static final String VECTOR_KERNEL_CLASS = "com.county.risk.calculation.VectorScoringKernel";
+
+    /**
+     * VectorScoringKernel.score(List, ScoringPlan, boolean)，未启用向量内核时为 null
+     */
+    private final MethodHandle vectorScore;
+
+    public ScoringKernelSelector(@Value("${risk.calculation.kernel:scalar}") String kernel) {
+        MethodHandle score = null;
+        if (VECTOR.equalsIgnoreCase(kernel)) {
+            score = loadVectorKernel();
+        } else if (!SCALAR.equalsIgnoreCase(kernel)) {
+            log.warn("未知的计分内核 {}，使用标量内核", kernel);
+        }
+        this.vectorScore = score;
+    }
+
+    private static MethodHandle loadVectorKernel() {
+        try {
+            Class<?> kernelClass = Class.forName(VECTOR_KERNEL_CLASS);
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            int lanes = (int) lookup.findStatic(kernelClass, "lanes", MethodType.methodType(int.class)).invokeExact();
+            MethodHandle score = lookup.findStatic(kernelClass, "score",
+                    MethodType.methodType(List.class, List.class, ScoringPlan.class, boolean.class));
+            log.info("使用向量计分内核: 每向量 {} 个通道", lanes);
+            return score;
+        } catch (ClassNotFoundException e) {
+            log.warn("向量计分内核未编译（需要使用 mvn -P vector-kernel 构建），使用标量内核");
+        } catch (LinkageError e) {
+            log.warn("向量计分内核不可用（需要 --add-modules jdk.incubator.vector），使用标量内核: {}", e.toString());
+        } catch (Throwable e) {
+            log.warn("向量计分内核加载失败，使用标量内核: {}", e.toString());
+        }
+        return null;
+    }
+
+    /**
+     * 是否按批次使用向量内核
+     */
+    public boolean isVectorized() {
+        return vectorScore != null;
+    }
+
+    /**
+     * 计算一批县域年份，结果与输入一一对应
+     */
+    public List<CountyScore> scoreBatch(List<CountyYearFacts> batch, ScoringPlan plan, boolean recordItems) {
+        if (vectorScore != null) {
+            return invokeVector(batch, plan, recordItems);
+        }
+        List<CountyScore> scores = new ArrayList<>(batch.size());
+        for (CountyYearFacts facts : batch) {
+            scores.add(RiskScoringKernel.score(facts, plan, recordItems));
+        }
+        return scores;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<CountyScore> invokeVector(List<CountyYearFacts> batch, ScoringPlan plan, boolean recordItems) {
+        try {
+            return (List<CountyScore>) vectorScore.invokeExact(batch, plan, recordItems);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("向量计分内核调用失败", e);
+        }
+    }
+}
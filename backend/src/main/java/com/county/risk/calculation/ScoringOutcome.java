@@ -0,0 +1,35 @@
+package com.county.risk.calculation;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 并行计算结果
+ * results 与输入顺序一致（失败的县域不包含在内），failedKeys 记录失败县域
+ */
+public class ScoringOutcome<R> {
+
+    private final List<R> results;
+    private final List<String> failedKeys;
+
+    ScoringOutcome(List<R> results, List<String> failedKeys) {
+        this.results = Collections.unmodifiableList(results);
+        this.failedKeys = Collections.unmodifiableList(failedKeys);
+    }
+
+    public List<R> getResults() {
+        return results;
+    }
+
+    public List<String> getFailedKeys() {
+        return failedKeys;
+    }
+
+    public int getSuccessCount() {
+        return results.size();
+    }
+
+    public int getFailCount() {
+        return failedKeys.size();
+    }
+}
@@ -0,0 +1,135 @@
+package com.county.risk.calculation;
+
+import com.county.risk.entity.RiskIndicator;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * 计分计划
+ *
+ * 每次计算运行开始时由启用的指标配置编译一次，之后所有县域共用，运行期间不可变。
+ * configVersion 为指标配置与维度权重内容的摘要，配置不变则版本不变，用于在运行日志与结果上标记所用配置；
+ * 各维度另有只包含该维度指标配置的维度版本，修改一个指标只改变其所在维度的版本（{@link DimensionScoreMemo} 据此复用维度得分）。
+ */
+public final class ScoringPlan {
+
+    private final CompiledIndicator[][] byDimension;
+    private final DimensionWeights dimensionWeights;
+    private final String configVersion;
+    private final String[] dimensionVersions;
+    private final int[] indicatorOffsets;
+    private final int indicatorCount;
+
+    private ScoringPlan(CompiledIndicator[][] byDimension, DimensionWeights dimensionWeights, String configVersion,
+                        String[] dimensionVersions) {
+        this.byDimension = byDimension;
+        this.dimensionWeights = dimensionWeights;
+        this.configVersion = configVersion;
+        this.dimensionVersions = dimensionVersions;
+        this.indicatorOffsets = new int[byDimension.length];
+        int count = 0;
+        for (int d = 0; d < byDimension.length; d++) {
+            indicatorOffsets[d] = count;
+            count += byDimension[d].length;
+        }
+        this.indicatorCount = count;
+    }
+
+    /**
+     * 按等权重编译按类别分组的启用指标
+     */
+    public static ScoringPlan compile(Map<String, List<RiskIndicator>> indicatorsByCategory) {
+        return compile(indicatorsByCategory, DimensionWeights.EQUAL);
+    }
+
+    /**
+     * 编译按类别分组的启用指标（{@code RiskIndicatorService#getIndicatorsByCategory()} 的结果）
+     *
+     * @param dimensionWeights 综合得分中各维度的权重
+     */
+    public static ScoringPlan compile(Map<String, List<RiskIndicator>> indicatorsByCategory,
+                                      DimensionWeights dimensionWeights) {
+        RiskDimension[] dimensions = RiskDimension.values();
+        CompiledIndicator[][] byDimension = new CompiledIndicator[dimensions.length][];
+        String[] dimensionVersions = new String[dimensions.length];
+        CRC32 crc = new CRC32();
+        for (RiskDimension dimension : dimensions) {
+            List<RiskIndicator> list = indicatorsByCategory.getOrDefault(dimension.getCategory(), Collections.emptyList());
+            List<CompiledIndicator> compiled = new ArrayList<>(list.size());
+            CRC32 dimensionCrc = new CRC32();
+            dimensionCrc.update(dimension.name().getBytes(StandardCharsets.UTF_8));
+            for (RiskIndicator indicator : list) {
+                compiled.add(new CompiledIndicator(indicator, dimension, IndicatorAccessors.resolve(dimension, indicator)));
+                byte[] fingerprint = fingerprint(dimension, indicator).getBytes(StandardCharsets.UTF_8);
+                crc.update(fingerprint);
+                dimensionCrc.update(fingerprint);
+            }
+            byDimension[dimension.ordinal()] = compiled.toArray(new CompiledIndicator[0]);
+            dimensionVersions[dimension.ordinal()] = String.format("%08x", dimensionCrc.getValue());
+        }
+        crc.update(("weights|" + dimensionWeights).getBytes(StandardCharsets.UTF_8));
+        return new ScoringPlan(byDimension, dimensionWeights, String.format("%08x", crc.getValue()), dimensionVersions);
+    }
+
+    public CompiledIndicator[] indicators(RiskDimension dimension) {
+        return byDimension[dimension.ordinal()];
+    }
+
+    public DimensionWeights getDimensionWeights() {
+        return dimensionWeights;
+    }
+
+    public String getConfigVersion() {
+        return configVersion;
+    }
+
+    /**
+     * 维度版本：该维度启用指标配置的摘要，与其他维度的指标和维度权重无关
+     */
+    public String dimensionVersion(RiskDimension dimension) {
+        return dimensionVersions[dimension.ordinal()];
+    }
+
+    /**
+     * 该维度第一个指标在指标明细（{@link IndicatorBreakdown}）中的位置
+     */
+    int indicatorOffset(RiskDimension dimension) {
+        return indicatorOffsets[dimension.ordinal()];
+    }
+
+    public int getIndicatorCount() {
+        return indicatorCount;
+    }
+
+    /**
+     * 计划内所有指标的ID
+     */
+    public List<Integer> getIndicatorIds() {
+        List<Integer> ids = new ArrayList<>(indicatorCount);
+        for (CompiledIndicator[] indicators : byDimension) {
+            for (CompiledIndicator indicator : indicators) {
+                if (indicator.getIndicatorId() != null) {
+                    ids.add(indicator.getIndicatorId());
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static String fingerprint(RiskDimension dimension, RiskIndicator i) {
+        return dimension.name() + '|' + i.getIndicatorId() + '|' + i.getIndicatorCode() + '|'
+                + plain(i.getWeight()) + '|' + plain(i.getThresholdHigh()) + '|'
+                + plain(i.getThresholdMedium()) + '|' + plain(i.getThresholdLow()) + '|'
+                + i.getComparisonOperator() + '|' + (i.getFormula() != null ? i.getFormula().trim() : "") + ';';
+    }
+
+    private static String plain(BigDecimal v) {
+        return v != null ? v.stripTrailingZeros().toPlainString() : "-";
+    }
+}
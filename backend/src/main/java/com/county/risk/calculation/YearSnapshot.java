@@ -0,0 +1,49 @@
+package com.county.risk.calculation;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 年度县域数据快照
+ * 一次性读入某年六张事实表的全部行，按县域代码索引，计算过程中不再访问数据库
+ */
+public class YearSnapshot {
+
+    private final int year;
+    private final Map<String, CountyYearFacts> facts;
+
+    YearSnapshot(int year, Map<String, CountyYearFacts> facts) {
+        this.year = year;
+        this.facts = Collections.unmodifiableMap(facts);
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    /**
+     * 获取县域数据，县域在该年没有任何源数据时返回空集合（各表字段均为 null）
+     */
+    public CountyYearFacts get(String countyCode) {
+        CountyYearFacts f = facts.get(countyCode);
+        return f != null ? f : new CountyYearFacts(countyCode, year);
+    }
+
+    public boolean contains(String countyCode) {
+        return facts.containsKey(countyCode);
+    }
+
+    public Collection<CountyYearFacts> all() {
+        return facts.values();
+    }
+
+    public int size() {
+        return facts.size();
+    }
+
+    static YearSnapshot empty(int year) {
+        return new YearSnapshot(year, new HashMap<>());
+    }
+}
@@ -4,12 +4,15 @@ import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.county.risk.common.Result;
 import com.county.risk.entity.AlertRule;
+import com.county.risk.job.JobTypes;
 import com.county.risk.service.AlertService;
+import com.county.risk.service.JobService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.HashMap;
 import java.util.Map;
 
 @Tag(name = "预警管理接口")
@@ -21,6 +24,9 @@ public class AlertController {
     @Autowired
     private AlertService alertService;
 
+    @Autowired
+    private JobService jobService;
+
     @Operation(summary = "获取预警规则列表")
     @GetMapping("/rule/list")
     public Result<IPage<AlertRule>> getAlertRules(@RequestParam(defaultValue = "1") Integer page,
@@ -55,10 +61,31 @@ public class AlertController {
         return Result.success(alertService.confirmAlert(id, userId));
     }
 
-    @Operation(summary = "检查并生成预警")
+    @Operation(summary = "检查并生成预警", description = "通过后台任务执行并等待结束，返回生成的预警数量")
     @PostMapping("/check")
-    public Result<Integer> checkAlerts() {
-        int count = alertService.checkAndGenerateAlerts(2023);
-        return Result.success(count);
+    public Result<Integer> checkAlerts(@RequestParam(defaultValue = "2023") Integer year) {
+        try {
+            String jobId = submitAlertCheck(year);
+            return Result.success((Integer) jobService.awaitResult(jobId));
+        } catch (IllegalStateException e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    @Operation(summary = "异步检查并生成预警", description = "提交后台任务，返回任务ID，可通过 /jobs/{jobId} 查询进度与结果")
+    @PostMapping("/check/async")
+    public Result<String> checkAlertsAsync(@RequestParam(defaultValue = "2023") Integer year) {
+        try {
+            return Result.success(submitAlertCheck(year));
+        } catch (IllegalStateException e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    private String submitAlertCheck(Integer year) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("year", year);
+        return jobService.submit(JobTypes.ALERT_CHECK, params,
+                context -> alertService.checkAndGenerateAlerts(year, context));
     }
 }
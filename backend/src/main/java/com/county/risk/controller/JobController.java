@@ -0,0 +1,57 @@
+package com.county.risk.controller;
+
+import com.county.risk.common.Result;
+import com.county.risk.dto.JobInfoDTO;
+import com.county.risk.service.JobService;
+import com.county.risk.util.RolePermissionUtil;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * 后台任务控制器
+ */
+@Tag(name = "后台任务管理")
+@RestController
+@RequestMapping("/jobs")
+@RequiredArgsConstructor
+public class JobController {
+
+    private final JobService jobService;
+
+    @Operation(summary = "获取最近的后台任务列表")
+    @GetMapping
+    public Result<List<JobInfoDTO>> listJobs() {
+        return Result.success(jobService.listJobs());
+    }
+
+    @Operation(summary = "获取后台任务状态、进度与结果")
+    @GetMapping("/{jobId}")
+    public Result<JobInfoDTO> getJob(@PathVariable String jobId) {
+        JobInfoDTO job = jobService.getJob(jobId);
+        if (job == null) {
+            return Result.error(404, "任务不存在或已过期");
+        }
+        return Result.success(job);
+    }
+
+    @Operation(summary = "取消后台任务")
+    @PostMapping("/{jobId}/cancel")
+    public Result<Boolean> cancelJob(
+            @PathVariable String jobId,
+            @RequestHeader(value = "role", required = false) String role) {
+
+        // 权限检查：只有风险分析员和管理员可以取消计算任务
+        if (!RolePermissionUtil.canAdjustRiskParams(role)) {
+            return Result.error(403, "您没有权限取消后台任务");
+        }
+
+        if (!jobService.cancel(jobId)) {
+            return Result.error(404, "任务不存在或已结束");
+        }
+        return Result.success(true);
+    }
+}
@@ -47,6 +47,21 @@ public class RiskController {
         return Result.success(risk);
     }
     
+    /**
+     * 获取县域风险得分构成
+     */
+    @Operation(summary = "查询县域风险得分构成", description = "返回综合评估与各单项指标的取值、单项得分和加权贡献")
+    @GetMapping("/breakdown/{countyCode}")
+    public Result<Map<String, Object>> getRiskBreakdown(
+            @Parameter(description = "县域代码") @PathVariable String countyCode,
+            @Parameter(description = "年份（可选）") @RequestParam(required = false) Integer year) {
+        Map<String, Object> breakdown = riskService.getRiskBreakdown(countyCode, year);
+        if (breakdown == null) {
+            return Result.error(404, "未找到该县域的风险评估");
+        }
+        return Result.success(breakdown);
+    }
+    
     /**
      * 获取风险统计信息
      */
@@ -1,8 +1,18 @@
 package com.county.risk.controller;
 
+import com.county.risk.calculation.CalculationMode;
+import com.county.risk.calculation.CalculationScope;
+import com.county.risk.calculation.IndicatorFormula;
+import com.county.risk.calculation.RiskConfigSnapshot;
+import com.county.risk.calculation.RiskDimension;
 import com.county.risk.common.Result;
+import com.county.risk.entity.RiskCalculationLedger;
 import com.county.risk.entity.RiskIndicator;
+import com.county.risk.job.JobTypes;
+import com.county.risk.service.CalculationLedgerService;
+import com.county.risk.service.JobService;
 import com.county.risk.service.RiskCalculationService;
+import com.county.risk.service.RiskConfigService;
 import com.county.risk.service.RiskIndicatorService;
 import com.county.risk.util.RolePermissionUtil;
 import io.swagger.v3.oas.annotations.Operation;
@@ -10,6 +20,8 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -24,6 +36,9 @@ public class RiskIndicatorController {
 
     private final RiskIndicatorService riskIndicatorService;
     private final RiskCalculationService riskCalculationService;
+    private final JobService jobService;
+    private final RiskConfigService riskConfigService;
+    private final CalculationLedgerService calculationLedgerService;
 
     @Operation(summary = "获取按类别分组的指标")
     @GetMapping("/grouped")
@@ -43,7 +58,17 @@ public class RiskIndicatorController {
             return Result.error(403, "您没有权限调整风险参数");
         }
         
-        return Result.success(riskIndicatorService.updateIndicatorConfig(id, indicator));
+        try {
+            return Result.success(riskIndicatorService.updateIndicatorConfig(id, indicator));
+        } catch (IllegalArgumentException e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    @Operation(summary = "获取取值公式可引用的源数据列", description = "按源数据表名分组，公式中以 表名.列名 引用")
+    @GetMapping("/formula/columns")
+    public Result<Map<String, List<String>>> getFormulaColumns() {
+        return Result.success(IndicatorFormula.availableColumns());
     }
 
     @Operation(summary = "恢复默认指标配置")
@@ -59,28 +84,115 @@ public class RiskIndicatorController {
         return Result.success();
     }
 
-    @Operation(summary = "触发风险重新计算")
+    @Operation(summary = "获取当前风险配置版本", description = "返回配置版本、加载序号与综合得分使用的维度权重")
+    @GetMapping("/config-version")
+    public Result<Map<String, Object>> getConfigVersion() {
+        return Result.success(describe(riskConfigService.getSnapshot()));
+    }
+
+    @Operation(summary = "重新加载风险配置", description = "直接修改数据库中的指标或系统配置后调用")
+    @PostMapping("/config/reload")
+    public Result<Map<String, Object>> reloadConfig(@RequestHeader(value = "role", required = false) String role) {
+
+        // 权限检查
+        if (!RolePermissionUtil.canAdjustRiskParams(role)) {
+            return Result.error(403, "您没有权限调整风险参数");
+        }
+
+        return Result.success(describe(riskConfigService.reload()));
+    }
+
+    private Map<String, Object> describe(RiskConfigSnapshot snapshot) {
+        Map<String, Object> weights = new LinkedHashMap<>();
+        for (RiskDimension dimension : RiskDimension.values()) {
+            weights.put(dimension.name().toLowerCase(), snapshot.getDimensionWeights().get(dimension));
+        }
+        Map<String, Object> info = new LinkedHashMap<>();
+        info.put("version", snapshot.getVersion());
+        info.put("generation", snapshot.getGeneration());
+        info.put("loadedAt", snapshot.getLoadedAt());
+        info.put("indicatorCount", snapshot.getPlan().getIndicatorCount());
+        info.put("dimensionWeights", weights);
+        info.put("calculationFrequencyDays", snapshot.getCalculationFrequencyDays());
+        return info;
+    }
+
+    @Operation(summary = "触发风险重新计算", description = "提交后台计算任务，返回任务ID，可通过 /jobs/{jobId} 查询进度；"
+            + "mode 为 snapshot（内存快照）或 streaming（游标流式读取），不传时使用 risk.calculation.mode 配置。"
+            + "指定 province / city / countyCodes / startYear / endYear 任一参数时只重算该范围，"
+            + "任务结果中返回计算数量与吞吐量。同一时间只运行一个风险计算任务：相同范围（不论 mode）的计算正在进行时返回已有任务，"
+            + "其他范围的计算正在进行时拒绝提交")
     @PostMapping("/calculate")
-    public Result<Void> calculateRisk(
+    public Result<String> calculateRisk(
             @RequestParam(required = false) Integer year,
+            @RequestParam(required = false) String mode,
+            @RequestParam(required = false) String province,
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) List<String> countyCodes,
+            @RequestParam(required = false) Integer startYear,
+            @RequestParam(required = false) Integer endYear,
             @RequestHeader(value = "role", required = false) String role) {
         
         // 权限检查：只有风险分析员和管理员可以触发计算
         if (!RolePermissionUtil.canAdjustRiskParams(role)) {
             return Result.error(403, "您没有权限触发风险计算");
         }
-        // 异步执行计算，避免前端超时
-        java.util.concurrent.CompletableFuture.runAsync(() -> {
-            try {
+        if (year != null && (startYear != null || endYear != null)) {
+            return Result.error("year 与 startYear / endYear 不能同时指定");
+        }
+        CalculationMode calculationMode;
+        CalculationScope scope;
+        try {
+            calculationMode = CalculationMode.parse(mode, null);
+            // 单一年份等价于起止年份相同的范围
+            scope = new CalculationScope(province, city, countyCodes,
+                    startYear != null ? startYear : year, endYear != null ? endYear : year);
+        } catch (IllegalArgumentException e) {
+            return Result.error(e.getMessage());
+        }
+        boolean scoped = scope.hasCountyFilter() || startYear != null || endYear != null;
+        // 后台任务执行计算，避免前端超时；相同范围的计算正在进行时返回已有任务，其他计算正在进行时拒绝提交
+        Map<String, Object> dedupParams = new HashMap<>();
+        dedupParams.put("year", year);
+        if (scoped) {
+            dedupParams.put("scope", scope.describe());
+            dedupParams.put("countyCodes", scope.getCountyCodes());
+        }
+        // 计算模式只影响读取方式，不参与去重：与定期计算、配置修改后提交的全历史计算视为同一任务
+        Map<String, Object> params = new HashMap<>(dedupParams);
+        if (calculationMode != null) {
+            params.put("mode", calculationMode.name());
+        }
+        try {
+            String jobId = jobService.submit(JobTypes.RISK_CALCULATION, params, dedupParams, context -> {
+                if (scoped) {
+                    return riskCalculationService.calculateScope(scope, context, calculationMode);
+                }
                 if (year == null) {
-                    riskCalculationService.calculateAllYears();
+                    if (calculationMode != null) {
+                        riskCalculationService.calculateAllYears(context, calculationMode);
+                    } else {
+                        riskCalculationService.calculateAllYears(context);
+                    }
+                } else if (calculationMode != null) {
+                    riskCalculationService.calculateAll(year, context, calculationMode);
                 } else {
-                    riskCalculationService.calculateAll(year);
+                    riskCalculationService.calculateAll(year, context);
                 }
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-        });
-        return Result.success();
+                return null;
+            });
+            return Result.success(jobId);
+        } catch (IllegalStateException e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    @Operation(summary = "最近的风险计算运行", description = "计算台账按开始时间倒序，包含计算范围、配置版本、"
+            + "成功/失败县域年份数与读取、计分、写入、等级划分各阶段耗时；runType 为 ALL_YEARS / YEAR / SCOPE / PROFILES / UNCERTAINTY，不传时返回所有类型")
+    @GetMapping("/calculate/runs")
+    public Result<List<RiskCalculationLedger>> getCalculationRuns(
+            @RequestParam(required = false) String runType,
+            @RequestParam(defaultValue = "20") Integer limit) {
+        return Result.success(calculationLedgerService.recentRuns(runType, limit));
     }
 }
@@ -0,0 +1,102 @@
+package com.county.risk.controller;
+
+import com.county.risk.common.Result;
+import com.county.risk.dto.ProfileComparisonDTO;
+import com.county.risk.dto.ProfileSaveRequestDTO;
+import com.county.risk.entity.RiskIndicatorProfile;
+import com.county.risk.job.JobTypes;
+import com.county.risk.service.JobService;
+import com.county.risk.service.RiskProfileService;
+import com.county.risk.util.RolePermissionUtil;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 指标配置方案控制器
+ * 方案以 方案代码 或 方案代码@版本 引用，只写方案代码时使用最新版本
+ */
+@Tag(name = "指标配置方案")
+@RestController
+@RequestMapping("/risk/profiles")
+@RequiredArgsConstructor
+public class RiskProfileController {
+
+    private final RiskProfileService riskProfileService;
+    private final JobService jobService;
+
+    @Operation(summary = "方案列表", description = "各方案的最新版本")
+    @GetMapping
+    public Result<List<RiskIndicatorProfile>> listProfiles() {
+        return Result.success(riskProfileService.listProfiles());
+    }
+
+    @Operation(summary = "方案的全部版本")
+    @GetMapping("/{profileCode}/versions")
+    public Result<List<RiskIndicatorProfile>> listVersions(@PathVariable String profileCode) {
+        return Result.success(riskProfileService.listVersions(profileCode));
+    }
+
+    @Operation(summary = "保存方案", description = "以方案的最新版本为基础（新方案以当前指标配置为基础）覆盖请求中的指标与维度权重，"
+            + "保存为新版本；当前指标配置不受影响")
+    @PostMapping
+    public Result<RiskIndicatorProfile> saveProfile(
+            @RequestBody ProfileSaveRequestDTO request,
+            @RequestHeader(value = "role", required = false) String role) {
+
+        // 权限检查：方案用于调整风险参数，与调整参数的权限一致
+        if (!RolePermissionUtil.canAdjustRiskParams(role)) {
+            return Result.error(403, "您没有权限调整风险参数");
+        }
+
+        try {
+            return Result.success(riskProfileService.saveProfile(request));
+        } catch (IllegalArgumentException e) {
+            return Result.error(400, e.getMessage());
+        }
+    }
+
+    @Operation(summary = "按方案计算", description = "用多个方案计算指定年份（为空表示所有年份）并分别保存结果，"
+            + "每年的源数据只读取一次；返回后台任务ID")
+    @PostMapping("/calculate")
+    public Result<String> calculate(
+            @RequestParam List<String> profiles,
+            @RequestParam(required = false) Integer year,
+            @RequestHeader(value = "role", required = false) String role) {
+
+        if (!RolePermissionUtil.canAdjustRiskParams(role)) {
+            return Result.error(403, "您没有权限执行风险计算");
+        }
+
+        Map<String, Object> params = new HashMap<>();
+        params.put("profiles", profiles);
+        params.put("year", year);
+        try {
+            String jobId = jobService.submit(JobTypes.PROFILE_CALCULATION, params,
+                    context -> riskProfileService.calculateProfiles(profiles, year, context));
+            return Result.success(jobId);
+        } catch (IllegalStateException e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    @Operation(summary = "方案对比", description = "两个方案同一年份（为空时取两者都有结果的最近一年）的逐县得分与风险等级对比，"
+            + "changedOnly=true 时只返回风险等级不同的县域")
+    @GetMapping("/compare")
+    public Result<ProfileComparisonDTO> compare(
+            @RequestParam String base,
+            @RequestParam String other,
+            @RequestParam(required = false) Integer year,
+            @RequestParam(defaultValue = "false") boolean changedOnly) {
+        try {
+            return Result.success(riskProfileService.compare(base, other, year, changedOnly));
+        } catch (IllegalArgumentException e) {
+            return Result.error(400, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.county.risk.controller;
+
+import com.county.risk.common.Result;
+import com.county.risk.dto.SensitivityResultDTO;
+import com.county.risk.dto.SimulationRequestDTO;
+import com.county.risk.dto.SimulationResultDTO;
+import com.county.risk.service.RiskSimulationService;
+import com.county.risk.util.RolePermissionUtil;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+
+/**
+ * 风险模拟控制器
+ */
+@Tag(name = "风险模拟")
+@RestController
+@RequestMapping("/risk/simulation")
+@RequiredArgsConstructor
+public class RiskSimulationController {
+
+    private final RiskSimulationService riskSimulationService;
+
+    @Operation(summary = "候选指标配置模拟", description = "在内存中用候选配置计算指定年份（为空表示所有年份），返回与当前配置的对比，不写入任何结果")
+    @PostMapping
+    public Result<SimulationResultDTO> simulate(
+            @RequestBody SimulationRequestDTO request,
+            @RequestHeader(value = "role", required = false) String role) {
+
+        // 权限检查：模拟用于调整风险参数，与调整参数的权限一致
+        if (!RolePermissionUtil.canAdjustRiskParams(role)) {
+            return Result.error(403, "您没有权限进行风险模拟");
+        }
+
+        try {
+            return Result.success(riskSimulationService.simulate(request));
+        } catch (IllegalArgumentException e) {
+            return Result.error(400, e.getMessage());
+        }
+    }
+
+    @Operation(summary = "指标权重与阈值敏感性", description = "当前配置下某年（为空时取最近有数据的年份）每个县域综合得分对各指标权重、"
+            + "阈值的变化率，以及权重、阈值上调/下调一个步长时跨越各风险等级分界的县域数；一次并行计算完成，不写入任何结果")
+    @GetMapping("/sensitivity")
+    public Result<SensitivityResultDTO> sensitivity(
+            @RequestParam(required = false) Integer year,
+            @RequestParam(required = false) BigDecimal weightStep,
+            @RequestParam(required = false) BigDecimal thresholdStep,
+            @RequestParam(defaultValue = "false") boolean includeCounties,
+            @RequestHeader(value = "role", required = false) String role) {
+
+        if (!RolePermissionUtil.canAdjustRiskParams(role)) {
+            return Result.error(403, "您没有权限进行风险模拟");
+        }
+
+        try {
+            return Result.success(riskSimulationService.sensitivity(year, weightStep, thresholdStep, includeCounties));
+        } catch (IllegalArgumentException e) {
+            return Result.error(400, e.getMessage());
+        }
+    }
+}
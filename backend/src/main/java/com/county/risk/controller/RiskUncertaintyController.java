@@ -0,0 +1,65 @@
+package com.county.risk.controller;
+
+import com.county.risk.common.Result;
+import com.county.risk.entity.RiskScoreUncertainty;
+import com.county.risk.job.JobTypes;
+import com.county.risk.service.JobService;
+import com.county.risk.service.RiskUncertaintyService;
+import com.county.risk.util.RolePermissionUtil;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 综合得分不确定性控制器
+ */
+@Tag(name = "综合得分不确定性")
+@RestController
+@RequestMapping("/risk/uncertainty")
+@RequiredArgsConstructor
+public class RiskUncertaintyController {
+
+    private final RiskUncertaintyService riskUncertaintyService;
+    private final JobService jobService;
+
+    @Operation(summary = "计算综合得分不确定性", description = "在指标取值上施加 ±noiseRate 的相对噪声，对指定年份（为空时取最近有数据的年份）"
+            + "每个县域重复计分 trials 次，保存综合得分的分位数与各风险等级的概率；返回后台任务ID")
+    @PostMapping("/calculate")
+    public Result<String> calculate(
+            @RequestParam(required = false) Integer year,
+            @RequestParam(required = false) Integer trials,
+            @RequestParam(required = false) BigDecimal noiseRate,
+            @RequestHeader(value = "role", required = false) String role) {
+
+        if (!RolePermissionUtil.canAdjustRiskParams(role)) {
+            return Result.error(403, "您没有权限执行风险计算");
+        }
+
+        Map<String, Object> params = new HashMap<>();
+        params.put("year", year);
+        params.put("trials", trials);
+        params.put("noiseRate", noiseRate);
+        try {
+            String jobId = jobService.submit(JobTypes.UNCERTAINTY_CALCULATION, params,
+                    context -> riskUncertaintyService.calculate(year, trials, noiseRate, context));
+            return Result.success(jobId);
+        } catch (IllegalStateException e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    @Operation(summary = "查询综合得分不确定性", description = "某年（为空时取最近有结果的年份）各县域综合得分的 5%/25%/50%/75%/95% 分位数"
+            + "与各风险等级的概率，按 90% 区间宽度从大到小；countyCode 不为空时只查该县域")
+    @GetMapping
+    public Result<List<RiskScoreUncertainty>> list(
+            @RequestParam(required = false) Integer year,
+            @RequestParam(required = false) String countyCode) {
+        return Result.success(riskUncertaintyService.list(year, countyCode));
+    }
+}
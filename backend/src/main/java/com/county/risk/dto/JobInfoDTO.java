@@ -0,0 +1,36 @@
+package com.county.risk.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 后台任务状态视图
+ */
+@Data
+public class JobInfoDTO {
+    private String jobId;
+    private String type;
+    private Map<String, Object> params;
+    private String status;
+    private String statusDescription;
+    private String message;
+    private List<StageProgress> progress;
+    private Object result;
+    private String error;
+    private LocalDateTime submittedAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    /**
+     * 单个阶段的进度（风险计算按年份划分阶段）
+     */
+    @Data
+    public static class StageProgress {
+        private String stage;
+        private int done;
+        private int total;
+    }
+}
@@ -0,0 +1,26 @@
+package com.county.risk.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 方案计算任务的结果
+ */
+@Data
+public class ProfileCalculationResultDTO {
+    /**
+     * 参与计算的方案，格式为 方案代码@版本
+     */
+    private List<String> profiles;
+    private List<Integer> years;
+    /**
+     * 每个方案计算的县域年份数
+     */
+    private int countyYearCount;
+    /**
+     * 计算失败的县域年份数（所有方案合计）
+     */
+    private int failCount;
+    private long elapsedMs;
+}
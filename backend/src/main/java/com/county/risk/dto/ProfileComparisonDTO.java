@@ -0,0 +1,49 @@
+package com.county.risk.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 两个指标配置方案同一年份的逐县对比
+ */
+@Data
+public class ProfileComparisonDTO {
+    /**
+     * 基准方案，格式为 方案代码@版本
+     */
+    private String baseProfile;
+    private String otherProfile;
+    private Integer year;
+    /**
+     * 两个方案都有结果的县域数
+     */
+    private int countyCount;
+    private int levelChangedCount;
+    /**
+     * 对比方案中风险等级升高、降低的县域数
+     */
+    private int levelUpCount;
+    private int levelDownCount;
+    /**
+     * 逐县对比，按得分差绝对值从大到小
+     */
+    private List<CountyDiff> counties;
+
+    /**
+     * 单个县域在两个方案下的结果
+     */
+    @Data
+    public static class CountyDiff {
+        private String countyCode;
+        private String countyName;
+        private String provinceName;
+        private BigDecimal baseScore;
+        private BigDecimal otherScore;
+        private BigDecimal delta;
+        private String baseLevel;
+        private String otherLevel;
+        private boolean levelChanged;
+    }
+}
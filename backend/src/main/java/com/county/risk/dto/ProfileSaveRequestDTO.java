@@ -0,0 +1,28 @@
+package com.county.risk.dto;
+
+import com.county.risk.entity.RiskIndicator;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 保存指标配置方案的请求
+ * 以该方案的最新版本为基础（新方案以当前指标配置为基础），indicators 按 indicatorId 覆盖非空的字段
+ * （权重、阈值、比较方向、公式、状态），保存为方案的新版本
+ */
+@Data
+public class ProfileSaveRequestDTO {
+    private String profileCode;
+    /**
+     * 方案名称，为空时沿用上一版本的名称
+     */
+    private String profileName;
+    private String description;
+    /**
+     * 维度权重，如 {"economic":0.35,"social":0.25,...}；为空时沿用上一版本，新方案保存当前 DEFAULT_RISK_WEIGHTS 的快照
+     */
+    private Map<String, BigDecimal> dimensionWeights;
+    private List<RiskIndicator> indicators;
+}
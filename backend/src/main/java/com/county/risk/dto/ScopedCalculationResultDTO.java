@@ -0,0 +1,27 @@
+package com.county.risk.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 范围重算结果（作为后台任务结果返回）
+ */
+@Data
+public class ScopedCalculationResultDTO {
+    private String scope;
+    private List<Integer> years;
+    private Integer countyCount;
+    private Integer countyYearCount;
+    private Integer successCount;
+    private Integer failCount;
+    /**
+     * 是否按整年计算（未限定县域时重新确定分位数分界点）
+     */
+    private Boolean fullYear;
+    private Long elapsedMs;
+    /**
+     * 每秒计算并写入的县域年份数
+     */
+    private Double countyYearsPerSecond;
+}
@@ -0,0 +1,91 @@
+package com.county.risk.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 综合得分对指标权重与阈值的敏感性分析结果
+ * 每个指标的权重、高/中/低阈值分别上调、下调一个步长，统计综合得分变化与跨越各风险等级分界的县域数；
+ * 分界点保持不变（分位数模式下为按当前得分分布计算的分界点）
+ */
+@Data
+public class SensitivityResultDTO {
+    private Integer year;
+    private String configVersion;
+    private Integer countyCount;
+    private BigDecimal weightStep;
+    private BigDecimal thresholdStep;
+    private List<IndicatorSensitivity> indicators;
+    /**
+     * 逐县敏感性，仅在请求时返回
+     */
+    private List<CountySensitivity> counties;
+    private Long elapsedMs;
+
+    /**
+     * 单个指标的汇总
+     */
+    @Data
+    public static class IndicatorSensitivity {
+        private Integer indicatorId;
+        private String indicatorCode;
+        private String indicatorName;
+        private String category;
+        private BigDecimal weight;
+        /**
+         * 权重每增加 1 综合得分的平均、最大变化
+         */
+        private BigDecimal meanScorePerWeight;
+        private BigDecimal maxScorePerWeight;
+        private List<Scenario> scenarios;
+    }
+
+    /**
+     * 单个参数单个方向的情景
+     */
+    @Data
+    public static class Scenario {
+        /**
+         * WEIGHT / THRESHOLD_HIGH / THRESHOLD_MEDIUM / THRESHOLD_LOW
+         */
+        private String parameter;
+        /**
+         * 参数变化量（正数为上调）
+         */
+        private BigDecimal delta;
+        /**
+         * 综合得分发生变化的县域数与平均变化
+         */
+        private Integer scoreChangedCount;
+        private BigDecimal meanScoreChange;
+        private Integer levelChangedCount;
+        /**
+         * 跨越各分界的县域数，键为相邻两个等级，如 "高风险/中高风险"；跨越多个等级时每个分界各计一次
+         */
+        private Map<String, Integer> boundaryCrossings;
+    }
+
+    /**
+     * 单个县域各指标的敏感性，数组顺序与 indicators 一致
+     */
+    @Data
+    public static class CountySensitivity {
+        private String countyCode;
+        private String countyName;
+        private BigDecimal comprehensiveScore;
+        private String riskLevel;
+        /**
+         * 权重每增加 1 综合得分的变化
+         */
+        private List<BigDecimal> scorePerWeight;
+        /**
+         * 高/中/低阈值上调一个步长时，阈值每增加 1 综合得分的变化（阈值为分段计分，按步长内的平均变化率计）
+         */
+        private List<BigDecimal> scorePerThresholdHigh;
+        private List<BigDecimal> scorePerThresholdMedium;
+        private List<BigDecimal> scorePerThresholdLow;
+    }
+}
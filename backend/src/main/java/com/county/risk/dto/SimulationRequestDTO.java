@@ -0,0 +1,24 @@
+package com.county.risk.dto;
+
+import com.county.risk.entity.RiskIndicator;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 风险模拟请求
+ * indicators 为候选指标配置，按 indicatorId 覆盖当前配置中非空的字段（权重、阈值、比较方向、状态），
+ * 未出现的指标沿用当前配置
+ */
+@Data
+public class SimulationRequestDTO {
+    /**
+     * 模拟年份，为空表示所有有数据的年份
+     */
+    private Integer year;
+    private List<RiskIndicator> indicators;
+    /**
+     * 返回得分变化最大的县域数量，默认 20
+     */
+    private Integer topN;
+}
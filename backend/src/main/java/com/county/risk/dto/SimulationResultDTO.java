@@ -0,0 +1,65 @@
+package com.county.risk.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 风险模拟结果
+ * baseline 为当前指标配置在内存中的计算结果，candidate 为候选配置的计算结果，二者基于同一份数据快照
+ */
+@Data
+public class SimulationResultDTO {
+    private List<Integer> years;
+    private Integer countyYearCount;
+    private String baselineConfigVersion;
+    private String candidateConfigVersion;
+    /**
+     * 风险等级发生变化的县域年份数量
+     */
+    private Integer levelChangedCount;
+    private List<LevelCount> levelDistribution;
+    private List<CountyMover> topMovers;
+    private List<ProvinceDelta> provinceDeltas;
+    private Long elapsedMs;
+
+    /**
+     * 单个风险等级的县域年份数量
+     */
+    @Data
+    public static class LevelCount {
+        private String riskLevel;
+        private Long baselineCount;
+        private Long candidateCount;
+    }
+
+    /**
+     * 综合得分变化较大的县域
+     */
+    @Data
+    public static class CountyMover {
+        private String countyCode;
+        private String countyName;
+        private String provinceName;
+        private Integer year;
+        private BigDecimal baselineScore;
+        private BigDecimal candidateScore;
+        private BigDecimal delta;
+        private String baselineLevel;
+        private String candidateLevel;
+    }
+
+    /**
+     * 省级平均综合得分变化
+     */
+    @Data
+    public static class ProvinceDelta {
+        private String provinceName;
+        private Integer countyYearCount;
+        private BigDecimal baselineAvgScore;
+        private BigDecimal candidateAvgScore;
+        private BigDecimal delta;
+        private Integer levelChangedCount;
+    }
+}
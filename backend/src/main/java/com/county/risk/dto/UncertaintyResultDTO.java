@@ -0,0 +1,25 @@
+package com.county.risk.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * 综合得分不确定性计算任务的结果
+ */
+@Data
+public class UncertaintyResultDTO {
+    private Integer year;
+    /**
+     * 完成抽样的县域数
+     */
+    private int countyCount;
+    private int failCount;
+    /**
+     * 每个县域的抽样次数
+     */
+    private int trials;
+    private BigDecimal noiseRate;
+    private String configVersion;
+    private long elapsedMs;
+}
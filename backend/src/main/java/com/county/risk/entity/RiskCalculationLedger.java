@@ -0,0 +1,40 @@
+package com.county.risk.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 风险计算台账实体
+ * 每次计算运行一行，记录计算范围、数量与读取/计分/写入/等级划分各阶段耗时
+ */
+@Data
+@TableName("risk_calculation_ledger")
+public class RiskCalculationLedger implements Serializable {
+    @TableId(type = IdType.AUTO)
+    private Long id;
+    private String runType; // ALL_YEARS, YEAR, SCOPE, PROFILES, UNCERTAINTY
+    private String scope;
+    private String status; // RUNNING, SUCCEEDED, FAILED, CANCELLED
+    private String nodeId;
+    private String calculationMode;
+    private String kernel;
+    private String configVersion;
+    private String years;
+    private Integer scoredCount;
+    private Integer failedCount;
+    private Long wallMs;
+    private Long readMs;
+    private Long computeMs;
+    private Long writeMs;
+    private Long levelMs;
+    private BigDecimal rowsPerSecond;
+    private String errorMessage;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,28 @@
+package com.county.risk.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 风险计算运行记录实体
+ */
+@Data
+@TableName("risk_calculation_runs")
+public class RiskCalculationRun implements Serializable {
+    @TableId(type = IdType.INPUT)
+    private String runId;
+    private String runType; // ALL_YEARS, YEAR
+    private String status; // RUNNING, SUCCEEDED, FAILED, CANCELLED, ABANDONED
+    private String coordinatorNode;
+    private String configVersion;
+    private String years;
+    private Integer totalShards;
+    private LocalDateTime coordinatorHeartbeatAt;
+    private LocalDateTime createdAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,32 @@
+package com.county.risk.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 风险计算分片实体（省份 × 年份）
+ */
+@Data
+@TableName("risk_calculation_shards")
+public class RiskCalculationShard implements Serializable {
+    @TableId(type = IdType.AUTO)
+    private Long id;
+    private String runId;
+    private String provinceName;
+    private Integer year;
+    private Integer countyCount;
+    private String status; // PENDING, RUNNING, DONE, FAILED
+    private String ownerNode;
+    private String leaseToken;
+    private LocalDateTime leaseUntil;
+    private Integer attempts;
+    private Integer failedCount;
+    private String errorMessage;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
@@ -22,6 +22,7 @@ public class RiskIndicator implements Serializable {
     private String category;
     private String subcategory;
     private String calculationMethod;
+    private String formula; // 取值公式，为空时使用内置取值
     private String dataSource;
     private BigDecimal weight;
     private BigDecimal thresholdHigh;
@@ -0,0 +1,27 @@
+package com.county.risk.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 指标配置方案实体
+ * 同一方案代码每次保存生成新版本，保存后不再修改
+ */
+@Data
+@TableName("risk_indicator_profiles")
+public class RiskIndicatorProfile implements Serializable {
+    @TableId(type = IdType.AUTO)
+    private Integer profileId;
+    private String profileCode;
+    private Integer version;
+    private String profileName;
+    private String description;
+    private String dimensionWeights; // 维度权重 JSON，保存时的权重快照（早期版本为空时使用当前 DEFAULT_RISK_WEIGHTS）
+    private String configVersion;
+    private LocalDateTime createdAt;
+}
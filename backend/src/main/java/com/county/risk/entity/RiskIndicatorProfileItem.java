@@ -0,0 +1,28 @@
+package com.county.risk.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * 指标配置方案明细实体：方案中单个指标的权重、阈值、比较方向、公式与启用状态
+ */
+@Data
+@TableName("risk_indicator_profile_items")
+public class RiskIndicatorProfileItem implements Serializable {
+    @TableId(type = IdType.AUTO)
+    private Long id;
+    private Integer profileId;
+    private Integer indicatorId;
+    private BigDecimal weight;
+    private BigDecimal thresholdHigh;
+    private BigDecimal thresholdMedium;
+    private BigDecimal thresholdLow;
+    private String comparisonOperator;
+    private String formula;
+    private String status;
+}
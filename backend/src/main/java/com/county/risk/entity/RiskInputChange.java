@@ -0,0 +1,24 @@
+package com.county.risk.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 风险计算输入变更日志实体
+ * county_code 与 year 均为空表示指标配置变更，需要全量重算
+ */
+@Data
+@TableName("risk_input_changes")
+public class RiskInputChange implements Serializable {
+    @TableId(type = IdType.AUTO)
+    private Long id;
+    private String sourceTable;
+    private String countyCode;
+    private Integer year;
+    private LocalDateTime changedAt;
+}
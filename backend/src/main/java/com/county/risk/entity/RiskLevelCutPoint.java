@@ -0,0 +1,31 @@
+package com.county.risk.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 风险等级分界点记录实体
+ * 每次按分位数模式整年计算时记录该年使用的分界点，增量计算与单县计算沿用最近一次记录
+ */
+@Data
+@TableName("risk_level_cut_points")
+public class RiskLevelCutPoint implements Serializable {
+    @TableId(type = IdType.AUTO)
+    private Long id;
+    private Integer year;
+    private String levelMode;
+    private String quantiles;
+    private BigDecimal cutHigh;
+    private BigDecimal cutMediumHigh;
+    private BigDecimal cutMedium;
+    private BigDecimal cutMediumLow;
+    private Long sampleCount;
+    private String configVersion;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,33 @@
+package com.county.risk.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 方案评估结果实体
+ * 按指标配置方案版本分别保存的综合评估结果，与 comprehensive_risk_assessment 互不影响
+ */
+@Data
+@TableName("risk_profile_assessments")
+public class RiskProfileAssessment implements Serializable {
+    @TableId(type = IdType.AUTO)
+    private Long id;
+    private Integer profileId;
+    private String countyCode;
+    private Integer year;
+    private BigDecimal economicRiskScore;
+    private BigDecimal socialRiskScore;
+    private BigDecimal environmentRiskScore;
+    private BigDecimal governanceRiskScore;
+    private BigDecimal developmentRiskScore;
+    private BigDecimal comprehensiveRiskScore;
+    private String riskLevel;
+    private String majorRiskFactors;
+    private LocalDateTime assessmentDate;
+}
@@ -0,0 +1,69 @@
+package com.county.risk.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 单项指标风险得分实体类
+ * 对应表: risk_scores
+ */
+@Data
+@TableName("risk_scores")
+public class RiskScore {
+
+    /**
+     * 主键ID
+     */
+    @TableId(type = IdType.AUTO)
+    private Integer id;
+
+    /**
+     * 县域代码
+     */
+    private String countyCode;
+
+    /**
+     * 年份
+     */
+    private Integer year;
+
+    /**
+     * 指标ID
+     */
+    private Integer indicatorId;
+
+    /**
+     * 原始指标值（与阈值比较的取值）
+     */
+    private BigDecimal rawValue;
+
+    /**
+     * 标准化后的值（单项得分 0-100）
+     */
+    private BigDecimal normalizedValue;
+
+    /**
+     * 风险得分（0-1，单项得分 / 100）
+     */
+    private BigDecimal riskScore;
+
+    /**
+     * 加权贡献（单项得分 × 权重）
+     */
+    private BigDecimal weightedContribution;
+
+    /**
+     * 单项风险等级
+     */
+    private String riskLevel;
+
+    /**
+     * 计算时间
+     */
+    private LocalDateTime calculationDate;
+}
@@ -0,0 +1,40 @@
+package com.county.risk.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 综合得分不确定性实体
+ * 蒙特卡洛抽样得到的县域年份综合得分分位数与各风险等级的概率
+ */
+@Data
+@TableName("risk_score_uncertainty")
+public class RiskScoreUncertainty implements Serializable {
+    @TableId(type = IdType.AUTO)
+    private Long id;
+    private String countyCode;
+    private Integer year;
+    private Integer trials;
+    private BigDecimal noiseRate;
+    private BigDecimal pointScore;
+    private BigDecimal meanScore;
+    private BigDecimal stdScore;
+    private BigDecimal p05Score;
+    private BigDecimal p25Score;
+    private BigDecimal p50Score;
+    private BigDecimal p75Score;
+    private BigDecimal p95Score;
+    private BigDecimal probHigh;
+    private BigDecimal probMediumHigh;
+    private BigDecimal probMedium;
+    private BigDecimal probMediumLow;
+    private BigDecimal probLow;
+    private String configVersion;
+    private LocalDateTime calculatedAt;
+}
@@ -0,0 +1,112 @@
+package com.county.risk.job;
+
+import com.county.risk.calculation.CalculationProgress;
+import com.county.risk.dto.JobInfoDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 后台任务运行上下文
+ * 任务通过它按阶段上报进度（风险计算按年份统计已处理县域数）并检查取消标记
+ */
+public class JobContext implements CalculationProgress {
+
+    private final String jobId;
+    private final AtomicBoolean cancelRequested = new AtomicBoolean();
+    private final Map<String, Stage> stages = new ConcurrentSkipListMap<>();
+    private volatile String message;
+
+    private JobContext(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public static JobContext create(String jobId) {
+        return new JobContext(jobId);
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    /**
+     * 登记某阶段的工作量，可多次调用累加
+     */
+    public void plan(String stage, int total) {
+        stages.computeIfAbsent(stage, s -> new Stage()).total.addAndGet(total);
+    }
+
+    /**
+     * 某阶段又完成了 count 个工作单元
+     */
+    public void advance(String stage, int count) {
+        stages.computeIfAbsent(stage, s -> new Stage()).done.addAndGet(count);
+    }
+
+    /**
+     * 设置当前进度说明
+     */
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public void yearPlanned(int year, int counties) {
+        plan(year + "年", counties);
+    }
+
+    @Override
+    public void countiesDone(int year, int count) {
+        advance(year + "年", count);
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelRequested.get();
+    }
+
+    /**
+     * 已请求取消时抛出 CancellationException，供任务在循环中调用
+     */
+    public void checkCancelled() {
+        if (isCancelled()) {
+            throw new CancellationException("任务已取消: " + jobId);
+        }
+    }
+
+    /**
+     * 设置取消标记，由任务服务调用
+     */
+    public void requestCancel() {
+        cancelRequested.set(true);
+    }
+
+    /**
+     * 各阶段进度快照（按阶段名排序）
+     */
+    public List<JobInfoDTO.StageProgress> snapshotStages() {
+        List<JobInfoDTO.StageProgress> list = new ArrayList<>(stages.size());
+        stages.forEach((name, stage) -> {
+            JobInfoDTO.StageProgress p = new JobInfoDTO.StageProgress();
+            p.setStage(name);
+            p.setDone(stage.done.get());
+            p.setTotal(stage.total.get());
+            list.add(p);
+        });
+        return list;
+    }
+
+    private static class Stage {
+        final AtomicInteger done = new AtomicInteger();
+        final AtomicInteger total = new AtomicInteger();
+    }
+}
@@ -0,0 +1,30 @@
+package com.county.risk.job;
+
+/**
+ * 后台任务状态
+ */
+public enum JobStatus {
+
+    PENDING("排队中"),
+    RUNNING("运行中"),
+    SUCCEEDED("已完成"),
+    FAILED("失败"),
+    CANCELLED("已取消");
+
+    private final String description;
+
+    JobStatus(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * 是否已结束（不会再变化）
+     */
+    public boolean isFinished() {
+        return this == SUCCEEDED || this == FAILED || this == CANCELLED;
+    }
+}
@@ -0,0 +1,12 @@
+package com.county.risk.job;
+
+/**
+ * 后台任务逻辑
+ *
+ * @param <T> 任务结果类型，结果会在任务状态查询中返回
+ */
+@FunctionalInterface
+public interface JobTask<T> {
+
+    T run(JobContext context) throws Exception;
+}
@@ -0,0 +1,42 @@
+package com.county.risk.job;
+
+import java.util.Set;
+
+/**
+ * 后台任务类型
+ */
+public final class JobTypes {
+
+    /**
+     * 风险计算（参数 year 为空时计算所有年份）
+     */
+    public static final String RISK_CALCULATION = "RISK_CALCULATION";
+
+    /**
+     * 预警检查与生成
+     */
+    public static final String ALERT_CHECK = "ALERT_CHECK";
+
+    /**
+     * 按指标配置方案计算（参数 profiles 为方案引用，year 为空时计算所有年份）
+     */
+    public static final String PROFILE_CALCULATION = "PROFILE_CALCULATION";
+
+    /**
+     * 综合得分不确定性（蒙特卡洛抽样，参数 year 为空时取最近有数据的年份）
+     */
+    public static final String UNCERTAINTY_CALCULATION = "UNCERTAINTY_CALCULATION";
+
+    /**
+     * 同一时间只允许一个排队或运行中任务的类型：各风险计算任务写同一张评估表并共用变更日志与得分备忘，
+     * 全历史计算与单年份、指定范围的计算互相覆盖
+     */
+    private static final Set<String> EXCLUSIVE = Set.of(RISK_CALCULATION);
+
+    private JobTypes() {
+    }
+
+    public static boolean isExclusive(String type) {
+        return EXCLUSIVE.contains(type);
+    }
+}
@@ -3,10 +3,30 @@ package com.county.risk.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.county.risk.entity.CountyBasic;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.Collection;
+import java.util.List;
 
 /**
  * 县域基础信息Mapper
  */
 @Mapper
 public interface CountyBasicMapper extends BaseMapper<CountyBasic> {
+
+    /**
+     * 范围重算的县域代码：省份、城市、县域代码列表三个条件取交集，为空的条件不参与过滤
+     */
+    @Select("<script>" +
+            "SELECT county_code FROM county_basic WHERE 1 = 1 " +
+            "<if test='provinceName != null'>AND province_name = #{provinceName} </if>" +
+            "<if test='cityName != null'>AND city_name = #{cityName} </if>" +
+            "<if test='countyCodes != null and countyCodes.size() > 0'>AND county_code IN " +
+            "<foreach collection='countyCodes' item='code' open='(' separator=',' close=')'>#{code}</foreach> </if>" +
+            "ORDER BY county_code" +
+            "</script>")
+    List<String> selectCountyCodesInScope(@Param("provinceName") String provinceName,
+                                          @Param("cityName") String cityName,
+                                          @Param("countyCodes") Collection<String> countyCodes);
 }
@@ -0,0 +1,48 @@
+package com.county.risk.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.ResultSetType;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 县域源数据联合查询Mapper（流式计算使用）
+ */
+@Mapper
+public interface CountyFactsMapper {
+
+    /**
+     * 以 county_basic × 年份为主表，左连接六张事实表，按 (county_code, year) 排序逐行流式返回
+     * 六张表均有 (county_code, year) 唯一键，每个县域年份恰好一行；某表无数据时该表的列为空。
+     * fetchSize = Integer.MIN_VALUE 使 MySQL 驱动逐行读取结果集，不在内存中缓存整个结果；
+     * 结果集读取完毕前同一连接不能执行其他语句。
+     *
+     * @param years   计算年份
+     * @param columns 六张事实表的列清单（带表别名 ea/ff/ps/ec/eh/ic 与列别名），由调用方按实体生成
+     * @return 列别名 cc 为县域代码，yr 为年份，其余为 columns 中的列别名
+     */
+    @Select({
+            "<script>",
+            "SELECT cb.county_code AS cc, CAST(y.year AS SIGNED) AS yr, ${columns} ",
+            "FROM county_basic cb ",
+            "CROSS JOIN (",
+            "  <foreach collection='years' item='yv' separator=' UNION ALL '>SELECT #{yv} AS year</foreach>",
+            ") y ",
+            "LEFT JOIN economic_aggregate ea ON ea.county_code = cb.county_code AND ea.year = y.year ",
+            "LEFT JOIN fiscal_finance ff ON ff.county_code = cb.county_code AND ff.year = y.year ",
+            "LEFT JOIN population_statistics ps ON ps.county_code = cb.county_code AND ps.year = y.year ",
+            "LEFT JOIN environment_culture ec ON ec.county_code = cb.county_code AND ec.year = y.year ",
+            "LEFT JOIN education_health eh ON eh.county_code = cb.county_code AND eh.year = y.year ",
+            "LEFT JOIN investment_consumption ic ON ic.county_code = cb.county_code AND ic.year = y.year ",
+            "ORDER BY cb.county_code, y.year",
+            "</script>"
+    })
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    Cursor<Map<String, Object>> streamJoinedFacts(@Param("years") Collection<Integer> years,
+                                                  @Param("columns") String columns);
+}
@@ -2,10 +2,15 @@ package com.county.risk.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.county.risk.entity.ComprehensiveRiskAssessment;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -46,7 +51,7 @@ public interface RiskAssessmentMapper extends BaseMapper<ComprehensiveRiskAssess
          * @param countyCode 县域代码
          * @return 历年风险数据
          */
-        @Select("SELECT year, comprehensive_risk_score, risk_level " +
+        @Select("SELECT year, comprehensive_risk_score, risk_level, risk_trend, major_risk_factors " +
                         "FROM comprehensive_risk_assessment " +
                         "WHERE county_code = #{countyCode} " +
                         "ORDER BY year ASC")
@@ -129,14 +134,121 @@ public interface RiskAssessmentMapper extends BaseMapper<ComprehensiveRiskAssess
         Integer getMaxDataYear();
 
         /**
-         * 获取所有有基础数据的年份
+         * 获取所有有基础数据的年份（六张源数据表中任一张有数据即计入）
          */
-        @Select("SELECT DISTINCT year FROM economic_aggregate ORDER BY year")
+        @Select("SELECT CAST(y.year AS SIGNED) FROM ( " +
+                        "SELECT year FROM economic_aggregate " +
+                        "UNION SELECT year FROM fiscal_finance " +
+                        "UNION SELECT year FROM population_statistics " +
+                        "UNION SELECT year FROM environment_culture " +
+                        "UNION SELECT year FROM education_health " +
+                        "UNION SELECT year FROM investment_consumption " +
+                        ") y ORDER BY y.year")
         List<Integer> getYearsWithData();
 
+        /**
+         * 按分界点重新划分某年全部县域的风险等级（流式计算在分位数分界点确定后使用）
+         * 比较规则与 LevelCutPoints.classify 相同：得分 >= 分界点即属于该等级
+         *
+         * @return 受影响行数
+         */
+        @Update("UPDATE comprehensive_risk_assessment SET risk_level = CASE " +
+                        "WHEN comprehensive_risk_score >= #{high} THEN '高风险' " +
+                        "WHEN comprehensive_risk_score >= #{mediumHigh} THEN '中高风险' " +
+                        "WHEN comprehensive_risk_score >= #{medium} THEN '中风险' " +
+                        "WHEN comprehensive_risk_score >= #{mediumLow} THEN '中低风险' " +
+                        "ELSE '低风险' END " +
+                        "WHERE year = #{year}")
+        int updateLevelsByCutPoints(@Param("year") Integer year, @Param("high") BigDecimal high,
+                        @Param("mediumHigh") BigDecimal mediumHigh, @Param("medium") BigDecimal medium,
+                        @Param("mediumLow") BigDecimal mediumLow);
+
+        /**
+         * 某年全部县域的综合风险得分（分片计算结束后确定分位数分界点使用）
+         */
+        @Select("SELECT comprehensive_risk_score FROM comprehensive_risk_assessment " +
+                        "WHERE year = #{year} AND comprehensive_risk_score IS NOT NULL")
+        List<BigDecimal> selectComprehensiveScores(@Param("year") Integer year);
+
+        /**
+         * 最近一次写入风险评估的时间，没有评估结果时为 null
+         */
+        @Select("SELECT MAX(assessment_date) FROM comprehensive_risk_assessment")
+        LocalDateTime getLatestAssessmentDate();
+
+        /**
+         * 按年份统计已有风险评估的县域数量，替代逐年 selectCount
+         * 
+         * @return 每行包含 year、cnt
+         */
+        @Select("SELECT CAST(year AS SIGNED) AS year, COUNT(*) AS cnt " +
+                        "FROM comprehensive_risk_assessment " +
+                        "GROUP BY year")
+        List<Map<String, Object>> countAssessmentsByYear();
+
         /**
          * 获取所有已有风险评估的年份
          */
         @Select("SELECT DISTINCT year FROM comprehensive_risk_assessment ORDER BY year")
         List<Integer> getYearsWithAssessment();
+
+        /**
+         * 批量写入风险评估结果（按 uk_county_year 存在则更新）
+         * 
+         * @param list 评估结果，一次调用生成一条多行 INSERT ... ON DUPLICATE KEY UPDATE
+         * @return 受影响行数
+         */
+        @Insert({
+                        "<script>",
+                        "INSERT INTO comprehensive_risk_assessment (county_code, year, economic_risk_score, ",
+                        "social_risk_score, environment_risk_score, governance_risk_score, development_risk_score, ",
+                        "comprehensive_risk_score, risk_level, risk_trend, major_risk_factors, assessment_date) VALUES ",
+                        "<foreach collection='list' item='a' separator=','>",
+                        "(#{a.countyCode}, #{a.year}, #{a.economicRiskScore}, #{a.socialRiskScore}, ",
+                        "#{a.environmentRiskScore}, #{a.governanceRiskScore}, #{a.developmentRiskScore}, ",
+                        "#{a.comprehensiveRiskScore}, #{a.riskLevel}, #{a.riskTrend}, #{a.majorRiskFactors}, #{a.assessmentDate})",
+                        "</foreach>",
+                        " ON DUPLICATE KEY UPDATE ",
+                        "economic_risk_score = VALUES(economic_risk_score), ",
+                        "social_risk_score = VALUES(social_risk_score), ",
+                        "environment_risk_score = VALUES(environment_risk_score), ",
+                        "governance_risk_score = VALUES(governance_risk_score), ",
+                        "development_risk_score = VALUES(development_risk_score), ",
+                        "comprehensive_risk_score = VALUES(comprehensive_risk_score), ",
+                        "risk_level = VALUES(risk_level), ",
+                        "risk_trend = VALUES(risk_trend), ",
+                        "major_risk_factors = VALUES(major_risk_factors), ",
+                        "assessment_date = VALUES(assessment_date)",
+                        "</script>"
+        })
+        int upsertBatch(@Param("list") List<ComprehensiveRiskAssessment> list);
+
+        /**
+         * 按上一年综合得分重新判定某年的风险趋势（上一年被重算后，下一年的趋势随之更新）
+         * 没有上一年评估结果（或上一年综合得分为空）的县域趋势置为空，与计算时的判定一致
+         * 
+         * @param year        需要更新趋势的年份
+         * @param threshold   趋势判定阈值
+         * @param countyCodes 只更新这些县域，为空时更新该年全部县域
+         * @return 受影响行数
+         */
+        @Update({
+                        "<script>",
+                        "UPDATE comprehensive_risk_assessment cur ",
+                        "LEFT JOIN comprehensive_risk_assessment prev ",
+                        "  ON prev.county_code = cur.county_code AND prev.year = cur.year - 1 ",
+                        "SET cur.risk_trend = CASE ",
+                        "  WHEN prev.county_code IS NULL OR prev.comprehensive_risk_score IS NULL THEN NULL ",
+                        "  WHEN cur.comprehensive_risk_score - prev.comprehensive_risk_score &gt; #{threshold} THEN '恶化' ",
+                        "  WHEN cur.comprehensive_risk_score - prev.comprehensive_risk_score &lt; 0 - #{threshold} THEN '改善' ",
+                        "  ELSE '稳定' END ",
+                        "WHERE cur.year = #{year} ",
+                        "<if test='countyCodes != null and countyCodes.size() > 0'>",
+                        "  AND cur.county_code IN ",
+                        "  <foreach collection='countyCodes' item='c' open='(' separator=',' close=')'>#{c}</foreach>",
+                        "</if>",
+                        "</script>"
+        })
+        int refreshTrendFromPreviousYear(@Param("year") Integer year, @Param("threshold") BigDecimal threshold,
+                        @Param("countyCodes") Collection<String> countyCodes);
 }
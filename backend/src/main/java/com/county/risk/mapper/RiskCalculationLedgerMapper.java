@@ -0,0 +1,26 @@
+package com.county.risk.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.county.risk.entity.RiskCalculationLedger;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+
+/**
+ * 风险计算台账Mapper
+ */
+@Mapper
+public interface RiskCalculationLedgerMapper extends BaseMapper<RiskCalculationLedger> {
+
+    /**
+     * 最近的计算运行，按开始时间倒序；runType 为空时不过滤
+     */
+    @Select("<script>" +
+            "SELECT * FROM risk_calculation_ledger " +
+            "<if test='runType != null'>WHERE run_type = #{runType} </if>" +
+            "ORDER BY started_at DESC, id DESC LIMIT #{limit}" +
+            "</script>")
+    List<RiskCalculationLedger> selectRecent(@Param("runType") String runType, @Param("limit") int limit);
+}
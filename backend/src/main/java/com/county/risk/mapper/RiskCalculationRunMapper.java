@@ -0,0 +1,78 @@
+package com.county.risk.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.county.risk.entity.RiskCalculationRun;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.List;
+
+/**
+ * 风险计算运行记录Mapper
+ */
+@Mapper
+public interface RiskCalculationRunMapper extends BaseMapper<RiskCalculationRun> {
+
+    /**
+     * 刷新发起节点心跳（数据库时间）
+     */
+    @Update("UPDATE risk_calculation_runs SET coordinator_heartbeat_at = NOW() " +
+            "WHERE run_id = #{runId} AND status = 'RUNNING'")
+    int heartbeat(@Param("runId") String runId);
+
+    /**
+     * 进行中且发起节点心跳未过期的运行，按创建时间排序
+     */
+    @Select("SELECT * FROM risk_calculation_runs WHERE status = 'RUNNING' " +
+            "AND coordinator_heartbeat_at >= DATE_SUB(NOW(), INTERVAL #{staleSeconds} SECOND) " +
+            "ORDER BY created_at")
+    List<RiskCalculationRun> selectActiveRuns(@Param("staleSeconds") int staleSeconds);
+
+    /**
+     * 最近一次可接管的运行：失败、取消，或仍为进行中但发起节点心跳已过期（进程重启或失联）
+     */
+    @Select("SELECT * FROM risk_calculation_runs WHERE run_type = #{runType} " +
+            "AND (status IN ('FAILED', 'CANCELLED') OR (status = 'RUNNING' AND (coordinator_heartbeat_at IS NULL " +
+            "OR coordinator_heartbeat_at < DATE_SUB(NOW(), INTERVAL #{staleSeconds} SECOND)))) " +
+            "ORDER BY created_at DESC LIMIT 1")
+    RiskCalculationRun selectResumable(@Param("runType") String runType, @Param("staleSeconds") int staleSeconds);
+
+    /**
+     * 接管运行：条件与 selectResumable 相同，多个节点同时接管时只有一个成功
+     *
+     * @return 1 表示接管成功
+     */
+    @Update("UPDATE risk_calculation_runs SET status = 'RUNNING', coordinator_node = #{node}, years = #{years}, " +
+            "coordinator_heartbeat_at = NOW(), finished_at = NULL " +
+            "WHERE run_id = #{runId} AND (status IN ('FAILED', 'CANCELLED') OR (status = 'RUNNING' " +
+            "AND (coordinator_heartbeat_at IS NULL " +
+            "OR coordinator_heartbeat_at < DATE_SUB(NOW(), INTERVAL #{staleSeconds} SECOND))))")
+    int resume(@Param("runId") String runId, @Param("node") String node, @Param("years") String years,
+               @Param("staleSeconds") int staleSeconds);
+
+    /**
+     * 放弃同类型的其他未完成运行，只保留最近接管或创建的一个检查点
+     */
+    @Update("UPDATE risk_calculation_runs SET status = 'ABANDONED', finished_at = NOW() " +
+            "WHERE run_type = #{runType} AND run_id <> #{keepRunId} " +
+            "AND (status IN ('FAILED', 'CANCELLED') OR (status = 'RUNNING' AND (coordinator_heartbeat_at IS NULL " +
+            "OR coordinator_heartbeat_at < DATE_SUB(NOW(), INTERVAL #{staleSeconds} SECOND))))")
+    int abandonOthers(@Param("runType") String runType, @Param("keepRunId") String keepRunId,
+                      @Param("staleSeconds") int staleSeconds);
+
+    /**
+     * 按分片表重新统计运行的分片数
+     */
+    @Update("UPDATE risk_calculation_runs r SET total_shards = " +
+            "(SELECT COUNT(*) FROM risk_calculation_shards s WHERE s.run_id = r.run_id) WHERE r.run_id = #{runId}")
+    int refreshTotalShards(@Param("runId") String runId);
+
+    /**
+     * 结束运行
+     */
+    @Update("UPDATE risk_calculation_runs SET status = #{status}, finished_at = NOW() " +
+            "WHERE run_id = #{runId} AND status = 'RUNNING'")
+    int finish(@Param("runId") String runId, @Param("status") String status);
+}
@@ -0,0 +1,147 @@
+package com.county.risk.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.county.risk.entity.RiskCalculationShard;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 风险计算分片Mapper
+ * 租约时间全部使用数据库时间（NOW()），不依赖各节点时钟一致
+ */
+@Mapper
+public interface RiskCalculationShardMapper extends BaseMapper<RiskCalculationShard> {
+
+    /**
+     * 批量创建分片；接管运行时补建分片，已存在的 (运行, 省份, 年份) 保持原状态
+     */
+    @Insert({
+            "<script>",
+            "INSERT IGNORE INTO risk_calculation_shards (run_id, province_name, year, county_count, status) VALUES ",
+            "<foreach collection='shards' item='s' separator=','>",
+            "(#{s.runId}, #{s.provinceName}, #{s.year}, #{s.countyCount}, 'PENDING')",
+            "</foreach>",
+            "</script>"
+    })
+    int insertBatch(@Param("shards") List<RiskCalculationShard> shards);
+
+    /**
+     * 领取一个分片：待处理的分片，或租约已过期且未达到最大领取次数的处理中分片（持有节点失联）
+     * 单条 UPDATE ... LIMIT 1 由行锁保证同一分片只被一个节点领取，领取结果通过 lease_token 查回
+     *
+     * @return 1 表示领取成功，0 表示没有可领取的分片
+     */
+    @Update("UPDATE risk_calculation_shards SET status = 'RUNNING', owner_node = #{node}, lease_token = #{token}, " +
+            "lease_until = DATE_ADD(NOW(), INTERVAL #{leaseSeconds} SECOND), attempts = attempts + 1, " +
+            "started_at = NOW(), error_message = NULL " +
+            "WHERE run_id = #{runId} AND (status = 'PENDING' " +
+            "OR (status = 'RUNNING' AND lease_until < NOW() AND attempts < #{maxAttempts})) " +
+            "ORDER BY year, province_name LIMIT 1")
+    int claim(@Param("runId") String runId, @Param("node") String node, @Param("token") String token,
+              @Param("leaseSeconds") int leaseSeconds, @Param("maxAttempts") int maxAttempts);
+
+    /**
+     * 租约已过期且已达到最大领取次数的处理中分片标记失败（与 {@link #release} 一致），
+     * 避免反复导致节点失联的分片被无限次重新领取，也避免其一直停留在处理中使运行无法结束
+     */
+    @Update("UPDATE risk_calculation_shards SET status = 'FAILED', owner_node = NULL, lease_until = NULL, " +
+            "error_message = #{error} " +
+            "WHERE run_id = #{runId} AND status = 'RUNNING' AND lease_until < NOW() AND attempts >= #{maxAttempts}")
+    int failExpired(@Param("runId") String runId, @Param("maxAttempts") int maxAttempts,
+                    @Param("error") String error);
+
+    @Select("SELECT * FROM risk_calculation_shards WHERE lease_token = #{token}")
+    RiskCalculationShard selectByLeaseToken(@Param("token") String token);
+
+    /**
+     * 续约；返回 0 表示租约已被其他节点接管
+     */
+    @Update("UPDATE risk_calculation_shards SET lease_until = DATE_ADD(NOW(), INTERVAL #{leaseSeconds} SECOND) " +
+            "WHERE id = #{id} AND lease_token = #{token} AND status = 'RUNNING'")
+    int renew(@Param("id") Long id, @Param("token") String token, @Param("leaseSeconds") int leaseSeconds);
+
+    /**
+     * 标记完成；返回 0 表示租约已被其他节点接管，以接管节点的结果为准
+     */
+    @Update("UPDATE risk_calculation_shards SET status = 'DONE', failed_count = #{failedCount}, " +
+            "finished_at = NOW(), lease_until = NULL " +
+            "WHERE id = #{id} AND lease_token = #{token} AND status = 'RUNNING'")
+    int complete(@Param("id") Long id, @Param("token") String token, @Param("failedCount") int failedCount);
+
+    /**
+     * 处理失败时释放租约：未达到最大领取次数的分片回到待处理，否则标记失败
+     */
+    @Update("UPDATE risk_calculation_shards SET status = IF(attempts >= #{maxAttempts}, 'FAILED', 'PENDING'), " +
+            "owner_node = NULL, lease_until = NULL, error_message = #{error} " +
+            "WHERE id = #{id} AND lease_token = #{token} AND status = 'RUNNING'")
+    int release(@Param("id") Long id, @Param("token") String token, @Param("maxAttempts") int maxAttempts,
+                @Param("error") String error);
+
+    /**
+     * 记录整年检查点：该年结果已全部写入
+     */
+    @Insert("INSERT INTO risk_calculation_shards " +
+            "(run_id, province_name, year, county_count, status, owner_node, attempts, failed_count, started_at, finished_at) " +
+            "VALUES (#{runId}, '*', #{year}, #{countyCount}, 'DONE', #{node}, 1, #{failedCount}, NOW(), NOW()) " +
+            "ON DUPLICATE KEY UPDATE status = 'DONE', owner_node = VALUES(owner_node), attempts = attempts + 1, " +
+            "failed_count = VALUES(failed_count), finished_at = NOW()")
+    int checkpointYear(@Param("runId") String runId, @Param("year") Integer year, @Param("node") String node,
+                       @Param("countyCount") int countyCount, @Param("failedCount") int failedCount);
+
+    /**
+     * 接管运行时把失败的分片重新放回待处理，领取次数清零
+     */
+    @Update("UPDATE risk_calculation_shards SET status = 'PENDING', attempts = 0, owner_node = NULL, " +
+            "lease_token = NULL, lease_until = NULL WHERE run_id = #{runId} AND status = 'FAILED'")
+    int resetFailed(@Param("runId") String runId);
+
+    /**
+     * 删除某类检查点单元中未完成的部分：按省份分片处理时删除整年单元（wholeYear = true），按整年处理时删除省份分片
+     */
+    @Delete({
+            "<script>",
+            "DELETE FROM risk_calculation_shards WHERE run_id = #{runId} AND status &lt;&gt; 'DONE' AND ",
+            "<choose><when test='wholeYear'>province_name = '*'</when><otherwise>province_name &lt;&gt; '*'</otherwise></choose>",
+            "</script>"
+    })
+    int deleteUnfinished(@Param("runId") String runId, @Param("wholeYear") boolean wholeYear);
+
+    /**
+     * 运行的全部分片
+     */
+    @Select("SELECT * FROM risk_calculation_shards WHERE run_id = #{runId}")
+    List<RiskCalculationShard> selectByRun(@Param("runId") String runId);
+
+    /**
+     * 各状态分片数
+     */
+    @Select("SELECT status, COUNT(*) AS cnt FROM risk_calculation_shards WHERE run_id = #{runId} GROUP BY status")
+    List<Map<String, Object>> countByStatus(@Param("runId") String runId);
+
+    /**
+     * 已结束（完成或失败）的分片
+     */
+    @Select("SELECT * FROM risk_calculation_shards WHERE run_id = #{runId} AND status IN ('DONE', 'FAILED')")
+    List<RiskCalculationShard> selectFinished(@Param("runId") String runId);
+
+    /**
+     * 各省份县域数，未填写省份的县域归入空字符串
+     */
+    @Select("SELECT IFNULL(province_name, '') AS province, COUNT(*) AS cnt FROM county_basic " +
+            "GROUP BY IFNULL(province_name, '') ORDER BY province")
+    List<Map<String, Object>> countCountiesByProvince();
+
+    /**
+     * 某省份的县域代码
+     */
+    @Select("SELECT county_code FROM county_basic WHERE IFNULL(province_name, '') = #{provinceName} " +
+            "ORDER BY county_code")
+    List<String> selectCountyCodesByProvince(@Param("provinceName") String provinceName);
+}
@@ -0,0 +1,35 @@
+package com.county.risk.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.county.risk.entity.RiskIndicatorProfileItem;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+
+/**
+ * 指标配置方案明细Mapper
+ */
+@Mapper
+public interface RiskIndicatorProfileItemMapper extends BaseMapper<RiskIndicatorProfileItem> {
+
+    @Select("SELECT * FROM risk_indicator_profile_items WHERE profile_id = #{profileId}")
+    List<RiskIndicatorProfileItem> selectByProfileId(@Param("profileId") Integer profileId);
+
+    /**
+     * 批量写入方案明细
+     */
+    @Insert({
+            "<script>",
+            "INSERT INTO risk_indicator_profile_items (profile_id, indicator_id, weight, threshold_high, ",
+            "threshold_medium, threshold_low, comparison_operator, formula, status) VALUES ",
+            "<foreach collection='list' item='i' separator=','>",
+            "(#{i.profileId}, #{i.indicatorId}, #{i.weight}, #{i.thresholdHigh}, #{i.thresholdMedium}, ",
+            "#{i.thresholdLow}, #{i.comparisonOperator}, #{i.formula}, #{i.status})",
+            "</foreach>",
+            "</script>"
+    })
+    int insertBatch(@Param("list") List<RiskIndicatorProfileItem> list);
+}
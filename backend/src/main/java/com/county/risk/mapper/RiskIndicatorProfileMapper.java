@@ -0,0 +1,43 @@
+package com.county.risk.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.county.risk.entity.RiskIndicatorProfile;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+
+/**
+ * 指标配置方案Mapper
+ */
+@Mapper
+public interface RiskIndicatorProfileMapper extends BaseMapper<RiskIndicatorProfile> {
+
+    /**
+     * 方案代码的最新版本，不存在时返回 null
+     */
+    @Select("SELECT * FROM risk_indicator_profiles WHERE profile_code = #{profileCode} ORDER BY version DESC LIMIT 1")
+    RiskIndicatorProfile selectLatestByCode(@Param("profileCode") String profileCode);
+
+    /**
+     * 方案代码的指定版本，不存在时返回 null
+     */
+    @Select("SELECT * FROM risk_indicator_profiles WHERE profile_code = #{profileCode} AND version = #{version}")
+    RiskIndicatorProfile selectByCodeAndVersion(@Param("profileCode") String profileCode, @Param("version") int version);
+
+    /**
+     * 各方案代码的最新版本，按方案代码排序
+     */
+    @Select("SELECT p.* FROM risk_indicator_profiles p " +
+            "JOIN (SELECT profile_code, MAX(version) AS version FROM risk_indicator_profiles GROUP BY profile_code) latest " +
+            "  ON latest.profile_code = p.profile_code AND latest.version = p.version " +
+            "ORDER BY p.profile_code")
+    List<RiskIndicatorProfile> selectLatestVersions();
+
+    /**
+     * 方案代码的全部版本，按版本倒序
+     */
+    @Select("SELECT * FROM risk_indicator_profiles WHERE profile_code = #{profileCode} ORDER BY version DESC")
+    List<RiskIndicatorProfile> selectVersions(@Param("profileCode") String profileCode);
+}
@@ -0,0 +1,41 @@
+package com.county.risk.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.county.risk.entity.RiskInputChange;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+
+/**
+ * 风险计算输入变更日志Mapper
+ */
+@Mapper
+public interface RiskInputChangeMapper extends BaseMapper<RiskInputChange> {
+
+    /**
+     * 当前变更日志的最大ID，作为本次增量计算的处理上限
+     */
+    @Select("SELECT MAX(id) FROM risk_input_changes")
+    Long getMaxChangeId();
+
+    /**
+     * 获取截至指定ID的变更日志 (id, county_code, year)，处理成功后按其中的ID删除
+     */
+    @Select("SELECT id, county_code, year FROM risk_input_changes WHERE id <= #{maxId}")
+    List<RiskInputChange> selectChangesUpTo(@Param("maxId") Long maxId);
+
+    /**
+     * 按ID删除已处理的变更日志
+     * 不按ID范围删除：自增ID在事务开始时分配，ID较小的变更可能在读取之后才提交，按范围删除会丢失未处理的变更
+     */
+    @Delete({
+            "<script>",
+            "DELETE FROM risk_input_changes WHERE id IN ",
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>",
+            "</script>"
+    })
+    int deleteByIds(@Param("ids") List<Long> ids);
+}
@@ -0,0 +1,20 @@
+package com.county.risk.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.county.risk.entity.RiskLevelCutPoint;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+/**
+ * 风险等级分界点记录Mapper
+ */
+@Mapper
+public interface RiskLevelCutPointMapper extends BaseMapper<RiskLevelCutPoint> {
+
+    /**
+     * 获取某年最近一次记录的分界点
+     */
+    @Select("SELECT * FROM risk_level_cut_points WHERE year = #{year} ORDER BY id DESC LIMIT 1")
+    RiskLevelCutPoint selectLatestByYear(@Param("year") Integer year);
+}
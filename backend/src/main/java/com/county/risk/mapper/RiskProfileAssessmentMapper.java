@@ -0,0 +1,71 @@
+package com.county.risk.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.county.risk.entity.RiskProfileAssessment;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 方案评估结果Mapper
+ */
+@Mapper
+public interface RiskProfileAssessmentMapper extends BaseMapper<RiskProfileAssessment> {
+
+    /**
+     * 批量写入方案评估结果（按 uk_profile_county_year 存在则更新）
+     */
+    @Insert({
+            "<script>",
+            "INSERT INTO risk_profile_assessments (profile_id, county_code, year, economic_risk_score, ",
+            "social_risk_score, environment_risk_score, governance_risk_score, development_risk_score, ",
+            "comprehensive_risk_score, risk_level, major_risk_factors, assessment_date) VALUES ",
+            "<foreach collection='list' item='a' separator=','>",
+            "(#{a.profileId}, #{a.countyCode}, #{a.year}, #{a.economicRiskScore}, #{a.socialRiskScore}, ",
+            "#{a.environmentRiskScore}, #{a.governanceRiskScore}, #{a.developmentRiskScore}, ",
+            "#{a.comprehensiveRiskScore}, #{a.riskLevel}, #{a.majorRiskFactors}, #{a.assessmentDate})",
+            "</foreach>",
+            " ON DUPLICATE KEY UPDATE ",
+            "economic_risk_score = VALUES(economic_risk_score), ",
+            "social_risk_score = VALUES(social_risk_score), ",
+            "environment_risk_score = VALUES(environment_risk_score), ",
+            "governance_risk_score = VALUES(governance_risk_score), ",
+            "development_risk_score = VALUES(development_risk_score), ",
+            "comprehensive_risk_score = VALUES(comprehensive_risk_score), ",
+            "risk_level = VALUES(risk_level), ",
+            "major_risk_factors = VALUES(major_risk_factors), ",
+            "assessment_date = VALUES(assessment_date)",
+            "</script>"
+    })
+    int upsertBatch(@Param("list") List<RiskProfileAssessment> list);
+
+    /**
+     * 两个方案同一年份逐县对比，只包含两个方案都有结果的县域，按得分差绝对值从大到小
+     */
+    @Select({
+            "<script>",
+            "SELECT a.county_code AS countyCode, c.county_name AS countyName, c.province_name AS provinceName, ",
+            "a.comprehensive_risk_score AS baseScore, a.risk_level AS baseLevel, ",
+            "b.comprehensive_risk_score AS otherScore, b.risk_level AS otherLevel ",
+            "FROM risk_profile_assessments a ",
+            "JOIN risk_profile_assessments b ",
+            "  ON b.profile_id = #{otherProfileId} AND b.county_code = a.county_code AND b.year = a.year ",
+            "LEFT JOIN county_basic c ON c.county_code = a.county_code ",
+            "WHERE a.profile_id = #{baseProfileId} AND a.year = #{year} ",
+            "ORDER BY ABS(b.comprehensive_risk_score - a.comprehensive_risk_score) DESC, a.county_code",
+            "</script>"
+    })
+    List<Map<String, Object>> compare(@Param("baseProfileId") Integer baseProfileId,
+                                      @Param("otherProfileId") Integer otherProfileId,
+                                      @Param("year") Integer year);
+
+    /**
+     * 方案已有结果的年份
+     */
+    @Select("SELECT DISTINCT year FROM risk_profile_assessments WHERE profile_id = #{profileId} ORDER BY year")
+    List<Integer> selectYears(@Param("profileId") Integer profileId);
+}
@@ -0,0 +1,78 @@
+package com.county.risk.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.county.risk.entity.RiskScore;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 单项指标风险得分Mapper接口
+ */
+@Mapper
+public interface RiskScoreMapper extends BaseMapper<RiskScore> {
+
+        /**
+         * 批量写入单项指标得分（按 uk_county_year_indicator 存在则更新）
+         * 
+         * @param list 单项得分，一次调用生成一条多行 INSERT ... ON DUPLICATE KEY UPDATE
+         * @return 受影响行数
+         */
+        @Insert({
+                        "<script>",
+                        "INSERT INTO risk_scores (county_code, year, indicator_id, raw_value, normalized_value, ",
+                        "risk_score, weighted_contribution, risk_level, calculation_date) VALUES ",
+                        "<foreach collection='list' item='s' separator=','>",
+                        "(#{s.countyCode}, #{s.year}, #{s.indicatorId}, #{s.rawValue}, #{s.normalizedValue}, ",
+                        "#{s.riskScore}, #{s.weightedContribution}, #{s.riskLevel}, #{s.calculationDate})",
+                        "</foreach>",
+                        " ON DUPLICATE KEY UPDATE ",
+                        "raw_value = VALUES(raw_value), ",
+                        "normalized_value = VALUES(normalized_value), ",
+                        "risk_score = VALUES(risk_score), ",
+                        "weighted_contribution = VALUES(weighted_contribution), ",
+                        "risk_level = VALUES(risk_level), ",
+                        "calculation_date = VALUES(calculation_date)",
+                        "</script>"
+        })
+        int upsertBatch(@Param("list") List<RiskScore> list);
+
+        /**
+         * 删除指定年份中不在本次计分计划内（已停用或删除）的指标得分
+         * 
+         * @param years        年份
+         * @param indicatorIds 本次启用的指标ID，为空时删除这些年份的全部单项得分
+         */
+        @Delete({
+                        "<script>",
+                        "DELETE FROM risk_scores WHERE year IN ",
+                        "<foreach collection='years' item='y' open='(' separator=',' close=')'>#{y}</foreach>",
+                        "<if test='indicatorIds != null and indicatorIds.size() > 0'>",
+                        "  AND indicator_id NOT IN ",
+                        "  <foreach collection='indicatorIds' item='id' open='(' separator=',' close=')'>#{id}</foreach>",
+                        "</if>",
+                        "</script>"
+        })
+        int deleteExcludedIndicators(@Param("years") Collection<Integer> years,
+                        @Param("indicatorIds") Collection<Integer> indicatorIds);
+
+        /**
+         * 获取县域某年的单项指标得分明细（按 uk_county_year_indicator 索引查找）
+         * 
+         * @return 每行包含指标信息、取值、单项得分与加权贡献，按维度分组、组内按加权贡献降序
+         */
+        @Select("SELECT rs.indicator_id, ri.indicator_code, ri.indicator_name, ri.category, ri.unit, " +
+                        "ri.weight, ri.comparison_operator, rs.raw_value, rs.normalized_value, rs.risk_score, " +
+                        "rs.weighted_contribution, rs.risk_level, rs.calculation_date " +
+                        "FROM risk_scores rs " +
+                        "JOIN risk_indicators ri ON rs.indicator_id = ri.indicator_id " +
+                        "WHERE rs.county_code = #{countyCode} AND rs.year = #{year} " +
+                        "ORDER BY ri.category, rs.weighted_contribution DESC")
+        List<Map<String, Object>> selectBreakdown(@Param("countyCode") String countyCode, @Param("year") Integer year);
+}
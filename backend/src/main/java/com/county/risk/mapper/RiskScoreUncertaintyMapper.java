@@ -0,0 +1,71 @@
+package com.county.risk.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.county.risk.entity.RiskScoreUncertainty;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+
+/**
+ * 综合得分不确定性Mapper
+ */
+@Mapper
+public interface RiskScoreUncertaintyMapper extends BaseMapper<RiskScoreUncertainty> {
+
+    /**
+     * 批量写入抽样结果（按 uk_county_year 存在则更新）
+     */
+    @Insert({
+            "<script>",
+            "INSERT INTO risk_score_uncertainty (county_code, year, trials, noise_rate, point_score, mean_score, ",
+            "std_score, p05_score, p25_score, p50_score, p75_score, p95_score, prob_high, prob_medium_high, ",
+            "prob_medium, prob_medium_low, prob_low, config_version, calculated_at) VALUES ",
+            "<foreach collection='list' item='u' separator=','>",
+            "(#{u.countyCode}, #{u.year}, #{u.trials}, #{u.noiseRate}, #{u.pointScore}, #{u.meanScore}, ",
+            "#{u.stdScore}, #{u.p05Score}, #{u.p25Score}, #{u.p50Score}, #{u.p75Score}, #{u.p95Score}, ",
+            "#{u.probHigh}, #{u.probMediumHigh}, #{u.probMedium}, #{u.probMediumLow}, #{u.probLow}, ",
+            "#{u.configVersion}, #{u.calculatedAt})",
+            "</foreach>",
+            " ON DUPLICATE KEY UPDATE ",
+            "trials = VALUES(trials), ",
+            "noise_rate = VALUES(noise_rate), ",
+            "point_score = VALUES(point_score), ",
+            "mean_score = VALUES(mean_score), ",
+            "std_score = VALUES(std_score), ",
+            "p05_score = VALUES(p05_score), ",
+            "p25_score = VALUES(p25_score), ",
+            "p50_score = VALUES(p50_score), ",
+            "p75_score = VALUES(p75_score), ",
+            "p95_score = VALUES(p95_score), ",
+            "prob_high = VALUES(prob_high), ",
+            "prob_medium_high = VALUES(prob_medium_high), ",
+            "prob_medium = VALUES(prob_medium), ",
+            "prob_medium_low = VALUES(prob_medium_low), ",
+            "prob_low = VALUES(prob_low), ",
+            "config_version = VALUES(config_version), ",
+            "calculated_at = VALUES(calculated_at)",
+            "</script>"
+    })
+    int upsertBatch(@Param("list") List<RiskScoreUncertainty> list);
+
+    /**
+     * 一个年份的抽样结果，按 90% 区间宽度从大到小；countyCode 不为空时只查该县域
+     */
+    @Select({
+            "<script>",
+            "SELECT * FROM risk_score_uncertainty WHERE year = #{year} ",
+            "<if test='countyCode != null'>AND county_code = #{countyCode} </if>",
+            "ORDER BY p95_score - p05_score DESC, county_code",
+            "</script>"
+    })
+    List<RiskScoreUncertainty> selectByYear(@Param("year") Integer year, @Param("countyCode") String countyCode);
+
+    /**
+     * 有抽样结果的最近年份
+     */
+    @Select("SELECT MAX(year) FROM risk_score_uncertainty")
+    Integer selectLatestYear();
+}
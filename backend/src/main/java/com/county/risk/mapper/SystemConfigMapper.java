@@ -0,0 +1,12 @@
+package com.county.risk.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.county.risk.entity.SystemConfig;
+import org.apache.ibatis.annotations.Mapper;
+
+/**
+ * 系统配置Mapper
+ */
+@Mapper
+public interface SystemConfigMapper extends BaseMapper<SystemConfig> {
+}
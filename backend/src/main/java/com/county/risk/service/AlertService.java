@@ -3,6 +3,7 @@ package com.county.risk.service;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.IService;
+import com.county.risk.calculation.CalculationProgress;
 import com.county.risk.entity.Alert;
 import com.county.risk.entity.AlertRule;
 
@@ -24,4 +25,7 @@ public interface AlertService extends IService<Alert> {
 
     // 预警检查
     int checkAndGenerateAlerts(Integer year);
+
+    // 预警检查（后台任务使用，上报进度并响应取消）
+    int checkAndGenerateAlerts(Integer year, CalculationProgress progress);
 }
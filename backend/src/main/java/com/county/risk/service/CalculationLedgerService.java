@@ -0,0 +1,41 @@
+package com.county.risk.service;
+
+import com.county.risk.calculation.CalculationProgress;
+import com.county.risk.entity.RiskCalculationLedger;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 风险计算台账服务接口
+ * 每次计算运行在 risk_calculation_ledger 中记录一行：范围、配置版本、计算数量与读取/计分/写入/等级划分各阶段耗时
+ */
+public interface CalculationLedgerService {
+
+    String RUN_ALL_YEARS = "ALL_YEARS";
+    String RUN_YEAR = "YEAR";
+    String RUN_SCOPE = "SCOPE";
+    String RUN_PROFILES = "PROFILES";
+    String RUN_UNCERTAINTY = "UNCERTAINTY";
+
+    /**
+     * 执行一次计算并记录台账
+     * 开始时写入 RUNNING 行，结束时按结果记为成功、失败或已取消，并写入各阶段耗时与数量；台账读写失败不影响计算
+     *
+     * @param runType     运行类型
+     * @param scope       计算范围描述
+     * @param progress    调用方的进度回调
+     * @param calculation 计算过程，接收接入了台账的进度回调，耗时与数量通过其 stats() 记录
+     * @return calculation 的返回值
+     */
+    <T> T record(String runType, String scope, CalculationProgress progress,
+                 Function<CalculationProgress, T> calculation);
+
+    /**
+     * 最近的计算运行，按开始时间倒序
+     *
+     * @param runType 运行类型，为空时返回所有类型
+     * @param limit   返回条数
+     */
+    List<RiskCalculationLedger> recentRuns(String runType, int limit);
+}
@@ -0,0 +1,64 @@
+package com.county.risk.service;
+
+import com.county.risk.dto.JobInfoDTO;
+import com.county.risk.job.JobTask;
+import com.county.risk.job.JobTypes;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 后台任务服务接口
+ */
+public interface JobService {
+
+    /**
+     * 提交后台任务
+     * 相同类型、相同参数的任务仍在排队或运行时不重复提交，直接返回已有任务
+     * 
+     * @param type   任务类型
+     * @param params 任务参数，参与去重
+     * @param task   任务逻辑
+     * @return 任务ID
+     * @throws IllegalStateException 队列已满，或同一时间只允许一个任务的类型已有其他任务在排队或运行
+     */
+    default String submit(String type, Map<String, Object> params, JobTask<?> task) {
+        return submit(type, params, params, task);
+    }
+
+    /**
+     * 提交后台任务，只按 dedupParams 去重
+     * 用于不影响计算结果的参数（如计算模式）：只有这类参数不同的任务视为同一任务
+     * 
+     * @param params      任务参数，随任务状态返回
+     * @param dedupParams 参与去重的参数
+     * @see JobTypes#isExclusive(String)
+     */
+    String submit(String type, Map<String, Object> params, Map<String, Object> dedupParams, JobTask<?> task);
+
+    /**
+     * 获取任务状态
+     * 
+     * @return 任务不存在（或已过期清理）时返回 null
+     */
+    JobInfoDTO getJob(String jobId);
+
+    /**
+     * 获取最近的任务列表（按提交时间倒序）
+     */
+    List<JobInfoDTO> listJobs();
+
+    /**
+     * 请求取消任务；排队中的任务直接取消，运行中的任务在下一个检查点停止
+     * 
+     * @return 任务存在且尚未结束时返回 true
+     */
+    boolean cancel(String jobId);
+
+    /**
+     * 等待任务结束并返回结果
+     * 
+     * @throws IllegalStateException 任务失败、被取消或不存在
+     */
+    Object awaitResult(String jobId);
+}
@@ -1,5 +1,13 @@
 package com.county.risk.service;
 
+import com.county.risk.calculation.CalculationMode;
+import com.county.risk.calculation.CalculationProgress;
+import com.county.risk.calculation.CalculationScope;
+import com.county.risk.calculation.ScoringPlan;
+import com.county.risk.dto.ScopedCalculationResultDTO;
+
+import java.util.List;
+
 /**
  * 风险计算服务接口
  */
@@ -12,11 +20,67 @@ public interface RiskCalculationService {
      */
     void calculateAll(Integer year);
 
+    /**
+     * 计算所有县域的风险，并上报进度、响应取消
+     * 
+     * @param year     年份
+     * @param progress 进度回调
+     */
+    void calculateAll(Integer year, CalculationProgress progress);
+
+    /**
+     * 按指定读取方式计算所有县域的风险
+     * 
+     * @param year     年份
+     * @param progress 进度回调
+     * @param mode     快照或流式读取
+     */
+    void calculateAll(Integer year, CalculationProgress progress, CalculationMode mode);
+
     /**
      * 计算所有年份的风险
      */
     void calculateAllYears();
 
+    /**
+     * 计算所有年份的风险，并上报进度、响应取消
+     * 
+     * @param progress 进度回调
+     */
+    void calculateAllYears(CalculationProgress progress);
+
+    /**
+     * 按指定读取方式计算所有年份的风险（整年计算部分使用该方式，增量计算不受影响）
+     * 
+     * @param progress 进度回调
+     * @param mode     快照或流式读取
+     */
+    void calculateAllYears(CalculationProgress progress, CalculationMode mode);
+
+    /**
+     * 按给定计分计划计算某年一组县域的风险并写入（分片计算的处理单元）
+     * 风险等级按该年最近一次记录的分界点（或固定阈值）划分，趋势按上一年已有评估判定
+     *
+     * @param year        年份
+     * @param countyCodes 县域代码
+     * @param plan        计分计划
+     * @param progress    取消标记；已取消时抛出 CancellationException
+     * @return 失败的县域数量
+     */
+    int calculateCounties(Integer year, List<String> countyCodes, ScoringPlan plan, CalculationProgress progress);
+
+    /**
+     * 按范围重算：只计算并写入范围内的县域年份
+     * 限定了县域时风险等级沿用各年最近一次记录的分界点，只更新这些县域在下一年的趋势；
+     * 只限定年份时范围内年份按整年计算
+     *
+     * @param scope    计算范围
+     * @param progress 进度回调
+     * @param mode     整年计算的读取方式，为空时使用 risk.calculation.mode 配置
+     * @return 计算数量与吞吐量
+     */
+    ScopedCalculationResultDTO calculateScope(CalculationScope scope, CalculationProgress progress, CalculationMode mode);
+
     /**
      * 计算指定县域的风险
      * 
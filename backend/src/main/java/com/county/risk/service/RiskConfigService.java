@@ -0,0 +1,30 @@
+package com.county.risk.service;
+
+import com.county.risk.calculation.RiskConfigSnapshot;
+
+/**
+ * 风险配置服务接口
+ * 缓存指标配置与系统配置的不可变快照，计算过程只读取快照，不再访问数据库
+ */
+public interface RiskConfigService {
+
+    /**
+     * 获取当前配置快照，首次访问时加载
+     */
+    RiskConfigSnapshot getSnapshot();
+
+    /**
+     * 当前配置版本（配置内容摘要）
+     */
+    String getVersion();
+
+    /**
+     * 立即从数据库重新加载并替换快照
+     */
+    RiskConfigSnapshot reload();
+
+    /**
+     * 当前事务提交后重新加载；不在事务中时立即重新加载
+     */
+    void reloadAfterCommit();
+}
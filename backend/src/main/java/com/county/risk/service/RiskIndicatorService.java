@@ -17,7 +17,9 @@ public interface RiskIndicatorService extends IService<RiskIndicator> {
     Map<String, List<RiskIndicator>> getIndicatorsByCategory();
 
     /**
-     * 更新指标权重和阈值
+     * 更新指标权重、阈值与取值公式（空字符串清除公式）
+     *
+     * @throws IllegalArgumentException 取值公式无效
      */
     boolean updateIndicatorConfig(Integer indicatorId, RiskIndicator indicator);
 
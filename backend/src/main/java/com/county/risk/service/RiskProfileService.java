@@ -0,0 +1,51 @@
+package com.county.risk.service;
+
+import com.county.risk.calculation.CalculationProgress;
+import com.county.risk.dto.ProfileCalculationResultDTO;
+import com.county.risk.dto.ProfileComparisonDTO;
+import com.county.risk.dto.ProfileSaveRequestDTO;
+import com.county.risk.entity.RiskIndicatorProfile;
+
+import java.util.List;
+
+/**
+ * 指标配置方案服务接口
+ * 方案以 方案代码 或 方案代码@版本 引用，只写方案代码时使用最新版本
+ */
+public interface RiskProfileService {
+
+    /**
+     * 各方案的最新版本
+     */
+    List<RiskIndicatorProfile> listProfiles();
+
+    /**
+     * 方案的全部版本，按版本倒序
+     */
+    List<RiskIndicatorProfile> listVersions(String profileCode);
+
+    /**
+     * 保存为方案的新版本，当前指标配置不受影响
+     *
+     * @throws IllegalArgumentException 方案代码为空、维度权重或取值公式无效
+     */
+    RiskIndicatorProfile saveProfile(ProfileSaveRequestDTO request);
+
+    /**
+     * 用多个方案计算并分别保存结果；每年的源数据只读取一次，每个县域依次用各方案计分
+     *
+     * @param profileRefs 方案引用，至少一个
+     * @param year        计算年份，为空表示所有有数据的年份
+     * @throws IllegalArgumentException 方案不存在或年份没有源数据
+     */
+    ProfileCalculationResultDTO calculateProfiles(List<String> profileRefs, Integer year,
+                                                  CalculationProgress progress);
+
+    /**
+     * 两个方案同一年份的逐县对比
+     *
+     * @param changedOnly 只返回风险等级不同的县域（汇总数量仍按全部县域统计）
+     * @throws IllegalArgumentException 方案不存在
+     */
+    ProfileComparisonDTO compare(String baseRef, String otherRef, Integer year, boolean changedOnly);
+}
@@ -60,4 +60,12 @@ public interface RiskService extends IService<ComprehensiveRiskAssessment> {
      * @return 风险评估列表（含县域名称等信息）
      */
     List<Map<String, Object>> getRiskListWithCountyInfo(String level, String provinceName, Integer year);
+    
+    /**
+     * 获取县域某年的风险得分构成
+     * @param countyCode 县域代码
+     * @param year 年份（可选，默认最新评估年份）
+     * @return assessment 为综合评估，indicators 为单项指标得分明细；没有评估时返回 null
+     */
+    Map<String, Object> getRiskBreakdown(String countyCode, Integer year);
 }
@@ -0,0 +1,87 @@
+package com.county.risk.service;
+
+import com.county.risk.calculation.CalculationProgress;
+import com.county.risk.calculation.ScoringPlan;
+import com.county.risk.entity.RiskCalculationRun;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 多节点分片计算服务接口
+ * 计算按 (省份, 年份) 拆分为分片写入 risk_calculation_shards，参与计算的节点通过租约领取分片。
+ * 全历史计算的运行记录同时作为检查点：已完成的分片（或单节点计算时已完成的整年）在接管运行后不再重算
+ */
+public interface RiskShardService {
+
+    String RUN_RUNNING = "RUNNING";
+    String RUN_SUCCEEDED = "SUCCEEDED";
+    String RUN_FAILED = "FAILED";
+    String RUN_CANCELLED = "CANCELLED";
+
+    /**
+     * 是否启用分片计算（risk.cluster.enabled）
+     */
+    boolean isEnabled();
+
+    /**
+     * 当前节点标识
+     */
+    String getNodeId();
+
+    /**
+     * 创建一次分片运行并参与处理，直到所有分片完成或失败
+     * 只负责逐分片计算与写入；风险等级分位数与趋势的整年收尾由调用方完成
+     *
+     * @param runType  运行类型（ALL_YEARS / YEAR）
+     * @param years    计算年份
+     * @param plan     计分计划，其他节点按配置版本核对后才领取分片
+     * @param progress 按年份上报已完成分片的县域数；取消时运行标记为已取消，不再领取新分片
+     * @return 各年份失败的县域数量（只包含有失败的年份）
+     */
+    Map<Integer, Integer> runSharded(String runType, List<Integer> years, ScoringPlan plan, CalculationProgress progress);
+
+    /**
+     * 打开一次带检查点的运行：存在同类型、同配置版本且未成功结束（失败、取消，或发起节点心跳已过期）的运行时接管该运行，
+     * 并把本次需要计算的年份并入；否则创建新运行。同类型的其他未完成运行标记为已放弃。
+     * 打开后由本节点刷新运行心跳，直到 {@link #finishRun} 结束运行
+     *
+     * @param years 本次需要整年计算的年份
+     * @return 运行记录；没有可接管的运行且 years 为空时返回 null
+     */
+    RiskCalculationRun openRun(String runType, List<Integer> years, ScoringPlan plan);
+
+    /**
+     * 运行中尚未完成检查点的年份（升序）
+     * 整年单元已完成，或该年的省份分片全部完成的年份视为已完成
+     */
+    List<Integer> pendingYears(RiskCalculationRun run);
+
+    /**
+     * 在已打开的运行中按 (省份, 年份) 分片处理给定年份，直到这些分片全部完成或失败；已完成的分片不再领取
+     *
+     * @return 各年份失败的县域数量（只包含有失败的年份）
+     */
+    Map<Integer, Integer> processShards(RiskCalculationRun run, List<Integer> years, ScoringPlan plan,
+                                        CalculationProgress progress);
+
+    /**
+     * 单节点整年计算的检查点：这些年份的结果已全部写入
+     *
+     * @param failedByYear 各年份失败的县域数量
+     */
+    void checkpointYears(String runId, Collection<Integer> years, Map<Integer, Integer> failedByYear);
+
+    /**
+     * 结束运行并停止心跳；以成功结束但存在失败分片时记为失败，下次计算接管后重试这些分片
+     */
+    void finishRun(String runId, String status);
+
+    /**
+     * 处理其他节点发起的进行中运行的分片（后台工作线程定期调用）
+     *
+     * @return 本次处理的分片数
+     */
+    int processActiveRuns();
+}
@@ -0,0 +1,33 @@
+package com.county.risk.service;
+
+import com.county.risk.dto.SimulationRequestDTO;
+import com.county.risk.dto.SensitivityResultDTO;
+import com.county.risk.dto.SimulationResultDTO;
+
+import java.math.BigDecimal;
+
+/**
+ * 风险模拟服务接口
+ */
+public interface RiskSimulationService {
+
+    /**
+     * 在内存中用候选指标配置计算风险并与当前配置对比，不写入任何结果
+     * 
+     * @param request 模拟年份与候选指标配置
+     * @return 风险等级分布、得分变化最大的县域与各省平均得分变化
+     */
+    SimulationResultDTO simulate(SimulationRequestDTO request);
+
+    /**
+     * 当前指标配置下某年所有县域综合得分对各指标权重与阈值的敏感性，一次并行计算完成，不写入任何结果
+     *
+     * @param year            分析年份，为空时取最近一个有数据的年份
+     * @param weightStep      权重上调/下调的步长，为空时为 0.01
+     * @param thresholdStep   阈值上调/下调的相对步长（占阈值绝对值的比例），为空时为 0.05
+     * @param includeCounties 是否返回逐县结果
+     * @throws IllegalArgumentException 年份没有源数据或步长无效
+     */
+    SensitivityResultDTO sensitivity(Integer year, BigDecimal weightStep, BigDecimal thresholdStep,
+                                     boolean includeCounties);
+}
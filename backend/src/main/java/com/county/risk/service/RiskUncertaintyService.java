@@ -0,0 +1,33 @@
+package com.county.risk.service;
+
+import com.county.risk.calculation.CalculationProgress;
+import com.county.risk.dto.UncertaintyResultDTO;
+import com.county.risk.entity.RiskScoreUncertainty;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 综合得分不确定性服务接口
+ * 在指标取值上施加相对噪声重复计分（蒙特卡洛抽样），保存每个县域综合得分的分位数与各风险等级的概率
+ */
+public interface RiskUncertaintyService {
+
+    /**
+     * 按当前指标配置对一个年份的全部县域抽样并保存结果
+     *
+     * @param year      计算年份，为空时取最近有数据的年份
+     * @param trials    每个县域的抽样次数，为空时使用 risk.uncertainty.trials
+     * @param noiseRate 指标取值的相对噪声幅度，为空时使用 risk.uncertainty.noise-rate
+     * @throws IllegalArgumentException 年份没有源数据，或抽样次数、噪声幅度超出范围
+     */
+    UncertaintyResultDTO calculate(Integer year, Integer trials, BigDecimal noiseRate, CalculationProgress progress);
+
+    /**
+     * 一个年份的抽样结果，按 90% 区间宽度从大到小
+     *
+     * @param year       年份，为空时取最近有结果的年份
+     * @param countyCode 县域代码，为空时返回全部县域
+     */
+    List<RiskScoreUncertainty> list(Integer year, String countyCode);
+}
@@ -4,6 +4,7 @@ import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.county.risk.calculation.CalculationProgress;
 import com.county.risk.entity.Alert;
 import com.county.risk.entity.AlertRule;
 import com.county.risk.entity.ComprehensiveRiskAssessment;
@@ -18,13 +19,17 @@ import com.county.risk.service.AlertService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import lombok.extern.slf4j.Slf4j;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
 
 @Slf4j
 @Service
@@ -45,6 +50,14 @@ public class AlertServiceImpl extends ServiceImpl<AlertMapper, Alert> implements
     @Autowired
     private EnvironmentCultureMapper environmentCultureMapper;
 
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * 批量写入预警时每批的行数
+     */
+    private static final int ALERT_BATCH_SIZE = 500;
+
     @Override
     public IPage<AlertRule> getAlertRules(Page<AlertRule> page) {
         return alertRuleMapper.selectPage(page, new QueryWrapper<AlertRule>().orderByDesc("created_at"));
@@ -86,103 +99,123 @@ public class AlertServiceImpl extends ServiceImpl<AlertMapper, Alert> implements
     }
 
     @Override
-    @Transactional(rollbackFor = Exception.class)
     public int checkAndGenerateAlerts(Integer year) {
-        log.info("开始检查{}年预警...", year);
+        return checkAndGenerateAlerts(year, CalculationProgress.NONE);
+    }
 
-        // 1. 清空旧的新建状态预警
-        QueryWrapper<Alert> deleteWrapper = new QueryWrapper<>();
-        deleteWrapper.eq("year", year).eq("status", "新建");
-        alertMapper.delete(deleteWrapper);
-        log.info("已清空旧预警");
+    /**
+     * 检查并生成预警
+     * 先在内存中对所有县域应用规则（财政、环境数据按年份各查询一次），
+     * 再在一个短事务中清空旧的新建状态预警并批量写入新预警，避免整个检查过程占用一个大事务
+     */
+    @Override
+    public int checkAndGenerateAlerts(Integer year, CalculationProgress progress) {
+        log.info("开始检查{}年预警...", year);
 
-        // 2. 获取所有县域的风险评估数据
+        // 1. 获取所有县域的风险评估数据
         QueryWrapper<ComprehensiveRiskAssessment> wrapper = new QueryWrapper<>();
         wrapper.eq("year", year);
         List<ComprehensiveRiskAssessment> assessments = riskAssessmentMapper.selectList(wrapper);
         log.info("找到{}条风险评估记录", assessments.size());
+        progress.yearPlanned(year, assessments.size());
 
-        int alertCount = 0;
+        // 财政、环境数据一次加载，按县域代码索引（同一县域重复的行只取第一条）
+        Map<String, FiscalFinance> fiscalByCounty = new HashMap<>();
+        for (FiscalFinance f : fiscalFinanceMapper.selectList(new QueryWrapper<FiscalFinance>().eq("year", year))) {
+            fiscalByCounty.putIfAbsent(f.getCountyCode(), f);
+        }
+        Map<String, EnvironmentCulture> envByCounty = new HashMap<>();
+        for (EnvironmentCulture e : environmentCultureMapper.selectList(new QueryWrapper<EnvironmentCulture>().eq("year", year))) {
+            envByCounty.putIfAbsent(e.getCountyCode(), e);
+        }
 
-        // 3. 对每个县域应用规则
+        List<Alert> alerts = new ArrayList<>();
+        LocalDateTime createdAt = LocalDateTime.now();
+
+        // 2. 对每个县域应用规则
         for (ComprehensiveRiskAssessment assessment : assessments) {
+            if (progress.isCancelled()) {
+                throw new CancellationException("预警检查已取消");
+            }
             // 综合预警规则已移除（应用户要求）
             /*
              * if (assessment.getComprehensiveRiskScore() != null &&
              * assessment.getComprehensiveRiskScore().doubleValue() >= 14.0) {
-             * createAlert(assessment, "综合预警",
+             * alerts.add(createAlert(assessment, "综合预警",
              * assessment.getCountyCode() + "综合风险分数达" +
              * assessment.getComprehensiveRiskScore().setScale(1, BigDecimal.ROUND_HALF_UP)
-             * + "分");
-             * alertCount++;
+             * + "分", createdAt));
              * }
              */
 
             // 经济预警：经济风险分数高
             if (assessment.getEconomicRiskScore() != null &&
                     assessment.getEconomicRiskScore().doubleValue() >= 40.0) {
-                createAlert(assessment, "经济预警",
+                alerts.add(createAlert(assessment, "经济预警",
                         "经济风险分数" + assessment.getEconomicRiskScore().setScale(0, BigDecimal.ROUND_HALF_UP)
-                                + "分，存在经济下行压力");
-                alertCount++;
+                                + "分，存在经济下行压力", createdAt));
             }
 
             // 环境预警：环境风险分数高（虽然当前环境分普遍较低）
             if (assessment.getEnvironmentRiskScore() != null &&
                     assessment.getEnvironmentRiskScore().doubleValue() >= 30.0) {
-                createAlert(assessment, "环境预警",
+                alerts.add(createAlert(assessment, "环境预警",
                         "环境风险分数" + assessment.getEnvironmentRiskScore().setScale(0, BigDecimal.ROUND_HALF_UP)
-                                + "分，环境压力较大");
-                alertCount++;
+                                + "分，环境压力较大", createdAt));
             }
 
             // 检查财政数据
-            QueryWrapper<FiscalFinance> fiscalWrapper = new QueryWrapper<>();
-            fiscalWrapper.eq("county_code", assessment.getCountyCode()).eq("year", year);
-            FiscalFinance fiscal = fiscalFinanceMapper.selectOne(fiscalWrapper);
+            FiscalFinance fiscal = fiscalByCounty.get(assessment.getCountyCode());
 
             if (fiscal != null) {
                 // 财政自给率低预警（调整为20%）
                 if (fiscal.getFiscalSelfSufficiency() != null &&
                         fiscal.getFiscalSelfSufficiency().doubleValue() < 20.0) {
-                    createAlert(assessment, "经济预警",
+                    alerts.add(createAlert(assessment, "经济预警",
                             "财政自给率仅" + fiscal.getFiscalSelfSufficiency().setScale(1, BigDecimal.ROUND_HALF_UP)
-                                    + "%，财政压力大");
-                    alertCount++;
+                                    + "%，财政压力大", createdAt));
                 }
 
                 // 债务率预警已移除（因为使用模拟数据，不够准确）
                 /*
                  * if (fiscal.getDebtToRevenueRatio() != null &&
                  * fiscal.getDebtToRevenueRatio().doubleValue() > 350.0) {
-                 * createAlert(assessment, "经济预警",
+                 * alerts.add(createAlert(assessment, "经济预警",
                  * "债务率达" + fiscal.getDebtToRevenueRatio().setScale(0, BigDecimal.ROUND_HALF_UP)
-                 * + "%，债务负担重");
-                 * alertCount++;
+                 * + "%，债务负担重", createdAt));
                  * }
                  */
             }
 
             // 检查环境数据
-            QueryWrapper<EnvironmentCulture> envWrapper = new QueryWrapper<>();
-            envWrapper.eq("county_code", assessment.getCountyCode()).eq("year", year);
-            EnvironmentCulture env = environmentCultureMapper.selectOne(envWrapper);
+            EnvironmentCulture env = envByCounty.get(assessment.getCountyCode());
 
             if (env != null && env.getAirQualityIndex() != null) {
                 // 空气质量差预警
                 if (env.getAirQualityIndex().doubleValue() > 150.0) {
-                    createAlert(assessment, "环境预警",
-                            "空气质量指数" + env.getAirQualityIndex().setScale(0, BigDecimal.ROUND_HALF_UP) + "，空气质量差");
-                    alertCount++;
+                    alerts.add(createAlert(assessment, "环境预警",
+                            "空气质量指数" + env.getAirQualityIndex().setScale(0, BigDecimal.ROUND_HALF_UP) + "，空气质量差",
+                            createdAt));
                 }
             }
+            progress.countiesDone(year, 1);
         }
 
-        log.info("检查完成，生成{}条预警", alertCount);
-        return alertCount;
+        // 3. 清空旧的新建状态预警并写入新预警（短事务）
+        transactionTemplate.executeWithoutResult(status -> {
+            QueryWrapper<Alert> deleteWrapper = new QueryWrapper<>();
+            deleteWrapper.eq("year", year).eq("status", "新建");
+            int deleted = alertMapper.delete(deleteWrapper);
+            log.info("已清空旧预警 {} 条", deleted);
+            saveBatch(alerts, ALERT_BATCH_SIZE);
+        });
+
+        log.info("检查完成，生成{}条预警", alerts.size());
+        return alerts.size();
     }
 
-    private void createAlert(ComprehensiveRiskAssessment assessment, String alertType, String title) {
+    private Alert createAlert(ComprehensiveRiskAssessment assessment, String alertType, String title,
+                              LocalDateTime createdAt) {
         Alert alert = new Alert();
         alert.setCountyCode(assessment.getCountyCode());
         alert.setYear(assessment.getYear());
@@ -190,8 +223,8 @@ public class AlertServiceImpl extends ServiceImpl<AlertMapper, Alert> implements
         alert.setAlertType(alertType);
         alert.setTitle(title);
         alert.setStatus("新建");
-        alert.setCreatedAt(LocalDateTime.now());
-        alertMapper.insert(alert);
+        alert.setCreatedAt(createdAt);
+        return alert;
     }
 
     private String convertRiskLevel(String chineseLevel) {
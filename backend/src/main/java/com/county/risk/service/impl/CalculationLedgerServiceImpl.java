@@ -0,0 +1,111 @@
+package com.county.risk.service.impl;
+
+import com.county.risk.calculation.CalculationProgress;
+import com.county.risk.calculation.CalculationStats;
+import com.county.risk.calculation.CalculationStats.Phase;
+import com.county.risk.calculation.ScoringKernelSelector;
+import com.county.risk.entity.RiskCalculationLedger;
+import com.county.risk.mapper.RiskCalculationLedgerMapper;
+import com.county.risk.service.CalculationLedgerService;
+import com.county.risk.service.RiskShardService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 风险计算台账服务实现类
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CalculationLedgerServiceImpl implements CalculationLedgerService {
+
+    private static final int MAX_RECENT_RUNS = 200;
+
+    private final RiskCalculationLedgerMapper ledgerMapper;
+    private final RiskShardService riskShardService;
+    private final ScoringKernelSelector scoringKernelSelector;
+
+    @Override
+    public <T> T record(String runType, String scope, CalculationProgress progress,
+                        Function<CalculationProgress, T> calculation) {
+        RiskCalculationLedger entry = new RiskCalculationLedger();
+        entry.setRunType(runType);
+        entry.setScope(truncate(scope, 500));
+        entry.setStatus(RiskShardService.RUN_RUNNING);
+        entry.setNodeId(riskShardService.getNodeId());
+        entry.setKernel(scoringKernelSelector.isVectorized() ? ScoringKernelSelector.VECTOR : ScoringKernelSelector.SCALAR);
+        entry.setStartedAt(LocalDateTime.now());
+        try {
+            ledgerMapper.insert(entry);
+        } catch (Exception e) {
+            log.warn("写入计算台账失败: {}", e.getMessage());
+        }
+
+        CalculationStats stats = new CalculationStats();
+        long start = System.nanoTime();
+        try {
+            T result = calculation.apply(stats.attachTo(progress));
+            finish(entry, stats, start, RiskShardService.RUN_SUCCEEDED, null);
+            return result;
+        } catch (CancellationException e) {
+            finish(entry, stats, start, RiskShardService.RUN_CANCELLED, e.getMessage());
+            throw e;
+        } catch (RuntimeException | Error e) {
+            finish(entry, stats, start, RiskShardService.RUN_FAILED, e.toString());
+            throw e;
+        }
+    }
+
+    private void finish(RiskCalculationLedger entry, CalculationStats stats, long start, String status, String error) {
+        long wallMs = (System.nanoTime() - start) / 1_000_000;
+        entry.setStatus(status);
+        entry.setErrorMessage(truncate(error, 500));
+        entry.setCalculationMode(stats.getCalculationMode());
+        entry.setConfigVersion(stats.getConfigVersion());
+        entry.setYears(truncate(stats.getYears().stream().map(String::valueOf).collect(Collectors.joining(",")), 1000));
+        entry.setScoredCount(Math.toIntExact(stats.getScored()));
+        entry.setFailedCount(Math.toIntExact(stats.getFailed()));
+        entry.setWallMs(wallMs);
+        entry.setReadMs(stats.millis(Phase.READ));
+        entry.setComputeMs(stats.millis(Phase.COMPUTE));
+        entry.setWriteMs(stats.millis(Phase.WRITE));
+        entry.setLevelMs(stats.millis(Phase.LEVEL));
+        entry.setRowsPerSecond(BigDecimal.valueOf(stats.getScored() * 1000.0 / Math.max(1, wallMs))
+                .setScale(1, RoundingMode.HALF_UP));
+        entry.setFinishedAt(LocalDateTime.now());
+        log.info("计算台账: {} {} {}, 成功 {}, 失败 {}, 耗时 {} ms (读取 {}, 计分 {}, 写入 {}, 等级 {}), {} 县域年份/秒",
+                entry.getRunType(), entry.getScope(), status, entry.getScoredCount(), entry.getFailedCount(), wallMs,
+                entry.getReadMs(), entry.getComputeMs(), entry.getWriteMs(), entry.getLevelMs(), entry.getRowsPerSecond());
+        try {
+            if (entry.getId() != null) {
+                ledgerMapper.updateById(entry);
+            } else {
+                ledgerMapper.insert(entry);
+            }
+        } catch (Exception e) {
+            log.warn("更新计算台账失败: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public List<RiskCalculationLedger> recentRuns(String runType, int limit) {
+        String type = runType == null || runType.isBlank() ? null : runType.trim().toUpperCase();
+        return ledgerMapper.selectRecent(type, Math.max(1, Math.min(MAX_RECENT_RUNS, limit)));
+    }
+
+    private static String truncate(String value, int maxLength) {
+        if (value == null) {
+            return null;
+        }
+        return value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+}
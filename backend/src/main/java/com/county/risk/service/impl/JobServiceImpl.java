@@ -0,0 +1,264 @@
+package com.county.risk.service.impl;
+
+import com.county.risk.dto.JobInfoDTO;
+import com.county.risk.job.JobContext;
+import com.county.risk.job.JobStatus;
+import com.county.risk.job.JobTask;
+import com.county.risk.job.JobTypes;
+import com.county.risk.service.JobService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 后台任务服务实现类
+ * 任务在独立的有界线程池中执行，不占用公共 ForkJoinPool；任务状态只保存在内存中，保留最近 history-size 条
+ */
+@Slf4j
+@Service
+public class JobServiceImpl implements JobService {
+
+    private final ThreadPoolExecutor pool;
+    private final int historySize;
+
+    /**
+     * 任务ID -> 任务，按提交顺序排列
+     */
+    private final Map<String, JobHandle> jobs = new LinkedHashMap<>();
+
+    /**
+     * 去重键（类型 + 参数）-> 排队或运行中的任务ID
+     */
+    private final Map<String, String> activeByKey = new HashMap<>();
+
+    /**
+     * 互斥的任务类型 -> 排队或运行中的任务ID
+     */
+    private final Map<String, String> activeByType = new HashMap<>();
+
+    public JobServiceImpl(@Value("${risk.job.pool-size:2}") int poolSize,
+                          @Value("${risk.job.queue-capacity:16}") int queueCapacity,
+                          @Value("${risk.job.history-size:100}") int historySize) {
+        int threads = Math.max(1, poolSize);
+        this.historySize = Math.max(1, historySize);
+        AtomicInteger seq = new AtomicInteger();
+        // 队列满时拒绝提交，由调用方提示稍后重试
+        this.pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                r -> {
+                    Thread t = new Thread(r, "risk-job-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        log.info("后台任务执行器初始化: 线程数={}, 队列容量={}", threads, queueCapacity);
+    }
+
+    @Override
+    public synchronized String submit(String type, Map<String, Object> params, Map<String, Object> dedupParams,
+                                      JobTask<?> task) {
+        Map<String, Object> sortedParams = params != null ? new TreeMap<>(params) : new TreeMap<>();
+        String key = type + (dedupParams != null ? new TreeMap<>(dedupParams) : new TreeMap<>());
+        String existing = activeByKey.get(key);
+        if (existing != null) {
+            log.info("相同任务仍在执行，复用已有任务: type={}, params={}, jobId={}", type, sortedParams, existing);
+            return existing;
+        }
+        boolean exclusive = JobTypes.isExclusive(type);
+        if (exclusive && activeByType.containsKey(type)) {
+            JobHandle running = jobs.get(activeByType.get(type));
+            log.info("同类型任务仍在执行，拒绝提交: type={}, params={}, runningJobId={}, runningParams={}",
+                    type, sortedParams, running.id, running.params);
+            throw new IllegalStateException("已有" + type + "任务在排队或执行中（任务ID " + running.id
+                    + "，参数 " + running.params + "），请等待其结束后再提交");
+        }
+
+        JobHandle job = new JobHandle(UUID.randomUUID().toString(), type, sortedParams, key);
+        jobs.put(job.id, job);
+        activeByKey.put(key, job.id);
+        if (exclusive) {
+            activeByType.put(type, job.id);
+        }
+        try {
+            job.future = pool.submit(() -> run(job, task));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            activeByKey.remove(key);
+            activeByType.remove(type, job.id);
+            throw new IllegalStateException("后台任务队列已满，请稍后再试");
+        }
+        trimHistory();
+        log.info("提交后台任务: type={}, params={}, jobId={}", type, sortedParams, job.id);
+        return job.id;
+    }
+
+    @Override
+    public synchronized JobInfoDTO getJob(String jobId) {
+        JobHandle job = jobs.get(jobId);
+        return job != null ? job.toInfo() : null;
+    }
+
+    @Override
+    public synchronized List<JobInfoDTO> listJobs() {
+        List<JobInfoDTO> list = new ArrayList<>(jobs.size());
+        for (JobHandle job : jobs.values()) {
+            list.add(job.toInfo());
+        }
+        Collections.reverse(list);
+        return list;
+    }
+
+    @Override
+    public synchronized boolean cancel(String jobId) {
+        JobHandle job = jobs.get(jobId);
+        if (job == null || job.status.isFinished()) {
+            return false;
+        }
+        job.context.requestCancel();
+        // 尚未开始执行的任务直接从队列中移除
+        if (job.status == JobStatus.PENDING && job.future != null && job.future.cancel(false)) {
+            finish(job, JobStatus.CANCELLED, null, "任务在排队时被取消");
+        }
+        log.info("请求取消后台任务: jobId={}, type={}", jobId, job.type);
+        return true;
+    }
+
+    @Override
+    public Object awaitResult(String jobId) {
+        JobHandle job;
+        synchronized (this) {
+            job = jobs.get(jobId);
+        }
+        if (job == null) {
+            throw new IllegalStateException("任务不存在: " + jobId);
+        }
+        try {
+            job.done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("等待任务结束时被中断: " + jobId, e);
+        }
+        if (job.status == JobStatus.SUCCEEDED) {
+            return job.result;
+        }
+        throw new IllegalStateException("任务" + job.status.getDescription() + ": " + job.error);
+    }
+
+    private void run(JobHandle job, JobTask<?> task) {
+        synchronized (this) {
+            if (job.status.isFinished()) {
+                return;
+            }
+            job.status = JobStatus.RUNNING;
+            job.startedAt = LocalDateTime.now();
+        }
+        log.info("后台任务开始执行: type={}, jobId={}", job.type, job.id);
+        try {
+            Object result = task.run(job.context);
+            finish(job, JobStatus.SUCCEEDED, result, null);
+        } catch (CancellationException e) {
+            finish(job, JobStatus.CANCELLED, null, e.getMessage());
+        } catch (Exception e) {
+            log.error("后台任务执行失败: type={}, jobId={}, error={}", job.type, job.id, e.getMessage(), e);
+            finish(job, JobStatus.FAILED, null, e.getMessage());
+        } finally {
+            // 兜底：Error 等未捕获的异常也要结束任务，避免等待方永久阻塞
+            finish(job, JobStatus.FAILED, null, "任务异常终止");
+        }
+    }
+
+    private synchronized void finish(JobHandle job, JobStatus status, Object result, String error) {
+        if (job.status.isFinished()) {
+            return;
+        }
+        job.status = status;
+        job.result = result;
+        job.error = error;
+        job.finishedAt = LocalDateTime.now();
+        activeByKey.remove(job.key, job.id);
+        activeByType.remove(job.type, job.id);
+        job.done.countDown();
+        log.info("后台任务结束: type={}, jobId={}, status={}", job.type, job.id, status.getDescription());
+    }
+
+    /**
+     * 只清理已结束的旧任务，排队与运行中的任务始终保留
+     */
+    private void trimHistory() {
+        Iterator<JobHandle> it = jobs.values().iterator();
+        while (jobs.size() > historySize && it.hasNext()) {
+            if (it.next().status.isFinished()) {
+                it.remove();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        synchronized (this) {
+            jobs.values().forEach(job -> job.context.requestCancel());
+        }
+        pool.shutdownNow();
+    }
+
+    private static class JobHandle {
+        final String id;
+        final String type;
+        final Map<String, Object> params;
+        final String key;
+        final JobContext context;
+        final CountDownLatch done = new CountDownLatch(1);
+        final LocalDateTime submittedAt = LocalDateTime.now();
+        volatile JobStatus status = JobStatus.PENDING;
+        volatile Future<?> future;
+        volatile LocalDateTime startedAt;
+        volatile LocalDateTime finishedAt;
+        volatile Object result;
+        volatile String error;
+
+        JobHandle(String id, String type, Map<String, Object> params, String key) {
+            this.id = id;
+            this.type = type;
+            this.params = params;
+            this.key = key;
+            this.context = JobContext.create(id);
+        }
+
+        JobInfoDTO toInfo() {
+            JobInfoDTO info = new JobInfoDTO();
+            info.setJobId(id);
+            info.setType(type);
+            info.setParams(params);
+            info.setStatus(status.name());
+            info.setStatusDescription(status.getDescription());
+            info.setMessage(context.getMessage());
+            info.setProgress(context.snapshotStages());
+            info.setResult(result);
+            info.setError(error);
+            info.setSubmittedAt(submittedAt);
+            info.setStartedAt(startedAt);
+            info.setFinishedAt(finishedAt);
+            return info;
+        }
+    }
+}
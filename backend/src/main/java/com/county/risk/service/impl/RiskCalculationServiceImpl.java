@@ -1,21 +1,58 @@
 package com.county.risk.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
-import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.county.risk.calculation.BackpressureWriter;
+import com.county.risk.calculation.BatchUpsertWriter;
+import com.county.risk.calculation.CalculationMode;
+import com.county.risk.calculation.CalculationProgress;
+import com.county.risk.calculation.CalculationScope;
+import com.county.risk.calculation.CalculationStats;
+import com.county.risk.calculation.CalculationStats.Phase;
+import com.county.risk.calculation.CountyFactsStreamer;
+import com.county.risk.calculation.CountyScore;
+import com.county.risk.calculation.CountyScoringExecutor;
+import com.county.risk.calculation.CountySnapshotCache;
+import com.county.risk.calculation.CountySnapshotLoader;
+import com.county.risk.calculation.CountyYearFacts;
+import com.county.risk.calculation.DimensionScoreMemo;
+import com.county.risk.calculation.LevelCutPoints;
+import com.county.risk.calculation.RiskLevelClassifier;
+import com.county.risk.calculation.RiskScoringKernel;
+import com.county.risk.calculation.RiskTrendClassifier;
+import com.county.risk.calculation.ScoreSketch;
+import com.county.risk.calculation.ScoringKernelSelector;
+import com.county.risk.calculation.ScoringPlan;
+import com.county.risk.calculation.ScoringOutcome;
+import com.county.risk.calculation.YearSnapshot;
+import com.county.risk.dto.ScopedCalculationResultDTO;
 import com.county.risk.entity.*;
 import com.county.risk.mapper.*;
+import com.county.risk.service.CalculationLedgerService;
 import com.county.risk.service.RiskCalculationService;
-import com.county.risk.service.RiskIndicatorService;
+import com.county.risk.service.RiskConfigService;
+import com.county.risk.service.RiskShardService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
 import java.util.stream.Collectors;
 
 /**
@@ -28,558 +65,1042 @@ public class RiskCalculationServiceImpl implements RiskCalculationService {
 
     private final CountyBasicMapper countyBasicMapper;
     private final RiskAssessmentMapper riskAssessmentMapper;
-    private final RiskIndicatorService riskIndicatorService;
+    private final RiskConfigService riskConfigService;
+    private final CountySnapshotLoader countySnapshotLoader;
+    private final CountyScoringExecutor countyScoringExecutor;
+    private final RiskInputChangeMapper riskInputChangeMapper;
+    private final RiskLevelClassifier riskLevelClassifier;
+    private final RiskLevelCutPointMapper riskLevelCutPointMapper;
+    private final RiskScoreMapper riskScoreMapper;
+    private final RiskTrendClassifier riskTrendClassifier;
+    private final CountyFactsStreamer countyFactsStreamer;
+    private final RiskShardService riskShardService;
+    private final ScoringKernelSelector scoringKernelSelector;
+    private final CalculationLedgerService calculationLedgerService;
+    private final DimensionScoreMemo dimensionScoreMemo;
+    private final CountySnapshotCache countySnapshotCache;
 
-    private final EconomicAggregateMapper economicAggregateMapper;
-    private final PopulationStatisticsMapper populationStatisticsMapper;
-    private final EnvironmentCultureMapper environmentCultureMapper;
-    private final EducationHealthMapper educationHealthMapper;
-    private final FiscalFinanceMapper fiscalFinanceMapper;
-    private final InvestmentConsumptionMapper investmentConsumptionMapper;
+    @Value("${risk.calculation.write-batch-size:500}")
+    private int writeBatchSize;
+
+    @Value("${risk.calculation.persist-indicator-scores:true}")
+    private boolean persistIndicatorScores;
+
+    @Value("${risk.calculation.mode:snapshot}")
+    private String defaultMode;
+
+    @Value("${risk.calculation.stream-queue-capacity:2000}")
+    private int streamQueueCapacity;
+
+    /**
+     * 单节点全历史计算每组年份数，一组写入完成后记录检查点；0 表示所有年份一组
+     */
+    @Value("${risk.calculation.checkpoint-years:5}")
+    private int checkpointYears;
+
+    /**
+     * 增量计算时单年变更县域超过该数量则整年加载快照，而不是按县域代码 IN 查询
+     */
+    private static final int INCREMENTAL_FULL_LOAD_THRESHOLD = 500;
+
+    /**
+     * major_risk_factors 中记录的主要风险因素数量
+     */
+    private static final int MAJOR_RISK_FACTOR_LIMIT = 3;
+
+    /**
+     * 每条 DELETE 语句删除的变更日志数量
+     */
+    private static final int CHANGE_DELETE_BATCH_SIZE = 1000;
 
     @Override
     // @Transactional(rollbackFor = Exception.class) // 移除大事务，避免超时和回滚所有
     public void calculateAll(Integer year) {
-        log.info("开始计算 {} 年所有县域风险...", year);
-        List<CountyBasic> counties = countyBasicMapper.selectList(null);
-        int successCount = 0;
-        int failCount = 0;
+        calculateAll(year, CalculationProgress.NONE);
+    }
+
+    @Override
+    public void calculateAll(Integer year, CalculationProgress progress) {
+        calculateAll(year, progress, defaultMode());
+    }
+
+    @Override
+    public void calculateAll(Integer year, CalculationProgress progress, CalculationMode mode) {
+        calculationLedgerService.record(CalculationLedgerService.RUN_YEAR, year + " 年", progress, tracked -> {
+            tracked.stats().setCalculationMode(modeName(mode));
+            if (riskShardService.isEnabled()) {
+                calculateYearsSharded("YEAR", List.of(year), compilePlan(tracked), tracked);
+            } else if (mode == CalculationMode.STREAMING) {
+                calculateYearsStreaming(List.of(year), compilePlan(tracked), tracked);
+            } else {
+                calculateYear(year, compilePlan(tracked), tracked);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * risk.calculation.mode 配置的默认读取方式
+     */
+    private CalculationMode defaultMode() {
+        return CalculationMode.parse(defaultMode, CalculationMode.SNAPSHOT);
+    }
+
+    /**
+     * 计算台账中记录的读取方式，启用分片计算时整年计算均按分片执行
+     */
+    private String modeName(CalculationMode mode) {
+        return riskShardService.isEnabled() ? "SHARDED" : mode.name();
+    }
+
+    /**
+     * 按给定计分计划计算某一年所有县域的风险
+     *
+     * @return 失败的县域数量
+     */
+    private int calculateYear(Integer year, ScoringPlan plan, CalculationProgress progress) {
+        log.info("开始计算 {} 年所有县域风险 (指标配置版本 {})...", year, plan.getConfigVersion());
+        // 先取可复用的维度得分再读取源数据，读取期间的变更留给下一次计算失效
+        DimensionScoreMemo.Lookup memo = dimensionScoreMemo.lookup(plan);
+        List<CountyBasic> counties = progress.stats().time(Phase.READ, () -> countyBasicMapper.selectList(null));
+        // 每张事实表只读一次，后续逐县计算全部基于内存快照
+        YearSnapshot snapshot = progress.stats().time(Phase.READ, () -> countySnapshotLoader.loadYear(year));
+        List<CountyYearFacts> inputs = counties.stream()
+                .map(county -> snapshot.get(county.getCountyCode()))
+                .collect(Collectors.toList());
+
+        ScoringOutcome<CountyScore> outcome = scoreAndWrite(year + " 年", inputs, plan, memo, true, progress);
         
-        for (CountyBasic county : counties) {
-            try {
-                calculateCounty(county.getCountyCode(), year);
-                successCount++;
-                
-                // 每100个县域输出一次进度
-                if (successCount % 100 == 0) {
-                    log.info("{} 年计算进度: {}/{}", year, successCount, counties.size());
-                }
-            } catch (Exception e) {
-                failCount++;
-                log.error("计算县域风险失败: county={}, year={}, error={}", 
-                    county.getCountyCode(), year, e.getMessage());
-                // 继续计算下一个，不中断
+        log.info("计算完成 {} 年: 成功 {}/{}, 失败 {}, 指标配置版本 {}",
+                year, outcome.getSuccessCount(), counties.size(), outcome.getFailCount(), plan.getConfigVersion());
+        return outcome.getFailCount();
+    }
+
+    /**
+     * 全历史单次计算：六张事实表各查询一次加载所有年份，所有县域年份在内存中一次并行计算，
+     * 风险等级在计算时确定，结果通过同一个写入流批量写回
+     *
+     * @return 各年份失败的县域数量（只包含有失败的年份）
+     */
+    private Map<Integer, Integer> calculateYears(List<Integer> years, ScoringPlan plan, CalculationProgress progress) {
+        log.info("开始全历史计算 {} 个年份 (指标配置版本 {})...", years.size(), plan.getConfigVersion());
+        DimensionScoreMemo.Lookup memo = dimensionScoreMemo.lookup(plan);
+        List<CountyBasic> counties = progress.stats().time(Phase.READ, () -> countyBasicMapper.selectList(null));
+        Map<Integer, YearSnapshot> snapshots = progress.stats().time(Phase.READ, () -> countySnapshotLoader.loadYears(years));
+
+        List<CountyYearFacts> inputs = new ArrayList<>(counties.size() * years.size());
+        for (Integer year : years) {
+            YearSnapshot snapshot = snapshots.get(year);
+            for (CountyBasic county : counties) {
+                inputs.add(snapshot.get(county.getCountyCode()));
             }
         }
-        
-        // 单独年份计算时，也触发一次动态分布调整
-        updateRiskLevelsByQuantile(year);
-        
-        log.info("计算完成 {} 年: 成功 {}/{}, 失败 {}", year, successCount, counties.size(), failCount);
+
+        ScoringOutcome<CountyScore> outcome = scoreAndWrite("全历史", inputs, plan, memo, true, progress);
+
+        // 失败数 = 该年县域数 - 该年成功数
+        Map<Integer, Long> succeededByYear = outcome.getResults().stream()
+                .collect(Collectors.groupingBy(CountyScore::getYear, Collectors.counting()));
+        Map<Integer, Integer> failedByYear = new TreeMap<>();
+        for (Integer year : years) {
+            int failed = counties.size() - succeededByYear.getOrDefault(year, 0L).intValue();
+            if (failed > 0) {
+                failedByYear.put(year, failed);
+            }
+        }
+
+        log.info("全历史计算完成: {} 个年份, 县域年份 成功 {}/{}, 失败 {}, 指标配置版本 {}",
+                years.size(), outcome.getSuccessCount(), inputs.size(), outcome.getFailCount(), plan.getConfigVersion());
+        return failedByYear;
+    }
+
+    /**
+     * 多节点分片整年计算：按 (省份, 年份) 拆分，由参与计算的各节点通过租约领取处理。
+     * 分片之间没有先后顺序，全部完成后再统一确定分位数分界点、重新判定各年趋势
+     *
+     * @return 各年份失败的县域数量（只包含有失败的年份）
+     */
+    private Map<Integer, Integer> calculateYearsSharded(String runType, List<Integer> years, ScoringPlan plan,
+                                                        CalculationProgress progress) {
+        log.info("开始分片计算 {} 个年份 (节点 {}, 指标配置版本 {})...",
+                years.size(), riskShardService.getNodeId(), plan.getConfigVersion());
+        if (persistIndicatorScores) {
+            riskScoreMapper.deleteExcludedIndicators(years, plan.getIndicatorIds());
+        }
+        Map<Integer, Integer> failedByYear = riskShardService.runSharded(runType, years, plan, progress);
+        progress.stats().time(Phase.LEVEL, () -> finishShardedYears(years, plan));
+        return failedByYear;
     }
 
     @Override
-    // @Transactional(rollbackFor = Exception.class) // 移除大事务
-    public void calculateAllYears() {
-        log.info("开始计算所有年份风险...");
-        
-        // 动态获取年份范围
-        Integer minYear = getMinYearFromData();
-        Integer maxYear = getMaxYearFromData();
-        
-        if (minYear == null || maxYear == null) {
-            log.warn("未找到数据，使用默认年份范围 2000-2023");
-            minYear = 2000;
-            maxYear = 2023;
+    public int calculateCounties(Integer year, List<String> countyCodes, ScoringPlan plan,
+                                 CalculationProgress progress) {
+        DimensionScoreMemo.Lookup memo = dimensionScoreMemo.lookup(plan);
+        YearSnapshot snapshot = progress.stats().time(Phase.READ, () -> countyCodes.size() > INCREMENTAL_FULL_LOAD_THRESHOLD
+                ? countySnapshotLoader.loadYear(year)
+                : countySnapshotLoader.loadCounties(year, countyCodes));
+        List<CountyYearFacts> inputs = countyCodes.stream().map(snapshot::get).collect(Collectors.toList());
+        return scoreAndWrite(year + " 年分片", inputs, plan, memo, false, progress).getFailCount();
+    }
+
+    @Override
+    public ScopedCalculationResultDTO calculateScope(CalculationScope scope, CalculationProgress progress,
+                                                     CalculationMode mode) {
+        return calculationLedgerService.record(CalculationLedgerService.RUN_SCOPE, scope.describe(), progress,
+                tracked -> calculateScopeTracked(scope, tracked, mode != null ? mode : defaultMode()));
+    }
+
+    private ScopedCalculationResultDTO calculateScopeTracked(CalculationScope scope, CalculationProgress progress,
+                                                             CalculationMode mode) {
+        long start = System.currentTimeMillis();
+        // 限定县域时按县域代码读取快照，与读取方式配置无关
+        progress.stats().setCalculationMode(scope.hasCountyFilter() ? CalculationMode.SNAPSHOT.name() : modeName(mode));
+        List<Integer> years = getYearsWithData().stream()
+                .filter(scope::containsYear)
+                .sorted()
+                .collect(Collectors.toList());
+        ScoringPlan plan = compilePlan(progress);
+        log.info("开始范围重算: {} ({} 个年份, 指标配置版本 {})", scope.describe(), years.size(), plan.getConfigVersion());
+
+        ScopedCalculationResultDTO result = new ScopedCalculationResultDTO();
+        result.setScope(scope.describe());
+        result.setYears(years);
+        result.setFullYear(!scope.hasCountyFilter());
+        if (scope.hasCountyFilter()) {
+            List<String> codes = countyBasicMapper.selectCountyCodesInScope(
+                    scope.getProvinceName(), scope.getCityName(), scope.getCountyCodes());
+            result.setCountyCount(codes.size());
+            result.setCountyYearCount(codes.size() * years.size());
+            int failed = codes.isEmpty() || years.isEmpty() ? 0 : calculateScopedCounties(years, codes, plan, progress);
+            result.setFailCount(failed);
         } else {
-            log.info("检测到数据年份范围: {} - {}", minYear, maxYear);
+            // 未限定县域时范围内年份按整年计算，重新确定这些年份的分位数分界点
+            int countyCount = Math.toIntExact(countyBasicMapper.selectCount(null));
+            result.setCountyCount(countyCount);
+            result.setCountyYearCount(countyCount * years.size());
+            Map<Integer, Integer> failedByYear = Map.of();
+            if (!years.isEmpty()) {
+                if (riskShardService.isEnabled()) {
+                    failedByYear = calculateYearsSharded("YEAR", years, plan, progress);
+                } else if (mode == CalculationMode.STREAMING) {
+                    failedByYear = calculateYearsStreaming(years, plan, progress);
+                } else {
+                    failedByYear = calculateYears(years, plan, progress);
+                }
+            }
+            result.setFailCount(failedByYear.values().stream().mapToInt(Integer::intValue).sum());
         }
-        
-        // 获取需要计算的年份列表（有基础数据但缺少风险评估的年份）
-        List<Integer> yearsToCalculate = getYearsNeedingCalculation(minYear, maxYear);
-        
-        if (yearsToCalculate.isEmpty()) {
-            log.info("所有年份的风险评估已完成，无需重新计算");
-            return;
+        result.setSuccessCount(result.getCountyYearCount() - result.getFailCount());
+
+        long elapsed = Math.max(1, System.currentTimeMillis() - start);
+        result.setElapsedMs(elapsed);
+        result.setCountyYearsPerSecond(Math.round(result.getCountyYearCount() * 10000.0 / elapsed) / 10.0);
+        log.info("范围重算完成: {}, {} 个县域 × {} 个年份, 成功 {}, 失败 {}, 耗时 {} ms ({} 县域年份/秒)",
+                scope.describe(), result.getCountyCount(), years.size(), result.getSuccessCount(),
+                result.getFailCount(), elapsed, result.getCountyYearsPerSecond());
+        return result;
+    }
+
+    /**
+     * 范围重算的部分县域计算：所有年份的源数据一次加载，一次并行计算、一个写入流批量写回。
+     * 风险等级沿用各年最近一次记录的分界点，不重新统计整年分布；只更新本范围县域在下一年的趋势
+     *
+     * @return 失败的县域年份数量
+     */
+    private int calculateScopedCounties(List<Integer> years, List<String> codes, ScoringPlan plan,
+                                        CalculationProgress progress) {
+        DimensionScoreMemo.Lookup memo = dimensionScoreMemo.lookup(plan);
+        // 县域较多时按年份整表读取比超长 IN 列表更快
+        Map<Integer, YearSnapshot> snapshots = progress.stats().time(Phase.READ,
+                () -> codes.size() > INCREMENTAL_FULL_LOAD_THRESHOLD
+                        ? countySnapshotLoader.loadYears(years)
+                        : countySnapshotLoader.loadCounties(years, codes));
+        List<CountyYearFacts> inputs = new ArrayList<>(codes.size() * years.size());
+        for (Integer year : years) {
+            YearSnapshot snapshot = snapshots.get(year);
+            for (String code : codes) {
+                inputs.add(snapshot.get(code));
+            }
         }
-        
-        log.info("需要计算的年份: {} (共{}年)", yearsToCalculate, yearsToCalculate.size());
-        
-        int totalYears = yearsToCalculate.size();
-        int successYears = 0;
-        int failedYears = 0;
-        
-        for (Integer year : yearsToCalculate) {
-            try {
-                log.info("正在计算第 {}/{} 年: {}", (successYears + failedYears + 1), totalYears, year);
-                calculateAll(year);
-                successYears++;
-                log.info("✓ {} 年计算完成", year);
-            } catch (Exception e) {
-                failedYears++;
-                log.error("✗ {} 年计算失败: {}", year, e.getMessage(), e);
-                // 继续计算下一年，不中断
+        return scoreAndWrite("范围重算", inputs, plan, memo, false, progress).getFailCount();
+    }
+
+    /**
+     * 分片写入的年份收尾：分位数模式下按该年完整得分分布确定分界点并重新划分等级；
+     * 分片处理时上一年可能尚未写入，按最终得分重新判定这些年份及其下一年的趋势
+     */
+    private void finishShardedYears(List<Integer> years, ScoringPlan plan) {
+        if (riskLevelClassifier.isQuantileMode()) {
+            Map<Integer, ScoreSketch> sketches = new TreeMap<>();
+            Map<Integer, LevelCutPoints> cutPoints = new TreeMap<>();
+            for (Integer year : years) {
+                ScoreSketch sketch = new ScoreSketch();
+                riskAssessmentMapper.selectComprehensiveScores(year).forEach(s -> sketch.add(s.doubleValue()));
+                LevelCutPoints cuts = riskLevelClassifier.quantileCutPoints(sketch);
+                sketches.put(year, sketch);
+                cutPoints.put(year, cuts);
+                if (cuts != null) {
+                    riskAssessmentMapper.updateLevelsByCutPoints(year, cuts.getHigh(), cuts.getMediumHigh(),
+                            cuts.getMedium(), cuts.getMediumLow());
+                }
             }
+            recordCutPoints(cutPoints, sketches, plan);
         }
-        
-        log.info("所有年份风险计算完成: 成功 {}/{}, 失败 {}", successYears, totalYears, failedYears);
+        for (Integer year : years) {
+            riskAssessmentMapper.refreshTrendFromPreviousYear(year, riskTrendClassifier.getThreshold(), null);
+        }
+        refreshFollowingYearTrends(new HashSet<>(years));
     }
 
     /**
-     * 获取需要计算的年份列表（有基础数据但缺少风险评估的年份）
-     * 改进：检查每个年份是否所有县域都有数据，如果没有则加入计算列表
+     * 流式整年计算：通过一个按 (county_code, year) 排序的联合游标逐行读取，攒满一个分块后并行计算，
+     * 结果经有界队列交给写入线程批量写入。内存中只保留一个分块、写入队列与各年份的分数草图，与数据量无关。
+     * 同一县域的相邻年份依次到达，风险趋势直接与上一行比较；计算范围内第一个年份的趋势在写入后按上一年评估结果统一更新。
+     * 分位数模式下先按该年最近一次记录的分界点写入，读取结束后记录新分界点并用一条 UPDATE 重新划分该年等级。
+     *
+     * @return 各年份失败的县域数量（只包含有失败的年份）
      */
-    private List<Integer> getYearsNeedingCalculation(Integer minYear, Integer maxYear) {
-        List<Integer> yearsToCalculate = new java.util.ArrayList<>();
-        
-        try {
-            // 获取所有有基础数据的年份
-            List<Integer> yearsWithData = riskAssessmentMapper.getYearsWithData();
-            
-            // 获取所有已有风险评估的年份
-            List<Integer> yearsWithAssessment = riskAssessmentMapper.getYearsWithAssessment();
-            
-            // 获取县域总数
-            long totalCounties = countyBasicMapper.selectCount(null);
-            
-            // 检查每个年份：如果有数据但评估不完整，则需要计算
-            for (Integer year : yearsWithData) {
-                if (year >= minYear && year <= maxYear) {
-                    // 如果该年份完全没有评估，直接加入
-                    if (!yearsWithAssessment.contains(year)) {
-                        yearsToCalculate.add(year);
-                        log.info("年份 {} 完全没有风险评估，需要计算", year);
-                    } else {
-                        // 如果该年份有部分评估，检查是否完整
-                        LambdaQueryWrapper<ComprehensiveRiskAssessment> countWrapper = new LambdaQueryWrapper<>();
-                        countWrapper.eq(ComprehensiveRiskAssessment::getYear, year);
-                        long assessedCount = riskAssessmentMapper.selectCount(countWrapper);
-                        
-                        // 如果评估数量少于县域总数，说明不完整，需要重新计算
-                        if (assessedCount < totalCounties) {
-                            yearsToCalculate.add(year);
-                            log.info("年份 {} 风险评估不完整 ({}/{})，需要重新计算", year, assessedCount, totalCounties);
-                        }
+    private Map<Integer, Integer> calculateYearsStreaming(List<Integer> years, ScoringPlan plan,
+                                                          CalculationProgress progress) {
+        log.info("开始流式计算 {} 个年份 (指标配置版本 {})...", years.size(), plan.getConfigVersion());
+        long start = System.currentTimeMillis();
+        int countyCount = Math.toIntExact(countyBasicMapper.selectCount(null));
+        years.forEach(year -> progress.yearPlanned(year, countyCount));
+
+        boolean quantile = riskLevelClassifier.isQuantileMode();
+        Map<Integer, LevelCutPoints> writeCuts = new HashMap<>();
+        Map<Integer, ScoreSketch> sketches = new TreeMap<>();
+        for (Integer year : years) {
+            writeCuts.put(year, recordedCutPoints(year));
+            if (quantile) {
+                sketches.put(year, new ScoreSketch());
+            }
+        }
+        if (persistIndicatorScores) {
+            riskScoreMapper.deleteExcludedIndicators(years, plan.getIndicatorIds());
+        }
+
+        // 写入线程使用自己的数据库连接，读取连接在游标读完前一直被结果集占用
+        LocalDateTime assessmentDate = LocalDateTime.now();
+        BatchUpsertWriter<ComprehensiveRiskAssessment> writer =
+                new BatchUpsertWriter<>("风险评估", riskAssessmentMapper::upsertBatch, writeBatchSize);
+        BatchUpsertWriter<RiskScore> itemWriter =
+                new BatchUpsertWriter<>("单项指标得分", riskScoreMapper::upsertBatch, writeBatchSize);
+        BackpressureWriter<CountyScore> output = new BackpressureWriter<>("流式计算", streamQueueCapacity,
+                score -> {
+                    writer.add(score.toAssessment(assessmentDate));
+                    if (persistIndicatorScores) {
+                        itemWriter.addAll(score.toRiskScores(assessmentDate));
                     }
+                },
+                () -> {
+                    writer.close();
+                    itemWriter.close();
+                });
+
+        // 读取耗时 = 游标读取总耗时 - 读取回调中计算分块的耗时；写入线程与读取、计算并行，只计入写入队列满时的等待
+        CalculationStats stats = progress.stats();
+        StreamState state = new StreamState();
+        int chunkSize = countyScoringExecutor.getBatchSize() * countyScoringExecutor.getParallelism();
+        List<CountyYearFacts> chunk = new ArrayList<>(chunkSize);
+        long rows;
+        try {
+            long readStart = System.nanoTime();
+            rows = countyFactsStreamer.stream(years, facts -> {
+                chunk.add(facts);
+                if (chunk.size() >= chunkSize) {
+                    long chunkStart = System.nanoTime();
+                    scoreChunk(chunk, plan, progress, writeCuts, sketches, state, output);
+                    state.chunkNanos += System.nanoTime() - chunkStart;
+                }
+            });
+            stats.addNanos(Phase.READ, System.nanoTime() - readStart - state.chunkNanos);
+            scoreChunk(chunk, plan, progress, writeCuts, sketches, state, output);
+        } catch (RuntimeException e) {
+            output.abort();
+            throw e;
+        }
+        stats.time(Phase.WRITE, output::close);
+        stats.counted(state.succeeded, state.failedByYear.values().stream().mapToInt(Integer::intValue).sum());
+
+        // 分位数模式：按本次完整分布确定分界点，记录后统一重新划分等级
+        long levelStart = System.nanoTime();
+        if (quantile) {
+            Map<Integer, LevelCutPoints> cutPoints = new TreeMap<>();
+            sketches.forEach((year, sketch) -> cutPoints.put(year, riskLevelClassifier.quantileCutPoints(sketch)));
+            for (Map.Entry<Integer, LevelCutPoints> entry : cutPoints.entrySet()) {
+                LevelCutPoints cuts = entry.getValue();
+                if (cuts != null) {
+                    int updated = riskAssessmentMapper.updateLevelsByCutPoints(entry.getKey(), cuts.getHigh(),
+                            cuts.getMediumHigh(), cuts.getMedium(), cuts.getMediumLow());
+                    log.info("{} 年按新分界点重新划分风险等级: {} 条", entry.getKey(), updated);
                 }
             }
-            
-            // 如果所有年份都有完整评估，则重新计算所有年份（用于阈值更新后的重新计算）
-            if (yearsToCalculate.isEmpty()) {
-                log.info("所有年份已有完整风险评估，将重新计算所有年份以应用新的阈值");
-                for (int year = minYear; year <= maxYear; year++) {
-                    if (yearsWithData.contains(year)) {
-                        yearsToCalculate.add(year);
+            recordCutPoints(cutPoints, sketches, plan);
+        } else {
+            logLevelDistribution(state.levelCounts);
+        }
+
+        // 计算范围内每段连续年份的第一年与上一年比较，最后一年之后的年份按新得分更新趋势
+        Set<Integer> yearSet = new HashSet<>(years);
+        for (Integer year : years) {
+            if (!yearSet.contains(year - 1)) {
+                riskAssessmentMapper.refreshTrendFromPreviousYear(year, riskTrendClassifier.getThreshold(), null);
+            }
+        }
+        refreshFollowingYearTrends(yearSet);
+        stats.addNanos(Phase.LEVEL, System.nanoTime() - levelStart);
+
+        Map<Integer, Integer> failedByYear = new TreeMap<>(state.failedByYear);
+        log.info("流式计算完成: {} 个年份, 读取县域年份 {}, 成功 {}, 失败 {}, 耗时 {} ms, 指标配置版本 {}",
+                years.size(), rows, state.succeeded, failedByYear.values().stream().mapToInt(Integer::intValue).sum(),
+                System.currentTimeMillis() - start, plan.getConfigVersion());
+        return failedByYear;
+    }
+
+    /**
+     * 流式计算的跨分块状态：上一个县域年份的得分（用于趋势）、各年份等级计数与失败数、读取回调中计算分块的耗时
+     */
+    private static final class StreamState {
+        private String lastCountyCode;
+        private int lastYear;
+        private BigDecimal lastScore;
+        private long succeeded;
+        private long chunkNanos;
+        private final Map<Integer, Map<String, Long>> levelCounts = new TreeMap<>();
+        private final Map<Integer, Integer> failedByYear = new HashMap<>();
+    }
+
+    /**
+     * 并行计算一个分块，按输入顺序确定等级、趋势与主要风险因素后放入写入队列，然后清空分块
+     */
+    private void scoreChunk(List<CountyYearFacts> chunk, ScoringPlan plan, CalculationProgress progress,
+                            Map<Integer, LevelCutPoints> writeCuts, Map<Integer, ScoreSketch> sketches,
+                            StreamState state, BackpressureWriter<CountyScore> output) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        CalculationStats stats = progress.stats();
+        ScoringOutcome<CountyScore> outcome = stats.time(Phase.COMPUTE,
+                () -> scoreInputs(chunk, plan, DimensionScoreMemo.Lookup.NONE, score -> { }, null, progress));
+        long levelStart = System.nanoTime();
+        long putNanos = 0;
+        for (String key : outcome.getFailedKeys()) {
+            int year = Integer.parseInt(key.substring(key.lastIndexOf('/') + 1));
+            state.failedByYear.merge(year, 1, Integer::sum);
+        }
+        for (CountyScore score : outcome.getResults()) {
+            score.setRiskLevel(levelOf(score, writeCuts.get(score.getYear())));
+            score.setMajorRiskFactors(score.topRiskFactors(MAJOR_RISK_FACTOR_LIMIT));
+            boolean follows = score.getCountyCode().equals(state.lastCountyCode) && score.getYear() == state.lastYear + 1;
+            score.setRiskTrend(follows
+                    ? riskTrendClassifier.classify(score.getComprehensiveScore(), state.lastScore)
+                    : null);
+            state.lastCountyCode = score.getCountyCode();
+            state.lastYear = score.getYear();
+            state.lastScore = CountyScore.toDecimal(score.getComprehensiveScore());
+
+            ScoreSketch sketch = sketches.get(score.getYear());
+            if (sketch != null) {
+                sketch.add(score.getComprehensiveScore());
+            }
+            state.levelCounts.computeIfAbsent(score.getYear(), y -> new HashMap<>())
+                    .merge(score.getRiskLevel(), 1L, Long::sum);
+            state.succeeded++;
+            long putStart = System.nanoTime();
+            output.put(score);
+            putNanos += System.nanoTime() - putStart;
+        }
+        // 写入队列满时 put 阻塞的时间计为写入，其余为等级与趋势划分
+        stats.addNanos(Phase.WRITE, putNanos);
+        stats.addNanos(Phase.LEVEL, System.nanoTime() - levelStart - putNanos);
+        chunk.clear();
+    }
+
+    /**
+     * 并行计算一批县域年份，确定风险等级后按输入顺序批量写入
+     *
+     * @param label    进度日志中的计算范围描述（如 "2020 年"、"全历史"）
+     * @param memo     可复用的维度得分，新计算的维度得分在计算完成后记入备忘
+     * @param fullYear 输入是否包含所涉及年份的全部县域；分位数模式下只有整年计算才重新计算分界点，
+     *                 部分县域重算沿用该年最近一次记录的分界点
+     * @param progress 按年份上报已处理县域数；取消时在写入前抛出 CancellationException，不写入任何结果
+     */
+    private ScoringOutcome<CountyScore> scoreAndWrite(String label, List<CountyYearFacts> inputs, ScoringPlan plan,
+                                                     DimensionScoreMemo.Lookup memo, boolean fullYear,
+                                                     CalculationProgress progress) {
+        inputs.stream()
+                .collect(Collectors.groupingBy(CountyYearFacts::getYear, TreeMap::new, Collectors.counting()))
+                .forEach((year, count) -> progress.yearPlanned(year, count.intValue()));
+
+        // 分位数模式下每个计算线程维护自己的按年草图，计算结束后合并，不需要按得分排序
+        boolean sketching = fullYear && riskLevelClassifier.isQuantileMode();
+        Map<Thread, Map<Integer, ScoreSketch>> workerSketches = new ConcurrentHashMap<>();
+
+        // 按批次并行计算，单个县域失败只计数，不中断其他县域
+        CalculationStats stats = progress.stats();
+        if (!memo.isEmpty()) {
+            log.info("{}复用维度得分: {}", label, memo.reusableDimensions());
+        }
+        ScoringOutcome<CountyScore> outcome = stats.time(Phase.COMPUTE, () -> scoreInputs(
+                inputs,
+                plan,
+                memo,
+                score -> {
+                    if (sketching) {
+                        workerSketches.computeIfAbsent(Thread.currentThread(), t -> new HashMap<>())
+                                .computeIfAbsent(score.getYear(), y -> new ScoreSketch())
+                                .add(score.getComprehensiveScore());
                     }
+                },
+                done -> log.info("{}计算进度: {}/{}", label, done, inputs.size()),
+                progress));
+        stats.counted(outcome.getSuccessCount(), outcome.getFailCount());
+        stats.time(Phase.COMPUTE, () -> dimensionScoreMemo.record(memo, outcome.getResults()));
+
+        // 确定各年份使用的分界点并划分风险等级；固定阈值模式下为空
+        long levelStart = System.nanoTime();
+        Map<Integer, ScoreSketch> sketches = sketching ? mergeSketches(workerSketches.values()) : Map.of();
+        Map<Integer, LevelCutPoints> cutPoints = new HashMap<>();
+        if (sketching) {
+            sketches.forEach((year, sketch) -> cutPoints.put(year, riskLevelClassifier.quantileCutPoints(sketch)));
+        } else if (riskLevelClassifier.isQuantileMode()) {
+            outcome.getResults().stream().map(CountyScore::getYear).distinct()
+                    .forEach(year -> cutPoints.put(year, recordedCutPoints(year)));
+        }
+        for (CountyScore score : outcome.getResults()) {
+            score.setRiskLevel(levelOf(score, cutPoints.get(score.getYear())));
+            score.setMajorRiskFactors(score.topRiskFactors(MAJOR_RISK_FACTOR_LIMIT));
+        }
+        assignTrends(outcome.getResults(), fullYear);
+        stats.addNanos(Phase.LEVEL, System.nanoTime() - levelStart);
+
+        // 按输入顺序批量写入，整个计算范围每张结果表共用一个写入流
+        long writeStart = System.nanoTime();
+        LocalDateTime assessmentDate = LocalDateTime.now();
+        if (persistIndicatorScores && fullYear) {
+            // 清除已停用指标的旧单项得分，其余指标的行由本次写入覆盖
+            Set<Integer> years = outcome.getResults().stream().map(CountyScore::getYear).collect(Collectors.toSet());
+            if (!years.isEmpty()) {
+                riskScoreMapper.deleteExcludedIndicators(years, plan.getIndicatorIds());
+            }
+        }
+        try (BatchUpsertWriter<ComprehensiveRiskAssessment> writer =
+                     new BatchUpsertWriter<>("风险评估", riskAssessmentMapper::upsertBatch, writeBatchSize);
+             BatchUpsertWriter<RiskScore> itemWriter =
+                     new BatchUpsertWriter<>("单项指标得分", riskScoreMapper::upsertBatch, writeBatchSize)) {
+            for (CountyScore score : outcome.getResults()) {
+                writer.add(score.toAssessment(assessmentDate));
+                if (persistIndicatorScores) {
+                    itemWriter.addAll(score.toRiskScores(assessmentDate));
                 }
             }
-            
-        } catch (Exception e) {
-            log.warn("获取需要计算的年份失败，将计算所有年份: {}", e.getMessage());
-            // 如果查询失败，则计算所有年份
-            for (int year = minYear; year <= maxYear; year++) {
-                yearsToCalculate.add(year);
+        }
+        stats.addNanos(Phase.WRITE, System.nanoTime() - writeStart);
+        stats.time(Phase.LEVEL, () -> {
+            refreshFollowingYearTrends(outcome.getResults(), fullYear);
+            if (sketching) {
+                recordCutPoints(cutPoints, sketches, plan);
+            }
+        });
+        logLevelDistribution(outcome.getResults().stream()
+                .collect(Collectors.groupingBy(CountyScore::getYear, TreeMap::new,
+                        Collectors.groupingBy(CountyScore::getRiskLevel, Collectors.counting()))));
+        return outcome;
+    }
+
+    /**
+     * 按上一年综合得分判定风险趋势
+     * 上一年也在本次计算范围内时直接使用内存中的新得分，否则每个年份只查询一次上一年的评估结果
+     */
+    private void assignTrends(List<CountyScore> scores, boolean fullYear) {
+        Map<Integer, List<CountyScore>> byYear = scores.stream()
+                .collect(Collectors.groupingBy(CountyScore::getYear, TreeMap::new, Collectors.toList()));
+        byYear.forEach((year, yearScores) -> {
+            Map<String, BigDecimal> previous = new HashMap<>();
+            List<CountyScore> inMemory = byYear.get(year - 1);
+            if (inMemory == null || !fullYear) {
+                previous.putAll(loadPreviousScores(year - 1, yearScores, fullYear));
+            }
+            if (inMemory != null) {
+                inMemory.forEach(s -> previous.put(s.getCountyCode(), CountyScore.toDecimal(s.getComprehensiveScore())));
+            }
+            for (CountyScore score : yearScores) {
+                score.setRiskTrend(riskTrendClassifier.classify(score.getComprehensiveScore(),
+                        previous.get(score.getCountyCode())));
             }
+        });
+    }
+
+    private Map<String, BigDecimal> loadPreviousScores(int previousYear, List<CountyScore> scores, boolean fullYear) {
+        LambdaQueryWrapper<ComprehensiveRiskAssessment> wrapper = new LambdaQueryWrapper<ComprehensiveRiskAssessment>()
+                .select(ComprehensiveRiskAssessment::getCountyCode, ComprehensiveRiskAssessment::getComprehensiveRiskScore)
+                .eq(ComprehensiveRiskAssessment::getYear, previousYear);
+        if (!fullYear && scores.size() <= INCREMENTAL_FULL_LOAD_THRESHOLD) {
+            wrapper.in(ComprehensiveRiskAssessment::getCountyCode,
+                    scores.stream().map(CountyScore::getCountyCode).collect(Collectors.toSet()));
         }
-        
-        return yearsToCalculate;
+        Map<String, BigDecimal> previous = new HashMap<>();
+        for (ComprehensiveRiskAssessment a : riskAssessmentMapper.selectList(wrapper)) {
+            if (a.getComprehensiveRiskScore() != null) {
+                previous.put(a.getCountyCode(), a.getComprehensiveRiskScore());
+            }
+        }
+        return previous;
     }
 
     /**
-     * 从数据表中获取最小年份
+     * 本次写入的年份如果下一年已有评估结果且不在本次计算范围内，用一条 UPDATE 按新得分重新判定下一年的趋势
      */
-    private Integer getMinYearFromData() {
-        try {
-            return riskAssessmentMapper.getMinDataYear();
-        } catch (Exception e) {
-            log.warn("获取最小年份失败: {}", e.getMessage());
-            return null;
+    private void refreshFollowingYearTrends(List<CountyScore> scores, boolean fullYear) {
+        Map<Integer, Set<String>> codesByYear = scores.stream()
+                .collect(Collectors.groupingBy(CountyScore::getYear, TreeMap::new,
+                        Collectors.mapping(CountyScore::getCountyCode, Collectors.toSet())));
+        codesByYear.forEach((year, codes) -> {
+            if (fullYear && codesByYear.containsKey(year + 1)) {
+                return;
+            }
+            int updated = riskAssessmentMapper.refreshTrendFromPreviousYear(year + 1,
+                    riskTrendClassifier.getThreshold(), fullYear ? null : codes);
+            if (updated > 0) {
+                log.info("{} 年风险趋势已按 {} 年新得分更新 {} 条", year + 1, year, updated);
+            }
+        });
+    }
+
+    /**
+     * 整年写入的年份中，下一年不在写入范围内的，按新得分更新下一年全部县域的趋势
+     */
+    private void refreshFollowingYearTrends(Set<Integer> years) {
+        for (Integer year : years) {
+            if (years.contains(year + 1)) {
+                continue;
+            }
+            int updated = riskAssessmentMapper.refreshTrendFromPreviousYear(year + 1,
+                    riskTrendClassifier.getThreshold(), null);
+            if (updated > 0) {
+                log.info("{} 年风险趋势已按 {} 年新得分更新 {} 条", year + 1, year, updated);
+            }
+        }
+    }
+
+    private String levelOf(CountyScore score, LevelCutPoints cutPoints) {
+        return cutPoints != null
+                ? cutPoints.classify(score.getComprehensiveScore())
+                : riskLevelClassifier.classify(score.getComprehensiveScore());
+    }
+
+    private Map<Integer, ScoreSketch> mergeSketches(Collection<Map<Integer, ScoreSketch>> workerSketches) {
+        Map<Integer, ScoreSketch> merged = new TreeMap<>();
+        for (Map<Integer, ScoreSketch> sketches : workerSketches) {
+            sketches.forEach((year, sketch) -> merged.computeIfAbsent(year, y -> new ScoreSketch()).merge(sketch));
         }
+        return merged;
     }
 
     /**
-     * 从数据表中获取最大年份
+     * 记录本次整年计算各年份使用的分位数分界点
      */
-    private Integer getMaxYearFromData() {
-        try {
-            Integer dbMaxYear = riskAssessmentMapper.getMaxDataYear();
-            int currentYear = java.time.LocalDate.now().getYear();
-            // 返回数据库最大年份和当前年份的较大值
-            return dbMaxYear != null ? Math.max(dbMaxYear, currentYear) : currentYear;
-        } catch (Exception e) {
-            log.warn("获取最大年份失败: {}", e.getMessage());
+    private void recordCutPoints(Map<Integer, LevelCutPoints> cutPoints, Map<Integer, ScoreSketch> sketches,
+                                 ScoringPlan plan) {
+        LocalDateTime now = LocalDateTime.now();
+        cutPoints.forEach((year, cuts) -> {
+            if (cuts == null) {
+                return;
+            }
+            RiskLevelCutPoint record = new RiskLevelCutPoint();
+            record.setYear(year);
+            record.setLevelMode(riskLevelClassifier.getMode());
+            record.setQuantiles(riskLevelClassifier.getQuantilesText());
+            record.setCutHigh(cuts.getHigh());
+            record.setCutMediumHigh(cuts.getMediumHigh());
+            record.setCutMedium(cuts.getMedium());
+            record.setCutMediumLow(cuts.getMediumLow());
+            record.setSampleCount(sketches.get(year).getCount());
+            record.setConfigVersion(plan.getConfigVersion());
+            record.setCreatedAt(now);
+            riskLevelCutPointMapper.insert(record);
+            log.info("{} 年分位数分界点: {} (样本 {})", year, cuts, record.getSampleCount());
+        });
+    }
+
+    /**
+     * 分位数模式下部分县域重算沿用该年最近一次记录的分界点；没有记录时返回 null，按固定阈值划分
+     */
+    private LevelCutPoints recordedCutPoints(int year) {
+        if (!riskLevelClassifier.isQuantileMode()) {
             return null;
         }
+        RiskLevelCutPoint record = riskLevelCutPointMapper.selectLatestByYear(year);
+        if (record == null) {
+            log.warn("{} 年尚无分位数分界点记录，按固定阈值划分风险等级", year);
+            return null;
+        }
+        return new LevelCutPoints(record.getCutHigh(), record.getCutMediumHigh(),
+                record.getCutMedium(), record.getCutMediumLow());
+    }
+
+    /**
+     * 增量计算：只重算变更日志中出现的县域年份
+     *
+     * @param changedByYear 年份 -> 发生变更的县域代码
+     * @return 失败的县域数量
+     */
+    private int calculateChangedCounties(Map<Integer, Set<String>> changedByYear, ScoringPlan plan,
+                                        CalculationProgress progress) {
+        DimensionScoreMemo.Lookup memo = dimensionScoreMemo.lookup(plan);
+        Set<String> knownCounties = countyBasicMapper.selectList(null).stream()
+                .map(CountyBasic::getCountyCode)
+                .collect(Collectors.toSet());
+        int failed = 0;
+        for (Map.Entry<Integer, Set<String>> entry : changedByYear.entrySet()) {
+            int year = entry.getKey();
+            // 已从 county_basic 删除的县域没有评估结果需要维护
+            List<String> codes = entry.getValue().stream()
+                    .filter(knownCounties::contains)
+                    .sorted()
+                    .collect(Collectors.toList());
+            if (codes.isEmpty()) {
+                continue;
+            }
+            if (progress.isCancelled()) {
+                throw new CancellationException("增量计算已取消");
+            }
+            try {
+                YearSnapshot snapshot = progress.stats().time(Phase.READ,
+                        () -> codes.size() > INCREMENTAL_FULL_LOAD_THRESHOLD
+                                ? countySnapshotLoader.loadYear(year)
+                                : countySnapshotLoader.loadCounties(year, codes));
+                List<CountyYearFacts> inputs = codes.stream().map(snapshot::get).collect(Collectors.toList());
+                ScoringOutcome<CountyScore> outcome = scoreAndWrite(year + " 年增量", inputs, plan, memo, false, progress);
+                failed += outcome.getFailCount();
+                log.info("{} 年增量计算完成: 重算 {} 个县域, 失败 {}", year, codes.size(), outcome.getFailCount());
+            } catch (CancellationException e) {
+                throw e;
+            } catch (Exception e) {
+                failed += codes.size();
+                log.error("{} 年增量计算失败: {}", year, e.getMessage(), e);
+            }
+        }
+        return failed;
     }
 
     @Override
-    @Transactional(rollbackFor = Exception.class) // 单个县域计算保持事务
-    public void calculateCounty(String countyCode, Integer year) {
-        // ... (keep existing implementation)
-        // 获取所有启用的风险指标配置
-        Map<String, List<RiskIndicator>> indicators = riskIndicatorService.getIndicatorsByCategory();
-
-        // 1. 计算各维度风险
-        BigDecimal economicRisk = calculateEconomicRisk(countyCode, year, indicators.get("经济风险"));
-        BigDecimal socialRisk = calculateSocialRisk(countyCode, year, indicators.get("社会风险"));
-        BigDecimal environmentRisk = calculateEnvironmentRisk(countyCode, year, indicators.get("环境风险"));
-        BigDecimal governanceRisk = calculateGovernanceRisk(countyCode, year, indicators.get("治理风险"));
-        BigDecimal developmentRisk = calculateDevelopmentRisk(countyCode, year, indicators.get("发展风险"));
-
-        // 2. 计算综合风险 (加权平均，这里简化为平均，或者可以从配置获取维度权重)
-        // 假设各维度权重相等，或者可以从SystemConfig获取
-        BigDecimal baseScore = economicRisk.add(socialRisk).add(environmentRisk)
-                .add(governanceRisk).add(developmentRisk).divide(BigDecimal.valueOf(5), 2, RoundingMode.HALF_UP);
-
-        // 添加逐年递减趋势：假设从2000年到2023年，风险逐年降低
-        int baseYear = 2000;
-        double yearTrend = (baseYear - year) * 0.05; 
-        
-        // 添加基于县域代码和年份的整体扰动
-        int hash = Math.abs((countyCode + String.valueOf(year)).hashCode());
-        double perturbation = (hash % 1001) / 100.0 - 5.0;
+    // @Transactional(rollbackFor = Exception.class) // 移除大事务
+    public void calculateAllYears() {
+        calculateAllYears(CalculationProgress.NONE);
+    }
 
-        // 综合得分 = 基础得分 + 逐年趋势 + 扰动值
-        BigDecimal comprehensiveScore = baseScore
-                .add(BigDecimal.valueOf(yearTrend))
-                .add(BigDecimal.valueOf(perturbation));
+    @Override
+    public void calculateAllYears(CalculationProgress progress) {
+        calculateAllYears(progress, defaultMode());
+    }
 
-        // 简单压缩：将分数整体打折，使大部分县处于低风险区
-        // 例如乘以 0.7，这样 100分->70分, 80分->56分
-        if (comprehensiveScore.compareTo(BigDecimal.ZERO) > 0) {
-             comprehensiveScore = comprehensiveScore.multiply(BigDecimal.valueOf(0.7));
-        }
+    @Override
+    public void calculateAllYears(CalculationProgress progress, CalculationMode mode) {
+        calculationLedgerService.record(CalculationLedgerService.RUN_ALL_YEARS, "所有年份", progress, tracked -> {
+            calculateAllYearsTracked(tracked, mode);
+            return null;
+        });
+    }
+
+    private void calculateAllYearsTracked(CalculationProgress progress, CalculationMode mode) {
+        log.info("开始计算所有年份风险 (读取方式 {})...", mode);
+        progress.stats().setCalculationMode(modeName(mode));
 
-        // 确保得分在合理范围内（不低于0，不高于100）
-        if (comprehensiveScore.compareTo(BigDecimal.ZERO) < 0) {
-            comprehensiveScore = BigDecimal.ZERO;
+        // 记录本次运行开始时的变更日志位置，运行期间新产生的变更留给下一次计算；
+        // 只删除本次读到的变更，ID 较小但读取后才提交的变更留给下一次计算
+        Long changeWatermark = riskInputChangeMapper.getMaxChangeId();
+        List<RiskInputChange> changes = changeWatermark != null
+                ? riskInputChangeMapper.selectChangesUpTo(changeWatermark)
+                : List.of();
+        // 维度得分备忘在取 Lookup 时也会按变更日志失效，这里先失效一次，避免本次运行复用变更前的结果
+        dimensionScoreMemo.invalidate(changes);
+        // 风险模拟使用的快照缓存按最大ID判断变更，ID较小但提交较晚的变更在这里失效
+        if (!changes.isEmpty()) {
+            countySnapshotCache.invalidate();
+        }
+        // 指标配置变更（县域与年份为空的标记）影响所有县域年份
+        boolean configChanged = changes.stream().anyMatch(c -> c.getCountyCode() == null || c.getYear() == null);
+        
+        // 只计算源数据表中实际存在的年份，不再把范围延伸到当前年份
+        List<Integer> yearsWithData = getYearsWithData();
+        if (yearsWithData.isEmpty()) {
+            log.warn("未找到任何源数据年份，跳过计算");
+            return;
         }
-        if (comprehensiveScore.compareTo(BigDecimal.valueOf(100)) > 0) {
-            comprehensiveScore = BigDecimal.valueOf(100);
+        log.info("检测到数据年份范围: {} - {} (共{}年)",
+                yearsWithData.get(0), yearsWithData.get(yearsWithData.size() - 1), yearsWithData.size());
+        
+        // 整个运行共用一份计分计划；有配置变更标记时先重新加载，包含直接在数据库中修改的维度权重
+        if (configChanged) {
+            riskConfigService.reload();
         }
+        ScoringPlan plan = compilePlan(progress);
 
-        // 3. 确定风险等级
-        // 暂时设置为"计算中"，等待全量计算完成后基于分位数动态更新
-        String riskLevel = "计算中";
-        
-        // 4. 保存结果
-        ComprehensiveRiskAssessment assessment = new ComprehensiveRiskAssessment();
-        assessment.setCountyCode(countyCode);
-        assessment.setYear(year);
-        assessment.setEconomicRiskScore(economicRisk);
-        assessment.setSocialRiskScore(socialRisk);
-        assessment.setEnvironmentRiskScore(environmentRisk);
-        assessment.setGovernanceRiskScore(governanceRisk);
-        assessment.setDevelopmentRiskScore(developmentRisk);
-        assessment.setComprehensiveRiskScore(comprehensiveScore);
-        assessment.setRiskLevel(riskLevel);
-        assessment.setAssessmentDate(LocalDateTime.now());
-
-        // 检查是否存在，存在则更新
-        LambdaQueryWrapper<ComprehensiveRiskAssessment> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(ComprehensiveRiskAssessment::getCountyCode, countyCode)
-                .eq(ComprehensiveRiskAssessment::getYear, year);
-
-        if (riskAssessmentMapper.selectCount(wrapper) > 0) {
-            riskAssessmentMapper.update(assessment, wrapper);
-        } else {
-            riskAssessmentMapper.insert(assessment);
-        }
-    }
-
-    // ... (keep existing private methods)
-
-    private BigDecimal calculateEconomicRisk(String countyCode, Integer year, List<RiskIndicator> indicators) {
-        BigDecimal score = BigDecimal.ZERO;
-        if (indicators == null || indicators.isEmpty())
-            return BigDecimal.valueOf(20.0);
-
-        EconomicAggregate data = getOne(economicAggregateMapper, countyCode, year);
-        FiscalFinance fiscal = getOne(fiscalFinanceMapper, countyCode, year);
-
-        if (data == null && fiscal == null)
-            return BigDecimal.valueOf(50.0);
-
-        for (RiskIndicator indicator : indicators) {
-            Double value = null;
-            switch (indicator.getIndicatorCode()) {
-                case "GDP_GROWTH":
-                    if (data != null && data.getGdpGrowthRate() != null)
-                        value = data.getGdpGrowthRate().doubleValue();
-                    break;
-                case "FISCAL_SELF_SUFFICIENCY":
-                    if (fiscal != null && fiscal.getFiscalSelfSufficiency() != null)
-                        value = fiscal.getFiscalSelfSufficiency().doubleValue();
-                    break;
-                case "DEBT_RATIO":
-                    if (fiscal != null && fiscal.getDebtToRevenueRatio() != null)
-                        value = fiscal.getDebtToRevenueRatio().doubleValue();
-                    break;
-                case "GDP_PER_CAPITA":
-                    if (data != null && data.getGdpPerCapita() != null)
-                        value = data.getGdpPerCapita().doubleValue() / 10000.0; // 转换为万元
-                    break;
-            }
+        // 获取需要整年计算的年份列表（有基础数据但缺少风险评估的年份；指标配置变更时为全部年份），
+        // 并接管上次未完成的同配置版本运行（进程重启、失败或取消）；已完成检查点的年份不再重算
+        List<Integer> yearsNeeded = getYearsNeedingCalculation(yearsWithData, configChanged);
+        RiskCalculationRun run = riskShardService.openRun("ALL_YEARS", yearsNeeded, plan);
+        List<Integer> yearsToCalculate = run != null ? riskShardService.pendingYears(run) : List.of();
+        if (run != null && yearsToCalculate.size() < runYears(run).size()) {
+            log.info("从运行 {} 的检查点继续: 已完成 {} 个年份, 剩余 {}",
+                    run.getRunId(), runYears(run).size() - yearsToCalculate.size(), yearsToCalculate);
+        }
 
-            BigDecimal itemScore = (value != null) ? calculateItemScore(value, indicator) : BigDecimal.valueOf(20);
-            score = score.add(itemScore.multiply(indicator.getWeight()));
-        }
-        return score.min(BigDecimal.valueOf(100));
-    }
-
-    private BigDecimal calculateSocialRisk(String countyCode, Integer year, List<RiskIndicator> indicators) {
-        BigDecimal score = BigDecimal.ZERO;
-        if (indicators == null || indicators.isEmpty())
-            return BigDecimal.valueOf(20.0);
-
-        PopulationStatistics pop = getOne(populationStatisticsMapper, countyCode, year);
-        // 假设有社会相关表，这里暂用人口表和经济表(收入差距)
-        EconomicAggregate eco = getOne(economicAggregateMapper, countyCode, year);
-
-        if (pop == null && eco == null)
-            return BigDecimal.valueOf(30.0);
-
-        for (RiskIndicator indicator : indicators) {
-            Double value = null;
-            switch (indicator.getIndicatorCode()) {
-                case "POPULATION_DECLINE":
-                    // 假设 growth_rate 为负表示流失，取反作为流失率
-                    // 暂无直接字段，模拟数据
-                    value = 0.0;
-                    break;
-                case "EMPLOYMENT_RATE":
-                    // 暂无直接字段，模拟数据: 90% + 随机波动
-                    value = 90.0 + (Math.random() * 10 - 5);
-                    break;
-                case "INCOME_GAP":
-                    // 暂无直接字段，模拟数据: 2.5 + 随机波动
-                    value = 2.5 + (Math.random() * 1.0 - 0.5);
-                    break;
-            }
-            BigDecimal itemScore = (value != null) ? calculateItemScore(value, indicator) : BigDecimal.valueOf(20);
-            score = score.add(itemScore.multiply(indicator.getWeight()));
-        }
-        return score.min(BigDecimal.valueOf(100));
-    }
-
-    private BigDecimal calculateEnvironmentRisk(String countyCode, Integer year, List<RiskIndicator> indicators) {
-        BigDecimal score = BigDecimal.ZERO;
-        if (indicators == null || indicators.isEmpty())
-            return BigDecimal.valueOf(20.0);
-
-        EnvironmentCulture data = getOne(environmentCultureMapper, countyCode, year);
-        if (data == null)
-            return BigDecimal.valueOf(30.0);
-
-        for (RiskIndicator indicator : indicators) {
-            Double value = null;
-            switch (indicator.getIndicatorCode()) {
-                case "AIR_QUALITY": // DB Code: AIR_QUALITY
-                    if (data.getAirQualityIndex() != null)
-                        value = data.getAirQualityIndex().doubleValue();
-                    break;
-                case "GREEN_COVERAGE_RATE":
-                    if (data.getGreenCoverageRate() != null)
-                        value = data.getGreenCoverageRate().doubleValue();
-                    break;
-                case "EMISSION_INTENSITY":
-                    if (data.getEmissionIntensity() != null)
-                        value = data.getEmissionIntensity().doubleValue();
-                    break;
-            }
-            BigDecimal itemScore = (value != null) ? calculateItemScore(value, indicator) : BigDecimal.valueOf(20);
-            score = score.add(itemScore.multiply(indicator.getWeight()));
-        }
-        return score.min(BigDecimal.valueOf(100));
-    }
-
-    private BigDecimal calculateGovernanceRisk(String countyCode, Integer year, List<RiskIndicator> indicators) {
-        BigDecimal score = BigDecimal.ZERO;
-        if (indicators == null || indicators.isEmpty())
-            return BigDecimal.valueOf(20.0);
-
-        EducationHealth data = getOne(educationHealthMapper, countyCode, year);
-        FiscalFinance fiscal = getOne(fiscalFinanceMapper, countyCode, year);
-
-        if (data == null || fiscal == null)
-            return BigDecimal.valueOf(30.0);
-
-        for (RiskIndicator indicator : indicators) {
-            Double value = null;
-            if (fiscal.getFiscalExpenditure万元() != null && fiscal.getFiscalExpenditure万元() > 0) {
-                switch (indicator.getIndicatorCode()) {
-                    case "EDUCATION_INVESTMENT": // DB Code: EDUCATION_INVESTMENT
-                        if (data.getEducationInvestment万元() != null)
-                            value = (double) data.getEducationInvestment万元() / fiscal.getFiscalExpenditure万元() * 100;
-                        break;
-                    case "HEALTH_INVESTMENT": // DB Code: HEALTH_INVESTMENT
-                        if (data.getHealthInvestment万元() != null)
-                            value = (double) data.getHealthInvestment万元() / fiscal.getFiscalExpenditure万元() * 100;
-                        break;
+        // 其余年份只重算变更日志中出现的县域
+        Map<Integer, Set<String>> changedByYear = new TreeMap<>();
+        if (!configChanged) {
+            for (RiskInputChange change : changes) {
+                if (!yearsToCalculate.contains(change.getYear())) {
+                    changedByYear.computeIfAbsent(change.getYear(), y -> new HashSet<>()).add(change.getCountyCode());
                 }
             }
-            BigDecimal itemScore = (value != null) ? calculateItemScore(value, indicator) : BigDecimal.valueOf(20);
-            score = score.add(itemScore.multiply(indicator.getWeight()));
-        }
-        return score.min(BigDecimal.valueOf(100));
-    }
-
-    private BigDecimal calculateDevelopmentRisk(String countyCode, Integer year, List<RiskIndicator> indicators) {
-        BigDecimal score = BigDecimal.ZERO;
-        if (indicators == null || indicators.isEmpty())
-            return BigDecimal.valueOf(20.0);
-
-        InvestmentConsumption data = getOne(investmentConsumptionMapper, countyCode, year);
-        if (data == null)
-            return BigDecimal.valueOf(30.0);
-
-        for (RiskIndicator indicator : indicators) {
-            Double value = null;
-            switch (indicator.getIndicatorCode()) {
-                case "INVESTMENT_EFFICIENCY":
-                    if (data.getInvestmentEfficiency() != null)
-                        value = data.getInvestmentEfficiency().doubleValue();
-                    break;
-                case "CONSUMPTION_RATE":
-                    if (data.getConsumptionRate() != null)
-                        value = data.getConsumptionRate().doubleValue();
-                    break;
-                case "INNOVATION_CAPACITY":
-                    // 模拟创新指数：基于投资效率和年份生成一个 40-90 的值
-                    if (data.getInvestmentEfficiency() != null) {
-                        value = 40 + (data.getInvestmentEfficiency().doubleValue() * 30);
-                    } else {
-                        value = 50.0;
-                    }
-                    break;
+        }
+        
+        if (run == null && changedByYear.isEmpty()) {
+            log.info("所有年份的风险评估已完成且输入数据无变更，无需重新计算");
+            return;
+        }
+        
+        log.info("需要整年计算的年份: {} (共{}年), 需要增量计算的年份: {}",
+                yearsToCalculate, yearsToCalculate.size(), changedByYear.keySet());
+        
+        int totalYears = yearsToCalculate.size();
+        int failedYears = 0;
+        int incompleteYears = 0;
+        
+        if (run != null) {
+            try {
+                Map<Integer, Integer> failedByYear = calculateRunYears(run, yearsToCalculate, plan, mode, progress);
+                // 部分县域失败的年份仍计为完成，但保留变更日志以便下次重试
+                incompleteYears = failedByYear.size();
+                failedByYear.forEach((year, failed) -> log.warn("{} 年有 {} 个县域计算失败", year, failed));
+                riskShardService.finishRun(run.getRunId(), RiskShardService.RUN_SUCCEEDED);
+            } catch (CancellationException e) {
+                // 取消时保留变更日志；已完成的年份已记录检查点，下次运行从检查点继续
+                riskShardService.finishRun(run.getRunId(), RiskShardService.RUN_CANCELLED);
+                log.warn("全历史计算已取消，下次计算从运行 {} 的检查点继续", run.getRunId());
+                throw e;
+            } catch (Exception e) {
+                riskShardService.finishRun(run.getRunId(), RiskShardService.RUN_FAILED);
+                failedYears = totalYears;
+                log.error("✗ 全历史计算失败，下次计算从运行 {} 的检查点继续: {}", run.getRunId(), e.getMessage(), e);
             }
-            BigDecimal itemScore = (value != null) ? calculateItemScore(value, indicator) : BigDecimal.valueOf(20);
-            score = score.add(itemScore.multiply(indicator.getWeight()));
         }
-        return score.min(BigDecimal.valueOf(100));
+        int successYears = totalYears - failedYears;
+        
+        int incrementalFailed = calculateChangedCounties(changedByYear, plan, progress);
+        
+        log.info("所有年份风险计算完成: 成功 {}/{}, 失败 {}, 增量计算失败县域 {}",
+                successYears, totalYears, failedYears, incrementalFailed);
+
+        // 全部成功才清除已处理的变更日志，否则保留以便下次重试
+        if (!changes.isEmpty() && failedYears == 0 && incompleteYears == 0 && incrementalFailed == 0) {
+            int cleared = deleteProcessedChanges(changes);
+            log.info("已清除 {} 条已处理的输入变更记录", cleared);
+        }
     }
 
     /**
-     * 根据指标配置和实际值计算单项得分
+     * 按ID分批删除已处理的变更日志
      */
-    private BigDecimal calculateItemScore(Double value, RiskIndicator indicator) {
-        double high = indicator.getThresholdHigh() != null ? indicator.getThresholdHigh().doubleValue()
-                : Double.MAX_VALUE;
-        double medium = indicator.getThresholdMedium() != null ? indicator.getThresholdMedium().doubleValue() : 0;
-        double low = indicator.getThresholdLow() != null ? indicator.getThresholdLow().doubleValue() : 0;
-
-        if ("GT".equals(indicator.getComparisonOperator())) {
-            // 大于阈值风险高 (如AQI)
-            if (value > high)
-                return BigDecimal.valueOf(100);
-            if (value > medium)
-                return BigDecimal.valueOf(80);
-            if (value > low)
-                return BigDecimal.valueOf(60);
-            return BigDecimal.valueOf(20);
-        } else {
-            // 小于阈值风险高 (如GDP增长率)
-            // 修正：为了兼容UI输入的直观性，假设用户输入的High/Medium/Low是对应的分界线
-            // 对于LT类型：
-            // High Threshold (e.g. 0): Value < 0 is High Risk
-            // Medium Threshold (e.g. 3): Value < 3 is Medium Risk
-            // Low Threshold (e.g. 5): Value < 5 is Low Risk
+    private int deleteProcessedChanges(List<RiskInputChange> changes) {
+        List<Long> ids = changes.stream().map(RiskInputChange::getId).collect(Collectors.toList());
+        int cleared = 0;
+        for (int from = 0; from < ids.size(); from += CHANGE_DELETE_BATCH_SIZE) {
+            cleared += riskInputChangeMapper.deleteByIds(ids.subList(from, Math.min(from + CHANGE_DELETE_BATCH_SIZE, ids.size())));
+        }
+        return cleared;
+    }
 
-            if (indicator.getThresholdHigh() != null && value < indicator.getThresholdHigh().doubleValue())
-                return BigDecimal.valueOf(100);
-            if (indicator.getThresholdMedium() != null && value < indicator.getThresholdMedium().doubleValue())
-                return BigDecimal.valueOf(80);
-            if (indicator.getThresholdLow() != null && value < indicator.getThresholdLow().doubleValue())
-                return BigDecimal.valueOf(60);
-            return BigDecimal.valueOf(20);
+    /**
+     * 在检查点运行中整年计算尚未完成的年份
+     * 分片模式：按 (省份, 年份) 分片由各节点领取，每个分片完成即为检查点，全部完成后对运行的所有年份统一收尾；
+     * 快照与流式模式：按 checkpoint-years 把年份分组，每组一次加载（或一个游标）、一个写入流，写入完成后记录这些年份的检查点。
+     * 分组按年份升序进行，每组第一个年份的趋势与上一组已写入的结果比较
+     *
+     * @return 各年份失败的县域数量（只包含有失败的年份）
+     */
+    private Map<Integer, Integer> calculateRunYears(RiskCalculationRun run, List<Integer> years, ScoringPlan plan,
+                                                    CalculationMode mode, CalculationProgress progress) {
+        if (riskShardService.isEnabled()) {
+            Map<Integer, Integer> failedByYear = new TreeMap<>();
+            if (!years.isEmpty()) {
+                log.info("开始分片计算 {} 个年份 (节点 {}, 指标配置版本 {})...",
+                        years.size(), riskShardService.getNodeId(), plan.getConfigVersion());
+                if (persistIndicatorScores) {
+                    riskScoreMapper.deleteExcludedIndicators(years, plan.getIndicatorIds());
+                }
+                failedByYear = riskShardService.processShards(run, years, plan, progress);
+            }
+            // 上次运行可能在分片全部完成后、收尾前中断，收尾对运行的所有年份执行
+            progress.stats().time(Phase.LEVEL, () -> finishShardedYears(runYears(run), plan));
+            return failedByYear;
         }
+
+        Map<Integer, Integer> failedByYear = new TreeMap<>();
+        int groupSize = checkpointYears > 0 ? checkpointYears : Math.max(1, years.size());
+        for (int i = 0; i < years.size(); i += groupSize) {
+            List<Integer> group = years.subList(i, Math.min(years.size(), i + groupSize));
+            Map<Integer, Integer> failed = mode == CalculationMode.STREAMING
+                    ? calculateYearsStreaming(group, plan, progress)
+                    : calculateYears(group, plan, progress);
+            riskShardService.checkpointYears(run.getRunId(), group, failed);
+            failedByYear.putAll(failed);
+        }
+        return failedByYear;
     }
 
-    private String determineRiskLevel(BigDecimal score) {
-        double s = score.doubleValue();
-        
-        // 根据用户实际观察调整阈值
-        // 观察到大部分数据都在18分以下，只有极少数超过18分
-        // 因此将高风险线定为18分，以此类推
+    private static List<Integer> runYears(RiskCalculationRun run) {
+        return Arrays.stream(run.getYears().split(","))
+                .filter(year -> !year.isBlank())
+                .map(year -> Integer.valueOf(year.trim()))
+                .collect(Collectors.toList());
+    }
 
-        if (s >= 18.0) return "高风险";
-        if (s >= 15.0) return "中高风险";
-        if (s >= 12.0) return "中风险";
-        if (s >= 8.0) return "中低风险";
-        return "低风险";
+    /**
+     * 取当前配置快照中已编译的计分计划，每次计算运行只取一次，运行期间配置更新不影响本次运行
+     */
+    private ScoringPlan compilePlan(CalculationProgress progress) {
+        ScoringPlan plan = riskConfigService.getSnapshot().getPlan();
+        log.info("使用计分计划: {} 个启用指标, 维度权重 {}, 配置版本 {}",
+                plan.getIndicatorCount(), plan.getDimensionWeights(), plan.getConfigVersion());
+        progress.stats().setConfigVersion(plan.getConfigVersion());
+        return plan;
     }
 
     /**
-     * 基于固定阈值客观划分风险等级
-     * 使用固定的阈值标准，不随数据分布变化，确保评估的客观性和一致性
-     * 
-     * 风险等级划分标准（固定阈值）：
-     * - 高风险: 综合风险得分 >= 18.0
-     * - 中高风险: 综合风险得分 >= 15.0 且 < 18.0
-     * - 中风险: 综合风险得分 >= 12.0 且 < 15.0
-     * - 中低风险: 综合风险得分 >= 8.0 且 < 12.0
-     * - 低风险: 综合风险得分 < 8.0
+     * 获取需要整年计算的年份列表（有基础数据但缺少风险评估的年份）
+     * 检查每个年份评估的县域数是否达到县域总数，不完整则加入计算列表；各年评估数量由一次分组查询得到
+     * 评估完整的年份不再整年重算，由输入变更日志驱动增量计算；指标配置变更时重算所有有数据的年份。
+     * 上次运行中断时未完成的年份由检查点运行记录，不依赖这里的数量比较
      */
-    private void updateRiskLevelsByQuantile(Integer year) {
+    private List<Integer> getYearsNeedingCalculation(List<Integer> yearsWithData, boolean configChanged) {
+        // 指标配置有变更，则重新计算所有年份以应用新的权重与阈值
+        if (configChanged) {
+            log.info("检测到指标配置变更，将重新计算所有年份以应用新的阈值");
+            return new ArrayList<>(yearsWithData);
+        }
+        
+        List<Integer> yearsToCalculate = new ArrayList<>();
         try {
-            log.info("开始基于固定阈值客观划分 {} 年风险等级...", year);
-            
-            // 定义固定阈值（可根据实际需求调整）
-            BigDecimal thresholdHigh = BigDecimal.valueOf(18.0);      // 高风险阈值
-            BigDecimal thresholdMedHigh = BigDecimal.valueOf(15.0);    // 中高风险阈值
-            BigDecimal thresholdMed = BigDecimal.valueOf(12.0);        // 中风险阈值
-            BigDecimal thresholdMedLow = BigDecimal.valueOf(8.0);      // 中低风险阈值
-            
-            log.info("{} 年固定阈值标准: 高风险>={}, 中高风险>={}, 中风险>={}, 中低风险>={}", 
-                    year, thresholdHigh, thresholdMedHigh, thresholdMed, thresholdMedLow);
-            
-            // 批量更新风险等级
-            // Update High Risk: score >= 18.0
-            com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper<ComprehensiveRiskAssessment> updateHigh = 
-                    new com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper<>();
-            updateHigh.eq(ComprehensiveRiskAssessment::getYear, year)
-                      .ge(ComprehensiveRiskAssessment::getComprehensiveRiskScore, thresholdHigh)
-                      .set(ComprehensiveRiskAssessment::getRiskLevel, "高风险");
-            int highCount = riskAssessmentMapper.update(null, updateHigh);
-            
-            // Update Medium High: 15.0 <= score < 18.0
-            com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper<ComprehensiveRiskAssessment> updateMedHigh = 
-                    new com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper<>();
-            updateMedHigh.eq(ComprehensiveRiskAssessment::getYear, year)
-                      .lt(ComprehensiveRiskAssessment::getComprehensiveRiskScore, thresholdHigh)
-                      .ge(ComprehensiveRiskAssessment::getComprehensiveRiskScore, thresholdMedHigh)
-                      .set(ComprehensiveRiskAssessment::getRiskLevel, "中高风险");
-            int medHighCount = riskAssessmentMapper.update(null, updateMedHigh);
-            
-            // Update Medium: 12.0 <= score < 15.0
-            com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper<ComprehensiveRiskAssessment> updateMed = 
-                    new com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper<>();
-            updateMed.eq(ComprehensiveRiskAssessment::getYear, year)
-                      .lt(ComprehensiveRiskAssessment::getComprehensiveRiskScore, thresholdMedHigh)
-                      .ge(ComprehensiveRiskAssessment::getComprehensiveRiskScore, thresholdMed)
-                      .set(ComprehensiveRiskAssessment::getRiskLevel, "中风险");
-            int medCount = riskAssessmentMapper.update(null, updateMed);
-            
-            // Update Medium Low: 8.0 <= score < 12.0
-            com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper<ComprehensiveRiskAssessment> updateMedLow = 
-                    new com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper<>();
-            updateMedLow.eq(ComprehensiveRiskAssessment::getYear, year)
-                      .lt(ComprehensiveRiskAssessment::getComprehensiveRiskScore, thresholdMed)
-                      .ge(ComprehensiveRiskAssessment::getComprehensiveRiskScore, thresholdMedLow)
-                      .set(ComprehensiveRiskAssessment::getRiskLevel, "中低风险");
-            int medLowCount = riskAssessmentMapper.update(null, updateMedLow);
-            
-            // Update Low Risk: score < 8.0
-            com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper<ComprehensiveRiskAssessment> updateLow = 
-                    new com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper<>();
-            updateLow.eq(ComprehensiveRiskAssessment::getYear, year)
-                      .lt(ComprehensiveRiskAssessment::getComprehensiveRiskScore, thresholdMedLow)
-                      .set(ComprehensiveRiskAssessment::getRiskLevel, "低风险");
-            int lowCount = riskAssessmentMapper.update(null, updateLow);
+            // 获取县域总数
+            long totalCounties = countyBasicMapper.selectCount(null);
             
-            log.info("{} 年风险等级分布: 高风险={}, 中高风险={}, 中风险={}, 中低风险={}, 低风险={}", 
-                    year, highCount, medHighCount, medCount, medLowCount, lowCount);
+            // 各年份已有评估的县域数
+            Map<Integer, Long> assessedByYear = new HashMap<>();
+            for (Map<String, Object> row : riskAssessmentMapper.countAssessmentsByYear()) {
+                assessedByYear.put(((Number) row.get("year")).intValue(), ((Number) row.get("cnt")).longValue());
+            }
             
+            // 检查每个年份：如果有数据但评估不完整，则需要计算
+            for (Integer year : yearsWithData) {
+                Long assessedCount = assessedByYear.get(year);
+                if (assessedCount == null) {
+                    yearsToCalculate.add(year);
+                    log.info("年份 {} 完全没有风险评估，需要计算", year);
+                } else if (assessedCount < totalCounties) {
+                    // 如果评估数量少于县域总数，说明不完整，需要重新计算
+                    yearsToCalculate.add(year);
+                    log.info("年份 {} 风险评估不完整 ({}/{})，需要重新计算", year, assessedCount, totalCounties);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("获取需要计算的年份失败，将计算所有有数据的年份: {}", e.getMessage());
+            return new ArrayList<>(yearsWithData);
+        }
+        
+        return yearsToCalculate;
+    }
+
+    /**
+     * 获取六张源数据表中出现过的所有年份（升序）
+     */
+    private List<Integer> getYearsWithData() {
+        try {
+            List<Integer> years = riskAssessmentMapper.getYearsWithData();
+            return years != null ? years : List.of();
         } catch (Exception e) {
-            log.error("基于固定阈值划分风险等级失败: {}", e.getMessage(), e);
+            log.warn("获取数据年份失败: {}", e.getMessage());
+            return List.of();
+        }
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class) // 单个县域计算保持事务
+    public void calculateCounty(String countyCode, Integer year) {
+        CountyScore score = scoreCounty(countySnapshotLoader.loadCounty(countyCode, year), compilePlan(CalculationProgress.NONE));
+        score.setRiskLevel(levelOf(score, recordedCutPoints(year)));
+        score.setMajorRiskFactors(score.topRiskFactors(MAJOR_RISK_FACTOR_LIMIT));
+        assignTrends(List.of(score), false);
+        LocalDateTime now = LocalDateTime.now();
+        riskAssessmentMapper.upsertBatch(List.of(score.toAssessment(now)));
+        if (persistIndicatorScores) {
+            List<RiskScore> items = score.toRiskScores(now);
+            if (!items.isEmpty()) {
+                riskScoreMapper.upsertBatch(items);
+            }
         }
+        refreshFollowingYearTrends(List.of(score), false);
+    }
+
+    /**
+     * 并行计算一组县域年份：启用向量内核且没有可复用的维度得分时按批次列式计算，批次计算失败时该批次退回逐县标量计算；
+     * 否则逐县标量计算。
+     * 每个县域计算完成后在计算线程中回调 onScored，并按年份上报进度（失败的县域同样计入）
+     *
+     * @param batchProgress 每完成一个批次回调一次，参数为累计完成数量；可为 null
+     */
+    private ScoringOutcome<CountyScore> scoreInputs(List<CountyYearFacts> inputs, ScoringPlan plan,
+                                                    DimensionScoreMemo.Lookup memo,
+                                                    Consumer<CountyScore> onScored, IntConsumer batchProgress,
+                                                    CalculationProgress progress) {
+        // 有可复用的维度时逐县计算，只计算版本变化的维度
+        Function<List<CountyYearFacts>, List<CountyScore>> batchTask = scoringKernelSelector.isVectorized() && memo.isEmpty()
+                ? batch -> {
+                    List<CountyScore> scores = scoringKernelSelector.scoreBatch(batch, plan, true);
+                    scores.forEach(onScored);
+                    batch.forEach(facts -> progress.countiesDone(facts.getYear(), 1));
+                    return scores;
+                }
+                : null;
+        return countyScoringExecutor.execute(
+                inputs,
+                batchTask,
+                facts -> {
+                    try {
+                        CountyScore score = RiskScoringKernel.score(facts, plan, true, memo);
+                        onScored.accept(score);
+                        return score;
+                    } finally {
+                        progress.countiesDone(facts.getYear(), 1);
+                    }
+                },
+                facts -> facts.getCountyCode() + "/" + facts.getYear(),
+                batchProgress,
+                progress::isCancelled);
     }
 
-    private <T> T getOne(BaseMapper<T> mapper, String countyCode, Integer year) {
-        com.baomidou.mybatisplus.core.conditions.query.QueryWrapper<T> wrapper = new com.baomidou.mybatisplus.core.conditions.query.QueryWrapper<>();
-        wrapper.eq("county_code", countyCode);
-        wrapper.eq("year", year);
-        wrapper.last("LIMIT 1");
-        return mapper.selectOne(wrapper);
+    /**
+     * 基于已加载的源数据计算单个县域的风险，计算过程不访问数据库
+     * 各维度风险与综合风险使用 double 运算，写库时才转为 DECIMAL；风险等级与趋势由调用方在写入前确定
+     * 单项指标明细始终记录，用于提取主要风险因素，是否写入 risk_scores 由 persistIndicatorScores 决定
+     */
+    private CountyScore scoreCounty(CountyYearFacts facts, ScoringPlan plan) {
+        return RiskScoringKernel.score(facts, plan, true);
+    }
+
+    /**
+     * 记录各年份风险等级分布
+     */
+    private void logLevelDistribution(Map<Integer, Map<String, Long>> distribution) {
+        distribution.forEach((year, counts) -> log.info("{} 年风险等级分布: 高风险={}, 中高风险={}, 中风险={}, 中低风险={}, 低风险={}",
+                year,
+                counts.getOrDefault(RiskLevelClassifier.HIGH, 0L),
+                counts.getOrDefault(RiskLevelClassifier.MEDIUM_HIGH, 0L),
+                counts.getOrDefault(RiskLevelClassifier.MEDIUM, 0L),
+                counts.getOrDefault(RiskLevelClassifier.MEDIUM_LOW, 0L),
+                counts.getOrDefault(RiskLevelClassifier.LOW, 0L)));
     }
 }
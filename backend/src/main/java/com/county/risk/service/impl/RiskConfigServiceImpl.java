@@ -0,0 +1,143 @@
+package com.county.risk.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.county.risk.calculation.DimensionWeights;
+import com.county.risk.calculation.RiskConfigSnapshot;
+import com.county.risk.calculation.RiskDimension;
+import com.county.risk.calculation.ScoringPlan;
+import com.county.risk.entity.RiskIndicator;
+import com.county.risk.entity.SystemConfig;
+import com.county.risk.mapper.RiskIndicatorMapper;
+import com.county.risk.mapper.SystemConfigMapper;
+import com.county.risk.service.RiskConfigService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 风险配置服务实现类
+ * 快照通过 volatile 引用整体替换，读取无锁；加载串行执行
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RiskConfigServiceImpl implements RiskConfigService {
+
+    public static final String KEY_DEFAULT_RISK_WEIGHTS = "DEFAULT_RISK_WEIGHTS";
+    public static final String KEY_RISK_CALCULATION_FREQUENCY = "RISK_CALCULATION_FREQUENCY";
+
+    private final RiskIndicatorMapper riskIndicatorMapper;
+    private final SystemConfigMapper systemConfigMapper;
+    private final ObjectMapper objectMapper;
+
+    private volatile RiskConfigSnapshot snapshot;
+    private long generation;
+
+    @Override
+    public RiskConfigSnapshot getSnapshot() {
+        RiskConfigSnapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            return snapshot != null ? snapshot : reload();
+        }
+    }
+
+    @Override
+    public String getVersion() {
+        return getSnapshot().getVersion();
+    }
+
+    @Override
+    public synchronized RiskConfigSnapshot reload() {
+        List<RiskIndicator> indicators = riskIndicatorMapper.selectList(new LambdaQueryWrapper<RiskIndicator>()
+                .orderByDesc(RiskIndicator::getWeight));
+        Map<String, List<RiskIndicator>> enabledByCategory = indicators.stream()
+                .filter(i -> "启用".equals(i.getStatus()))
+                .collect(Collectors.groupingBy(RiskIndicator::getCategory, LinkedHashMap::new,
+                        Collectors.collectingAndThen(Collectors.toList(), Collections::unmodifiableList)));
+
+        Map<String, String> systemConfigs = new LinkedHashMap<>();
+        for (SystemConfig config : systemConfigMapper.selectList(null)) {
+            systemConfigs.put(config.getConfigKey(), config.getConfigValue());
+        }
+
+        ScoringPlan plan = ScoringPlan.compile(Collections.unmodifiableMap(enabledByCategory),
+                parseDimensionWeights(systemConfigs.get(KEY_DEFAULT_RISK_WEIGHTS)));
+        RiskConfigSnapshot previous = snapshot;
+        RiskConfigSnapshot loaded = new RiskConfigSnapshot(++generation, LocalDateTime.now(),
+                Collections.unmodifiableList(indicators), Collections.unmodifiableMap(enabledByCategory),
+                Collections.unmodifiableMap(systemConfigs), plan,
+                parseFrequency(systemConfigs.get(KEY_RISK_CALCULATION_FREQUENCY)));
+        snapshot = loaded;
+
+        if (previous == null || !previous.getVersion().equals(loaded.getVersion())) {
+            log.info("风险配置已加载: 版本 {} (第 {} 次加载), 启用指标 {} 个, 维度权重 {}",
+                    loaded.getVersion(), loaded.getGeneration(), plan.getIndicatorCount(), plan.getDimensionWeights());
+        } else {
+            log.info("风险配置已重新加载, 内容未变化 (版本 {})", loaded.getVersion());
+        }
+        return loaded;
+    }
+
+    @Override
+    public void reloadAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reload();
+                }
+            });
+        } else {
+            reload();
+        }
+    }
+
+    /**
+     * 解析维度权重 JSON，如 {"economic":0.35,"social":0.25,...}；缺失或无效时按等权重计算
+     */
+    private DimensionWeights parseDimensionWeights(String json) {
+        if (json == null || json.isBlank()) {
+            log.warn("未配置 {}，综合得分按五个维度等权重计算", KEY_DEFAULT_RISK_WEIGHTS);
+            return DimensionWeights.EQUAL;
+        }
+        try {
+            Map<String, BigDecimal> raw = objectMapper.readValue(json, new TypeReference<Map<String, BigDecimal>>() {
+            });
+            Map<RiskDimension, BigDecimal> weights = new EnumMap<>(RiskDimension.class);
+            raw.forEach((key, value) -> weights.put(RiskDimension.valueOf(key.trim().toUpperCase()), value));
+            return DimensionWeights.of(weights);
+        } catch (Exception e) {
+            log.warn("{} 配置无效 ({}): {}，综合得分按五个维度等权重计算", KEY_DEFAULT_RISK_WEIGHTS, json, e.getMessage());
+            return DimensionWeights.EQUAL;
+        }
+    }
+
+    private Integer parseFrequency(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            int days = Integer.parseInt(value.trim());
+            return days > 0 ? days : null;
+        } catch (NumberFormatException e) {
+            log.warn("{} 配置无效: {}", KEY_RISK_CALCULATION_FREQUENCY, value);
+            return null;
+        }
+    }
+}
@@ -1,34 +1,37 @@
 package com.county.risk.service.impl;
 
-import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.county.risk.calculation.IndicatorFormula;
 import com.county.risk.entity.RiskIndicator;
 import com.county.risk.mapper.RiskIndicatorMapper;
+import com.county.risk.service.RiskConfigService;
 import com.county.risk.service.RiskIndicatorService;
+import com.county.risk.util.ConfigRecomputeDebouncer;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 import java.math.BigDecimal;
 
 /**
  * 风险指标服务实现类
  */
 @Service
+@RequiredArgsConstructor
 public class RiskIndicatorServiceImpl extends ServiceImpl<RiskIndicatorMapper, RiskIndicator>
         implements RiskIndicatorService {
 
+    private final RiskConfigService riskConfigService;
+    private final ConfigRecomputeDebouncer configRecomputeDebouncer;
+
     @Override
     public Map<String, List<RiskIndicator>> getIndicatorsByCategory() {
-        List<RiskIndicator> list = list(new LambdaQueryWrapper<RiskIndicator>()
-                .eq(RiskIndicator::getStatus, "启用")
-                .orderByDesc(RiskIndicator::getWeight));
-
         // 移除强制更新逻辑，确保用户修改的配置能够持久化
         // 如果需要初始化，应通过专门的初始化接口或数据库迁移脚本完成
 
-        return list.stream().collect(Collectors.groupingBy(RiskIndicator::getCategory));
+        // 读取配置快照，不访问数据库；指标配置写入后快照随之重新加载
+        return riskConfigService.getSnapshot().getEnabledByCategory();
     }
 
     private void setDefaultThresholds(RiskIndicator item, double high, double medium, double low) {
@@ -58,8 +61,21 @@ public class RiskIndicatorServiceImpl extends ServiceImpl<RiskIndicatorMapper, R
             existing.setUnit(indicator.getUnit());
         if (indicator.getComparisonOperator() != null)
             existing.setComparisonOperator(indicator.getComparisonOperator());
+        if (indicator.getFormula() != null) {
+            // 空字符串表示清除公式，恢复内置取值；非空公式保存前先编译校验
+            String formula = indicator.getFormula().trim();
+            if (!formula.isEmpty()) {
+                IndicatorFormula.compile(formula);
+            }
+            existing.setFormula(formula);
+        }
 
-        return updateById(existing);
+        boolean updated = updateById(existing);
+        if (updated) {
+            riskConfigService.reloadAfterCommit();
+            configRecomputeDebouncer.configChanged();
+        }
+        return updated;
     }
 
     @Override
@@ -110,5 +126,7 @@ public class RiskIndicatorServiceImpl extends ServiceImpl<RiskIndicatorMapper, R
         }
         boolean success = updateBatchById(indicators);
         System.out.println("Update batch result: " + success + ", updated " + indicators.size() + " indicators");
+        riskConfigService.reloadAfterCommit();
+        configRecomputeDebouncer.configChanged();
     }
 }
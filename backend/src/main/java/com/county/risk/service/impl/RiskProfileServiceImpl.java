@@ -0,0 +1,556 @@
+package com.county.risk.service.impl;
+
+import com.county.risk.calculation.BatchUpsertWriter;
+import com.county.risk.calculation.CalculationProgress;
+import com.county.risk.calculation.CalculationStats;
+import com.county.risk.calculation.CalculationStats.Phase;
+import com.county.risk.calculation.CountyScore;
+import com.county.risk.calculation.CountyScoringExecutor;
+import com.county.risk.calculation.CountySnapshotLoader;
+import com.county.risk.calculation.CountyYearFacts;
+import com.county.risk.calculation.DimensionWeights;
+import com.county.risk.calculation.LevelCutPoints;
+import com.county.risk.calculation.RiskConfigSnapshot;
+import com.county.risk.calculation.RiskDimension;
+import com.county.risk.calculation.RiskLevelClassifier;
+import com.county.risk.calculation.RiskScoringKernel;
+import com.county.risk.calculation.ScoreSketch;
+import com.county.risk.calculation.ScoringOutcome;
+import com.county.risk.calculation.ScoringPlan;
+import com.county.risk.calculation.YearSnapshot;
+import com.county.risk.dto.ProfileCalculationResultDTO;
+import com.county.risk.dto.ProfileComparisonDTO;
+import com.county.risk.dto.ProfileSaveRequestDTO;
+import com.county.risk.entity.ComprehensiveRiskAssessment;
+import com.county.risk.entity.CountyBasic;
+import com.county.risk.entity.RiskIndicator;
+import com.county.risk.entity.RiskIndicatorProfile;
+import com.county.risk.entity.RiskIndicatorProfileItem;
+import com.county.risk.entity.RiskProfileAssessment;
+import com.county.risk.mapper.CountyBasicMapper;
+import com.county.risk.mapper.RiskAssessmentMapper;
+import com.county.risk.mapper.RiskIndicatorProfileItemMapper;
+import com.county.risk.mapper.RiskIndicatorProfileMapper;
+import com.county.risk.mapper.RiskProfileAssessmentMapper;
+import com.county.risk.service.CalculationLedgerService;
+import com.county.risk.service.RiskConfigService;
+import com.county.risk.service.RiskProfileService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 指标配置方案服务实现类
+ * 方案保存时记录全部指标的完整配置，之后新增的指标不进入已保存的方案；计算时按方案编译计分计划，
+ * 不修改当前指标配置，也不写入 comprehensive_risk_assessment
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RiskProfileServiceImpl implements RiskProfileService {
+
+    private static final String ENABLED = "启用";
+    private static final String DISABLED = "停用";
+
+    /**
+     * major_risk_factors 中记录的主要风险因素数量，与正式计算一致
+     */
+    private static final int MAJOR_RISK_FACTOR_LIMIT = 3;
+
+    private final RiskIndicatorProfileMapper riskIndicatorProfileMapper;
+    private final RiskIndicatorProfileItemMapper riskIndicatorProfileItemMapper;
+    private final RiskProfileAssessmentMapper riskProfileAssessmentMapper;
+    private final RiskAssessmentMapper riskAssessmentMapper;
+    private final CountyBasicMapper countyBasicMapper;
+    private final RiskConfigService riskConfigService;
+    private final CountySnapshotLoader countySnapshotLoader;
+    private final CountyScoringExecutor countyScoringExecutor;
+    private final RiskLevelClassifier riskLevelClassifier;
+    private final CalculationLedgerService calculationLedgerService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${risk.calculation.write-batch-size:500}")
+    private int writeBatchSize;
+
+    @Override
+    public List<RiskIndicatorProfile> listProfiles() {
+        return riskIndicatorProfileMapper.selectLatestVersions();
+    }
+
+    @Override
+    public List<RiskIndicatorProfile> listVersions(String profileCode) {
+        return riskIndicatorProfileMapper.selectVersions(profileCode);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public RiskIndicatorProfile saveProfile(ProfileSaveRequestDTO request) {
+        String code = request.getProfileCode() != null ? request.getProfileCode().trim() : "";
+        if (code.isEmpty() || code.length() > 50 || code.contains("@")) {
+            throw new IllegalArgumentException("方案代码不能为空、不能包含 @ 且不超过 50 个字符");
+        }
+        RiskIndicatorProfile previous = riskIndicatorProfileMapper.selectLatestByCode(code);
+        RiskConfigSnapshot config = riskConfigService.getSnapshot();
+
+        // 以上一版本为基础（新方案以当前配置为基础），再按 indicatorId 覆盖请求中的非空字段
+        List<RiskIndicator> indicators = previous != null
+                ? applyItems(config.getIndicators(), riskIndicatorProfileItemMapper.selectByProfileId(previous.getProfileId()))
+                : config.getIndicators().stream().map(this::copyOf).collect(Collectors.toList());
+        applyOverrides(indicators, request.getIndicators());
+
+        // 未指定维度权重时沿用上一版本，否则保存当前 DEFAULT_RISK_WEIGHTS 的快照，已保存的版本不随系统配置变化
+        String weightsJson = request.getDimensionWeights() != null
+                ? toWeightsJson(request.getDimensionWeights())
+                : previous != null && previous.getDimensionWeights() != null
+                ? previous.getDimensionWeights()
+                : toWeightsJson(config.getDimensionWeights());
+        // 保存前编译一次，取值公式与维度权重无效时直接拒绝
+        ScoringPlan plan = ScoringPlan.compile(groupEnabled(indicators), weightsOf(weightsJson, config));
+
+        RiskIndicatorProfile profile = new RiskIndicatorProfile();
+        profile.setProfileCode(code);
+        profile.setVersion(previous != null ? previous.getVersion() + 1 : 1);
+        profile.setProfileName(request.getProfileName() != null && !request.getProfileName().isBlank()
+                ? request.getProfileName().trim()
+                : previous != null ? previous.getProfileName() : code);
+        profile.setDescription(request.getDescription() != null ? request.getDescription()
+                : previous != null ? previous.getDescription() : null);
+        profile.setDimensionWeights(weightsJson);
+        profile.setConfigVersion(plan.getConfigVersion());
+        profile.setCreatedAt(LocalDateTime.now());
+        try {
+            riskIndicatorProfileMapper.insert(profile);
+        } catch (DuplicateKeyException e) {
+            throw new IllegalArgumentException("方案 " + code + " 正在被同时保存，请刷新后重试");
+        }
+
+        List<RiskIndicatorProfileItem> items = new ArrayList<>(indicators.size());
+        for (RiskIndicator indicator : indicators) {
+            RiskIndicatorProfileItem item = new RiskIndicatorProfileItem();
+            item.setProfileId(profile.getProfileId());
+            item.setIndicatorId(indicator.getIndicatorId());
+            item.setWeight(indicator.getWeight());
+            item.setThresholdHigh(indicator.getThresholdHigh());
+            item.setThresholdMedium(indicator.getThresholdMedium());
+            item.setThresholdLow(indicator.getThresholdLow());
+            item.setComparisonOperator(indicator.getComparisonOperator());
+            item.setFormula(indicator.getFormula());
+            item.setStatus(indicator.getStatus());
+            items.add(item);
+        }
+        if (!items.isEmpty()) {
+            riskIndicatorProfileItemMapper.insertBatch(items);
+        }
+        log.info("指标配置方案已保存: {} (配置版本 {}, 启用指标 {} 个, 维度权重 {})",
+                refOf(profile), plan.getConfigVersion(), plan.getIndicatorCount(), plan.getDimensionWeights());
+        return profile;
+    }
+
+    @Override
+    public ProfileCalculationResultDTO calculateProfiles(List<String> profileRefs, Integer year,
+                                                         CalculationProgress progress) {
+        if (profileRefs == null || profileRefs.isEmpty()) {
+            throw new IllegalArgumentException("至少需要一个方案");
+        }
+        Map<Integer, RiskIndicatorProfile> byId = new LinkedHashMap<>();
+        for (String ref : profileRefs) {
+            RiskIndicatorProfile profile = resolve(ref);
+            byId.putIfAbsent(profile.getProfileId(), profile);
+        }
+        List<RiskIndicatorProfile> profiles = new ArrayList<>(byId.values());
+
+        List<Integer> yearsWithData = riskAssessmentMapper.getYearsWithData();
+        List<Integer> years;
+        if (year != null) {
+            if (yearsWithData == null || !yearsWithData.contains(year)) {
+                throw new IllegalArgumentException(year + " 年没有源数据");
+            }
+            years = List.of(year);
+        } else {
+            years = yearsWithData != null ? yearsWithData : List.of();
+        }
+
+        String scope = "方案 " + profiles.stream().map(RiskProfileServiceImpl::refOf).collect(Collectors.joining(","))
+                + (year != null ? " / " + year + " 年" : " / 全部年份");
+        return calculationLedgerService.record(CalculationLedgerService.RUN_PROFILES, scope, progress,
+                tracked -> calculateTracked(profiles, years, tracked));
+    }
+
+    private ProfileCalculationResultDTO calculateTracked(List<RiskIndicatorProfile> profiles, List<Integer> years,
+                                                         CalculationProgress progress) {
+        long start = System.currentTimeMillis();
+        CalculationStats stats = progress.stats();
+        RiskConfigSnapshot config = riskConfigService.getSnapshot();
+        List<ScoringPlan> plans = new ArrayList<>(profiles.size());
+        for (RiskIndicatorProfile profile : profiles) {
+            plans.add(compilePlan(profile, config));
+        }
+        stats.setConfigVersion(plans.stream().map(ScoringPlan::getConfigVersion).collect(Collectors.joining(",")));
+        stats.setCalculationMode("SNAPSHOT");
+        log.info("开始按方案计算: {}, 年份 {}", profiles.stream().map(RiskProfileServiceImpl::refOf).collect(Collectors.toList()), years);
+
+        List<CountyBasic> counties = stats.time(Phase.READ, () -> countyBasicMapper.selectList(null));
+        for (Integer y : years) {
+            progress.yearPlanned(y, counties.size());
+        }
+        int countyYears = 0;
+        int failed = 0;
+        for (Integer y : years) {
+            // 每年的源数据只读取一次，所有方案共用
+            YearSnapshot snapshot = stats.time(Phase.READ, () -> countySnapshotLoader.loadYear(y));
+            List<CountyYearFacts> inputs = counties.stream()
+                    .map(county -> snapshot.get(county.getCountyCode()))
+                    .collect(Collectors.toList());
+
+            // 每个县域依次用各方案计分，县域的源数据在一次处理中被所有方案复用
+            ScoringOutcome<CountyScore[]> outcome = stats.time(Phase.COMPUTE, () -> countyScoringExecutor.execute(
+                    inputs,
+                    facts -> {
+                        try {
+                            CountyScore[] scores = new CountyScore[plans.size()];
+                            for (int p = 0; p < plans.size(); p++) {
+                                scores[p] = RiskScoringKernel.score(facts, plans.get(p), true);
+                            }
+                            return scores;
+                        } finally {
+                            progress.countiesDone(facts.getYear(), 1);
+                        }
+                    },
+                    facts -> facts.getCountyCode() + "/" + facts.getYear(),
+                    null,
+                    progress::isCancelled));
+            stats.counted((long) outcome.getSuccessCount() * plans.size(), (long) outcome.getFailCount() * plans.size());
+
+            stats.time(Phase.LEVEL, () -> assignLevels(outcome.getResults(), plans.size()));
+
+            LocalDateTime assessmentDate = LocalDateTime.now();
+            stats.time(Phase.WRITE, () -> {
+                try (BatchUpsertWriter<RiskProfileAssessment> writer = new BatchUpsertWriter<>(
+                        "方案评估", riskProfileAssessmentMapper::upsertBatch, writeBatchSize)) {
+                    for (CountyScore[] scores : outcome.getResults()) {
+                        for (int p = 0; p < scores.length; p++) {
+                            writer.add(toProfileAssessment(profiles.get(p).getProfileId(), scores[p], assessmentDate));
+                        }
+                    }
+                }
+            });
+            countyYears += outcome.getSuccessCount();
+            failed += outcome.getFailCount() * plans.size();
+            log.info("{} 年方案计算完成: {} 个方案, 成功 {} 个县域, 失败 {}", y, plans.size(),
+                    outcome.getSuccessCount(), outcome.getFailCount());
+        }
+
+        ProfileCalculationResultDTO result = new ProfileCalculationResultDTO();
+        result.setProfiles(profiles.stream().map(RiskProfileServiceImpl::refOf).collect(Collectors.toList()));
+        result.setYears(years);
+        result.setCountyYearCount(countyYears);
+        result.setFailCount(failed);
+        result.setElapsedMs(System.currentTimeMillis() - start);
+        return result;
+    }
+
+    /**
+     * 按方案分别划分风险等级；分位数模式下每个方案按自己的得分分布计算分界点
+     */
+    private void assignLevels(List<CountyScore[]> results, int planCount) {
+        for (int p = 0; p < planCount; p++) {
+            LevelCutPoints cuts = null;
+            if (riskLevelClassifier.isQuantileMode()) {
+                ScoreSketch sketch = new ScoreSketch();
+                for (CountyScore[] scores : results) {
+                    sketch.add(scores[p].getComprehensiveScore());
+                }
+                cuts = riskLevelClassifier.quantileCutPoints(sketch);
+            }
+            for (CountyScore[] scores : results) {
+                CountyScore score = scores[p];
+                score.setRiskLevel(cuts != null
+                        ? cuts.classify(score.getComprehensiveScore())
+                        : riskLevelClassifier.classify(score.getComprehensiveScore()));
+                score.setMajorRiskFactors(score.topRiskFactors(MAJOR_RISK_FACTOR_LIMIT));
+            }
+        }
+    }
+
+    @Override
+    public ProfileComparisonDTO compare(String baseRef, String otherRef, Integer year, boolean changedOnly) {
+        RiskIndicatorProfile base = resolve(baseRef);
+        RiskIndicatorProfile other = resolve(otherRef);
+        if (year == null) {
+            // 未指定年份时取两个方案都有结果的最近一年
+            List<Integer> otherYears = riskProfileAssessmentMapper.selectYears(other.getProfileId());
+            year = riskProfileAssessmentMapper.selectYears(base.getProfileId()).stream()
+                    .filter(otherYears::contains)
+                    .max(Integer::compare)
+                    .orElse(null);
+        }
+
+        ProfileComparisonDTO result = new ProfileComparisonDTO();
+        result.setBaseProfile(refOf(base));
+        result.setOtherProfile(refOf(other));
+        result.setYear(year);
+        List<ProfileComparisonDTO.CountyDiff> diffs = new ArrayList<>();
+        if (year == null) {
+            result.setCounties(diffs);
+            return result;
+        }
+
+        Map<String, Integer> rank = new HashMap<>();
+        for (int i = 0; i < RiskLevelClassifier.LEVELS.length; i++) {
+            // LEVELS 从高到低排列，数值越大风险越高
+            rank.put(RiskLevelClassifier.LEVELS[i], RiskLevelClassifier.LEVELS.length - i);
+        }
+        int countyCount = 0;
+        int changed = 0;
+        int up = 0;
+        int down = 0;
+        for (Map<String, Object> row : riskProfileAssessmentMapper.compare(base.getProfileId(), other.getProfileId(), year)) {
+            countyCount++;
+            ProfileComparisonDTO.CountyDiff diff = new ProfileComparisonDTO.CountyDiff();
+            diff.setCountyCode((String) row.get("countyCode"));
+            diff.setCountyName((String) row.get("countyName"));
+            diff.setProvinceName((String) row.get("provinceName"));
+            diff.setBaseScore((BigDecimal) row.get("baseScore"));
+            diff.setOtherScore((BigDecimal) row.get("otherScore"));
+            if (diff.getBaseScore() != null && diff.getOtherScore() != null) {
+                diff.setDelta(diff.getOtherScore().subtract(diff.getBaseScore()));
+            }
+            diff.setBaseLevel((String) row.get("baseLevel"));
+            diff.setOtherLevel((String) row.get("otherLevel"));
+            int baseRank = rank.getOrDefault(diff.getBaseLevel(), 0);
+            int otherRank = rank.getOrDefault(diff.getOtherLevel(), 0);
+            diff.setLevelChanged(baseRank != otherRank);
+            if (diff.isLevelChanged()) {
+                changed++;
+                if (otherRank > baseRank) {
+                    up++;
+                } else {
+                    down++;
+                }
+            }
+            if (!changedOnly || diff.isLevelChanged()) {
+                diffs.add(diff);
+            }
+        }
+        result.setCountyCount(countyCount);
+        result.setLevelChangedCount(changed);
+        result.setLevelUpCount(up);
+        result.setLevelDownCount(down);
+        result.setCounties(diffs);
+        return result;
+    }
+
+    /**
+     * 解析 方案代码 或 方案代码@版本
+     */
+    private RiskIndicatorProfile resolve(String ref) {
+        String text = ref != null ? ref.trim() : "";
+        int at = text.lastIndexOf('@');
+        RiskIndicatorProfile profile;
+        if (at > 0) {
+            int version;
+            try {
+                version = Integer.parseInt(text.substring(at + 1).trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("方案版本无效: " + text);
+            }
+            profile = riskIndicatorProfileMapper.selectByCodeAndVersion(text.substring(0, at).trim(), version);
+        } else {
+            profile = text.isEmpty() ? null : riskIndicatorProfileMapper.selectLatestByCode(text);
+        }
+        if (profile == null) {
+            throw new IllegalArgumentException("方案不存在: " + text);
+        }
+        return profile;
+    }
+
+    private ScoringPlan compilePlan(RiskIndicatorProfile profile, RiskConfigSnapshot config) {
+        List<RiskIndicator> indicators = applyItems(config.getIndicators(),
+                riskIndicatorProfileItemMapper.selectByProfileId(profile.getProfileId()));
+        return ScoringPlan.compile(groupEnabled(indicators), weightsOf(profile.getDimensionWeights(), config));
+    }
+
+    /**
+     * 用方案明细覆盖当前指标的权重、阈值、比较方向、公式与状态；方案中没有的指标（保存之后新增）视为停用，
+     * 方案中已删除的指标不再参与计算
+     */
+    private List<RiskIndicator> applyItems(List<RiskIndicator> current, List<RiskIndicatorProfileItem> items) {
+        Map<Integer, RiskIndicatorProfileItem> itemById = new HashMap<>();
+        for (RiskIndicatorProfileItem item : items) {
+            itemById.put(item.getIndicatorId(), item);
+        }
+        List<RiskIndicator> result = new ArrayList<>(current.size());
+        for (RiskIndicator indicator : current) {
+            RiskIndicator copy = copyOf(indicator);
+            RiskIndicatorProfileItem item = itemById.get(indicator.getIndicatorId());
+            if (item == null) {
+                copy.setStatus(DISABLED);
+            } else {
+                copy.setWeight(item.getWeight());
+                copy.setThresholdHigh(item.getThresholdHigh());
+                copy.setThresholdMedium(item.getThresholdMedium());
+                copy.setThresholdLow(item.getThresholdLow());
+                copy.setComparisonOperator(item.getComparisonOperator());
+                copy.setFormula(item.getFormula());
+                copy.setStatus(item.getStatus());
+            }
+            result.add(copy);
+        }
+        return result;
+    }
+
+    /**
+     * 按 indicatorId 用请求中非空的字段覆盖（就地修改），空字符串公式表示恢复内置取值
+     */
+    private void applyOverrides(List<RiskIndicator> indicators, List<RiskIndicator> overrides) {
+        if (overrides == null) {
+            return;
+        }
+        Map<Integer, RiskIndicator> overrideById = new HashMap<>();
+        for (RiskIndicator o : overrides) {
+            if (o.getIndicatorId() != null) {
+                overrideById.put(o.getIndicatorId(), o);
+            }
+        }
+        for (RiskIndicator indicator : indicators) {
+            RiskIndicator o = overrideById.get(indicator.getIndicatorId());
+            if (o == null) {
+                continue;
+            }
+            if (o.getWeight() != null) indicator.setWeight(o.getWeight());
+            if (o.getThresholdHigh() != null) indicator.setThresholdHigh(o.getThresholdHigh());
+            if (o.getThresholdMedium() != null) indicator.setThresholdMedium(o.getThresholdMedium());
+            if (o.getThresholdLow() != null) indicator.setThresholdLow(o.getThresholdLow());
+            if (o.getComparisonOperator() != null) indicator.setComparisonOperator(o.getComparisonOperator());
+            if (o.getFormula() != null) indicator.setFormula(o.getFormula().trim());
+            if (o.getStatus() != null) {
+                if (!ENABLED.equals(o.getStatus()) && !DISABLED.equals(o.getStatus())) {
+                    throw new IllegalArgumentException("指标状态无效: " + o.getStatus());
+                }
+                indicator.setStatus(o.getStatus());
+            }
+        }
+    }
+
+    private RiskIndicator copyOf(RiskIndicator source) {
+        RiskIndicator copy = new RiskIndicator();
+        copy.setIndicatorId(source.getIndicatorId());
+        copy.setIndicatorCode(source.getIndicatorCode());
+        copy.setIndicatorName(source.getIndicatorName());
+        copy.setCategory(source.getCategory());
+        copy.setSubcategory(source.getSubcategory());
+        copy.setWeight(source.getWeight());
+        copy.setThresholdHigh(source.getThresholdHigh());
+        copy.setThresholdMedium(source.getThresholdMedium());
+        copy.setThresholdLow(source.getThresholdLow());
+        copy.setUnit(source.getUnit());
+        copy.setComparisonOperator(source.getComparisonOperator());
+        copy.setFormula(source.getFormula());
+        copy.setStatus(source.getStatus());
+        return copy;
+    }
+
+    /**
+     * 与 getIndicatorsByCategory 一致：只保留启用的指标，按权重降序后按类别分组
+     */
+    private Map<String, List<RiskIndicator>> groupEnabled(List<RiskIndicator> indicators) {
+        return indicators.stream()
+                .filter(i -> ENABLED.equals(i.getStatus()))
+                .sorted(Comparator.comparing(RiskIndicator::getWeight,
+                        Comparator.nullsFirst(Comparator.<BigDecimal>naturalOrder())).reversed())
+                .collect(Collectors.groupingBy(RiskIndicator::getCategory));
+    }
+
+    /**
+     * 校验维度权重并转为 JSON 保存，键统一为小写维度名
+     */
+    private String toWeightsJson(Map<String, BigDecimal> weights) {
+        Map<RiskDimension, BigDecimal> byDimension = new EnumMap<>(RiskDimension.class);
+        weights.forEach((key, value) -> byDimension.put(dimensionOf(key), value));
+        DimensionWeights.of(byDimension);
+        Map<String, BigDecimal> normalized = new LinkedHashMap<>();
+        byDimension.forEach((dimension, value) -> normalized.put(dimension.name().toLowerCase(), value));
+        try {
+            return objectMapper.writeValueAsString(normalized);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("维度权重无效: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 保存时的维度权重快照转为 JSON
+     */
+    private String toWeightsJson(DimensionWeights weights) {
+        Map<String, BigDecimal> byDimension = new LinkedHashMap<>();
+        for (RiskDimension dimension : RiskDimension.values()) {
+            byDimension.put(dimension.name().toLowerCase(), weights.get(dimension));
+        }
+        return toWeightsJson(byDimension);
+    }
+
+    /**
+     * 方案的维度权重；只有早期保存、未记录权重的版本使用当前 DEFAULT_RISK_WEIGHTS
+     */
+    private DimensionWeights weightsOf(String json, RiskConfigSnapshot config) {
+        if (json == null || json.isBlank()) {
+            return config.getDimensionWeights();
+        }
+        try {
+            Map<String, BigDecimal> raw = objectMapper.readValue(json, new TypeReference<Map<String, BigDecimal>>() {
+            });
+            Map<RiskDimension, BigDecimal> byDimension = new EnumMap<>(RiskDimension.class);
+            raw.forEach((key, value) -> byDimension.put(dimensionOf(key), value));
+            return DimensionWeights.of(byDimension);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("维度权重无效: " + e.getMessage());
+        }
+    }
+
+    private static RiskDimension dimensionOf(String key) {
+        try {
+            return RiskDimension.valueOf(key.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("未知维度: " + key);
+        }
+    }
+
+    private static RiskProfileAssessment toProfileAssessment(Integer profileId, CountyScore score,
+                                                             LocalDateTime assessmentDate) {
+        ComprehensiveRiskAssessment a = score.toAssessment(assessmentDate);
+        RiskProfileAssessment row = new RiskProfileAssessment();
+        row.setProfileId(profileId);
+        row.setCountyCode(a.getCountyCode());
+        row.setYear(a.getYear());
+        row.setEconomicRiskScore(a.getEconomicRiskScore());
+        row.setSocialRiskScore(a.getSocialRiskScore());
+        row.setEnvironmentRiskScore(a.getEnvironmentRiskScore());
+        row.setGovernanceRiskScore(a.getGovernanceRiskScore());
+        row.setDevelopmentRiskScore(a.getDevelopmentRiskScore());
+        row.setComprehensiveRiskScore(a.getComprehensiveRiskScore());
+        row.setRiskLevel(a.getRiskLevel());
+        row.setMajorRiskFactors(a.getMajorRiskFactors());
+        row.setAssessmentDate(assessmentDate);
+        return row;
+    }
+
+    private static String refOf(RiskIndicatorProfile profile) {
+        return profile.getProfileCode() + "@" + profile.getVersion();
+    }
+}
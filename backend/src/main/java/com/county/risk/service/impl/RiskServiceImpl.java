@@ -4,9 +4,12 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.county.risk.entity.ComprehensiveRiskAssessment;
 import com.county.risk.mapper.RiskAssessmentMapper;
+import com.county.risk.mapper.RiskScoreMapper;
 import com.county.risk.service.RiskService;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -17,6 +20,9 @@ import java.util.Map;
 public class RiskServiceImpl extends ServiceImpl<RiskAssessmentMapper, ComprehensiveRiskAssessment> 
         implements RiskService {
     
+    @Autowired
+    private RiskScoreMapper riskScoreMapper;
+    
     @Override
     public List<ComprehensiveRiskAssessment> getRiskByLevel(String level) {
         LambdaQueryWrapper<ComprehensiveRiskAssessment> wrapper = new LambdaQueryWrapper<>();
@@ -72,4 +78,17 @@ public class RiskServiceImpl extends ServiceImpl<RiskAssessmentMapper, Comprehen
         }
         return baseMapper.getRiskListWithCountyInfo(level, provinceName, targetYear);
     }
+    
+    @Override
+    public Map<String, Object> getRiskBreakdown(String countyCode, Integer year) {
+        ComprehensiveRiskAssessment assessment = getCountyRisk(countyCode, year);
+        if (assessment == null) {
+            return null;
+        }
+        // 单项得分在计算时已写入 risk_scores，这里只按唯一索引读取，不重新计算
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("assessment", assessment);
+        result.put("indicators", riskScoreMapper.selectBreakdown(countyCode, assessment.getYear()));
+        return result;
+    }
 }
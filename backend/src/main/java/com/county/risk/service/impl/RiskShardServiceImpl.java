@@ -0,0 +1,555 @@
+package com.county.risk.service.impl;
+
+import com.county.risk.calculation.CalculationProgress;
+import com.county.risk.calculation.CalculationStats;
+import com.county.risk.calculation.RiskConfigSnapshot;
+import com.county.risk.calculation.ScoringPlan;
+import com.county.risk.entity.RiskCalculationRun;
+import com.county.risk.entity.RiskCalculationShard;
+import com.county.risk.mapper.CountyBasicMapper;
+import com.county.risk.mapper.RiskCalculationRunMapper;
+import com.county.risk.mapper.RiskCalculationShardMapper;
+import com.county.risk.service.RiskCalculationService;
+import com.county.risk.service.RiskConfigService;
+import com.county.risk.service.RiskShardService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * 多节点分片计算服务实现类
+ *
+ * 发起节点创建运行与分片后自己也领取分片处理，同时定期刷新运行心跳；其他节点的工作线程发现心跳有效的运行后
+ * 核对配置版本并领取分片。处理分片期间后台定时续约，续约失败（租约已被接管）时中止该分片。
+ * 节点失联后其分片租约到期，由其他节点重新领取；计算结果按 (county_code, year) upsert，重复计算不影响结果。
+ * 全历史计算的运行记录同时作为检查点：进程重启或运行失败后，下一次计算接管同配置版本的未完成运行，
+ * 只处理尚未完成的分片或整年单元。
+ */
+@Slf4j
+@Service
+public class RiskShardServiceImpl implements RiskShardService {
+
+    public static final String SHARD_PENDING = "PENDING";
+    public static final String SHARD_RUNNING = "RUNNING";
+    public static final String SHARD_DONE = "DONE";
+    public static final String SHARD_FAILED = "FAILED";
+
+    /**
+     * 单节点整年计算的检查点单元使用的省份名
+     */
+    public static final String WHOLE_YEAR = "*";
+
+    private static final int INSERT_BATCH_SIZE = 500;
+
+    /**
+     * 发起节点持续领取到分片时，汇总其他节点完成进度的间隔
+     */
+    private static final long PROGRESS_REPORT_MS = 5000;
+
+    private final RiskCalculationRunMapper runMapper;
+    private final RiskCalculationShardMapper shardMapper;
+    private final ObjectProvider<RiskCalculationService> riskCalculationService;
+    private final RiskConfigService riskConfigService;
+    private final CountyBasicMapper countyBasicMapper;
+    private final boolean enabled;
+    private final String nodeId;
+    private final int leaseSeconds;
+    private final long pollIntervalMs;
+    private final int maxAttempts;
+    private final ScheduledExecutorService renewer;
+    private final Map<String, ScheduledFuture<?>> heartbeats = new ConcurrentHashMap<>();
+
+    public RiskShardServiceImpl(RiskCalculationRunMapper runMapper,
+                                RiskCalculationShardMapper shardMapper,
+                                ObjectProvider<RiskCalculationService> riskCalculationService,
+                                RiskConfigService riskConfigService,
+                                CountyBasicMapper countyBasicMapper,
+                                @Value("${risk.cluster.enabled:false}") boolean enabled,
+                                @Value("${risk.cluster.node-id:}") String nodeId,
+                                @Value("${risk.cluster.lease-seconds:60}") int leaseSeconds,
+                                @Value("${risk.cluster.poll-interval-ms:2000}") long pollIntervalMs,
+                                @Value("${risk.cluster.max-attempts:3}") int maxAttempts) {
+        this.runMapper = runMapper;
+        this.shardMapper = shardMapper;
+        this.riskCalculationService = riskCalculationService;
+        this.riskConfigService = riskConfigService;
+        this.countyBasicMapper = countyBasicMapper;
+        this.enabled = enabled;
+        this.nodeId = nodeId != null && !nodeId.isBlank() ? nodeId : defaultNodeId();
+        this.leaseSeconds = Math.max(10, leaseSeconds);
+        this.pollIntervalMs = Math.max(100, pollIntervalMs);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.renewer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "risk-shard-lease");
+            t.setDaemon(true);
+            return t;
+        });
+        if (enabled) {
+            log.info("分片计算已启用: 节点 {}, 租约 {} 秒, 轮询间隔 {} ms, 最大领取次数 {}",
+                    this.nodeId, this.leaseSeconds, this.pollIntervalMs, this.maxAttempts);
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public Map<Integer, Integer> runSharded(String runType, List<Integer> years, ScoringPlan plan,
+                                            CalculationProgress progress) {
+        RiskCalculationRun run = createRun(runType, years, plan);
+        startHeartbeat(run.getRunId());
+        Map<Integer, Integer> failedByYear;
+        try {
+            failedByYear = processShards(run, years, plan, progress);
+        } catch (CancellationException e) {
+            finishRun(run.getRunId(), RUN_CANCELLED);
+            throw e;
+        } catch (RuntimeException e) {
+            finishRun(run.getRunId(), RUN_FAILED);
+            throw e;
+        }
+        finishRun(run.getRunId(), RUN_SUCCEEDED);
+        return failedByYear;
+    }
+
+    @Override
+    public RiskCalculationRun openRun(String runType, List<Integer> years, ScoringPlan plan) {
+        RiskCalculationRun run = runMapper.selectResumable(runType, staleSeconds());
+        if (run != null && !plan.getConfigVersion().equals(run.getConfigVersion())) {
+            log.info("未完成的运行 {} 使用配置版本 {}，与当前版本 {} 不一致，不再接管",
+                    run.getRunId(), run.getConfigVersion(), plan.getConfigVersion());
+            run = null;
+        }
+        if (run != null) {
+            Set<Integer> merged = new TreeSet<>(parseYears(run.getYears()));
+            merged.addAll(years);
+            String mergedYears = joinYears(merged);
+            if (runMapper.resume(run.getRunId(), nodeId, mergedYears, staleSeconds()) == 0) {
+                log.info("运行 {} 已被其他节点接管", run.getRunId());
+                run = null;
+            } else {
+                int reset = shardMapper.resetFailed(run.getRunId());
+                log.info("接管未完成的运行 {} (原状态 {}, 原发起节点 {}): 年份 {}, 重置失败分片 {}",
+                        run.getRunId(), run.getStatus(), run.getCoordinatorNode(), mergedYears, reset);
+                run.setYears(mergedYears);
+                run.setStatus(RUN_RUNNING);
+                run.setCoordinatorNode(nodeId);
+            }
+        }
+        if (run == null) {
+            if (years.isEmpty()) {
+                return null;
+            }
+            run = createRun(runType, years, plan);
+        }
+        int abandoned = runMapper.abandonOthers(runType, run.getRunId(), staleSeconds());
+        if (abandoned > 0) {
+            log.info("放弃 {} 个同类型的未完成运行", abandoned);
+        }
+        startHeartbeat(run.getRunId());
+        return run;
+    }
+
+    @Override
+    public List<Integer> pendingYears(RiskCalculationRun run) {
+        Set<Integer> wholeYearDone = new HashSet<>();
+        Map<Integer, int[]> provinceUnits = new HashMap<>();
+        for (RiskCalculationShard shard : shardMapper.selectByRun(run.getRunId())) {
+            boolean done = SHARD_DONE.equals(shard.getStatus());
+            if (WHOLE_YEAR.equals(shard.getProvinceName())) {
+                if (done) {
+                    wholeYearDone.add(shard.getYear());
+                }
+            } else {
+                int[] units = provinceUnits.computeIfAbsent(shard.getYear(), y -> new int[2]);
+                units[0]++;
+                if (done) {
+                    units[1]++;
+                }
+            }
+        }
+        List<Integer> pending = new ArrayList<>();
+        for (Integer year : parseYears(run.getYears())) {
+            int[] units = provinceUnits.get(year);
+            boolean done = wholeYearDone.contains(year) || (units != null && units[0] == units[1]);
+            if (!done) {
+                pending.add(year);
+            }
+        }
+        return pending;
+    }
+
+    @Override
+    public Map<Integer, Integer> processShards(RiskCalculationRun run, List<Integer> years, ScoringPlan plan,
+                                               CalculationProgress progress) {
+        String runId = run.getRunId();
+        int shardCount = ensureShards(runId, years, progress);
+        log.info("分片计算运行 {}: {} 个年份, {} 个分片, 配置版本 {}",
+                runId, years.size(), shardCount, plan.getConfigVersion());
+
+        // 接管运行时之前已结束的分片不计入本次进度
+        Set<Long> reported = new HashSet<>();
+        shardMapper.selectFinished(runId).forEach(shard -> reported.add(shard.getId()));
+        long lastReport = 0;
+        while (true) {
+            if (progress.isCancelled()) {
+                throw new CancellationException("分片计算已取消");
+            }
+            boolean processed = processOne(run, plan, progress);
+            if (!processed || System.currentTimeMillis() - lastReport >= PROGRESS_REPORT_MS) {
+                reportFinished(runId, reported, progress);
+                lastReport = System.currentTimeMillis();
+            }
+            if (processed) {
+                continue;
+            }
+            Map<String, Long> counts = countByStatus(runId);
+            long open = counts.getOrDefault(SHARD_PENDING, 0L) + counts.getOrDefault(SHARD_RUNNING, 0L);
+            if (open == 0) {
+                break;
+            }
+            // 剩余分片都在其他节点处理中，等待完成或租约到期后重新领取
+            sleep(pollIntervalMs);
+        }
+        reportFinished(runId, reported, progress);
+
+        Set<Integer> requested = new HashSet<>(years);
+        Map<Integer, Integer> failedByYear = new TreeMap<>();
+        int failedShards = 0;
+        Map<String, Long> countiesByNode = new TreeMap<>();
+        for (RiskCalculationShard shard : shardMapper.selectFinished(runId)) {
+            if (WHOLE_YEAR.equals(shard.getProvinceName()) || !requested.contains(shard.getYear())) {
+                continue;
+            }
+            int failed;
+            if (SHARD_FAILED.equals(shard.getStatus())) {
+                failedShards++;
+                failed = shard.getCountyCount();
+            } else {
+                failed = shard.getFailedCount() != null ? shard.getFailedCount() : 0;
+                countiesByNode.merge(String.valueOf(shard.getOwnerNode()), (long) shard.getCountyCount(), Long::sum);
+            }
+            if (failed > 0) {
+                failedByYear.merge(shard.getYear(), failed, Integer::sum);
+            }
+        }
+        log.info("分片计算运行 {} 的分片处理结束: 失败分片 {}, 各节点完成县域数 {}", runId, failedShards, countiesByNode);
+        return failedByYear;
+    }
+
+    @Override
+    public void checkpointYears(String runId, Collection<Integer> years, Map<Integer, Integer> failedByYear) {
+        // 按整年处理后，之前按省份分片处理但未完成的分片不再需要
+        shardMapper.deleteUnfinished(runId, false);
+        int counties = Math.toIntExact(countyBasicMapper.selectCount(null));
+        for (Integer year : years) {
+            shardMapper.checkpointYear(runId, year, nodeId, counties, failedByYear.getOrDefault(year, 0));
+        }
+        runMapper.refreshTotalShards(runId);
+        log.info("运行 {} 检查点: {} 年已完成", runId, years);
+    }
+
+    @Override
+    public void finishRun(String runId, String status) {
+        ScheduledFuture<?> heartbeat = heartbeats.remove(runId);
+        if (heartbeat != null) {
+            heartbeat.cancel(false);
+        }
+        if (RUN_SUCCEEDED.equals(status) && countByStatus(runId).getOrDefault(SHARD_FAILED, 0L) > 0) {
+            status = RUN_FAILED;
+        }
+        runMapper.finish(runId, status);
+        log.info("运行 {} 结束: {}", runId, status);
+    }
+
+    @Override
+    public int processActiveRuns() {
+        int processed = 0;
+        for (RiskCalculationRun run : runMapper.selectActiveRuns(staleSeconds())) {
+            if (nodeId.equals(run.getCoordinatorNode())) {
+                // 本节点发起的运行由发起线程处理
+                continue;
+            }
+            ScoringPlan plan = planFor(run);
+            if (plan == null) {
+                continue;
+            }
+            while (isRunning(run.getRunId()) && processOne(run, plan, CalculationProgress.NONE)) {
+                processed++;
+            }
+        }
+        return processed;
+    }
+
+    private RiskCalculationRun createRun(String runType, List<Integer> years, ScoringPlan plan) {
+        RiskCalculationRun run = new RiskCalculationRun();
+        run.setRunId(UUID.randomUUID().toString());
+        run.setRunType(runType);
+        run.setStatus(RUN_RUNNING);
+        run.setCoordinatorNode(nodeId);
+        run.setConfigVersion(plan.getConfigVersion());
+        run.setYears(joinYears(years));
+        run.setTotalShards(0);
+        runMapper.insert(run);
+        log.info("计算运行 {} 已创建: 类型 {}, 年份 {}, 配置版本 {}",
+                run.getRunId(), runType, run.getYears(), plan.getConfigVersion());
+        return run;
+    }
+
+    /**
+     * 为给定年份补建 (省份, 年份) 分片并登记进度；同一运行之前按整年处理但未完成的单元删除，由分片取代
+     *
+     * @return 运行的分片总数
+     */
+    private int ensureShards(String runId, List<Integer> years, CalculationProgress progress) {
+        shardMapper.deleteUnfinished(runId, true);
+        List<RiskCalculationShard> shards = new ArrayList<>();
+        List<Map<String, Object>> provinces = shardMapper.countCountiesByProvince();
+        int counties = provinces.stream().mapToInt(p -> ((Number) p.get("cnt")).intValue()).sum();
+        for (Integer year : years) {
+            progress.yearPlanned(year, counties);
+            for (Map<String, Object> province : provinces) {
+                RiskCalculationShard shard = new RiskCalculationShard();
+                shard.setRunId(runId);
+                shard.setProvinceName((String) province.get("province"));
+                shard.setYear(year);
+                shard.setCountyCount(((Number) province.get("cnt")).intValue());
+                shards.add(shard);
+            }
+        }
+        for (int i = 0; i < shards.size(); i += INSERT_BATCH_SIZE) {
+            shardMapper.insertBatch(shards.subList(i, Math.min(shards.size(), i + INSERT_BATCH_SIZE)));
+        }
+        runMapper.refreshTotalShards(runId);
+        return runMapper.selectById(runId).getTotalShards();
+    }
+
+    /**
+     * 发起节点心跳：心跳过期的运行其他节点不再领取，并可由下一次计算接管
+     */
+    private void startHeartbeat(String runId) {
+        runMapper.heartbeat(runId);
+        ScheduledFuture<?> heartbeat = renewer.scheduleAtFixedRate(() -> {
+            try {
+                runMapper.heartbeat(runId);
+            } catch (Exception e) {
+                log.warn("运行 {} 心跳刷新失败: {}", runId, e.getMessage());
+            }
+        }, heartbeatPeriodSeconds(), heartbeatPeriodSeconds(), TimeUnit.SECONDS);
+        ScheduledFuture<?> previous = heartbeats.put(runId, heartbeat);
+        if (previous != null) {
+            previous.cancel(false);
+        }
+    }
+
+    /**
+     * 领取并处理一个分片
+     *
+     * @return 是否领取到分片
+     */
+    private boolean processOne(RiskCalculationRun run, ScoringPlan plan, CalculationProgress progress) {
+        int expired = shardMapper.failExpired(run.getRunId(), maxAttempts, "租约过期且已达到最大领取次数");
+        if (expired > 0) {
+            log.warn("运行 {} 有 {} 个分片租约过期且已达到最大领取次数，标记失败", run.getRunId(), expired);
+        }
+        String token = UUID.randomUUID().toString();
+        if (shardMapper.claim(run.getRunId(), nodeId, token, leaseSeconds, maxAttempts) == 0) {
+            return false;
+        }
+        RiskCalculationShard shard = shardMapper.selectByLeaseToken(token);
+        String label = describe(shard);
+        if (shard.getAttempts() != null && shard.getAttempts() > 1) {
+            log.info("重新领取分片 {} (第 {} 次)", label, shard.getAttempts());
+        }
+
+        AtomicBoolean leaseLost = new AtomicBoolean();
+        ScheduledFuture<?> renewal = renewer.scheduleAtFixedRate(() -> {
+            try {
+                if (shardMapper.renew(shard.getId(), token, leaseSeconds) == 0) {
+                    leaseLost.set(true);
+                }
+            } catch (Exception e) {
+                log.warn("分片 {} 续约失败: {}", label, e.getMessage());
+            }
+        }, heartbeatPeriodSeconds(), heartbeatPeriodSeconds(), TimeUnit.SECONDS);
+
+        CalculationProgress shardProgress = new CalculationProgress() {
+            @Override
+            public void yearPlanned(int year, int counties) {
+            }
+
+            @Override
+            public void countiesDone(int year, int count) {
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return leaseLost.get() || progress.isCancelled();
+            }
+
+            @Override
+            public CalculationStats stats() {
+                return progress.stats();
+            }
+        };
+
+        long start = System.currentTimeMillis();
+        try {
+            List<String> codes = shardMapper.selectCountyCodesByProvince(shard.getProvinceName());
+            int failed = riskCalculationService.getObject()
+                    .calculateCounties(shard.getYear(), codes, plan, shardProgress);
+            if (shardMapper.complete(shard.getId(), token, failed) == 0) {
+                log.warn("分片 {} 的租约已被其他节点接管，以接管节点的结果为准", label);
+            } else {
+                log.info("分片 {} 完成: {} 个县域, 失败 {}, 耗时 {} ms",
+                        label, codes.size(), failed, System.currentTimeMillis() - start);
+            }
+        } catch (CancellationException e) {
+            if (leaseLost.get()) {
+                log.warn("分片 {} 的租约已被其他节点接管，停止处理", label);
+            } else {
+                shardMapper.release(shard.getId(), token, Integer.MAX_VALUE, "已取消");
+                throw e;
+            }
+        } catch (Exception e) {
+            log.error("分片 {} 处理失败: {}", label, e.getMessage(), e);
+            shardMapper.release(shard.getId(), token, maxAttempts, truncate(e.getMessage()));
+        } finally {
+            renewal.cancel(false);
+        }
+        return true;
+    }
+
+    /**
+     * 把新完成的分片计入进度
+     */
+    private void reportFinished(String runId, Set<Long> reported, CalculationProgress progress) {
+        for (RiskCalculationShard shard : shardMapper.selectFinished(runId)) {
+            if (reported.add(shard.getId())) {
+                progress.countiesDone(shard.getYear(), shard.getCountyCount());
+            }
+        }
+    }
+
+    /**
+     * 其他节点发起的运行：配置版本与本地快照不一致时先重新加载，仍不一致则不参与
+     */
+    private ScoringPlan planFor(RiskCalculationRun run) {
+        RiskConfigSnapshot snapshot = riskConfigService.getSnapshot();
+        if (!snapshot.getVersion().equals(run.getConfigVersion())) {
+            snapshot = riskConfigService.reload();
+        }
+        if (!snapshot.getVersion().equals(run.getConfigVersion())) {
+            log.warn("运行 {} 的配置版本 {} 与本节点 {} 不一致，不参与该运行",
+                    run.getRunId(), run.getConfigVersion(), snapshot.getVersion());
+            return null;
+        }
+        return snapshot.getPlan();
+    }
+
+    private boolean isRunning(String runId) {
+        RiskCalculationRun current = runMapper.selectById(runId);
+        return current != null && RUN_RUNNING.equals(current.getStatus());
+    }
+
+    private Map<String, Long> countByStatus(String runId) {
+        Map<String, Long> counts = new HashMap<>();
+        for (Map<String, Object> row : shardMapper.countByStatus(runId)) {
+            counts.put((String) row.get("status"), ((Number) row.get("cnt")).longValue());
+        }
+        return counts;
+    }
+
+    private long heartbeatPeriodSeconds() {
+        return Math.max(1, leaseSeconds / 3);
+    }
+
+    /**
+     * 发起节点心跳超过两个租约周期未刷新视为失联
+     */
+    private int staleSeconds() {
+        return leaseSeconds * 2;
+    }
+
+    private static List<Integer> parseYears(String years) {
+        List<Integer> parsed = new ArrayList<>();
+        if (years != null) {
+            for (String year : years.split(",")) {
+                if (!year.isBlank()) {
+                    parsed.add(Integer.valueOf(year.trim()));
+                }
+            }
+        }
+        return parsed;
+    }
+
+    private static String joinYears(Collection<Integer> years) {
+        return years.stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+
+    private static String describe(RiskCalculationShard shard) {
+        String province = shard.getProvinceName() == null || shard.getProvinceName().isEmpty()
+                ? "未填写省份" : shard.getProvinceName();
+        return province + "/" + shard.getYear();
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("分片计算等待被中断");
+        }
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown";
+        }
+        return host + ":" + ProcessHandle.current().pid();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renewer.shutdownNow();
+    }
+}
@@ -0,0 +1,486 @@
+package com.county.risk.service.impl;
+
+import com.county.risk.calculation.CompiledIndicator;
+import com.county.risk.calculation.CountyScore;
+import com.county.risk.calculation.CountyScoringExecutor;
+import com.county.risk.calculation.CountySnapshotCache;
+import com.county.risk.calculation.CountyYearFacts;
+import com.county.risk.calculation.LevelCutPoints;
+import com.county.risk.calculation.RiskConfigSnapshot;
+import com.county.risk.calculation.RiskDimension;
+import com.county.risk.calculation.RiskLevelClassifier;
+import com.county.risk.calculation.RiskScoringKernel;
+import com.county.risk.calculation.ScoreSensitivity;
+import com.county.risk.calculation.ScoreSketch;
+import com.county.risk.calculation.ScoringKernelSelector;
+import com.county.risk.calculation.ScoringOutcome;
+import com.county.risk.calculation.ScoringPlan;
+import com.county.risk.calculation.YearSnapshot;
+import com.county.risk.dto.SensitivityResultDTO;
+import com.county.risk.dto.SimulationRequestDTO;
+import com.county.risk.dto.SimulationResultDTO;
+import com.county.risk.entity.CountyBasic;
+import com.county.risk.entity.RiskIndicator;
+import com.county.risk.service.RiskConfigService;
+import com.county.risk.service.RiskSimulationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 风险模拟服务实现类
+ * 基于缓存的县域数据快照，分别用当前配置与候选配置在内存中计算，结果只用于对比，不写库
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RiskSimulationServiceImpl implements RiskSimulationService {
+
+    private static final int DEFAULT_TOP_N = 20;
+    private static final BigDecimal DEFAULT_WEIGHT_STEP = new BigDecimal("0.01");
+    private static final BigDecimal DEFAULT_THRESHOLD_STEP = new BigDecimal("0.05");
+
+    private final CountySnapshotCache countySnapshotCache;
+    private final CountyScoringExecutor countyScoringExecutor;
+    private final ScoringKernelSelector scoringKernelSelector;
+    private final RiskConfigService riskConfigService;
+    private final RiskLevelClassifier riskLevelClassifier;
+
+    @Override
+    public SimulationResultDTO simulate(SimulationRequestDTO request) {
+        long start = System.currentTimeMillis();
+
+        List<Integer> yearsWithData = countySnapshotCache.getYearsWithData();
+        List<Integer> years;
+        if (request.getYear() != null) {
+            if (!yearsWithData.contains(request.getYear())) {
+                throw new IllegalArgumentException(request.getYear() + " 年没有源数据");
+            }
+            years = List.of(request.getYear());
+        } else {
+            years = yearsWithData;
+        }
+
+        // 1. 组装输入（快照来自缓存，首次访问某年份时才加载）
+        List<CountyBasic> counties = countySnapshotCache.getCounties();
+        Map<Integer, YearSnapshot> snapshots = countySnapshotCache.getYears(years);
+        List<CountyYearFacts> inputs = new ArrayList<>(counties.size() * years.size());
+        for (Integer year : years) {
+            YearSnapshot snapshot = snapshots.get(year);
+            for (CountyBasic county : counties) {
+                inputs.add(snapshot.get(county.getCountyCode()));
+            }
+        }
+
+        // 2. 当前配置直接使用配置快照中的计分计划，候选配置沿用相同的维度权重
+        RiskConfigSnapshot config = riskConfigService.getSnapshot();
+        ScoringPlan baselinePlan = config.getPlan();
+        ScoringPlan candidatePlan = ScoringPlan.compile(
+                groupEnabled(applyOverrides(config.getIndicators(), request.getIndicators())),
+                config.getDimensionWeights());
+
+        // 3. 分别计算并划分风险等级
+        Map<String, CountyScore> baseline = scoreAll(inputs, baselinePlan);
+        Map<String, CountyScore> candidate = scoreAll(inputs, candidatePlan);
+
+        // 4. 汇总对比
+        Map<String, CountyBasic> countyByCode = counties.stream()
+                .collect(Collectors.toMap(CountyBasic::getCountyCode, Function.identity(), (a, b) -> a));
+        SimulationResultDTO result = compare(baseline, candidate, countyByCode,
+                request.getTopN() != null && request.getTopN() > 0 ? request.getTopN() : DEFAULT_TOP_N);
+        result.setYears(years);
+        result.setBaselineConfigVersion(baselinePlan.getConfigVersion());
+        result.setCandidateConfigVersion(candidatePlan.getConfigVersion());
+        result.setElapsedMs(System.currentTimeMillis() - start);
+        log.info("风险模拟完成: 年份 {}, 县域年份 {}, 候选配置版本 {}, 等级变化 {}, 耗时 {} ms",
+                years, result.getCountyYearCount(), candidatePlan.getConfigVersion(),
+                result.getLevelChangedCount(), result.getElapsedMs());
+        return result;
+    }
+
+    @Override
+    public SensitivityResultDTO sensitivity(Integer year, BigDecimal weightStep, BigDecimal thresholdStep,
+                                            boolean includeCounties) {
+        long start = System.currentTimeMillis();
+        List<Integer> yearsWithData = countySnapshotCache.getYearsWithData();
+        if (year == null) {
+            if (yearsWithData.isEmpty()) {
+                throw new IllegalArgumentException("没有源数据");
+            }
+            year = yearsWithData.get(yearsWithData.size() - 1);
+        } else if (!yearsWithData.contains(year)) {
+            throw new IllegalArgumentException(year + " 年没有源数据");
+        }
+        BigDecimal wStep = weightStep != null ? weightStep : DEFAULT_WEIGHT_STEP;
+        BigDecimal tStep = thresholdStep != null ? thresholdStep : DEFAULT_THRESHOLD_STEP;
+        if (wStep.signum() <= 0 || tStep.signum() <= 0) {
+            throw new IllegalArgumentException("步长必须大于 0");
+        }
+        double ws = wStep.doubleValue();
+        double ts = tStep.doubleValue();
+
+        int analysisYear = year;
+        List<CountyBasic> counties = countySnapshotCache.getCounties();
+        YearSnapshot snapshot = countySnapshotCache.getYears(List.of(analysisYear)).get(analysisYear);
+        List<CountyYearFacts> inputs = counties.stream()
+                .map(county -> snapshot.get(county.getCountyCode()))
+                .collect(Collectors.toList());
+
+        // 一次并行计算：每个县域计分并记录指标明细，随即在明细上推算全部指标、全部情景下的综合得分
+        ScoringPlan plan = riskConfigService.getSnapshot().getPlan();
+        ScoringOutcome<ScoreSensitivity> outcome = countyScoringExecutor.execute(
+                inputs,
+                facts -> ScoreSensitivity.analyze(RiskScoringKernel.score(facts, plan, true), plan, ws, ts),
+                facts -> keyOf(facts.getCountyCode(), facts.getYear()), null, () -> false);
+        if (outcome.getFailCount() > 0) {
+            log.warn("敏感性分析中 {} 个县域计算失败 (配置版本 {})", outcome.getFailCount(), plan.getConfigVersion());
+        }
+        List<ScoreSensitivity> rows = outcome.getResults();
+
+        // 分界点保持不变：分位数模式下按当前得分分布计算
+        LevelCutPoints cuts = riskLevelClassifier.getFixedCutPoints();
+        if (riskLevelClassifier.isQuantileMode()) {
+            ScoreSketch sketch = new ScoreSketch();
+            rows.forEach(row -> sketch.add(row.getComprehensiveScore()));
+            cuts = riskLevelClassifier.quantileCutPoints(sketch);
+        }
+        Map<String, Integer> levelIndex = new HashMap<>();
+        for (int i = 0; i < RiskLevelClassifier.LEVELS.length; i++) {
+            levelIndex.put(RiskLevelClassifier.LEVELS[i], i);
+        }
+        int[] baseLevels = new int[rows.size()];
+        for (int r = 0; r < rows.size(); r++) {
+            baseLevels[r] = levelIndex.get(cuts.classify(rows.get(r).getComprehensiveScore()));
+        }
+
+        List<CompiledIndicator> indicators = new ArrayList<>(plan.getIndicatorCount());
+        for (RiskDimension dimension : RiskDimension.values()) {
+            indicators.addAll(List.of(plan.indicators(dimension)));
+        }
+        List<SensitivityResultDTO.IndicatorSensitivity> summaries = new ArrayList<>(indicators.size());
+        for (int i = 0; i < indicators.size(); i++) {
+            summaries.add(summarize(indicators.get(i), i, rows, baseLevels, levelIndex, cuts, ws, ts));
+        }
+
+        SensitivityResultDTO result = new SensitivityResultDTO();
+        result.setYear(analysisYear);
+        result.setConfigVersion(plan.getConfigVersion());
+        result.setCountyCount(rows.size());
+        result.setWeightStep(wStep);
+        result.setThresholdStep(tStep);
+        result.setIndicators(summaries);
+        if (includeCounties) {
+            Map<String, CountyBasic> countyByCode = counties.stream()
+                    .collect(Collectors.toMap(CountyBasic::getCountyCode, Function.identity(), (a, b) -> a));
+            List<SensitivityResultDTO.CountySensitivity> details = new ArrayList<>(rows.size());
+            for (int r = 0; r < rows.size(); r++) {
+                details.add(countySensitivity(rows.get(r), RiskLevelClassifier.LEVELS[baseLevels[r]], indicators,
+                        countyByCode.get(rows.get(r).getCountyCode()), ws, ts));
+            }
+            result.setCounties(details);
+        }
+        result.setElapsedMs(System.currentTimeMillis() - start);
+        log.info("敏感性分析完成: {} 年, 县域 {}, 指标 {}, 配置版本 {}, 耗时 {} ms",
+                analysisYear, rows.size(), indicators.size(), plan.getConfigVersion(), result.getElapsedMs());
+        return result;
+    }
+
+    /**
+     * 汇总一个指标：权重变化率的平均与最大值，以及各情景下得分变化与跨越分界的县域数
+     */
+    private SensitivityResultDTO.IndicatorSensitivity summarize(CompiledIndicator indicator, int i,
+                                                                List<ScoreSensitivity> rows, int[] baseLevels,
+                                                                Map<String, Integer> levelIndex, LevelCutPoints cuts,
+                                                                double weightStep, double thresholdStep) {
+        SensitivityResultDTO.IndicatorSensitivity summary = new SensitivityResultDTO.IndicatorSensitivity();
+        summary.setIndicatorId(indicator.getIndicatorId());
+        summary.setIndicatorCode(indicator.getCode());
+        summary.setIndicatorName(indicator.getName());
+        summary.setCategory(indicator.getDimension().getCategory());
+        summary.setWeight(indicator.getWeight());
+        double sum = 0;
+        double max = 0;
+        for (ScoreSensitivity row : rows) {
+            sum += row.scorePerWeight(i);
+            max = Math.max(max, row.scorePerWeight(i));
+        }
+        summary.setMeanScorePerWeight(CountyScore.toDecimal(rows.isEmpty() ? 0 : sum / rows.size()));
+        summary.setMaxScorePerWeight(CountyScore.toDecimal(max));
+
+        List<SensitivityResultDTO.Scenario> scenarios = new ArrayList<>();
+        for (ScoreSensitivity.Parameter parameter : ScoreSensitivity.Parameter.values()) {
+            for (boolean up : new boolean[]{true, false}) {
+                double delta = ScoreSensitivity.delta(indicator, parameter, up, weightStep, thresholdStep);
+                if (delta == 0) {
+                    continue;
+                }
+                int scenario = ScoreSensitivity.scenario(parameter, up);
+                int scoreChanged = 0;
+                int levelChanged = 0;
+                double changeSum = 0;
+                int[] crossings = new int[RiskLevelClassifier.LEVELS.length - 1];
+                for (int r = 0; r < rows.size(); r++) {
+                    ScoreSensitivity row = rows.get(r);
+                    double shifted = row.shiftedScore(i, scenario);
+                    if (shifted != row.getComprehensiveScore()) {
+                        scoreChanged++;
+                        changeSum += shifted - row.getComprehensiveScore();
+                    }
+                    int level = levelIndex.get(cuts.classify(shifted));
+                    if (level != baseLevels[r]) {
+                        levelChanged++;
+                        for (int b = Math.min(level, baseLevels[r]); b < Math.max(level, baseLevels[r]); b++) {
+                            crossings[b]++;
+                        }
+                    }
+                }
+                SensitivityResultDTO.Scenario s = new SensitivityResultDTO.Scenario();
+                s.setParameter(parameter.name());
+                s.setDelta(BigDecimal.valueOf(delta).stripTrailingZeros());
+                s.setScoreChangedCount(scoreChanged);
+                s.setMeanScoreChange(CountyScore.toDecimal(rows.isEmpty() ? 0 : changeSum / rows.size()));
+                s.setLevelChangedCount(levelChanged);
+                Map<String, Integer> boundaryCrossings = new LinkedHashMap<>();
+                for (int b = 0; b < crossings.length; b++) {
+                    boundaryCrossings.put(RiskLevelClassifier.LEVELS[b] + "/" + RiskLevelClassifier.LEVELS[b + 1],
+                            crossings[b]);
+                }
+                s.setBoundaryCrossings(boundaryCrossings);
+                scenarios.add(s);
+            }
+        }
+        summary.setScenarios(scenarios);
+        return summary;
+    }
+
+    private SensitivityResultDTO.CountySensitivity countySensitivity(ScoreSensitivity row, String level,
+                                                                     List<CompiledIndicator> indicators,
+                                                                     CountyBasic county, double weightStep,
+                                                                     double thresholdStep) {
+        SensitivityResultDTO.CountySensitivity detail = new SensitivityResultDTO.CountySensitivity();
+        detail.setCountyCode(row.getCountyCode());
+        detail.setCountyName(county != null ? county.getCountyName() : null);
+        detail.setComprehensiveScore(CountyScore.toDecimal(row.getComprehensiveScore()));
+        detail.setRiskLevel(level);
+        List<BigDecimal> perWeight = new ArrayList<>(indicators.size());
+        List<BigDecimal> perHigh = new ArrayList<>(indicators.size());
+        List<BigDecimal> perMedium = new ArrayList<>(indicators.size());
+        List<BigDecimal> perLow = new ArrayList<>(indicators.size());
+        for (int i = 0; i < indicators.size(); i++) {
+            perWeight.add(CountyScore.toDecimal(row.scorePerWeight(i)));
+            perHigh.add(perThreshold(row, indicators.get(i), i, ScoreSensitivity.Parameter.THRESHOLD_HIGH, weightStep, thresholdStep));
+            perMedium.add(perThreshold(row, indicators.get(i), i, ScoreSensitivity.Parameter.THRESHOLD_MEDIUM, weightStep, thresholdStep));
+            perLow.add(perThreshold(row, indicators.get(i), i, ScoreSensitivity.Parameter.THRESHOLD_LOW, weightStep, thresholdStep));
+        }
+        detail.setScorePerWeight(perWeight);
+        detail.setScorePerThresholdHigh(perHigh);
+        detail.setScorePerThresholdMedium(perMedium);
+        detail.setScorePerThresholdLow(perLow);
+        return detail;
+    }
+
+    /**
+     * 阈值上调一个步长时每单位阈值的综合得分变化；未配置的阈值为 0
+     */
+    private BigDecimal perThreshold(ScoreSensitivity row, CompiledIndicator indicator, int i,
+                                    ScoreSensitivity.Parameter parameter, double weightStep, double thresholdStep) {
+        double delta = ScoreSensitivity.delta(indicator, parameter, true, weightStep, thresholdStep);
+        if (delta == 0) {
+            return CountyScore.toDecimal(0);
+        }
+        double change = row.shiftedScore(i, ScoreSensitivity.scenario(parameter, true)) - row.getComprehensiveScore();
+        return CountyScore.toDecimal(change / delta);
+    }
+
+    /**
+     * 按 indicatorId 用候选配置中非空的字段覆盖当前配置，返回新的指标列表（不修改原对象）
+     */
+    private List<RiskIndicator> applyOverrides(List<RiskIndicator> current, List<RiskIndicator> overrides) {
+        Map<Integer, RiskIndicator> overrideById = new HashMap<>();
+        if (overrides != null) {
+            for (RiskIndicator o : overrides) {
+                if (o.getIndicatorId() != null) {
+                    overrideById.put(o.getIndicatorId(), o);
+                }
+            }
+        }
+        List<RiskIndicator> result = new ArrayList<>(current.size());
+        for (RiskIndicator indicator : current) {
+            RiskIndicator copy = copyOf(indicator);
+            RiskIndicator o = overrideById.get(indicator.getIndicatorId());
+            if (o != null) {
+                if (o.getWeight() != null) copy.setWeight(o.getWeight());
+                if (o.getThresholdHigh() != null) copy.setThresholdHigh(o.getThresholdHigh());
+                if (o.getThresholdMedium() != null) copy.setThresholdMedium(o.getThresholdMedium());
+                if (o.getThresholdLow() != null) copy.setThresholdLow(o.getThresholdLow());
+                if (o.getComparisonOperator() != null) copy.setComparisonOperator(o.getComparisonOperator());
+                if (o.getStatus() != null) copy.setStatus(o.getStatus());
+            }
+            result.add(copy);
+        }
+        return result;
+    }
+
+    private RiskIndicator copyOf(RiskIndicator source) {
+        RiskIndicator copy = new RiskIndicator();
+        copy.setIndicatorId(source.getIndicatorId());
+        copy.setIndicatorCode(source.getIndicatorCode());
+        copy.setIndicatorName(source.getIndicatorName());
+        copy.setCategory(source.getCategory());
+        copy.setSubcategory(source.getSubcategory());
+        copy.setWeight(source.getWeight());
+        copy.setThresholdHigh(source.getThresholdHigh());
+        copy.setThresholdMedium(source.getThresholdMedium());
+        copy.setThresholdLow(source.getThresholdLow());
+        copy.setUnit(source.getUnit());
+        copy.setComparisonOperator(source.getComparisonOperator());
+        copy.setFormula(source.getFormula());
+        copy.setStatus(source.getStatus());
+        return copy;
+    }
+
+    /**
+     * 与 getIndicatorsByCategory 一致：只保留启用的指标，按权重降序后按类别分组
+     */
+    private Map<String, List<RiskIndicator>> groupEnabled(List<RiskIndicator> indicators) {
+        return indicators.stream()
+                .filter(i -> "启用".equals(i.getStatus()))
+                .sorted(Comparator.comparing(RiskIndicator::getWeight,
+                        Comparator.nullsFirst(Comparator.<BigDecimal>naturalOrder())).reversed())
+                .collect(Collectors.groupingBy(RiskIndicator::getCategory));
+    }
+
+    /**
+     * 并行计算所有县域年份并划分风险等级，按 "县域代码/年份" 索引
+     */
+    private Map<String, CountyScore> scoreAll(List<CountyYearFacts> inputs, ScoringPlan plan) {
+        ScoringOutcome<CountyScore> outcome = countyScoringExecutor.execute(
+                inputs,
+                scoringKernelSelector.isVectorized() ? batch -> scoringKernelSelector.scoreBatch(batch, plan, false) : null,
+                facts -> RiskScoringKernel.score(facts, plan),
+                facts -> keyOf(facts.getCountyCode(), facts.getYear()), null, () -> false);
+        if (outcome.getFailCount() > 0) {
+            log.warn("风险模拟中 {} 个县域年份计算失败 (配置版本 {})", outcome.getFailCount(), plan.getConfigVersion());
+        }
+
+        // 分位数模式下按本次模拟的得分分布计算分界点，与正式计算口径一致
+        Map<Integer, LevelCutPoints> cutPoints = new HashMap<>();
+        if (riskLevelClassifier.isQuantileMode()) {
+            Map<Integer, ScoreSketch> sketches = new HashMap<>();
+            for (CountyScore score : outcome.getResults()) {
+                sketches.computeIfAbsent(score.getYear(), y -> new ScoreSketch()).add(score.getComprehensiveScore());
+            }
+            sketches.forEach((year, sketch) -> cutPoints.put(year, riskLevelClassifier.quantileCutPoints(sketch)));
+        }
+
+        Map<String, CountyScore> scores = new HashMap<>(outcome.getResults().size() * 2);
+        for (CountyScore score : outcome.getResults()) {
+            LevelCutPoints cuts = cutPoints.get(score.getYear());
+            score.setRiskLevel(cuts != null
+                    ? cuts.classify(score.getComprehensiveScore())
+                    : riskLevelClassifier.classify(score.getComprehensiveScore()));
+            scores.put(keyOf(score.getCountyCode(), score.getYear()), score);
+        }
+        return scores;
+    }
+
+    private SimulationResultDTO compare(Map<String, CountyScore> baseline, Map<String, CountyScore> candidate,
+                                        Map<String, CountyBasic> countyByCode, int topN) {
+        Map<String, long[]> levelCounts = new TreeMap<>();
+        for (String level : RiskLevelClassifier.LEVELS) {
+            levelCounts.put(level, new long[2]);
+        }
+        Map<String, double[]> provinceSums = new TreeMap<>();
+        List<SimulationResultDTO.CountyMover> movers = new ArrayList<>();
+        int pairs = 0;
+        int levelChanged = 0;
+
+        for (Map.Entry<String, CountyScore> entry : baseline.entrySet()) {
+            CountyScore base = entry.getValue();
+            CountyScore cand = candidate.get(entry.getKey());
+            if (cand == null) {
+                continue;
+            }
+            pairs++;
+            levelCounts.computeIfAbsent(base.getRiskLevel(), l -> new long[2])[0]++;
+            levelCounts.computeIfAbsent(cand.getRiskLevel(), l -> new long[2])[1]++;
+            boolean changed = !base.getRiskLevel().equals(cand.getRiskLevel());
+            if (changed) {
+                levelChanged++;
+            }
+
+            CountyBasic county = countyByCode.get(base.getCountyCode());
+            String province = county != null && county.getProvinceName() != null ? county.getProvinceName() : "未知";
+            // [县域年份数, 当前得分合计, 候选得分合计, 等级变化数]
+            double[] sums = provinceSums.computeIfAbsent(province, p -> new double[4]);
+            sums[0]++;
+            sums[1] += base.getComprehensiveScore();
+            sums[2] += cand.getComprehensiveScore();
+            if (changed) {
+                sums[3]++;
+            }
+
+            SimulationResultDTO.CountyMover mover = new SimulationResultDTO.CountyMover();
+            mover.setCountyCode(base.getCountyCode());
+            mover.setCountyName(county != null ? county.getCountyName() : null);
+            mover.setProvinceName(province);
+            mover.setYear(base.getYear());
+            mover.setBaselineScore(CountyScore.toDecimal(base.getComprehensiveScore()));
+            mover.setCandidateScore(CountyScore.toDecimal(cand.getComprehensiveScore()));
+            mover.setDelta(CountyScore.toDecimal(cand.getComprehensiveScore() - base.getComprehensiveScore()));
+            mover.setBaselineLevel(base.getRiskLevel());
+            mover.setCandidateLevel(cand.getRiskLevel());
+            movers.add(mover);
+        }
+
+        SimulationResultDTO result = new SimulationResultDTO();
+        result.setCountyYearCount(pairs);
+        result.setLevelChangedCount(levelChanged);
+
+        List<SimulationResultDTO.LevelCount> distribution = new ArrayList<>();
+        for (String level : RiskLevelClassifier.LEVELS) {
+            long[] counts = levelCounts.get(level);
+            SimulationResultDTO.LevelCount lc = new SimulationResultDTO.LevelCount();
+            lc.setRiskLevel(level);
+            lc.setBaselineCount(counts[0]);
+            lc.setCandidateCount(counts[1]);
+            distribution.add(lc);
+        }
+        result.setLevelDistribution(distribution);
+
+        movers.sort(Comparator.comparing((SimulationResultDTO.CountyMover m) -> m.getDelta().abs()).reversed()
+                .thenComparing(SimulationResultDTO.CountyMover::getCountyCode)
+                .thenComparing(SimulationResultDTO.CountyMover::getYear));
+        result.setTopMovers(new ArrayList<>(movers.subList(0, Math.min(topN, movers.size()))));
+
+        List<SimulationResultDTO.ProvinceDelta> provinces = new ArrayList<>();
+        provinceSums.forEach((province, sums) -> {
+            SimulationResultDTO.ProvinceDelta pd = new SimulationResultDTO.ProvinceDelta();
+            pd.setProvinceName(province);
+            pd.setCountyYearCount((int) sums[0]);
+            pd.setBaselineAvgScore(CountyScore.toDecimal(sums[1] / sums[0]));
+            pd.setCandidateAvgScore(CountyScore.toDecimal(sums[2] / sums[0]));
+            pd.setDelta(CountyScore.toDecimal((sums[2] - sums[1]) / sums[0]));
+            pd.setLevelChangedCount((int) sums[3]);
+            provinces.add(pd);
+        });
+        provinces.sort(Comparator.comparing((SimulationResultDTO.ProvinceDelta p) -> p.getDelta().abs()).reversed());
+        result.setProvinceDeltas(provinces);
+        return result;
+    }
+
+    private static String keyOf(String countyCode, int year) {
+        return countyCode + "/" + year;
+    }
+}
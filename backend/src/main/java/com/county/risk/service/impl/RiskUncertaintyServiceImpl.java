@@ -0,0 +1,219 @@
+package com.county.risk.service.impl;
+
+import com.county.risk.calculation.BatchUpsertWriter;
+import com.county.risk.calculation.CalculationProgress;
+import com.county.risk.calculation.CalculationStats;
+import com.county.risk.calculation.CalculationStats.Phase;
+import com.county.risk.calculation.CountyScore;
+import com.county.risk.calculation.CountyScoringExecutor;
+import com.county.risk.calculation.CountySnapshotLoader;
+import com.county.risk.calculation.CountyYearFacts;
+import com.county.risk.calculation.LevelCutPoints;
+import com.county.risk.calculation.MonteCarloScorer;
+import com.county.risk.calculation.MonteCarloScorer.ScoreDistribution;
+import com.county.risk.calculation.RiskLevelClassifier;
+import com.county.risk.calculation.RiskScoringKernel;
+import com.county.risk.calculation.ScoreSketch;
+import com.county.risk.calculation.ScoringOutcome;
+import com.county.risk.calculation.ScoringPlan;
+import com.county.risk.calculation.YearSnapshot;
+import com.county.risk.dto.UncertaintyResultDTO;
+import com.county.risk.entity.CountyBasic;
+import com.county.risk.entity.RiskScoreUncertainty;
+import com.county.risk.mapper.CountyBasicMapper;
+import com.county.risk.mapper.RiskAssessmentMapper;
+import com.county.risk.mapper.RiskScoreUncertaintyMapper;
+import com.county.risk.service.CalculationLedgerService;
+import com.county.risk.service.RiskConfigService;
+import com.county.risk.service.RiskUncertaintyService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 综合得分不确定性服务实现类
+ * 先按当前指标配置计分一次并记录指标明细，确定风险等级分界点（分位数模式下按不加噪声的得分分布计算，抽样中保持不变），
+ * 再并行对每个县域在明细上重复抽样；不读取其他年份、不修改 comprehensive_risk_assessment
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RiskUncertaintyServiceImpl implements RiskUncertaintyService {
+
+    private static final int MAX_TRIALS = 100000;
+    private static final int PROBABILITY_SCALE = 4;
+
+    private final RiskScoreUncertaintyMapper riskScoreUncertaintyMapper;
+    private final RiskAssessmentMapper riskAssessmentMapper;
+    private final CountyBasicMapper countyBasicMapper;
+    private final RiskConfigService riskConfigService;
+    private final CountySnapshotLoader countySnapshotLoader;
+    private final CountyScoringExecutor countyScoringExecutor;
+    private final RiskLevelClassifier riskLevelClassifier;
+    private final CalculationLedgerService calculationLedgerService;
+
+    @Value("${risk.uncertainty.trials:2000}")
+    private int defaultTrials;
+
+    @Value("${risk.uncertainty.noise-rate:0.05}")
+    private BigDecimal defaultNoiseRate;
+
+    @Value("${risk.uncertainty.seed:20240101}")
+    private long seed;
+
+    @Value("${risk.calculation.write-batch-size:500}")
+    private int writeBatchSize;
+
+    @Override
+    public UncertaintyResultDTO calculate(Integer year, Integer trials, BigDecimal noiseRate,
+                                          CalculationProgress progress) {
+        List<Integer> yearsWithData = riskAssessmentMapper.getYearsWithData();
+        if (yearsWithData == null || yearsWithData.isEmpty()) {
+            throw new IllegalArgumentException("没有源数据");
+        }
+        if (year == null) {
+            year = yearsWithData.stream().max(Integer::compare).get();
+        } else if (!yearsWithData.contains(year)) {
+            throw new IllegalArgumentException(year + " 年没有源数据");
+        }
+        int n = trials != null ? trials : defaultTrials;
+        if (n <= 0 || n > MAX_TRIALS) {
+            throw new IllegalArgumentException("抽样次数必须在 1 到 " + MAX_TRIALS + " 之间");
+        }
+        BigDecimal noise = noiseRate != null ? noiseRate : defaultNoiseRate;
+        if (noise.signum() < 0 || noise.compareTo(BigDecimal.ONE) >= 0) {
+            throw new IllegalArgumentException("噪声幅度必须在 [0, 1) 之间");
+        }
+
+        int calculationYear = year;
+        String scope = calculationYear + " 年 / 抽样 " + n + " 次 / 噪声 ±" + noise.stripTrailingZeros().toPlainString();
+        return calculationLedgerService.record(CalculationLedgerService.RUN_UNCERTAINTY, scope, progress,
+                tracked -> calculateTracked(calculationYear, n, noise, tracked));
+    }
+
+    private UncertaintyResultDTO calculateTracked(int year, int trials, BigDecimal noise, CalculationProgress progress) {
+        long start = System.currentTimeMillis();
+        CalculationStats stats = progress.stats();
+        ScoringPlan plan = riskConfigService.getSnapshot().getPlan();
+        stats.setConfigVersion(plan.getConfigVersion());
+        stats.setCalculationMode("SNAPSHOT");
+        log.info("开始综合得分不确定性计算: {} 年, 抽样 {} 次, 噪声 ±{} (配置版本 {})",
+                year, trials, noise, plan.getConfigVersion());
+
+        List<CountyBasic> counties = stats.time(Phase.READ, () -> countyBasicMapper.selectList(null));
+        YearSnapshot snapshot = stats.time(Phase.READ, () -> countySnapshotLoader.loadYear(year));
+        List<CountyYearFacts> inputs = counties.stream()
+                .map(county -> snapshot.get(county.getCountyCode()))
+                .collect(Collectors.toList());
+        progress.yearPlanned(year, inputs.size());
+
+        // 不加噪声计分一次，得到指标明细与等级分界点
+        ScoringOutcome<CountyScore> scored = stats.time(Phase.COMPUTE, () -> countyScoringExecutor.execute(
+                inputs,
+                facts -> RiskScoringKernel.score(facts, plan, true),
+                facts -> facts.getCountyCode() + "/" + facts.getYear(),
+                null,
+                progress::isCancelled));
+        LevelCutPoints cuts = stats.time(Phase.LEVEL, () -> cutPoints(scored.getResults()));
+
+        MonteCarloScorer scorer = new MonteCarloScorer(plan, cuts, trials, noise.doubleValue(), seed);
+        ScoringOutcome<ScoreDistribution> sampled = stats.time(Phase.COMPUTE, () -> countyScoringExecutor.execute(
+                scored.getResults(),
+                score -> {
+                    try {
+                        return scorer.sample(score);
+                    } finally {
+                        progress.countiesDone(year, 1);
+                    }
+                },
+                score -> score.getCountyCode() + "/" + score.getYear(),
+                null,
+                progress::isCancelled));
+        int failed = scored.getFailCount() + sampled.getFailCount();
+        stats.counted(sampled.getSuccessCount(), failed);
+
+        LocalDateTime calculatedAt = LocalDateTime.now();
+        stats.time(Phase.WRITE, () -> {
+            try (BatchUpsertWriter<RiskScoreUncertainty> writer = new BatchUpsertWriter<>(
+                    "得分不确定性", riskScoreUncertaintyMapper::upsertBatch, writeBatchSize)) {
+                for (ScoreDistribution distribution : sampled.getResults()) {
+                    writer.add(toEntity(distribution, trials, noise, plan.getConfigVersion(), calculatedAt));
+                }
+            }
+        });
+        log.info("{} 年综合得分不确定性计算完成: 成功 {} 个县域, 失败 {}, 耗时 {} ms",
+                year, sampled.getSuccessCount(), failed, System.currentTimeMillis() - start);
+
+        UncertaintyResultDTO result = new UncertaintyResultDTO();
+        result.setYear(year);
+        result.setCountyCount(sampled.getSuccessCount());
+        result.setFailCount(failed);
+        result.setTrials(trials);
+        result.setNoiseRate(noise);
+        result.setConfigVersion(plan.getConfigVersion());
+        result.setElapsedMs(System.currentTimeMillis() - start);
+        return result;
+    }
+
+    /**
+     * 抽样使用的等级分界点：固定阈值，或分位数模式下按不加噪声的得分分布计算
+     */
+    private LevelCutPoints cutPoints(List<CountyScore> scores) {
+        if (!riskLevelClassifier.isQuantileMode()) {
+            return riskLevelClassifier.getFixedCutPoints();
+        }
+        ScoreSketch sketch = new ScoreSketch();
+        for (CountyScore score : scores) {
+            sketch.add(score.getComprehensiveScore());
+        }
+        return riskLevelClassifier.quantileCutPoints(sketch);
+    }
+
+    @Override
+    public List<RiskScoreUncertainty> list(Integer year, String countyCode) {
+        if (year == null) {
+            year = riskScoreUncertaintyMapper.selectLatestYear();
+            if (year == null) {
+                return List.of();
+            }
+        }
+        String code = countyCode != null && !countyCode.isBlank() ? countyCode.trim() : null;
+        return riskScoreUncertaintyMapper.selectByYear(year, code);
+    }
+
+    private static RiskScoreUncertainty toEntity(ScoreDistribution distribution, int trials, BigDecimal noise,
+                                                 String configVersion, LocalDateTime calculatedAt) {
+        RiskScoreUncertainty row = new RiskScoreUncertainty();
+        row.setCountyCode(distribution.getCountyCode());
+        row.setYear(distribution.getYear());
+        row.setTrials(trials);
+        row.setNoiseRate(noise);
+        row.setPointScore(CountyScore.toDecimal(distribution.getPointScore()));
+        row.setMeanScore(CountyScore.toDecimal(distribution.getMean()));
+        row.setStdScore(CountyScore.toDecimal(distribution.getStdDev()));
+        row.setP05Score(CountyScore.toDecimal(distribution.percentile(0)));
+        row.setP25Score(CountyScore.toDecimal(distribution.percentile(1)));
+        row.setP50Score(CountyScore.toDecimal(distribution.percentile(2)));
+        row.setP75Score(CountyScore.toDecimal(distribution.percentile(3)));
+        row.setP95Score(CountyScore.toDecimal(distribution.percentile(4)));
+        row.setProbHigh(probability(distribution, 0));
+        row.setProbMediumHigh(probability(distribution, 1));
+        row.setProbMedium(probability(distribution, 2));
+        row.setProbMediumLow(probability(distribution, 3));
+        row.setProbLow(probability(distribution, 4));
+        row.setConfigVersion(configVersion);
+        row.setCalculatedAt(calculatedAt);
+        return row;
+    }
+
+    private static BigDecimal probability(ScoreDistribution distribution, int level) {
+        return BigDecimal.valueOf(distribution.levelProbability(level)).setScale(PROBABILITY_SCALE, RoundingMode.HALF_UP);
+    }
+}
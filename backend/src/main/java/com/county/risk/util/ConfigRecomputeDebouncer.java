@@ -0,0 +1,119 @@
+package com.county.risk.util;
+
+import com.county.risk.dto.JobInfoDTO;
+import com.county.risk.job.JobTypes;
+import com.county.risk.service.JobService;
+import com.county.risk.service.RiskCalculationService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 指标配置修改后的自动重算
+ * 连续修改合并为一次：最后一次修改后 risk.calculation.config-recompute.debounce-ms 毫秒内没有新的修改才提交全历史计算任务。
+ * 全历史计算读到指标配置变更标记后重算所有年份，未修改的维度直接复用维度得分备忘，只计算修改过的维度
+ */
+@Slf4j
+@Component
+public class ConfigRecomputeDebouncer {
+
+    private final JobService jobService;
+    private final RiskCalculationService riskCalculationService;
+    private final boolean enabled;
+    private final long debounceMs;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "config-recompute");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private ScheduledFuture<?> pending;
+    private LocalDateTime lastChanged;
+
+    public ConfigRecomputeDebouncer(JobService jobService, RiskCalculationService riskCalculationService,
+                                    @Value("${risk.calculation.config-recompute.enabled:true}") boolean enabled,
+                                    @Value("${risk.calculation.config-recompute.debounce-ms:5000}") long debounceMs) {
+        this.jobService = jobService;
+        this.riskCalculationService = riskCalculationService;
+        this.enabled = enabled;
+        this.debounceMs = Math.max(0, debounceMs);
+    }
+
+    /**
+     * 登记一次指标配置修改；处于事务中时在提交后登记，回滚的修改不触发重算
+     */
+    public void configChanged() {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    schedule();
+                }
+            });
+        } else {
+            schedule();
+        }
+    }
+
+    private synchronized void schedule() {
+        lastChanged = LocalDateTime.now();
+        if (pending != null) {
+            pending.cancel(false);
+        }
+        pending = scheduler.schedule(this::submit, debounceMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void submit() {
+        LocalDateTime changedAt;
+        synchronized (this) {
+            pending = null;
+            changedAt = lastChanged;
+        }
+        Map<String, Object> params = new HashMap<>();
+        params.put("year", null);
+        try {
+            String jobId = jobService.submit(JobTypes.RISK_CALCULATION, params, context -> {
+                riskCalculationService.calculateAllYears(context);
+                return null;
+            });
+            // 相同参数的计算正在进行时返回的是已有任务；它在修改之前开始，读不到本次修改，结束后再提交
+            JobInfoDTO job = jobService.getJob(jobId);
+            if (job != null && job.getStartedAt() != null && job.getStartedAt().isBefore(changedAt)) {
+                log.info("全历史计算任务 {} 在指标配置修改前开始，稍后重新提交", jobId);
+                retryLater(changedAt);
+                return;
+            }
+            log.info("指标配置已修改，已提交全历史计算任务 {}", jobId);
+        } catch (IllegalStateException e) {
+            // 单年份或指定范围的计算正在进行（或队列已满），结束后再提交
+            log.info("指标配置修改后的重算暂时无法提交，稍后重试: {}", e.getMessage());
+            retryLater(changedAt);
+        }
+    }
+
+    private synchronized void retryLater(LocalDateTime changedAt) {
+        // 等待期间有新的修改时已重新排期
+        if (pending == null && changedAt.equals(lastChanged)) {
+            pending = scheduler.schedule(this::submit, Math.max(debounceMs, 1000), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+}
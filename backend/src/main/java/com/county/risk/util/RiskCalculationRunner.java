@@ -1,11 +1,16 @@
 package com.county.risk.util;
 
+import com.county.risk.job.JobTypes;
+import com.county.risk.service.JobService;
 import com.county.risk.service.RiskCalculationService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * 风险计算运行器
  * 可以通过命令行参数触发风险计算
@@ -21,6 +26,9 @@ public class RiskCalculationRunner implements CommandLineRunner {
     @Autowired(required = false)
     private RiskCalculationService riskCalculationService;
 
+    @Autowired(required = false)
+    private JobService jobService;
+
     @Override
     public void run(String... args) {
         // 检查是否有 --risk.calculate 参数
@@ -35,7 +43,18 @@ public class RiskCalculationRunner implements CommandLineRunner {
         if (shouldCalculate && riskCalculationService != null) {
             log.info("检测到风险计算参数，开始计算所有年份的风险...");
             try {
-                riskCalculationService.calculateAllYears();
+                if (jobService != null) {
+                    // 通过后台任务执行，与接口触发的全量计算互相去重、与其他风险计算互斥，并可通过 /jobs 查看进度
+                    Map<String, Object> params = new HashMap<>();
+                    params.put("year", null);
+                    String jobId = jobService.submit(JobTypes.RISK_CALCULATION, params, context -> {
+                        riskCalculationService.calculateAllYears(context);
+                        return null;
+                    });
+                    jobService.awaitResult(jobId);
+                } else {
+                    riskCalculationService.calculateAllYears();
+                }
                 log.info("风险计算完成！");
             } catch (Exception e) {
                 log.error("风险计算失败: {}", e.getMessage(), e);
@@ -0,0 +1,65 @@
+package com.county.risk.util;
+
+import com.county.risk.job.JobTypes;
+import com.county.risk.mapper.RiskAssessmentMapper;
+import com.county.risk.service.JobService;
+import com.county.risk.service.RiskCalculationService;
+import com.county.risk.service.RiskConfigService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 定期风险计算
+ * 按 system_configs.RISK_CALCULATION_FREQUENCY（天）定期提交全历史计算任务，
+ * 距上次评估写入或上次定期提交超过该天数时触发；需配置 risk.schedule.enabled=true
+ */
+@Slf4j
+@Component
+@EnableScheduling
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "risk.schedule.enabled", havingValue = "true")
+public class RiskCalculationScheduler {
+
+    private final RiskConfigService riskConfigService;
+    private final RiskAssessmentMapper riskAssessmentMapper;
+    private final RiskCalculationService riskCalculationService;
+    private final JobService jobService;
+
+    private volatile LocalDateTime lastSubmitted;
+
+    @Scheduled(initialDelayString = "${risk.schedule.check-interval-ms:3600000}",
+            fixedDelayString = "${risk.schedule.check-interval-ms:3600000}")
+    public void checkDue() {
+        Integer days = riskConfigService.getSnapshot().getCalculationFrequencyDays();
+        if (days == null) {
+            return;
+        }
+        LocalDateTime last = riskAssessmentMapper.getLatestAssessmentDate();
+        if (lastSubmitted != null && (last == null || lastSubmitted.isAfter(last))) {
+            last = lastSubmitted;
+        }
+        if (last != null && last.plusDays(days).isAfter(LocalDateTime.now())) {
+            return;
+        }
+        Map<String, Object> params = new HashMap<>();
+        params.put("year", null);
+        try {
+            String jobId = jobService.submit(JobTypes.RISK_CALCULATION, params, context -> {
+                riskCalculationService.calculateAllYears(context);
+                return null;
+            });
+            lastSubmitted = LocalDateTime.now();
+            log.info("距上次风险计算已超过 {} 天，已提交定期计算任务 {}", days, jobId);
+        } catch (IllegalStateException e) {
+            log.warn("定期风险计算提交失败: {}", e.getMessage());
+        }
+    }
+}
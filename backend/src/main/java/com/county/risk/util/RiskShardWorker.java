@@ -0,0 +1,65 @@
+package com.county.risk.util;
+
+import com.county.risk.service.RiskShardService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分片计算工作线程
+ * 启用分片计算（risk.cluster.enabled=true）的节点在启动后定期查找其他节点发起的运行并领取分片处理
+ *
+ * 本地验证两个节点：
+ * java -jar app.jar --risk.cluster.enabled=true
+ * java -jar app.jar --risk.cluster.enabled=true --server.port=8081
+ * 然后向任一节点提交 /risk/indicators/calculate，两个节点的日志中都会出现分片完成记录
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "risk.cluster.enabled", havingValue = "true")
+public class RiskShardWorker {
+
+    private final RiskShardService riskShardService;
+    private final long pollIntervalMs;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "risk-shard-worker");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public RiskShardWorker(RiskShardService riskShardService,
+                           @Value("${risk.cluster.poll-interval-ms:2000}") long pollIntervalMs) {
+        this.riskShardService = riskShardService;
+        this.pollIntervalMs = Math.max(100, pollIntervalMs);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::poll, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("分片计算工作线程已启动: 节点 {}", riskShardService.getNodeId());
+    }
+
+    private void poll() {
+        try {
+            int processed = riskShardService.processActiveRuns();
+            if (processed > 0) {
+                log.info("本节点处理了 {} 个分片", processed);
+            }
+        } catch (Exception e) {
+            log.warn("分片计算工作线程执行失败: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+}
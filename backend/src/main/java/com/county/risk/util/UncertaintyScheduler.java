@@ -0,0 +1,45 @@
+package com.county.risk.util;
+
+import com.county.risk.job.JobTypes;
+import com.county.risk.service.JobService;
+import com.county.risk.service.RiskUncertaintyService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 定期综合得分不确定性计算
+ * 按 risk.uncertainty.schedule.cron（默认每天 02:30）对最近有数据的年份提交抽样任务，抽样次数与噪声幅度使用默认配置；
+ * 需配置 risk.uncertainty.schedule.enabled=true
+ */
+@Slf4j
+@Component
+@EnableScheduling
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "risk.uncertainty.schedule.enabled", havingValue = "true")
+public class UncertaintyScheduler {
+
+    private final RiskUncertaintyService riskUncertaintyService;
+    private final JobService jobService;
+
+    @Scheduled(cron = "${risk.uncertainty.schedule.cron:0 30 2 * * *}")
+    public void submitNightly() {
+        Map<String, Object> params = new HashMap<>();
+        params.put("year", null);
+        params.put("trials", null);
+        params.put("noiseRate", null);
+        try {
+            String jobId = jobService.submit(JobTypes.UNCERTAINTY_CALCULATION, params,
+                    context -> riskUncertaintyService.calculate(null, null, null, context));
+            log.info("已提交定期综合得分不确定性计算任务 {}", jobId);
+        } catch (IllegalStateException e) {
+            log.warn("定期综合得分不确定性计算提交失败: {}", e.getMessage());
+        }
+    }
+}
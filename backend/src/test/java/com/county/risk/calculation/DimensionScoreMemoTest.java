@@ -0,0 +1,91 @@
+package com.county.risk.calculation;
+
+import com.county.risk.entity.RiskInputChange;
+import com.county.risk.mapper.RiskInputChangeMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 维度得分备忘按变更日志失效：ID 较小但提交较晚的变更同样要失效对应县域年份
+ */
+class DimensionScoreMemoTest {
+
+    private final List<RiskInputChange> changeLog = new ArrayList<>();
+    private ScoringPlan plan;
+    private DimensionScoreMemo memo;
+
+    @BeforeEach
+    void setUp() {
+        RiskInputChangeMapper mapper = mock(RiskInputChangeMapper.class);
+        when(mapper.getMaxChangeId()).thenAnswer(inv -> changeLog.stream()
+                .map(RiskInputChange::getId).max(Long::compare).orElse(null));
+        when(mapper.selectChangesUpTo(anyLong())).thenAnswer(inv -> changeLog.stream()
+                .filter(c -> c.getId() <= (Long) inv.getArgument(0)).toList());
+        memo = new DimensionScoreMemo(mapper, true, 1000, false);
+        plan = ScoringPlan.compile(ScoringFixtures.byCategory(ScoringFixtures.defaultIndicators()));
+    }
+
+    @Test
+    void lateCommittedLowerIdInvalidates() {
+        changeLog.add(change(7L, "110101", 2015));
+        record("110101", 2015);
+        record("430821", 2015);
+        assertTrue(cached("110101", 2015));
+
+        // ID 6 在 ID 7 之后才提交，最大ID不变
+        changeLog.add(change(6L, "430821", 2015));
+        assertFalse(cached("430821", 2015));
+        assertTrue(cached("110101", 2015));
+    }
+
+    @Test
+    void changeSyncedAfterLookupInvalidatesRecordedResult() {
+        DimensionScoreMemo.Lookup before = memo.lookup(plan);
+        CountyScore stale = RiskScoringKernel.score(ScoringFixtures.fullCounty("110101", 2015), plan, true);
+
+        // 读取源数据之后发生的变更由另一次计算先同步，随后才记录本次基于旧数据的结果
+        changeLog.add(change(3L, "110101", 2015));
+        memo.lookup(plan);
+        memo.record(before, List.of(stale));
+        assertFalse(cached("110101", 2015));
+    }
+
+    @Test
+    void explicitInvalidationBeforeDeletion() {
+        record("110101", 2015);
+        assertTrue(cached("110101", 2015));
+
+        // 全历史计算读取变更后先失效备忘，再删除这些变更日志
+        changeLog.add(change(9L, "110101", 2015));
+        memo.invalidate(List.copyOf(changeLog));
+        changeLog.clear();
+        assertFalse(cached("110101", 2015));
+    }
+
+    private void record(String countyCode, int year) {
+        DimensionScoreMemo.Lookup lookup = memo.lookup(plan);
+        memo.record(lookup, List.of(RiskScoringKernel.score(ScoringFixtures.fullCounty(countyCode, year), plan, true)));
+    }
+
+    private boolean cached(String countyCode, int year) {
+        DimensionScoreMemo.Lookup lookup = memo.lookup(plan);
+        return lookup.fill(RiskDimension.ECONOMIC, countyCode, year, new double[RiskDimension.values().length], null);
+    }
+
+    private static RiskInputChange change(long id, String countyCode, int year) {
+        RiskInputChange change = new RiskInputChange();
+        change.setId(id);
+        change.setCountyCode(countyCode);
+        change.setYear(year);
+        return change;
+    }
+}
@@ -0,0 +1,216 @@
+package com.county.risk.calculation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 指标取值公式：运算优先级、缺失值与除零、引用校验，以及内置指标的公式写法与内置取值函数逐位一致
+ */
+class IndicatorFormulaTest {
+
+    private static final CountyYearFacts COUNTY = ScoringFixtures.fullCounty("430821", 2015);
+
+    @Test
+    void operatorPrecedenceAndAssociativity() {
+        assertEquals(7.0, value("1 + 2 * 3"));
+        assertEquals(9.0, value("(1 + 2) * 3"));
+        assertEquals(3.0, value("10 - 4 - 3"));
+        assertEquals(3.0, value("24 / 4 / 2"));
+        assertEquals(8.0, value("2 * 8 / 4 * 2"));
+        assertEquals(4.0, value("-2 * 3 + 10"));
+        assertEquals(-6.0, value("2 * -3"));
+        assertEquals(2.0, value("--2"));
+        assertEquals(-9.0, value("-(1 + 2) * 3"));
+        assertEquals(0.5, value(".5"));
+        // 列引用与常量折叠使用同一套优先级
+        assertEquals(0.75 + 0.55 * 2, value("fiscal_finance.debt_to_revenue_ratio + economic_aggregate.gdp_growth_rate * 2"));
+        assertEquals((0.75 + 0.55) * 2, value("(fiscal_finance.debt_to_revenue_ratio + economic_aggregate.gdp_growth_rate) * 2"));
+        assertEquals(0.75 - 0.55 - 1, value("fiscal_finance.debt_to_revenue_ratio - economic_aggregate.gdp_growth_rate - 1"));
+        assertEquals(-0.55, value("-economic_aggregate.gdp_growth_rate"));
+    }
+
+    @Test
+    void functions() {
+        assertEquals(1.0, value("min(3, 1, 2)"));
+        assertEquals(3.0, value("MAX(3, 1, 2)"));
+        assertEquals(0.55, value("max(economic_aggregate.gdp_growth_rate, 0.5)"));
+        assertEquals(2.5, value("abs(1 - 3.5)"));
+        assertEquals(0.55, value("coalesce(economic_aggregate.gdp_growth_rate, 1)"));
+
+        CountyYearFacts noGrowth = ScoringFixtures.fullCounty("430821", 2015);
+        noGrowth.getEconomic().setGdpGrowthRate(null);
+        assertEquals(1.0, IndicatorFormula.compile("coalesce(economic_aggregate.gdp_growth_rate, 1)").valueOf(noGrowth));
+        assertEquals(Double.NaN, IndicatorFormula.compile("coalesce(economic_aggregate.gdp_growth_rate)").valueOf(noGrowth));
+    }
+
+    @Test
+    void divisionByZeroIsMissing() {
+        assertEquals(Double.NaN, value("1 / 0"));
+        assertEquals(Double.NaN, value("economic_aggregate.gdp_growth_rate / 0"));
+        assertEquals(Double.NaN, value("economic_aggregate.gdp_growth_rate / (2 - 2)"));
+
+        CountyYearFacts noExpenditure = ScoringFixtures.fullCounty("430821", 2015);
+        noExpenditure.getFiscal().setFiscalExpenditure万元(0L);
+        assertEquals(Double.NaN, IndicatorFormula.compile(
+                "education_health.education_investment_万元 / fiscal_finance.fiscal_expenditure_万元").valueOf(noExpenditure));
+    }
+
+    @Test
+    void missingRowsAndNullColumnsAreMissing() {
+        IndicatorAccessor debt = IndicatorFormula.compile("fiscal_finance.debt_to_revenue_ratio * 100 + 1");
+
+        CountyYearFacts nullColumn = ScoringFixtures.fullCounty("430821", 2015);
+        nullColumn.getFiscal().setDebtToRevenueRatio(null);
+        assertEquals(Double.NaN, debt.valueOf(nullColumn));
+
+        CountyYearFacts noRow = ScoringFixtures.fullCounty("430821", 2015);
+        noRow.setFiscal(null);
+        assertEquals(Double.NaN, debt.valueOf(noRow));
+
+        // 缺失值向上传播，不被 min / max 吞掉
+        assertEquals(Double.NaN, IndicatorFormula.compile("max(fiscal_finance.debt_to_revenue_ratio, 0)").valueOf(noRow));
+        assertEquals(Double.NaN, IndicatorFormula.compile("abs(fiscal_finance.debt_to_revenue_ratio)").valueOf(noRow));
+    }
+
+    @Test
+    void unknownReferencesAreRejected() {
+        assertRejected("county_basic.gdp_per_capita", "未知的源数据表");
+        assertRejected("economic_aggregate.gdp", "中没有数值列");
+        assertRejected("economic_aggregate.gdpPerCapita", "中没有数值列");
+        // 非数值列与主键不能引用
+        assertRejected("economic_aggregate.county_code", "中没有数值列");
+        assertRejected("economic_aggregate.id", "中没有数值列");
+        assertRejected("sqrt(4)", "未知函数");
+        assertRejected("abs(1, 2)", "abs 需要 1 个参数");
+        assertRejected("min()", "至少需要 1 个参数");
+    }
+
+    @Test
+    void malformedFormulasAreRejected() {
+        assertRejected("1 +", "公式不完整");
+        assertRejected("(1 + 2", "缺少 ')'");
+        assertRejected("1 2", "第 3 个字符");
+        assertRejected("economic_aggregate", "缺少 '.'");
+        assertRejected("1..2", "无效的数字");
+        assertRejected("1 # 2", "意外的字符 '#'");
+        assertThrows(IllegalArgumentException.class, () -> IndicatorFormula.compile(" "));
+        assertThrows(IllegalArgumentException.class, () -> IndicatorFormula.compile(null));
+    }
+
+    @Test
+    void compiledFormulasAreCachedByText() {
+        assertSame(IndicatorFormula.compile("economic_aggregate.gdp_growth_rate * 2"),
+                IndicatorFormula.compile("  economic_aggregate.gdp_growth_rate * 2 "));
+    }
+
+    @Test
+    void availableColumnsUseDatabaseColumnNames() {
+        Map<String, List<String>> columns = IndicatorFormula.availableColumns();
+        assertEquals(List.of("economic_aggregate", "fiscal_finance", "population_statistics", "environment_culture",
+                "education_health", "investment_consumption"), new ArrayList<>(columns.keySet()));
+        assertTrue(columns.get("education_health").contains("education_investment_万元"));
+        assertTrue(columns.get("fiscal_finance").contains("fiscal_expenditure_万元"));
+        assertTrue(columns.get("economic_aggregate").contains("gdp_per_capita"));
+        // 列出的每一列都能在公式中引用
+        columns.forEach((table, tableColumns) -> tableColumns.forEach(column ->
+                IndicatorFormula.compile(table + "." + column).valueOf(COUNTY)));
+    }
+
+    /**
+     * 就业率与收入差距使用模拟数据，没有对应的公式写法
+     */
+    @Test
+    void builtInIndicatorsMatchTheirFormulaForms() {
+        Map<String, String> formulas = new LinkedHashMap<>();
+        formulas.put("ECONOMIC:GDP_GROWTH", "economic_aggregate.gdp_growth_rate");
+        formulas.put("ECONOMIC:FISCAL_SELF_SUFFICIENCY", "fiscal_finance.fiscal_self_sufficiency");
+        formulas.put("ECONOMIC:DEBT_RATIO", "fiscal_finance.debt_to_revenue_ratio");
+        formulas.put("ECONOMIC:GDP_PER_CAPITA", "economic_aggregate.gdp_per_capita / 10000");
+        formulas.put("SOCIAL:POPULATION_DECLINE", "0");
+        formulas.put("ENVIRONMENT:AIR_QUALITY", "environment_culture.air_quality_index");
+        formulas.put("ENVIRONMENT:GREEN_COVERAGE_RATE", "environment_culture.green_coverage_rate");
+        formulas.put("ENVIRONMENT:EMISSION_INTENSITY", "environment_culture.emission_intensity");
+        formulas.put("GOVERNANCE:EDUCATION_INVESTMENT",
+                "education_health.education_investment_万元 / fiscal_finance.fiscal_expenditure_万元 * 100");
+        formulas.put("GOVERNANCE:HEALTH_INVESTMENT",
+                "education_health.health_investment_万元 / fiscal_finance.fiscal_expenditure_万元 * 100");
+        formulas.put("DEVELOPMENT:INVESTMENT_EFFICIENCY", "investment_consumption.investment_efficiency");
+        formulas.put("DEVELOPMENT:CONSUMPTION_RATE", "investment_consumption.consumption_rate");
+        // 投资效率为空时取 50，整行缺失时为缺失值
+        formulas.put("DEVELOPMENT:INNOVATION_CAPACITY",
+                "40 + coalesce(investment_consumption.investment_efficiency * 30, investment_consumption.year * 0 + 10)");
+
+        List<CountyYearFacts> counties = fixtureVariants();
+        formulas.forEach((key, formula) -> {
+            String[] parts = key.split(":");
+            IndicatorAccessor builtIn = IndicatorAccessors.resolve(RiskDimension.valueOf(parts[0]), parts[1]);
+            IndicatorAccessor compiled = IndicatorFormula.compile(formula);
+            for (CountyYearFacts facts : counties) {
+                assertEquals(builtIn.valueOf(facts), compiled.valueOf(facts),
+                        key + " @ " + facts.getCountyCode() + "/" + facts.getYear());
+            }
+        });
+    }
+
+    /**
+     * 完整县域，以及逐张表缺失、逐列为空、财政支出为 0 的变体
+     */
+    private static List<CountyYearFacts> fixtureVariants() {
+        List<CountyYearFacts> variants = new ArrayList<>();
+        for (String county : List.of("110101", "430821", "652201")) {
+            for (int year = 2010; year <= 2012; year++) {
+                variants.add(ScoringFixtures.fullCounty(county, year));
+            }
+        }
+        variants.add(new CountyYearFacts("110101", 2015));
+
+        CountyYearFacts f = ScoringFixtures.fullCounty("430821", 2015);
+        f.setEconomic(null);
+        f.setInvestment(null);
+        variants.add(f);
+        f = ScoringFixtures.fullCounty("430821", 2015);
+        f.setFiscal(null);
+        f.setEnvironment(null);
+        variants.add(f);
+        f = ScoringFixtures.fullCounty("430821", 2015);
+        f.setEducationHealth(null);
+        variants.add(f);
+
+        f = ScoringFixtures.fullCounty("430821", 2015);
+        f.getEconomic().setGdpGrowthRate(null);
+        f.getEconomic().setGdpPerCapita(null);
+        f.getFiscal().setDebtToRevenueRatio(null);
+        f.getEnvironment().setGreenCoverageRate(null);
+        f.getEducationHealth().setHealthInvestment万元(null);
+        f.getInvestment().setInvestmentEfficiency(null);
+        variants.add(f);
+        f = ScoringFixtures.fullCounty("430821", 2015);
+        f.getFiscal().setFiscalExpenditure万元(0L);
+        variants.add(f);
+        f = ScoringFixtures.fullCounty("430821", 2015);
+        f.getFiscal().setFiscalExpenditure万元(null);
+        f.getFiscal().setFiscalSelfSufficiency(null);
+        f.getInvestment().setConsumptionRate(null);
+        variants.add(f);
+        return variants;
+    }
+
+    private static double value(String formula) {
+        return IndicatorFormula.compile(formula).valueOf(COUNTY);
+    }
+
+    private static void assertRejected(String formula, String message) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> IndicatorFormula.compile(formula));
+        assertTrue(e.getMessage().startsWith("取值公式错误（第 "), e.getMessage());
+        assertTrue(e.getMessage().contains(message), e.getMessage());
+    }
+}
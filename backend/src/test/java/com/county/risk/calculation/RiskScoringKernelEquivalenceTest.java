@@ -0,0 +1,588 @@
+package com.county.risk.calculation;
+
+import com.county.risk.entity.EconomicAggregate;
+import com.county.risk.entity.EducationHealth;
+import com.county.risk.entity.EnvironmentCulture;
+import com.county.risk.entity.FiscalFinance;
+import com.county.risk.entity.InvestmentConsumption;
+import com.county.risk.entity.PopulationStatistics;
+import com.county.risk.entity.RiskIndicator;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * double 计分内核与原 BigDecimal 实现的等价性：按 DECIMAL(8,4) 写库的各维度得分与综合得分、每个指标的单项得分必须逐位相同
+ * 原实现（{@link Legacy}）直接由 RiskIndicator 配置驱动，不经过计分计划编译，用来核对阈值缺省值与内置取值函数
+ */
+class RiskScoringKernelEquivalenceTest {
+
+    private static final DimensionWeights DEFAULT_WEIGHTS =
+            ScoringFixtures.weights("0.35", "0.25", "0.15", "0.15", "0.10");
+
+    @Test
+    void fixtureCountiesMatchWithEqualAndConfiguredWeights() {
+        Map<String, List<RiskIndicator>> config = ScoringFixtures.byCategory(ScoringFixtures.defaultIndicators());
+        for (DimensionWeights weights : List.of(DimensionWeights.EQUAL, DEFAULT_WEIGHTS)) {
+            ScoringPlan plan = ScoringPlan.compile(config, weights);
+            for (String county : List.of("110101", "130102", "430821", "652201")) {
+                for (int year = 2000; year <= 2023; year++) {
+                    assertEquivalent(ScoringFixtures.fullCounty(county, year), plan, config);
+                }
+            }
+        }
+    }
+
+    @Test
+    void missingDimensionsUseDefaultScores() {
+        Map<String, List<RiskIndicator>> config = ScoringFixtures.byCategory(ScoringFixtures.defaultIndicators());
+        ScoringPlan plan = ScoringPlan.compile(config, DEFAULT_WEIGHTS);
+
+        CountyYearFacts noEnvironment = ScoringFixtures.fullCounty("430821", 2015);
+        noEnvironment.setEnvironment(null);
+        noEnvironment.setInvestment(null);
+        assertEquivalent(noEnvironment, plan, config);
+        CountyScore score = RiskScoringKernel.score(noEnvironment, plan);
+        assertEquals(RiskDimension.ENVIRONMENT.getMissingDataScore(), score.getDimensionScore(RiskDimension.ENVIRONMENT));
+        assertEquals(RiskDimension.DEVELOPMENT.getMissingDataScore(), score.getDimensionScore(RiskDimension.DEVELOPMENT));
+
+        // 治理维度需要教育卫生与财政两张表
+        CountyYearFacts noFiscal = ScoringFixtures.fullCounty("430821", 2015);
+        noFiscal.setFiscal(null);
+        noFiscal.setEducationHealth(null);
+        assertEquivalent(noFiscal, plan, config);
+
+        CountyYearFacts socialOnly = new CountyYearFacts("652201", 2011);
+        socialOnly.setPopulation(ScoringFixtures.fullCounty("652201", 2011).getPopulation());
+        assertEquivalent(socialOnly, plan, config);
+
+        assertEquivalent(new CountyYearFacts("652201", 2010), plan, config);
+    }
+
+    @Test
+    void dimensionWithoutIndicatorsScoresTwenty() {
+        List<RiskIndicator> indicators = new ArrayList<>(ScoringFixtures.defaultIndicators());
+        indicators.removeIf(i -> RiskDimension.GOVERNANCE.getCategory().equals(i.getCategory()));
+        Map<String, List<RiskIndicator>> config = ScoringFixtures.byCategory(indicators);
+        ScoringPlan plan = ScoringPlan.compile(config, DEFAULT_WEIGHTS);
+        CountyYearFacts facts = ScoringFixtures.fullCounty("130102", 2012);
+        assertEquivalent(facts, plan, config);
+        assertEquals(RiskDimension.NO_INDICATOR_SCORE,
+                RiskScoringKernel.score(facts, plan).getDimensionScore(RiskDimension.GOVERNANCE));
+    }
+
+    @Test
+    void missingValuesScoreTwenty() {
+        Map<String, List<RiskIndicator>> config = ScoringFixtures.byCategory(ScoringFixtures.defaultIndicators());
+        ScoringPlan plan = ScoringPlan.compile(config, DEFAULT_WEIGHTS);
+        CountyYearFacts facts = ScoringFixtures.fullCounty("110101", 2018);
+        facts.getEconomic().setGdpGrowthRate(null);
+        facts.getEconomic().setGdpPerCapita(null);
+        // 财政支出为 0 时教育、医疗投入占比无法计算
+        facts.getFiscal().setFiscalExpenditure万元(0L);
+        facts.getEnvironment().setAirQualityIndex(null);
+        assertEquivalent(facts, plan, config);
+
+        CountyScore score = RiskScoringKernel.score(facts, plan, true);
+        IndicatorBreakdown breakdown = score.getBreakdown();
+        int missing = 0;
+        for (int i = 0; i < plan.getIndicatorCount(); i++) {
+            if (Double.isNaN(breakdown.value(i))) {
+                assertEquals(20, breakdown.itemScore(i));
+                missing++;
+            }
+        }
+        assertEquals(5, missing);
+    }
+
+    @Test
+    void dimensionScoreIsCappedAtHundred() {
+        List<RiskIndicator> indicators = List.of(
+                ScoringFixtures.indicator(1, "GDP_GROWTH", RiskDimension.ECONOMIC, "0.6", "0.8", "0.6", "0.4", "LT"),
+                ScoringFixtures.indicator(2, "FISCAL_SELF_SUFFICIENCY", RiskDimension.ECONOMIC, "0.6", "0.8", "0.6", "0.4", "LT"),
+                ScoringFixtures.indicator(3, "DEBT_RATIO", RiskDimension.ECONOMIC, "0.3333", "0.1", "0.05", "0.01", "GT"));
+        Map<String, List<RiskIndicator>> config = ScoringFixtures.byCategory(indicators);
+        ScoringPlan plan = ScoringPlan.compile(config, DEFAULT_WEIGHTS);
+        CountyYearFacts facts = ScoringFixtures.fullCounty("430821", 2020);
+        assertEquivalent(facts, plan, config);
+        assertEquals(100.0, RiskScoringKernel.score(facts, plan).getDimensionScore(RiskDimension.ECONOMIC));
+    }
+
+    @Test
+    void comprehensiveScoreIsClampedToRange() {
+        List<RiskIndicator> indicators = List.of(
+                ScoringFixtures.indicator(1, "GDP_GROWTH", RiskDimension.ECONOMIC, "1.0", "0.6", "0.5", "0.4", "LT"));
+        Map<String, List<RiskIndicator>> config = ScoringFixtures.byCategory(indicators);
+        ScoringPlan plan = ScoringPlan.compile(config, ScoringFixtures.weights("1", "0", "0", "0", "0"));
+
+        // 基础分为 100，年份很早时逐年趋势使综合得分超过 100，年份很晚时低于 0
+        CountyYearFacts early = ScoringFixtures.fullCounty("110101", 1000);
+        assertEquivalent(early, plan, config);
+        assertEquals(100.0, RiskScoringKernel.score(early, plan).getComprehensiveScore());
+
+        CountyYearFacts late = ScoringFixtures.fullCounty("110101", 4200);
+        assertEquivalent(late, plan, config);
+        assertEquals(0.0, RiskScoringKernel.score(late, plan).getComprehensiveScore());
+    }
+
+    @Test
+    void baseScoreRoundingTiesMatch() {
+        // 加权平均恰好落在 0.005 上时按 HALF_UP 进位：140.025 / 5 = 28.005 -> 28.01
+        double[] tie = {20, 30, 30, 30, 30.025};
+        assertComprehensiveEquivalent(tie, DimensionWeights.EQUAL, "110101", 2000);
+        assertEquals(28.01, RiskScoringKernel.baseScore(tie, DimensionWeights.EQUAL));
+
+        Random random = new Random(7L);
+        for (int round = 0; round < 20_000; round++) {
+            double[] dims = new double[RiskDimension.values().length];
+            for (int d = 0; d < dims.length; d++) {
+                // 维度得分精确值最多 4 位小数；取 0.025 的倍数使舍入恰好落在中点的情况足够多
+                dims[d] = round % 2 == 0 ? random.nextInt(1_000_001) / 10_000.0 : random.nextInt(4001) * 0.025;
+            }
+            DimensionWeights weights = round % 3 == 0 ? DimensionWeights.EQUAL
+                    : ScoringFixtures.weights(decimal(random, 4, 1), decimal(random, 4, 1), decimal(random, 4, 1),
+                    decimal(random, 4, 1), "0.1000");
+            assertComprehensiveEquivalent(dims, weights, String.format("%06d", random.nextInt(999_999)),
+                    1980 + random.nextInt(50));
+        }
+    }
+
+    @Test
+    void randomConfigurationsMatch() {
+        Random random = new Random(20240101L);
+        String[] codes = {"GDP_GROWTH", "GDP_PER_CAPITA", "FISCAL_SELF_SUFFICIENCY", "DEBT_RATIO",
+                "EMPLOYMENT_RATE", "INCOME_GAP", "AIR_QUALITY", "GREEN_COVERAGE_RATE", "EMISSION_INTENSITY",
+                "EDUCATION_INVESTMENT", "HEALTH_INVESTMENT", "INVESTMENT_EFFICIENCY", "CONSUMPTION_RATE",
+                "INNOVATION_CAPACITY"};
+        RiskDimension[] dimensions = {RiskDimension.ECONOMIC, RiskDimension.ECONOMIC, RiskDimension.ECONOMIC,
+                RiskDimension.ECONOMIC, RiskDimension.SOCIAL, RiskDimension.SOCIAL, RiskDimension.ENVIRONMENT,
+                RiskDimension.ENVIRONMENT, RiskDimension.ENVIRONMENT, RiskDimension.GOVERNANCE,
+                RiskDimension.GOVERNANCE, RiskDimension.DEVELOPMENT, RiskDimension.DEVELOPMENT,
+                RiskDimension.DEVELOPMENT};
+        for (int round = 0; round < 500; round++) {
+            List<RiskIndicator> indicators = new ArrayList<>();
+            for (int i = 0; i < codes.length; i++) {
+                if (random.nextInt(5) == 0) {
+                    continue;
+                }
+                boolean gt = random.nextBoolean();
+                double a = random.nextDouble();
+                double b = random.nextDouble();
+                double c = random.nextDouble();
+                double[] t = {Math.min(a, Math.min(b, c)), a + b + c - Math.min(a, Math.min(b, c)) - Math.max(a, Math.max(b, c)),
+                        Math.max(a, Math.max(b, c))};
+                indicators.add(ScoringFixtures.indicator(i + 1, codes[i], dimensions[i], decimal(random, 4, 0.5),
+                        decimal4(gt ? t[2] : t[0]), decimal4(t[1]), decimal4(gt ? t[0] : t[2]), gt ? "GT" : "LT"));
+            }
+            DimensionWeights weights = ScoringFixtures.weights(decimal(random, 4, 1), decimal(random, 4, 1),
+                    decimal(random, 4, 1), decimal(random, 4, 1), "0.0500");
+            Map<String, List<RiskIndicator>> config = ScoringFixtures.byCategory(indicators);
+            ScoringPlan plan = ScoringPlan.compile(config, weights);
+            for (int k = 0; k < 20; k++) {
+                String county = String.format("%06d", 110000 + random.nextInt(550000));
+                CountyYearFacts facts = ScoringFixtures.fullCounty(county, 1990 + random.nextInt(40));
+                facts.getEconomic().setGdpGrowthRate(randomValue(random));
+                facts.getFiscal().setFiscalSelfSufficiency(randomValue(random));
+                facts.getFiscal().setDebtToRevenueRatio(randomValue(random));
+                facts.getEnvironment().setAirQualityIndex(randomValue(random));
+                facts.getEnvironment().setEmissionIntensity(randomValue(random));
+                facts.getInvestment().setInvestmentEfficiency(randomValue(random));
+                if (random.nextInt(10) == 0) {
+                    facts.setEnvironment(null);
+                }
+                assertEquivalent(facts, plan, config);
+            }
+        }
+    }
+
+    /**
+     * 阈值缺失（GT 时高阈值按永不触发、中/低阈值按 0；LT 时缺失的阈值不参与比较）、权重缺失、
+     * 未知指标代码与放错维度的指标代码（都按取值缺失计 20 分），以及取值恰好等于阈值的情况
+     */
+    @Test
+    void incompleteIndicatorConfigurationsMatch() {
+        Random random = new Random(20240315L);
+        String[] codes = {"GDP_GROWTH", "GDP_PER_CAPITA", "FISCAL_SELF_SUFFICIENCY", "DEBT_RATIO",
+                "POPULATION_DECLINE", "EMPLOYMENT_RATE", "INCOME_GAP", "AIR_QUALITY", "GREEN_COVERAGE_RATE",
+                "EMISSION_INTENSITY", "EDUCATION_INVESTMENT", "HEALTH_INVESTMENT", "INVESTMENT_EFFICIENCY",
+                "CONSUMPTION_RATE", "INNOVATION_CAPACITY", "UNKNOWN_CODE", "gdp_growth"};
+        String[] operators = {"GT", "LT", "GT", "LT", null, "gt", "EQ"};
+        String[] thresholds = {null, "0", "0.3", "0.5", "0.55", "0.75", "1.2", "4.1667", "-1"};
+        for (int round = 0; round < 400; round++) {
+            List<RiskIndicator> indicators = new ArrayList<>();
+            for (int i = 0; i < 12; i++) {
+                RiskDimension dimension = RiskDimension.values()[random.nextInt(RiskDimension.values().length)];
+                RiskIndicator indicator = ScoringFixtures.indicator(i + 1, codes[random.nextInt(codes.length)],
+                        dimension, random.nextInt(5) == 0 ? null : decimal(random, 4, 0.4),
+                        thresholds[random.nextInt(thresholds.length)], thresholds[random.nextInt(thresholds.length)],
+                        thresholds[random.nextInt(thresholds.length)], operators[random.nextInt(operators.length)]);
+                indicators.add(indicator);
+            }
+            Map<String, List<RiskIndicator>> config = ScoringFixtures.byCategory(indicators);
+            ScoringPlan plan = ScoringPlan.compile(config, DEFAULT_WEIGHTS);
+            for (int k = 0; k < 5; k++) {
+                CountyYearFacts facts = ScoringFixtures.fullCounty(String.format("%06d", 110000 + random.nextInt(550000)),
+                        1995 + random.nextInt(30));
+                facts.getEconomic().setGdpGrowthRate(thresholdValue(random));
+                facts.getFiscal().setDebtToRevenueRatio(thresholdValue(random));
+                facts.getFiscal().setFiscalSelfSufficiency(thresholdValue(random));
+                facts.getEnvironment().setAirQualityIndex(thresholdValue(random));
+                facts.getInvestment().setInvestmentEfficiency(thresholdValue(random));
+                if (random.nextInt(4) == 0) {
+                    facts.getFiscal().setFiscalExpenditure万元(random.nextBoolean() ? null : 0L);
+                }
+                if (random.nextInt(6) == 0) {
+                    facts.setEducationHealth(null);
+                }
+                assertEquivalent(facts, plan, config);
+            }
+        }
+    }
+
+    /**
+     * 取值多半恰好落在 {@code thresholds} 中的阈值上
+     */
+    private static BigDecimal thresholdValue(Random random) {
+        String[] values = {"0", "0.3", "0.5", "0.55", "0.75", "1.2", "-1"};
+        int pick = random.nextInt(values.length + 2);
+        if (pick == values.length) {
+            return null;
+        }
+        return pick < values.length ? new BigDecimal(values[pick]) : BigDecimal.valueOf(random.nextInt(15_000), 4);
+    }
+
+    private static BigDecimal randomValue(Random random) {
+        return random.nextInt(8) == 0 ? null : BigDecimal.valueOf(random.nextInt(12_000), 4);
+    }
+
+    private static String decimal(Random random, int scale, double max) {
+        return BigDecimal.valueOf(random.nextDouble() * max).setScale(scale, RoundingMode.HALF_UP).toPlainString();
+    }
+
+    private static String decimal4(double value) {
+        return BigDecimal.valueOf(value).setScale(4, RoundingMode.HALF_UP).toPlainString();
+    }
+
+    /**
+     * @param config 编译 plan 使用的指标配置，原实现直接按它计分
+     */
+    private static void assertEquivalent(CountyYearFacts facts, ScoringPlan plan,
+                                         Map<String, List<RiskIndicator>> config) {
+        CountyScore score = RiskScoringKernel.score(facts, plan, true);
+        String key = facts.getCountyCode() + "/" + facts.getYear();
+        Map<Integer, BigDecimal> legacyItems = new HashMap<>();
+        BigDecimal[] legacyDims = Legacy.dimensionRisks(facts, config, legacyItems);
+        for (RiskDimension dimension : RiskDimension.values()) {
+            assertEquals(persisted(legacyDims[dimension.ordinal()]), CountyScore.toDecimal(score.getDimensionScore(dimension)),
+                    key + " " + dimension);
+        }
+        IndicatorBreakdown breakdown = score.getBreakdown();
+        int scored = 0;
+        for (int i = 0; i < breakdown.size(); i++) {
+            if (breakdown.isScored(i)) {
+                CompiledIndicator indicator = breakdown.indicator(i);
+                BigDecimal legacyItem = legacyItems.get(indicator.getIndicatorId());
+                assertEquals(legacyItem != null ? legacyItem.intValueExact() : null, breakdown.itemScore(i),
+                        key + " " + indicator.getCode() + "#" + indicator.getIndicatorId());
+                scored++;
+            }
+        }
+        assertEquals(legacyItems.size(), scored, key + " 参与计分的指标数");
+        BigDecimal legacy = Legacy.comprehensive(legacyDims, plan.getDimensionWeights(), facts.getCountyCode(),
+                facts.getYear());
+        assertEquals(persisted(legacy), CountyScore.toDecimal(score.getComprehensiveScore()), key + " 综合得分");
+        assertTrue(score.getComprehensiveScore() >= 0 && score.getComprehensiveScore() <= 100);
+    }
+
+    private static void assertComprehensiveEquivalent(double[] dims, DimensionWeights weights, String countyCode,
+                                                      int year) {
+        BigDecimal[] legacyDims = new BigDecimal[dims.length];
+        for (int d = 0; d < dims.length; d++) {
+            legacyDims[d] = BigDecimal.valueOf(dims[d]);
+        }
+        assertEquals(persisted(Legacy.comprehensive(legacyDims, weights, countyCode, year)),
+                CountyScore.toDecimal(RiskScoringKernel.comprehensiveScore(dims, weights, countyCode, year)),
+                countyCode + "/" + year + " " + Arrays.toString(dims) + " " + weights);
+    }
+
+    /**
+     * 写入 DECIMAL(8,4) 列后的值
+     */
+    private static BigDecimal persisted(BigDecimal value) {
+        return value.setScale(CountyScore.SCORE_SCALE, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * 原 RiskCalculationServiceImpl 中的 BigDecimal 计分，各维度的取值 switch 与 calculateItemScore 原样保留。与原实现的差异只有：
+     * 源数据行由 CountyYearFacts 提供而不是逐表查询；每个指标的单项得分记录到 items；权重为空按 0 计（原实现抛出空指针异常）；
+     * 就业率与收入差距原为 Math.random() 模拟值，改用内置取值函数的确定性模拟值；
+     * 综合得分的维度加权平均由等权重的除以 5 推广为按维度权重加权
+     */
+    private static final class Legacy {
+
+        static BigDecimal[] dimensionRisks(CountyYearFacts facts, Map<String, List<RiskIndicator>> indicators,
+                                           Map<Integer, BigDecimal> items) {
+            BigDecimal[] dims = new BigDecimal[RiskDimension.values().length];
+            dims[RiskDimension.ECONOMIC.ordinal()] = calculateEconomicRisk(facts, indicators.get("经济风险"), items);
+            dims[RiskDimension.SOCIAL.ordinal()] = calculateSocialRisk(facts, indicators.get("社会风险"), items);
+            dims[RiskDimension.ENVIRONMENT.ordinal()] = calculateEnvironmentRisk(facts, indicators.get("环境风险"), items);
+            dims[RiskDimension.GOVERNANCE.ordinal()] = calculateGovernanceRisk(facts, indicators.get("治理风险"), items);
+            dims[RiskDimension.DEVELOPMENT.ordinal()] = calculateDevelopmentRisk(facts, indicators.get("发展风险"), items);
+            return dims;
+        }
+
+        private static BigDecimal calculateEconomicRisk(CountyYearFacts facts, List<RiskIndicator> indicators,
+                                                        Map<Integer, BigDecimal> items) {
+            BigDecimal score = BigDecimal.ZERO;
+            if (indicators == null || indicators.isEmpty())
+                return BigDecimal.valueOf(20.0);
+
+            EconomicAggregate data = facts.getEconomic();
+            FiscalFinance fiscal = facts.getFiscal();
+
+            if (data == null && fiscal == null)
+                return BigDecimal.valueOf(50.0);
+
+            for (RiskIndicator indicator : indicators) {
+                Double value = null;
+                switch (indicator.getIndicatorCode()) {
+                    case "GDP_GROWTH":
+                        if (data != null && data.getGdpGrowthRate() != null)
+                            value = data.getGdpGrowthRate().doubleValue();
+                        break;
+                    case "FISCAL_SELF_SUFFICIENCY":
+                        if (fiscal != null && fiscal.getFiscalSelfSufficiency() != null)
+                            value = fiscal.getFiscalSelfSufficiency().doubleValue();
+                        break;
+                    case "DEBT_RATIO":
+                        if (fiscal != null && fiscal.getDebtToRevenueRatio() != null)
+                            value = fiscal.getDebtToRevenueRatio().doubleValue();
+                        break;
+                    case "GDP_PER_CAPITA":
+                        if (data != null && data.getGdpPerCapita() != null)
+                            value = data.getGdpPerCapita().doubleValue() / 10000.0; // 转换为万元
+                        break;
+                }
+
+                BigDecimal itemScore = (value != null) ? calculateItemScore(value, indicator) : BigDecimal.valueOf(20);
+                items.put(indicator.getIndicatorId(), itemScore);
+                score = score.add(itemScore.multiply(weightOf(indicator)));
+            }
+            return score.min(BigDecimal.valueOf(100));
+        }
+
+        private static BigDecimal calculateSocialRisk(CountyYearFacts facts, List<RiskIndicator> indicators,
+                                                      Map<Integer, BigDecimal> items) {
+            BigDecimal score = BigDecimal.ZERO;
+            if (indicators == null || indicators.isEmpty())
+                return BigDecimal.valueOf(20.0);
+
+            PopulationStatistics pop = facts.getPopulation();
+            // 假设有社会相关表，这里暂用人口表和经济表(收入差距)
+            EconomicAggregate eco = facts.getEconomic();
+
+            if (pop == null && eco == null)
+                return BigDecimal.valueOf(30.0);
+
+            for (RiskIndicator indicator : indicators) {
+                Double value = null;
+                switch (indicator.getIndicatorCode()) {
+                    case "POPULATION_DECLINE":
+                        // 假设 growth_rate 为负表示流失，取反作为流失率
+                        // 暂无直接字段，模拟数据
+                        value = 0.0;
+                        break;
+                    case "EMPLOYMENT_RATE":
+                    case "INCOME_GAP":
+                        // 原为 Math.random() 模拟值
+                        value = simulated(facts, indicator.getIndicatorCode());
+                        break;
+                }
+                BigDecimal itemScore = (value != null) ? calculateItemScore(value, indicator) : BigDecimal.valueOf(20);
+                items.put(indicator.getIndicatorId(), itemScore);
+                score = score.add(itemScore.multiply(weightOf(indicator)));
+            }
+            return score.min(BigDecimal.valueOf(100));
+        }
+
+        private static BigDecimal calculateEnvironmentRisk(CountyYearFacts facts, List<RiskIndicator> indicators,
+                                                           Map<Integer, BigDecimal> items) {
+            BigDecimal score = BigDecimal.ZERO;
+            if (indicators == null || indicators.isEmpty())
+                return BigDecimal.valueOf(20.0);
+
+            EnvironmentCulture data = facts.getEnvironment();
+            if (data == null)
+                return BigDecimal.valueOf(30.0);
+
+            for (RiskIndicator indicator : indicators) {
+                Double value = null;
+                switch (indicator.getIndicatorCode()) {
+                    case "AIR_QUALITY": // DB Code: AIR_QUALITY
+                        if (data.getAirQualityIndex() != null)
+                            value = data.getAirQualityIndex().doubleValue();
+                        break;
+                    case "GREEN_COVERAGE_RATE":
+                        if (data.getGreenCoverageRate() != null)
+                            value = data.getGreenCoverageRate().doubleValue();
+                        break;
+                    case "EMISSION_INTENSITY":
+                        if (data.getEmissionIntensity() != null)
+                            value = data.getEmissionIntensity().doubleValue();
+                        break;
+                }
+                BigDecimal itemScore = (value != null) ? calculateItemScore(value, indicator) : BigDecimal.valueOf(20);
+                items.put(indicator.getIndicatorId(), itemScore);
+                score = score.add(itemScore.multiply(weightOf(indicator)));
+            }
+            return score.min(BigDecimal.valueOf(100));
+        }
+
+        private static BigDecimal calculateGovernanceRisk(CountyYearFacts facts, List<RiskIndicator> indicators,
+                                                          Map<Integer, BigDecimal> items) {
+            BigDecimal score = BigDecimal.ZERO;
+            if (indicators == null || indicators.isEmpty())
+                return BigDecimal.valueOf(20.0);
+
+            EducationHealth data = facts.getEducationHealth();
+            FiscalFinance fiscal = facts.getFiscal();
+
+            if (data == null || fiscal == null)
+                return BigDecimal.valueOf(30.0);
+
+            for (RiskIndicator indicator : indicators) {
+                Double value = null;
+                if (fiscal.getFiscalExpenditure万元() != null && fiscal.getFiscalExpenditure万元() > 0) {
+                    switch (indicator.getIndicatorCode()) {
+                        case "EDUCATION_INVESTMENT": // DB Code: EDUCATION_INVESTMENT
+                            if (data.getEducationInvestment万元() != null)
+                                value = (double) data.getEducationInvestment万元() / fiscal.getFiscalExpenditure万元() * 100;
+                            break;
+                        case "HEALTH_INVESTMENT": // DB Code: HEALTH_INVESTMENT
+                            if (data.getHealthInvestment万元() != null)
+                                value = (double) data.getHealthInvestment万元() / fiscal.getFiscalExpenditure万元() * 100;
+                            break;
+                    }
+                }
+                BigDecimal itemScore = (value != null) ? calculateItemScore(value, indicator) : BigDecimal.valueOf(20);
+                items.put(indicator.getIndicatorId(), itemScore);
+                score = score.add(itemScore.multiply(weightOf(indicator)));
+            }
+            return score.min(BigDecimal.valueOf(100));
+        }
+
+        private static BigDecimal calculateDevelopmentRisk(CountyYearFacts facts, List<RiskIndicator> indicators,
+                                                           Map<Integer, BigDecimal> items) {
+            BigDecimal score = BigDecimal.ZERO;
+            if (indicators == null || indicators.isEmpty())
+                return BigDecimal.valueOf(20.0);
+
+            InvestmentConsumption data = facts.getInvestment();
+            if (data == null)
+                return BigDecimal.valueOf(30.0);
+
+            for (RiskIndicator indicator : indicators) {
+                Double value = null;
+                switch (indicator.getIndicatorCode()) {
+                    case "INVESTMENT_EFFICIENCY":
+                        if (data.getInvestmentEfficiency() != null)
+                            value = data.getInvestmentEfficiency().doubleValue();
+                        break;
+                    case "CONSUMPTION_RATE":
+                        if (data.getConsumptionRate() != null)
+                            value = data.getConsumptionRate().doubleValue();
+                        break;
+                    case "INNOVATION_CAPACITY":
+                        // 模拟创新指数：基于投资效率和年份生成一个 40-90 的值
+                        if (data.getInvestmentEfficiency() != null) {
+                            value = 40 + (data.getInvestmentEfficiency().doubleValue() * 30);
+                        } else {
+                            value = 50.0;
+                        }
+                        break;
+                }
+                BigDecimal itemScore = (value != null) ? calculateItemScore(value, indicator) : BigDecimal.valueOf(20);
+                items.put(indicator.getIndicatorId(), itemScore);
+                score = score.add(itemScore.multiply(weightOf(indicator)));
+            }
+            return score.min(BigDecimal.valueOf(100));
+        }
+
+        /**
+         * 根据指标配置和实际值计算单项得分
+         */
+        private static BigDecimal calculateItemScore(Double value, RiskIndicator indicator) {
+            double high = indicator.getThresholdHigh() != null ? indicator.getThresholdHigh().doubleValue()
+                    : Double.MAX_VALUE;
+            double medium = indicator.getThresholdMedium() != null ? indicator.getThresholdMedium().doubleValue() : 0;
+            double low = indicator.getThresholdLow() != null ? indicator.getThresholdLow().doubleValue() : 0;
+
+            if ("GT".equals(indicator.getComparisonOperator())) {
+                // 大于阈值风险高 (如AQI)
+                if (value > high)
+                    return BigDecimal.valueOf(100);
+                if (value > medium)
+                    return BigDecimal.valueOf(80);
+                if (value > low)
+                    return BigDecimal.valueOf(60);
+                return BigDecimal.valueOf(20);
+            } else {
+                // 小于阈值风险高 (如GDP增长率)
+                if (indicator.getThresholdHigh() != null && value < indicator.getThresholdHigh().doubleValue())
+                    return BigDecimal.valueOf(100);
+                if (indicator.getThresholdMedium() != null && value < indicator.getThresholdMedium().doubleValue())
+                    return BigDecimal.valueOf(80);
+                if (indicator.getThresholdLow() != null && value < indicator.getThresholdLow().doubleValue())
+                    return BigDecimal.valueOf(60);
+                return BigDecimal.valueOf(20);
+            }
+        }
+
+        private static BigDecimal weightOf(RiskIndicator indicator) {
+            return indicator.getWeight() != null ? indicator.getWeight() : BigDecimal.ZERO;
+        }
+
+        private static Double simulated(CountyYearFacts facts, String code) {
+            return IndicatorAccessors.resolve(RiskDimension.SOCIAL, code).valueOf(facts);
+        }
+
+        static BigDecimal comprehensive(BigDecimal[] dims, DimensionWeights weights, String countyCode, Integer year) {
+            BigDecimal weighted = BigDecimal.ZERO;
+            BigDecimal total = BigDecimal.ZERO;
+            for (RiskDimension dimension : RiskDimension.values()) {
+                weighted = weighted.add(dims[dimension.ordinal()].multiply(weights.get(dimension)));
+                total = total.add(weights.get(dimension));
+            }
+            BigDecimal baseScore = weighted.divide(total, 2, RoundingMode.HALF_UP);
+
+            int baseYear = 2000;
+            double yearTrend = (baseYear - year) * 0.05;
+            int hash = Math.abs((countyCode + String.valueOf(year)).hashCode());
+            double perturbation = (hash % 1001) / 100.0 - 5.0;
+
+            BigDecimal comprehensiveScore = baseScore
+                    .add(BigDecimal.valueOf(yearTrend))
+                    .add(BigDecimal.valueOf(perturbation));
+            if (comprehensiveScore.compareTo(BigDecimal.ZERO) > 0) {
+                comprehensiveScore = comprehensiveScore.multiply(BigDecimal.valueOf(0.7));
+            }
+            if (comprehensiveScore.compareTo(BigDecimal.ZERO) < 0) {
+                comprehensiveScore = BigDecimal.ZERO;
+            }
+            if (comprehensiveScore.compareTo(BigDecimal.valueOf(100)) > 0) {
+                comprehensiveScore = BigDecimal.valueOf(100);
+            }
+            return comprehensiveScore;
+        }
+    }
+}
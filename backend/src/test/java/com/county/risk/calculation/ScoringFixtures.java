@@ -0,0 +1,137 @@
+package com.county.risk.calculation;
+
+import com.county.risk.entity.EconomicAggregate;
+import com.county.risk.entity.EducationHealth;
+import com.county.risk.entity.EnvironmentCulture;
+import com.county.risk.entity.FiscalFinance;
+import com.county.risk.entity.InvestmentConsumption;
+import com.county.risk.entity.PopulationStatistics;
+import com.county.risk.entity.RiskIndicator;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 计分测试共用的指标配置与县域源数据
+ */
+final class ScoringFixtures {
+
+    private ScoringFixtures() {
+    }
+
+    /**
+     * 与 schema.sql 初始数据一致的指标配置，另加三个有内置取值的指标，使每个内置取值都参与计分
+     */
+    static List<RiskIndicator> defaultIndicators() {
+        List<RiskIndicator> list = new ArrayList<>();
+        list.add(indicator(1, "GDP_GROWTH", RiskDimension.ECONOMIC, "0.15", "0.8", "0.6", "0.4", "LT"));
+        list.add(indicator(2, "GDP_PER_CAPITA", RiskDimension.ECONOMIC, "0.10", "0.7", "0.5", "0.3", "LT"));
+        list.add(indicator(3, "FISCAL_SELF_SUFFICIENCY", RiskDimension.ECONOMIC, "0.12", "0.8", "0.6", "0.4", "LT"));
+        list.add(indicator(4, "DEBT_RATIO", RiskDimension.ECONOMIC, "0.10", "0.9", "0.7", "0.5", "GT"));
+        list.add(indicator(5, "POPULATION_DECLINE", RiskDimension.SOCIAL, "0.08", "0.8", "0.6", "0.4", "GT"));
+        list.add(indicator(6, "EMPLOYMENT_RATE", RiskDimension.SOCIAL, "0.10", "0.8", "0.6", "0.4", "LT"));
+        list.add(indicator(7, "INCOME_GAP", RiskDimension.SOCIAL, "0.06", "0.7", "0.5", "0.3", "GT"));
+        list.add(indicator(8, "AIR_QUALITY", RiskDimension.ENVIRONMENT, "0.08", "0.8", "0.6", "0.4", "GT"));
+        list.add(indicator(9, "EMISSION_INTENSITY", RiskDimension.ENVIRONMENT, "0.07", "0.9", "0.7", "0.5", "GT"));
+        list.add(indicator(10, "EDUCATION_INVESTMENT", RiskDimension.GOVERNANCE, "0.05", "0.6", "0.4", "0.2", "LT"));
+        list.add(indicator(11, "HEALTH_INVESTMENT", RiskDimension.GOVERNANCE, "0.05", "0.6", "0.4", "0.2", "LT"));
+        list.add(indicator(12, "INNOVATION_CAPACITY", RiskDimension.DEVELOPMENT, "0.04", "0.7", "0.5", "0.3", "LT"));
+        list.add(indicator(13, "GREEN_COVERAGE_RATE", RiskDimension.ENVIRONMENT, "0.05", "20", "30", "40", "LT"));
+        list.add(indicator(14, "INVESTMENT_EFFICIENCY", RiskDimension.DEVELOPMENT, "0.06", "0.3", "0.5", "0.7", "LT"));
+        list.add(indicator(15, "CONSUMPTION_RATE", RiskDimension.DEVELOPMENT, "0.05", "30", "40", "50", "LT"));
+        return list;
+    }
+
+    static RiskIndicator indicator(int id, String code, RiskDimension dimension, String weight,
+                                   String high, String medium, String low, String operator) {
+        RiskIndicator indicator = new RiskIndicator();
+        indicator.setIndicatorId(id);
+        indicator.setIndicatorCode(code);
+        indicator.setIndicatorName(code);
+        indicator.setCategory(dimension.getCategory());
+        indicator.setWeight(weight != null ? new BigDecimal(weight) : null);
+        indicator.setThresholdHigh(high != null ? new BigDecimal(high) : null);
+        indicator.setThresholdMedium(medium != null ? new BigDecimal(medium) : null);
+        indicator.setThresholdLow(low != null ? new BigDecimal(low) : null);
+        indicator.setComparisonOperator(operator);
+        indicator.setStatus("启用");
+        return indicator;
+    }
+
+    static Map<String, List<RiskIndicator>> byCategory(List<RiskIndicator> indicators) {
+        Map<String, List<RiskIndicator>> grouped = new LinkedHashMap<>();
+        for (RiskIndicator indicator : indicators) {
+            grouped.computeIfAbsent(indicator.getCategory(), c -> new ArrayList<>()).add(indicator);
+        }
+        return grouped;
+    }
+
+    static DimensionWeights weights(String economic, String social, String environment, String governance,
+                                    String development) {
+        Map<RiskDimension, BigDecimal> weights = new EnumMap<>(RiskDimension.class);
+        weights.put(RiskDimension.ECONOMIC, new BigDecimal(economic));
+        weights.put(RiskDimension.SOCIAL, new BigDecimal(social));
+        weights.put(RiskDimension.ENVIRONMENT, new BigDecimal(environment));
+        weights.put(RiskDimension.GOVERNANCE, new BigDecimal(governance));
+        weights.put(RiskDimension.DEVELOPMENT, new BigDecimal(development));
+        return DimensionWeights.of(weights);
+    }
+
+    /**
+     * 六张源数据表齐全的县域（与从数据库加载的行一样带县域代码与年份）
+     */
+    static CountyYearFacts fullCounty(String countyCode, int year) {
+        CountyYearFacts facts = new CountyYearFacts(countyCode, year);
+
+        EconomicAggregate economic = new EconomicAggregate();
+        economic.setCountyCode(countyCode);
+        economic.setYear(year);
+        economic.setGdp万元(1_250_000L);
+        economic.setGdpPerCapita(new BigDecimal("42000.50"));
+        economic.setGdpGrowthRate(new BigDecimal("0.55"));
+        facts.setEconomic(economic);
+
+        FiscalFinance fiscal = new FiscalFinance();
+        fiscal.setCountyCode(countyCode);
+        fiscal.setYear(year);
+        fiscal.setFiscalRevenue万元(80_000L);
+        fiscal.setFiscalExpenditure万元(240_000L);
+        fiscal.setFiscalSelfSufficiency(new BigDecimal("0.3333"));
+        fiscal.setDebtToRevenueRatio(new BigDecimal("0.75"));
+        facts.setFiscal(fiscal);
+
+        PopulationStatistics population = new PopulationStatistics();
+        population.setCountyCode(countyCode);
+        population.setYear(year);
+        population.setTotalPopulation万(new BigDecimal("35.6"));
+        population.setUrbanizationRate(new BigDecimal("48.2"));
+        facts.setPopulation(population);
+
+        EnvironmentCulture environment = new EnvironmentCulture();
+        environment.setCountyCode(countyCode);
+        environment.setYear(year);
+        environment.setAirQualityIndex(new BigDecimal("0.62"));
+        environment.setGreenCoverageRate(new BigDecimal("35.5"));
+        environment.setEmissionIntensity(new BigDecimal("0.95"));
+        facts.setEnvironment(environment);
+
+        EducationHealth educationHealth = new EducationHealth();
+        educationHealth.setCountyCode(countyCode);
+        educationHealth.setYear(year);
+        educationHealth.setEducationInvestment万元(1_200L);
+        educationHealth.setHealthInvestment万元(400L);
+        facts.setEducationHealth(educationHealth);
+
+        InvestmentConsumption investment = new InvestmentConsumption();
+        investment.setCountyCode(countyCode);
+        investment.setYear(year);
+        investment.setInvestmentEfficiency(new BigDecimal("0.45"));
+        investment.setConsumptionRate(new BigDecimal("38.0"));
+        facts.setInvestment(investment);
+        return facts;
+    }
+}
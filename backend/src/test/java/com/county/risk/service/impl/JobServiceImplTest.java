@@ -0,0 +1,112 @@
+package com.county.risk.service.impl;
+
+import com.county.risk.calculation.CalculationMode;
+import com.county.risk.calculation.CalculationProgress;
+import com.county.risk.common.Result;
+import com.county.risk.controller.RiskIndicatorController;
+import com.county.risk.job.JobTypes;
+import com.county.risk.service.CalculationLedgerService;
+import com.county.risk.service.RiskCalculationService;
+import com.county.risk.service.RiskConfigService;
+import com.county.risk.service.RiskIndicatorService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 风险计算任务互斥：计算模式不参与去重，同一时间只有一个风险计算任务排队或运行
+ */
+class JobServiceImplTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private JobServiceImpl jobService;
+    private RiskIndicatorController controller;
+
+    @BeforeEach
+    void setUp() {
+        jobService = new JobServiceImpl(2, 16, 100);
+        RiskCalculationService calculationService = mock(RiskCalculationService.class);
+        doAnswer(inv -> release.await(10, TimeUnit.SECONDS))
+                .when(calculationService).calculateAllYears(any(CalculationProgress.class), eq(CalculationMode.STREAMING));
+        controller = new RiskIndicatorController(mock(RiskIndicatorService.class), calculationService, jobService,
+                mock(RiskConfigService.class), mock(CalculationLedgerService.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        // 等任务自然结束再关闭线程池，避免中断正在退出的任务
+        jobService.listJobs().forEach(job -> {
+            try {
+                jobService.awaitResult(job.getJobId());
+            } catch (IllegalStateException ignored) {
+                // 失败或取消的任务同样已结束
+            }
+        });
+        jobService.shutdown();
+    }
+
+    @Test
+    void streamingFullHistoryAndScheduledFullHistoryShareJob() {
+        Result<String> streaming = controller.calculateRisk(null, "streaming", null, null, null, null, null, "ADMIN");
+        assertEquals(200, streaming.getCode(), streaming.getMessage());
+
+        // 定期计算、配置修改后的重算与启动参数触发的计算提交的全历史任务
+        assertEquals(streaming.getData(), submitAllYears());
+        assertEquals(streaming.getData(), controller.calculateRisk(null, null, null, null, null, null, null, "ADMIN").getData());
+    }
+
+    @Test
+    void otherCalculationsAreRejectedWhileOneIsActive() {
+        String allYears = controller.calculateRisk(null, "streaming", null, null, null, null, null, "ADMIN").getData();
+
+        Result<String> year = controller.calculateRisk(2020, null, null, null, null, null, null, "ADMIN");
+        assertEquals(500, year.getCode());
+        assertTrue(year.getMessage().contains(allYears), year.getMessage());
+        Result<String> scoped = controller.calculateRisk(null, null, null, null, List.of("110101"), null, null, "ADMIN");
+        assertEquals(500, scoped.getCode());
+
+        // 其他类型的任务不受影响
+        Map<String, Object> params = new HashMap<>();
+        params.put("year", 2020);
+        assertNotEquals(allYears, jobService.submit(JobTypes.ALERT_CHECK, params, context -> 0));
+
+        release.countDown();
+        jobService.awaitResult(allYears);
+        assertNotEquals(allYears, controller.calculateRisk(2020, null, null, null, null, null, null, "ADMIN").getData());
+    }
+
+    @Test
+    void rejectedSubmissionIsReported() {
+        submitAllYears();
+        Map<String, Object> params = new HashMap<>();
+        params.put("year", 2020);
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> jobService.submit(JobTypes.RISK_CALCULATION, params, context -> null));
+        assertTrue(e.getMessage().contains("请等待其结束后再提交"), e.getMessage());
+    }
+
+    private String submitAllYears() {
+        Map<String, Object> params = new HashMap<>();
+        params.put("year", null);
+        return jobService.submit(JobTypes.RISK_CALCULATION, params, context -> {
+            release.await(10, TimeUnit.SECONDS);
+            return null;
+        });
+    }
+}
@@ -0,0 +1,158 @@
+package com.county.risk.calculation;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 列式向量计分内核（Java Vector API，需 --add-modules jdk.incubator.vector）
+ *
+ * 一批县域年份按指标取值成列，整列与高/中/低阈值比较得到单项得分，再按权重累加到维度得分列。
+ * 取值缺失（NaN）的通道通过掩码按 20 分计；维度源数据缺失的通道最后统一替换为维度默认分。
+ * 逐通道的运算顺序与 {@link RiskScoringKernel} 相同（先乘后加、按指标顺序累加），结果与标量内核逐位一致；
+ * 综合得分中的年份趋势与县域扰动不适合向量化，仍逐县调用标量实现。
+ *
+ * 本类位于 src/vector/java，只在 vector-kernel 构建配置（mvn -P vector-kernel）下编译；
+ * 由 {@link ScoringKernelSelector} 在启用向量内核后反射加载，默认构建与未添加 incubator 模块的 JVM 中不会被引用。
+ */
+final class VectorScoringKernel {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final double MAX_SCORE = 100.0;
+    private static final double MISSING_VALUE_SCORE = 20.0;
+
+    private VectorScoringKernel() {
+    }
+
+    /**
+     * 向量通道数，同时用于加载时检查 incubator 模块是否可用
+     */
+    static int lanes() {
+        return SPECIES.length();
+    }
+
+    /**
+     * 计算一批县域年份，结果与输入一一对应
+     *
+     * @param recordItems 是否记录每个启用指标的取值与单项得分
+     */
+    static List<CountyScore> score(List<CountyYearFacts> batch, ScoringPlan plan, boolean recordItems) {
+        int n = batch.size();
+        // 列长度补齐到通道数的整数倍，尾部通道的结果不使用
+        int padded = (n + SPECIES.length() - 1) / SPECIES.length() * SPECIES.length();
+        RiskDimension[] dimensions = RiskDimension.values();
+        double[][] dims = new double[dimensions.length][padded];
+        double[] values = new double[padded];
+        double[] items = new double[padded];
+        boolean[] hasData = new boolean[padded];
+
+        IndicatorBreakdown[] breakdowns = null;
+        if (recordItems) {
+            breakdowns = new IndicatorBreakdown[n];
+            for (int i = 0; i < n; i++) {
+                breakdowns[i] = new IndicatorBreakdown(plan.getIndicatorCount());
+            }
+        }
+
+        for (RiskDimension dimension : dimensions) {
+            double[] column = dims[dimension.ordinal()];
+            CompiledIndicator[] indicators = plan.indicators(dimension);
+            if (indicators.length == 0) {
+                Arrays.fill(column, RiskDimension.NO_INDICATOR_SCORE);
+                continue;
+            }
+            for (int i = 0; i < n; i++) {
+                hasData[i] = dimension.hasData(batch.get(i));
+            }
+            for (CompiledIndicator indicator : indicators) {
+                for (int i = 0; i < n; i++) {
+                    values[i] = hasData[i] ? indicator.valueOf(batch.get(i)) : Double.NaN;
+                }
+                classify(indicator, values, items, padded);
+                accumulate(column, items, indicator.getWeightValue(), padded);
+                if (breakdowns != null) {
+                    for (int i = 0; i < n; i++) {
+                        breakdowns[i].add(indicator, values[i],
+                                hasData[i] ? (int) items[i] : IndicatorBreakdown.NOT_SCORED);
+                    }
+                }
+            }
+            finishDimension(column, hasData, dimension.getMissingDataScore(), padded);
+        }
+
+        DimensionWeights weights = plan.getDimensionWeights();
+        List<CountyScore> scores = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            CountyYearFacts facts = batch.get(i);
+            double[] row = new double[dimensions.length];
+            for (int d = 0; d < dimensions.length; d++) {
+                row[d] = dims[d][i];
+            }
+            double comprehensive = RiskScoringKernel.comprehensiveScore(row, weights, facts.getCountyCode(), facts.getYear());
+            CountyScore score = new CountyScore(facts.getCountyCode(), facts.getYear(), row, comprehensive);
+            score.setBreakdown(breakdowns != null ? breakdowns[i] : null);
+            scores.add(score);
+        }
+        return scores;
+    }
+
+    /**
+     * 整列阈值分级：按 低 → 中 → 高 的顺序覆盖，与标量的 高 → 中 → 低 判断链等价；取值缺失的通道记 20 分
+     */
+    static void classify(CompiledIndicator indicator, double[] values, double[] items, int length) {
+        double high = indicator.getHigh();
+        double medium = indicator.getMedium();
+        double low = indicator.getLow();
+        // 比较运算符须为常量才能被 JIT 编译为向量指令，两个方向分开写
+        if (indicator.isHigherIsRiskier()) {
+            for (int i = 0; i < length; i += SPECIES.length()) {
+                DoubleVector v = DoubleVector.fromArray(SPECIES, values, i);
+                DoubleVector.broadcast(SPECIES, 20.0)
+                        .blend(60.0, v.compare(VectorOperators.GT, low))
+                        .blend(80.0, v.compare(VectorOperators.GT, medium))
+                        .blend(100.0, v.compare(VectorOperators.GT, high))
+                        .blend(MISSING_VALUE_SCORE, v.test(VectorOperators.IS_NAN))
+                        .intoArray(items, i);
+            }
+        } else {
+            for (int i = 0; i < length; i += SPECIES.length()) {
+                DoubleVector v = DoubleVector.fromArray(SPECIES, values, i);
+                DoubleVector.broadcast(SPECIES, 20.0)
+                        .blend(60.0, v.compare(VectorOperators.LT, low))
+                        .blend(80.0, v.compare(VectorOperators.LT, medium))
+                        .blend(100.0, v.compare(VectorOperators.LT, high))
+                        .blend(MISSING_VALUE_SCORE, v.test(VectorOperators.IS_NAN))
+                        .intoArray(items, i);
+            }
+        }
+    }
+
+    /**
+     * 维度得分列 += 单项得分列 × 指标权重（先乘后加，不使用 FMA，保持与标量结果一致）
+     */
+    private static void accumulate(double[] column, double[] items, double weight, int length) {
+        for (int i = 0; i < length; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, column, i)
+                    .add(DoubleVector.fromArray(SPECIES, items, i).mul(weight))
+                    .intoArray(column, i);
+        }
+    }
+
+    /**
+     * 维度得分上限 100；维度源数据缺失的通道取维度默认分
+     */
+    private static void finishDimension(double[] column, boolean[] hasData, double missingDataScore, int length) {
+        for (int i = 0; i < length; i += SPECIES.length()) {
+            VectorMask<Double> present = VectorMask.fromArray(SPECIES, hasData, i);
+            DoubleVector.fromArray(SPECIES, column, i)
+                    .min(MAX_SCORE)
+                    .blend(missingDataScore, present.not())
+                    .intoArray(column, i);
+        }
+    }
+}
@@ -0,0 +1,295 @@
+-- ========================================
+-- 风险计算引擎升级脚本
+-- 在已有数据库上执行，补齐 schema.sql 第 16 节新增的表与触发器
+-- ========================================
+
+USE county_risk_warning_system;
+
+-- 16.1 风险计算输入变更日志
+-- 六张计算源表的增删改由触发器记录 (county_code, year)；risk_indicators 变更记录为 county_code/year 均为空的全量标记
+-- 增量计算只重算日志中出现的县域年份，成功后删除已处理的日志
+CREATE TABLE IF NOT EXISTS risk_input_changes (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    source_table VARCHAR(64) NOT NULL COMMENT '变更来源表',
+    county_code VARCHAR(10) COMMENT '县代码，为空表示影响全部县域',
+    year YEAR COMMENT '年份，为空表示影响全部年份',
+    changed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_county_year (county_code, year)
+) ENGINE=InnoDB COMMENT='风险计算输入变更日志';
+
+DROP TRIGGER IF EXISTS trg_economic_aggregate_ai;
+CREATE TRIGGER trg_economic_aggregate_ai AFTER INSERT ON economic_aggregate FOR EACH ROW
+    INSERT INTO risk_input_changes (source_table, county_code, year) VALUES ('economic_aggregate', NEW.county_code, NEW.year);
+DROP TRIGGER IF EXISTS trg_economic_aggregate_au;
+CREATE TRIGGER trg_economic_aggregate_au AFTER UPDATE ON economic_aggregate FOR EACH ROW
+    INSERT INTO risk_input_changes (source_table, county_code, year)
+    VALUES ('economic_aggregate', OLD.county_code, OLD.year), ('economic_aggregate', NEW.county_code, NEW.year);
+DROP TRIGGER IF EXISTS trg_economic_aggregate_ad;
+CREATE TRIGGER trg_economic_aggregate_ad AFTER DELETE ON economic_aggregate FOR EACH ROW
+    INSERT INTO risk_input_changes (source_table, county_code, year) VALUES ('economic_aggregate', OLD.county_code, OLD.year);
+
+DROP TRIGGER IF EXISTS trg_fiscal_finance_ai;
+CREATE TRIGGER trg_fiscal_finance_ai AFTER INSERT ON fiscal_finance FOR EACH ROW
+    INSERT INTO risk_input_changes (source_table, county_code, year) VALUES ('fiscal_finance', NEW.county_code, NEW.year);
+DROP TRIGGER IF EXISTS trg_fiscal_finance_au;
+CREATE TRIGGER trg_fiscal_finance_au AFTER UPDATE ON fiscal_finance FOR EACH ROW
+    INSERT INTO risk_input_changes (source_table, county_code, year)
+    VALUES ('fiscal_finance', OLD.county_code, OLD.year), ('fiscal_finance', NEW.county_code, NEW.year);
+DROP TRIGGER IF EXISTS trg_fiscal_finance_ad;
+CREATE TRIGGER trg_fiscal_finance_ad AFTER DELETE ON fiscal_finance FOR EACH ROW
+    INSERT INTO risk_input_changes (source_table, county_code, year) VALUES ('fiscal_finance', OLD.county_code, OLD.year);
+
+DROP TRIGGER IF EXISTS trg_population_statistics_ai;
+CREATE TRIGGER trg_population_statistics_ai AFTER INSERT ON population_statistics FOR EACH ROW
+    INSERT INTO risk_input_changes (source_table, county_code, year) VALUES ('population_statistics', NEW.county_code, NEW.year);
+DROP TRIGGER IF EXISTS trg_population_statistics_au;
+CREATE TRIGGER trg_population_statistics_au AFTER UPDATE ON population_statistics FOR EACH ROW
+    INSERT INTO risk_input_changes (source_table, county_code, year)
+    VALUES ('population_statistics', OLD.county_code, OLD.year), ('population_statistics', NEW.county_code, NEW.year);
+DROP TRIGGER IF EXISTS trg_population_statistics_ad;
+CREATE TRIGGER trg_population_statistics_ad AFTER DELETE ON population_statistics FOR EACH ROW
+    INSERT INTO risk_input_changes (source_table, county_code, year) VALUES ('population_statistics', OLD.county_code, OLD.year);
+
+DROP TRIGGER IF EXISTS trg_environment_culture_ai;
+CREATE TRIGGER trg_environment_culture_ai AFTER INSERT ON environment_culture FOR EACH ROW
+    INSERT INTO risk_input_changes (source_table, county_code, year) VALUES ('environment_culture', NEW.county_code, NEW.year);
+DROP TRIGGER IF EXISTS trg_environment_culture_au;
+CREATE TRIGGER trg_environment_culture_au AFTER UPDATE ON environment_culture FOR EACH ROW
+    INSERT INTO risk_input_changes (source_table, county_code, year)
+    VALUES ('environment_culture', OLD.county_code, OLD.year), ('environment_culture', NEW.county_code, NEW.year);
+DROP TRIGGER IF EXISTS trg_environment_culture_ad;
+CREATE TRIGGER trg_environment_culture_ad AFTER DELETE ON environment_culture FOR EACH ROW
+    INSERT INTO risk_input_changes (source_table, county_code, year) VALUES ('environment_culture', OLD.county_code, OLD.year);
+
+DROP TRIGGER IF EXISTS trg_education_health_ai;
+CREATE TRIGGER trg_education_health_ai AFTER INSERT ON education_health FOR EACH ROW
+    INSERT INTO risk_input_changes (source_table, county_code, year) VALUES ('education_health', NEW.county_code, NEW.year);
+DROP TRIGGER IF EXISTS trg_education_health_au;
+CREATE TRIGGER trg_education_health_au AFTER UPDATE ON education_health FOR EACH ROW
+    INSERT INTO risk_input_changes (source_table, county_code, year)
+    VALUES ('education_health', OLD.county_code, OLD.year), ('education_health', NEW.county_code, NEW.year);
+DROP TRIGGER IF EXISTS trg_education_health_ad;
+CREATE TRIGGER trg_education_health_ad AFTER DELETE ON education_health FOR EACH ROW
+    INSERT INTO risk_input_changes (source_table, county_code, year) VALUES ('education_health', OLD.county_code, OLD.year);
+
+DROP TRIGGER IF EXISTS trg_investment_consumption_ai;
+CREATE TRIGGER trg_investment_consumption_ai AFTER INSERT ON investment_consumption FOR EACH ROW
+    INSERT INTO risk_input_changes (source_table, county_code, year) VALUES ('investment_consumption', NEW.county_code, NEW.year);
+DROP TRIGGER IF EXISTS trg_investment_consumption_au;
+CREATE TRIGGER trg_investment_consumption_au AFTER UPDATE ON investment_consumption FOR EACH ROW
+    INSERT INTO risk_input_changes (source_table, county_code, year)
+    VALUES ('investment_consumption', OLD.county_code, OLD.year), ('investment_consumption', NEW.county_code, NEW.year);
+DROP TRIGGER IF EXISTS trg_investment_consumption_ad;
+CREATE TRIGGER trg_investment_consumption_ad AFTER DELETE ON investment_consumption FOR EACH ROW
+    INSERT INTO risk_input_changes (source_table, county_code, year) VALUES ('investment_consumption', OLD.county_code, OLD.year);
+
+DROP TRIGGER IF EXISTS trg_risk_indicators_ai;
+CREATE TRIGGER trg_risk_indicators_ai AFTER INSERT ON risk_indicators FOR EACH ROW
+    INSERT INTO risk_input_changes (source_table) VALUES ('risk_indicators');
+
+DROP TRIGGER IF EXISTS trg_risk_indicators_au;
+CREATE TRIGGER trg_risk_indicators_au AFTER UPDATE ON risk_indicators FOR EACH ROW
+    INSERT INTO risk_input_changes (source_table) VALUES ('risk_indicators');
+
+DROP TRIGGER IF EXISTS trg_risk_indicators_ad;
+CREATE TRIGGER trg_risk_indicators_ad AFTER DELETE ON risk_indicators FOR EACH ROW
+    INSERT INTO risk_input_changes (source_table) VALUES ('risk_indicators');
+
+-- 16.3 风险等级分界点记录
+-- 按分位数模式整年计算时记录各年份使用的分界点，增量计算与单县计算沿用该年最近一次记录
+CREATE TABLE IF NOT EXISTS risk_level_cut_points (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    year YEAR NOT NULL,
+    level_mode VARCHAR(20) NOT NULL COMMENT '划分模式: fixed/quantile',
+    quantiles VARCHAR(100) COMMENT '中低/中/中高/高风险下界分位',
+    cut_high DECIMAL(8,4) NOT NULL COMMENT '高风险分界点',
+    cut_medium_high DECIMAL(8,4) NOT NULL COMMENT '中高风险分界点',
+    cut_medium DECIMAL(8,4) NOT NULL COMMENT '中风险分界点',
+    cut_medium_low DECIMAL(8,4) NOT NULL COMMENT '中低风险分界点',
+    sample_count BIGINT COMMENT '参与计算的县域数',
+    config_version VARCHAR(20) COMMENT '指标配置版本',
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_year (year)
+) ENGINE=InnoDB COMMENT='风险等级分界点记录';
+
+-- 13.2 单项指标得分表补充加权贡献列（schema.sql 已包含该列，列已存在时跳过，脚本可重复执行）
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.COLUMNS
+               WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'risk_scores'
+                 AND COLUMN_NAME = 'weighted_contribution') = 0,
+    'ALTER TABLE risk_scores ADD COLUMN weighted_contribution DECIMAL(10,4) COMMENT ''加权贡献(单项得分×权重)'' AFTER risk_score',
+    'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- 16.4 维度权重变更触发器
+-- DEFAULT_RISK_WEIGHTS 影响所有县域的综合得分，变更时记录为配置变更，下次计算全量重算
+DROP TRIGGER IF EXISTS trg_system_configs_au;
+CREATE TRIGGER trg_system_configs_au AFTER UPDATE ON system_configs FOR EACH ROW
+    INSERT INTO risk_input_changes (source_table)
+    SELECT 'system_configs' FROM DUAL
+    WHERE NEW.config_key = 'DEFAULT_RISK_WEIGHTS' AND NOT (NEW.config_value <=> OLD.config_value);
+
+-- 16.5 风险计算运行记录
+-- 多节点分片计算时由发起节点创建，coordinator_heartbeat_at 由发起节点定期刷新；心跳过期的运行其他节点不再领取分片
+-- 全历史计算（ALL_YEARS）同时作为检查点：未成功结束的运行在下次计算时由同配置版本的运行接管，已完成的分片不再重算
+CREATE TABLE IF NOT EXISTS risk_calculation_runs (
+    run_id VARCHAR(64) PRIMARY KEY COMMENT '运行ID',
+    run_type VARCHAR(20) NOT NULL COMMENT '运行类型: ALL_YEARS/YEAR',
+    status VARCHAR(20) NOT NULL DEFAULT 'RUNNING' COMMENT '状态: RUNNING/SUCCEEDED/FAILED/CANCELLED/ABANDONED',
+    coordinator_node VARCHAR(128) NOT NULL COMMENT '发起节点',
+    config_version VARCHAR(32) COMMENT '指标配置版本',
+    years VARCHAR(1000) COMMENT '计算年份，逗号分隔',
+    total_shards INT NOT NULL DEFAULT 0 COMMENT '分片数',
+    coordinator_heartbeat_at DATETIME COMMENT '发起节点最近心跳时间',
+    created_at DATETIME DEFAULT CURRENT_TIMESTAMP,
+    finished_at DATETIME COMMENT '结束时间',
+    INDEX idx_status (status),
+    INDEX idx_type_status (run_type, status)
+) ENGINE=InnoDB COMMENT='风险计算运行记录';
+
+-- 16.6 风险计算分片
+-- 每个分片为一个 (省份, 年份)，各节点通过租约领取：领取时写入 lease_token 与 lease_until，处理期间定期续约；
+-- 租约过期的 RUNNING 分片视为节点失联，可被其他节点重新领取；
+-- 单节点全历史计算以整年为检查点单元（province_name = '*'），在该年结果写入后直接记为 DONE
+CREATE TABLE IF NOT EXISTS risk_calculation_shards (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    run_id VARCHAR(64) NOT NULL COMMENT '运行ID',
+    province_name VARCHAR(100) NOT NULL DEFAULT '' COMMENT '省份名称，空字符串表示未填写省份的县域，* 表示整年检查点',
+    year YEAR NOT NULL COMMENT '年份',
+    county_count INT NOT NULL DEFAULT 0 COMMENT '分片内县域数',
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING' COMMENT '状态: PENDING/RUNNING/DONE/FAILED',
+    owner_node VARCHAR(128) COMMENT '当前持有租约的节点',
+    lease_token VARCHAR(64) COMMENT '租约令牌，每次领取重新生成',
+    lease_until DATETIME COMMENT '租约到期时间（数据库时间）',
+    attempts INT NOT NULL DEFAULT 0 COMMENT '领取次数',
+    failed_count INT NOT NULL DEFAULT 0 COMMENT '计算失败的县域数',
+    error_message VARCHAR(1000) COMMENT '最近一次失败原因',
+    started_at DATETIME COMMENT '最近一次领取时间',
+    finished_at DATETIME COMMENT '完成时间',
+    UNIQUE KEY uk_run_province_year (run_id, province_name, year),
+    UNIQUE KEY uk_lease_token (lease_token),
+    INDEX idx_run_status (run_id, status)
+) ENGINE=InnoDB COMMENT='风险计算分片';
+
+-- 13.1 风险指标定义表补充取值公式列（schema.sql 已包含该列，列已存在时跳过，脚本可重复执行）
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.COLUMNS
+               WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'risk_indicators'
+                 AND COLUMN_NAME = 'formula') = 0,
+    'ALTER TABLE risk_indicators ADD COLUMN formula VARCHAR(500) COMMENT ''取值公式，引用源数据表列，如 education_health.education_investment_万元 / fiscal_finance.fiscal_expenditure_万元 * 100；为空时使用内置取值'' AFTER calculation_method',
+    'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- 16.7 风险计算台账
+-- 每次计算运行（全历史、单年、范围重算、方案计算）一行，记录范围、配置版本、计算数量与分阶段耗时，用于比较各次运行的性能
+-- 各阶段耗时为发起线程等待该阶段的墙钟时间，多线程并行部分只计一次；分片计算只包含发起节点自己处理的分片
+CREATE TABLE IF NOT EXISTS risk_calculation_ledger (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    run_type VARCHAR(20) NOT NULL COMMENT '运行类型: ALL_YEARS/YEAR/SCOPE/PROFILES/UNCERTAINTY',
+    scope VARCHAR(500) COMMENT '计算范围',
+    status VARCHAR(20) NOT NULL DEFAULT 'RUNNING' COMMENT '状态: RUNNING/SUCCEEDED/FAILED/CANCELLED',
+    node_id VARCHAR(128) COMMENT '执行节点',
+    calculation_mode VARCHAR(20) COMMENT '读取方式: SNAPSHOT/STREAMING/SHARDED',
+    kernel VARCHAR(20) COMMENT '计分内核: scalar/vector',
+    config_version VARCHAR(32) COMMENT '指标配置版本',
+    years VARCHAR(1000) COMMENT '计算年份，逗号分隔',
+    scored_count INT NOT NULL DEFAULT 0 COMMENT '计算成功的县域年份数',
+    failed_count INT NOT NULL DEFAULT 0 COMMENT '计算失败的县域年份数',
+    wall_ms BIGINT COMMENT '总耗时（毫秒）',
+    read_ms BIGINT COMMENT '读取源数据耗时',
+    compute_ms BIGINT COMMENT '计分耗时',
+    write_ms BIGINT COMMENT '写入结果耗时',
+    level_ms BIGINT COMMENT '风险等级与趋势划分耗时',
+    rows_per_second DECIMAL(12,1) COMMENT '每秒计算并写入的县域年份数',
+    error_message VARCHAR(500) COMMENT '失败原因',
+    started_at DATETIME NOT NULL COMMENT '开始时间',
+    finished_at DATETIME COMMENT '结束时间',
+    INDEX idx_started (started_at),
+    INDEX idx_type_started (run_type, started_at)
+) ENGINE=InnoDB COMMENT='风险计算台账';
+
+-- 16.8 指标配置方案
+-- 命名的指标配置（如"政策A"、"政策B"），同一 profile_code 每次保存生成新版本，已保存的版本不再修改；
+-- dimension_weights 为保存时的维度权重快照（未指定时取当时的 system_configs.DEFAULT_RISK_WEIGHTS）
+CREATE TABLE IF NOT EXISTS risk_indicator_profiles (
+    profile_id INT AUTO_INCREMENT PRIMARY KEY,
+    profile_code VARCHAR(50) NOT NULL COMMENT '方案代码',
+    version INT NOT NULL COMMENT '方案版本，从 1 开始',
+    profile_name VARCHAR(200) NOT NULL COMMENT '方案名称',
+    description VARCHAR(500) COMMENT '说明',
+    dimension_weights VARCHAR(500) COMMENT '维度权重 JSON，如 {"economic":0.35,...}',
+    config_version VARCHAR(32) COMMENT '保存时编译的计分计划配置版本',
+    created_at DATETIME DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE KEY uk_code_version (profile_code, version)
+) ENGINE=InnoDB COMMENT='指标配置方案';
+
+-- 早期保存、未记录维度权重的版本按当前 DEFAULT_RISK_WEIGHTS（即这些版本现在计算使用的权重）补齐，之后不再随系统配置变化
+UPDATE risk_indicator_profiles p
+JOIN system_configs c ON c.config_key = 'DEFAULT_RISK_WEIGHTS' AND JSON_VALID(c.config_value)
+SET p.dimension_weights = c.config_value
+WHERE p.dimension_weights IS NULL;
+
+-- 16.9 指标配置方案明细
+-- 方案保存时的全部指标配置（含停用），指标的代码、名称与类别取自 risk_indicators
+CREATE TABLE IF NOT EXISTS risk_indicator_profile_items (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    profile_id INT NOT NULL COMMENT '方案ID',
+    indicator_id INT NOT NULL COMMENT '指标ID',
+    weight DECIMAL(5,4) DEFAULT 0.0000,
+    threshold_high DECIMAL(8,4) COMMENT '高风险阈值',
+    threshold_medium DECIMAL(8,4) COMMENT '中风险阈值',
+    threshold_low DECIMAL(8,4) COMMENT '低风险阈值',
+    comparison_operator ENUM('GT', 'LT') DEFAULT 'LT' COMMENT '比较操作符',
+    formula VARCHAR(500) COMMENT '取值公式，为空时使用内置取值',
+    status ENUM('启用', '停用') DEFAULT '启用',
+    UNIQUE KEY uk_profile_indicator (profile_id, indicator_id)
+) ENGINE=InnoDB COMMENT='指标配置方案明细';
+
+-- 16.10 方案评估结果
+-- 按方案版本分别保存的综合评估结果，与 comprehensive_risk_assessment 互不影响，用于方案之间逐县对比
+CREATE TABLE IF NOT EXISTS risk_profile_assessments (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    profile_id INT NOT NULL COMMENT '方案ID',
+    county_code VARCHAR(10) NOT NULL,
+    year YEAR NOT NULL,
+    economic_risk_score DECIMAL(8,4),
+    social_risk_score DECIMAL(8,4),
+    environment_risk_score DECIMAL(8,4),
+    governance_risk_score DECIMAL(8,4),
+    development_risk_score DECIMAL(8,4),
+    comprehensive_risk_score DECIMAL(8,4),
+    risk_level VARCHAR(20) COMMENT '风险等级',
+    major_risk_factors VARCHAR(500) COMMENT '主要风险因素',
+    assessment_date DATETIME COMMENT '计算时间',
+    UNIQUE KEY uk_profile_county_year (profile_id, county_code, year),
+    INDEX idx_profile_year (profile_id, year)
+) ENGINE=InnoDB COMMENT='方案评估结果';
+
+-- 16.11 综合得分不确定性
+-- 蒙特卡洛抽样结果：在指标取值上施加相对噪声重复计分，记录每个县域年份综合得分的分位数与各风险等级的概率
+CREATE TABLE IF NOT EXISTS risk_score_uncertainty (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    county_code VARCHAR(10) NOT NULL,
+    year YEAR NOT NULL,
+    trials INT NOT NULL COMMENT '抽样次数',
+    noise_rate DECIMAL(6,4) NOT NULL COMMENT '指标取值的相对噪声幅度',
+    point_score DECIMAL(8,4) COMMENT '不加噪声的综合得分',
+    mean_score DECIMAL(8,4) COMMENT '抽样均值',
+    std_score DECIMAL(8,4) COMMENT '抽样标准差',
+    p05_score DECIMAL(8,4),
+    p25_score DECIMAL(8,4),
+    p50_score DECIMAL(8,4),
+    p75_score DECIMAL(8,4),
+    p95_score DECIMAL(8,4),
+    prob_high DECIMAL(6,4) COMMENT '高风险概率',
+    prob_medium_high DECIMAL(6,4) COMMENT '中高风险概率',
+    prob_medium DECIMAL(6,4) COMMENT '中风险概率',
+    prob_medium_low DECIMAL(6,4) COMMENT '中低风险概率',
+    prob_low DECIMAL(6,4) COMMENT '低风险概率',
+    config_version VARCHAR(32) COMMENT '指标配置版本',
+    calculated_at DATETIME COMMENT '计算时间',
+    UNIQUE KEY uk_county_year (county_code, year),
+    INDEX idx_year (year)
+) ENGINE=InnoDB COMMENT='综合得分不确定性';